@@ -1,7 +1,9 @@
 package com.syneronix.wallet.api.controllers.v1;
 
+import com.syneronix.wallet.api.dto.wallet.BatchTransferRequest;
 import com.syneronix.wallet.api.dto.wallet.CreateWalletRequest;
 import com.syneronix.wallet.api.dto.wallet.DepositRequest;
+import com.syneronix.wallet.api.dto.wallet.TransactionPageResponse;
 import com.syneronix.wallet.api.dto.wallet.TransferRequest;
 import com.syneronix.wallet.api.dto.wallet.WithdrawRequest;
 import com.syneronix.wallet.common.Currency;
@@ -14,15 +16,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class WalletControllerTest extends BaseMockMvcTest {
@@ -255,6 +264,76 @@ class WalletControllerTest extends BaseMockMvcTest {
                 .andExpect(status().isLocked());
     }
 
+    // --- Batch Transfer ---
+
+    @Test
+    void batchTransfer_shouldReturnPerItemResults() throws Exception {
+        WalletEntity sender = createWallet(BigDecimal.valueOf(100));
+        WalletEntity receiver = createWallet(BigDecimal.ZERO);
+
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(List.of(
+                createTransferRequest(sender.getId(), receiver.getId(), BigDecimal.valueOf(60)),
+                createTransferRequest(sender.getId(), receiver.getId(), BigDecimal.valueOf(60)),
+                createTransferRequest(sender.getId(), uuid(), BigDecimal.valueOf(10))
+        ));
+
+        mockMvc.perform(post(BASE_URL + "/transfers:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].http_status").value(200))
+                .andExpect(jsonPath("$.results[0].transaction.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.results[1].http_status").value(422))
+                .andExpect(jsonPath("$.results[2].http_status").value(404));
+
+        mockMvc.perform(get(BASE_URL + "/{id}", sender.getId()))
+                .andExpect(jsonPath("$.balance").value(40.0));
+
+        mockMvc.perform(get(BASE_URL + "/{id}", receiver.getId()))
+                .andExpect(jsonPath("$.balance").value(60.0));
+    }
+
+    @Test
+    void batchTransfer_shouldReplayResults_whenBatchIsRetried() throws Exception {
+        WalletEntity sender = createWallet(BigDecimal.valueOf(100));
+        WalletEntity receiver = createWallet(BigDecimal.ZERO);
+
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(List.of(
+                createTransferRequest(sender.getId(), receiver.getId(), BigDecimal.valueOf(30)),
+                createTransferRequest(sender.getId(), receiver.getId(), BigDecimal.valueOf(500))
+        ));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post(BASE_URL + "/transfers:batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(toJson(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.results[0].http_status").value(200))
+                    .andExpect(jsonPath("$.results[1].http_status").value(422));
+        }
+
+        mockMvc.perform(get(BASE_URL + "/{id}", sender.getId()))
+                .andExpect(jsonPath("$.balance").value(70.0));
+    }
+
+    @Test
+    void batchTransfer_shouldReturnBadRequest_whenRequestIdIsDuplicated() throws Exception {
+        WalletEntity receiver = createWallet(BigDecimal.ZERO);
+        TransferRequest transfer = createTransferRequest(testWallet.getId(), receiver.getId(), BigDecimal.TEN);
+
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(List.of(transfer, transfer));
+
+        mockMvc.perform(post(BASE_URL + "/transfers:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     // --- Get Transactions ---
 
     @Test
@@ -267,6 +346,80 @@ class WalletControllerTest extends BaseMockMvcTest {
                 .andExpect(jsonPath("$", hasSize(2)));
     }
 
+    @Test
+    void getTransactionsPage_shouldReturnCursorUntilLastPage() throws Exception {
+        createTransaction(testWallet, TransactionType.DEPOSIT, BigDecimal.valueOf(100));
+        createTransaction(testWallet, TransactionType.WITHDRAW, BigDecimal.valueOf(50));
+        createTransaction(testWallet, TransactionType.DEPOSIT, BigDecimal.valueOf(10));
+
+        MvcResult first = mockMvc.perform(get(BASE_URL + "/{id}/transactions/page", testWallet.getId())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.has_more").value(true))
+                .andExpect(jsonPath("$.next_cursor", notNullValue()))
+                .andReturn();
+        String cursor = fromJson(first.getResponse().getContentAsString(), TransactionPageResponse.class).getNextCursor();
+
+        mockMvc.perform(get(BASE_URL + "/{id}/transactions/page", testWallet.getId())
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.has_more").value(false));
+    }
+
+    @Test
+    void getTransactionsPage_shouldReturnBadRequest_whenCursorInvalid() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/{id}/transactions/page", testWallet.getId())
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportTransactions_shouldStreamNdjson() throws Exception {
+        createTransaction(testWallet, TransactionType.DEPOSIT, BigDecimal.valueOf(100));
+        createTransaction(testWallet, TransactionType.WITHDRAW, BigDecimal.valueOf(50));
+
+        MvcResult started = mockMvc.perform(get(BASE_URL + "/{id}/transactions/export", testWallet.getId())
+                        .param("type", "WITHDRAW"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines().toList()).hasSize(1)
+                .allSatisfy(line -> assertThat(line).contains("\"type\":\"WITHDRAW\""));
+    }
+
+    @Test
+    void exportTransactions_shouldReturnNotFound_whenWalletMissing() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/{id}/transactions/export", uuid()))
+                .andExpect(status().isNotFound());
+    }
+
+    // --- Balance ---
+
+    @Test
+    void getBalance_shouldReturnLedgerBalance() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/{id}/balance", testWallet.getId())
+                        .param("at", "2020-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.wallet_id").value(testWallet.getId().toString()))
+                .andExpect(jsonPath("$.balance").value(0));
+    }
+
+    @Test
+    void getStatement_shouldReturnBadRequest_whenRangeInverted() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/{id}/statement", testWallet.getId())
+                        .param("from", "2024-02-01T00:00:00Z")
+                        .param("to", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
     // --- Reused methods ---
 
     private WalletEntity createWallet(BigDecimal balance) {
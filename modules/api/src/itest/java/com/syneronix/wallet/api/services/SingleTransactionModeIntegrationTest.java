@@ -0,0 +1,150 @@
+package com.syneronix.wallet.api.services;
+
+import com.syneronix.wallet.api.dto.wallet.DepositRequest;
+import com.syneronix.wallet.api.dto.wallet.TransactionResponse;
+import com.syneronix.wallet.api.dto.wallet.WithdrawRequest;
+import com.syneronix.wallet.api.errors.InternalServerErrorException;
+import com.syneronix.wallet.api.errors.TransactionFailedException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.domain.*;
+import com.syneronix.wallet.services.TransactionService;
+import com.syneronix.wallet.testing.BaseMockMvcTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@TestPropertySource(properties = "syneronix.execution.mode=SINGLE_TRANSACTION")
+class SingleTransactionModeIntegrationTest extends BaseMockMvcTest {
+
+    @Autowired
+    private WalletApiService walletApiService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private BlacklistRepository blacklistRepository;
+
+    @SpyBean
+    private TransactionService transactionService;
+
+    private WalletEntity testWallet;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        blacklistRepository.deleteAll();
+        walletRepository.deleteAll();
+
+        testWallet = new WalletEntity();
+        testWallet.setUserId(uuid());
+        testWallet.setCurrency(Currency.USD);
+        testWallet.setBalance(BigDecimal.valueOf(100));
+        testWallet.setStatus(WalletStatus.ACTIVE);
+        testWallet = walletRepository.save(testWallet);
+    }
+
+    @Test
+    void deposit_shouldCommitMovementAndIdempotencyTogether() {
+        DepositRequest request = createDepositRequest(BigDecimal.valueOf(50));
+
+        TransactionResponse response = walletApiService.deposit(testWallet.getId(), request);
+
+        assertThat(response.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(walletRepository.findById(testWallet.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(150));
+        assertThat(ledgerEntryRepository.count()).isEqualTo(1);
+
+        IdempotencyKeyEntity idempotencyKey = idempotencyKeyRepository.findByRequestId(request.getRequestId()).orElseThrow();
+        assertThat(idempotencyKey.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(idempotencyKey.getHttpStatusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void deposit_shouldReplayStoredResponse_whenDuplicateRequest() {
+        DepositRequest request = createDepositRequest(BigDecimal.valueOf(50));
+
+        TransactionResponse first = walletApiService.deposit(testWallet.getId(), request);
+        TransactionResponse second = walletApiService.deposit(testWallet.getId(), request);
+
+        assertThat(second).usingRecursiveComparison().isEqualTo(first);
+        assertThat(walletRepository.findById(testWallet.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(150));
+    }
+
+    @Test
+    void withdraw_shouldKeepFailedTransactionAndRecordRejection_whenInsufficientFunds() {
+        WithdrawRequest request = new WithdrawRequest();
+        request.setRequestId(uuid());
+        request.setTimestamp(Instant.now());
+        request.setAmount(BigDecimal.valueOf(500));
+        request.setCurrency(Currency.USD);
+
+        assertThrows(TransactionFailedException.class, () -> walletApiService.withdraw(testWallet.getId(), request));
+
+        assertThat(walletRepository.findById(testWallet.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(100));
+        assertThat(transactionRepository.findAll())
+                .singleElement()
+                .satisfies(transaction -> {
+                    assertThat(transaction.getRequestId()).isEqualTo(request.getRequestId());
+                    assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.FAILED);
+                    assertThat(transaction.getFailureReason()).isEqualTo("Insufficient funds");
+                });
+        assertThat(ledgerEntryRepository.count()).isZero();
+
+        IdempotencyKeyEntity idempotencyKey = idempotencyKeyRepository.findByRequestId(request.getRequestId()).orElseThrow();
+        assertThat(idempotencyKey.getStatus()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(idempotencyKey.getHttpStatusCode()).isEqualTo(422);
+    }
+
+    @Test
+    void deposit_shouldRollbackEverything_andSetIdempotencyToFailed_whenExceptionOccurs() {
+        DepositRequest request = createDepositRequest(BigDecimal.valueOf(50));
+
+        doThrow(new RuntimeException("Simulated DB Error"))
+                .when(transactionService).deposit(any(), any(), any(), any());
+
+        assertThrows(InternalServerErrorException.class, () -> walletApiService.deposit(testWallet.getId(), request));
+
+        assertThat(walletRepository.findById(testWallet.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(100));
+        assertThat(transactionRepository.count()).isZero();
+
+        IdempotencyKeyEntity idempotencyKey = idempotencyKeyRepository.findByRequestId(request.getRequestId()).orElseThrow();
+        assertThat(idempotencyKey.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        assertThat(idempotencyKey.getFailReason()).contains("Simulated DB Error");
+    }
+
+    private DepositRequest createDepositRequest(BigDecimal amount) {
+        DepositRequest request = new DepositRequest();
+        request.setAmount(amount);
+        request.setCurrency(Currency.USD);
+        request.setRequestId(uuid());
+        request.setTimestamp(Instant.now());
+        return request;
+    }
+}
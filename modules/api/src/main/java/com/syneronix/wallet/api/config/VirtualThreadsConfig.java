@@ -0,0 +1,55 @@
+package com.syneronix.wallet.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request processing and MVC async work (streamed exports) on one virtual thread per task.
+ * <p>
+ * The executor is created reflectively because virtual threads are a preview API on the Java 19 baseline of the
+ * build; on Java 21 no flag is needed.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "syneronix.execution.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("Request handling runs on virtual threads");
+            return executor;
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads are not available, start the JVM with --enable-preview "
+                    + "on Java 19/20 or disable syneronix.execution.virtual-threads", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 19 or newer", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncSupportConfigurer(ExecutorService virtualThreadExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreadExecutor));
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.syneronix.wallet.api.controllers.v1;
+
+import com.syneronix.wallet.api.dto.events.CommitOffsetRequest;
+import com.syneronix.wallet.api.dto.events.ConsumerOffsetResponse;
+import com.syneronix.wallet.api.dto.events.EventPageResponse;
+import com.syneronix.wallet.api.errors.BadRequestErrorModel;
+import com.syneronix.wallet.api.errors.ErrorExamples;
+import com.syneronix.wallet.api.services.EventApiService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static com.syneronix.wallet.api.controllers.ApiVersion.V1;
+
+@RestController
+@RequestMapping(value = V1 + "/events", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Tag(name = "Events", description = "Offset tracked stream of wallet events")
+public class EventController {
+
+    private final EventApiService eventApiService;
+
+    @Operation(summary = "Read events", description = "Returns published events after the consumer's committed offset, oldest first. "
+            + "Reading does not move the offset; delivery is at least once until the consumer commits.",
+            parameters = {
+                    @Parameter(name = "consumer", description = "Name of the consumer", example = "ledger-export", required = true),
+                    @Parameter(name = "limit", description = "Maximum number of events", example = "100")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Events retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = EventPageResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @GetMapping("/{consumer}")
+    public ResponseEntity<EventPageResponse> read(@PathVariable String consumer,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(eventApiService.read(consumer, limit));
+    }
+
+    @Operation(summary = "Commit offset", description = "Marks all events up to the position as processed by the consumer. Older positions are ignored.",
+            parameters = {
+                    @Parameter(name = "consumer", description = "Name of the consumer", example = "ledger-export", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Offset committed",
+                            content = @Content(schema = @Schema(implementation = ConsumerOffsetResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid input parameters or position not published yet",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = BadRequestErrorModel.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @PutMapping(value = "/{consumer}/offset", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ConsumerOffsetResponse> commit(@PathVariable String consumer,
+                                                         @Valid @RequestBody CommitOffsetRequest request) {
+        return ResponseEntity.ok(eventApiService.commit(consumer, request.getPosition()));
+    }
+}
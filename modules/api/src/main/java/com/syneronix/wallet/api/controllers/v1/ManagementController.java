@@ -3,6 +3,7 @@ package com.syneronix.wallet.api.controllers.v1;
 
 import com.syneronix.wallet.api.dto.management.BlacklistResponse;
 import com.syneronix.wallet.api.dto.management.BlockWalletRequest;
+import com.syneronix.wallet.api.dto.management.IdempotencyCacheStatsResponse;
 import com.syneronix.wallet.api.dto.management.UnblockWalletResponse;
 import com.syneronix.wallet.api.errors.BadRequestErrorModel;
 import com.syneronix.wallet.api.errors.ErrorExamples;
@@ -75,4 +76,15 @@ public class ManagementController {
     public ResponseEntity<List<BlacklistResponse>> getBlacklist() {
         return ResponseEntity.ok(managementApiService.getAllBlockedWallets());
     }
+
+    @Operation(summary = "Get idempotency cache statistics", description = "Hit, miss and eviction counters of the in-memory idempotency response cache.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = IdempotencyCacheStatsResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @GetMapping("/idempotency/cache")
+    public ResponseEntity<IdempotencyCacheStatsResponse> getIdempotencyCacheStats() {
+        return ResponseEntity.ok(managementApiService.getIdempotencyCacheStats());
+    }
 }
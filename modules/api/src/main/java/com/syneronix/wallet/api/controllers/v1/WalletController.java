@@ -5,7 +5,10 @@ import com.syneronix.wallet.api.dto.wallet.*;
 import com.syneronix.wallet.api.errors.BadRequestErrorModel;
 import com.syneronix.wallet.api.errors.ErrorExamples;
 import com.syneronix.wallet.api.errors.ErrorResponse;
+import com.syneronix.wallet.api.services.BalanceStreamApiService;
+import com.syneronix.wallet.api.services.BatchTransferApiService;
 import com.syneronix.wallet.api.services.WalletApiService;
+import com.syneronix.wallet.common.TransactionType;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -16,13 +19,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.syneronix.wallet.api.controllers.ApiVersion.V1;
@@ -34,6 +42,8 @@ import static com.syneronix.wallet.api.controllers.ApiVersion.V1;
 public class WalletController {
 
     private final WalletApiService walletApiService;
+    private final BatchTransferApiService batchTransferApiService;
+    private final BalanceStreamApiService balanceStreamApiService;
 
     @Operation(summary = "Create a new wallet", description = "Creates a new wallet for a user with a specific currency. This operation is idempotent.",
             responses = {
@@ -152,10 +162,73 @@ public class WalletController {
         return ResponseEntity.ok(walletApiService.transfer(request));
     }
 
-    @Operation(summary = "Get wallet transactions", description = "Retrieves a list of transactions for a specific wallet.",
+    @Operation(summary = "Batch transfer funds", description = "Executes up to syneronix.execution.batch.max-items transfers in one database transaction. "
+            + "Each transfer is idempotent on its own request_id and gets its own result; a rejected transfer does not affect the others.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch processed, see the per-transfer results",
+                            content = @Content(schema = @Schema(implementation = BatchTransferResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid input parameters, too many transfers or duplicate request_id",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(oneOf = {ErrorResponse.class, BadRequestErrorModel.class}),
+                                    examples = {
+                                            @ExampleObject(name = "Validation Error", ref = "#/components/examples/ValidationError")
+                                    }
+                            )),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @PostMapping(value = "/transfers:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchTransferResponse> batchTransfer(@Valid @RequestBody BatchTransferRequest request) {
+        return ResponseEntity.ok(batchTransferApiService.transfer(request));
+    }
+
+    @Operation(summary = "Get wallet balance at a point in time", description = "Balance after all transactions created before `at`, "
+            + "taken from the ledger. Without `at` the current ledger balance is returned.",
             parameters = {
                     @Parameter(name = "id", description = "ID of the wallet",
-                            example = "cfb87bfc-6e9d-407e-8cc9-9f11e48bd390", in = ParameterIn.PATH, required = true)
+                            example = "cfb87bfc-6e9d-407e-8cc9-9f11e48bd390", in = ParameterIn.PATH, required = true),
+                    @Parameter(name = "at", description = "Point in time", example = "2023-10-27T00:00:00Z", in = ParameterIn.QUERY)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Balance retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = BalanceResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found", content = @Content(schema = @Schema(implementation = ErrorExamples.WalletNotFound.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BalanceResponse> getBalance(@PathVariable UUID id,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return ResponseEntity.ok(walletApiService.getBalanceAt(id, at));
+    }
+
+    @Operation(summary = "Get wallet statement", description = "Opening and closing balance and the credit/debit totals of [from, to). "
+            + "Whole days already covered by the daily balance snapshots are not read from the ledger.",
+            parameters = {
+                    @Parameter(name = "id", description = "ID of the wallet",
+                            example = "cfb87bfc-6e9d-407e-8cc9-9f11e48bd390", in = ParameterIn.PATH, required = true),
+                    @Parameter(name = "from", description = "Start, inclusive", example = "2023-10-01T00:00:00Z", in = ParameterIn.QUERY, required = true),
+                    @Parameter(name = "to", description = "End, exclusive, defaults to now", example = "2023-11-01T00:00:00Z", in = ParameterIn.QUERY)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statement retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = StatementResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid time range", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found", content = @Content(schema = @Schema(implementation = ErrorExamples.WalletNotFound.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @GetMapping("/{id}/statement")
+    public ResponseEntity<StatementResponse> getStatement(@PathVariable UUID id,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(walletApiService.getStatement(id, from, to));
+    }
+
+    @Operation(summary = "Get wallet transactions", description = "Retrieves the transactions of a specific wallet created since from, "
+            + "the whole history by default, newest first. Archived months are read from the archive.",
+            parameters = {
+                    @Parameter(name = "id", description = "ID of the wallet",
+                            example = "cfb87bfc-6e9d-407e-8cc9-9f11e48bd390", in = ParameterIn.PATH, required = true),
+                    @Parameter(name = "from", description = "Only transactions created at or after", example = "2023-10-01T00:00:00Z", in = ParameterIn.QUERY)
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully",
@@ -164,7 +237,80 @@ public class WalletController {
                     @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
             })
     @GetMapping("/{id}/transactions")
-    public ResponseEntity<List<TransactionResponse>> getTransactions(@PathVariable UUID id) {
-        return ResponseEntity.ok(walletApiService.getTransactions(id));
+    public ResponseEntity<List<TransactionResponse>> getTransactions(@PathVariable UUID id,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from) {
+        return ResponseEntity.ok(walletApiService.getTransactions(id, from));
+    }
+
+    @Operation(summary = "Get a page of wallet transactions", description = "Keyset-paginated history of a wallet, newest first. "
+            + "Pass next_cursor of a page as cursor to get the following one.",
+            parameters = {
+                    @Parameter(name = "id", description = "ID of the wallet",
+                            example = "cfb87bfc-6e9d-407e-8cc9-9f11e48bd390", in = ParameterIn.PATH, required = true),
+                    @Parameter(name = "cursor", description = "next_cursor of the previous page", in = ParameterIn.QUERY),
+                    @Parameter(name = "limit", description = "Page size, 1 to 500", example = "50", in = ParameterIn.QUERY),
+                    @Parameter(name = "from", description = "Only transactions created at or after", example = "2023-10-01T00:00:00Z", in = ParameterIn.QUERY),
+                    @Parameter(name = "to", description = "Only transactions created before", example = "2023-11-01T00:00:00Z", in = ParameterIn.QUERY),
+                    @Parameter(name = "type", description = "Only transactions of these types, repeatable", example = "TRANSFER", in = ParameterIn.QUERY)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Page retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = TransactionPageResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or time range", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found", content = @Content(schema = @Schema(implementation = ErrorExamples.WalletNotFound.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @GetMapping("/{id}/transactions/page")
+    public ResponseEntity<TransactionPageResponse> getTransactionsPage(@PathVariable UUID id,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer limit,
+                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                       @RequestParam(name = "type", required = false) Set<TransactionType> types) {
+        return ResponseEntity.ok(walletApiService.getTransactionsPage(id, cursor, limit, from, to, types));
+    }
+
+    @Operation(summary = "Export wallet transactions", description = "Streams the whole (optionally filtered) history of a wallet "
+            + "as newline-delimited JSON, newest first, one TransactionResponse per line.",
+            parameters = {
+                    @Parameter(name = "id", description = "ID of the wallet",
+                            example = "cfb87bfc-6e9d-407e-8cc9-9f11e48bd390", in = ParameterIn.PATH, required = true),
+                    @Parameter(name = "from", description = "Only transactions created at or after", example = "2023-10-01T00:00:00Z", in = ParameterIn.QUERY),
+                    @Parameter(name = "to", description = "Only transactions created before", example = "2023-11-01T00:00:00Z", in = ParameterIn.QUERY),
+                    @Parameter(name = "type", description = "Only transactions of these types, repeatable", example = "TRANSFER", in = ParameterIn.QUERY)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Export started",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = TransactionResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid time range", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found", content = @Content(schema = @Schema(implementation = ErrorExamples.WalletNotFound.class)))
+            })
+    @GetMapping(value = "/{id}/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable UUID id,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                    @RequestParam(name = "type", required = false) Set<TransactionType> types) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(walletApiService.exportTransactions(id, from, to, types));
+    }
+
+    @Operation(summary = "Stream wallet balance changes", description = "Server-sent events: first a 'snapshot' event with the "
+            + "current WalletResponse, then a 'balance' event with a BalanceChangeResponse for every committed change. Clients "
+            + "that fall behind, and every stream after the configured timeout, are disconnected and should reconnect.",
+            parameters = {
+                    @Parameter(name = "id", description = "ID of the wallet",
+                            example = "cfb87bfc-6e9d-407e-8cc9-9f11e48bd390", in = ParameterIn.PATH, required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stream opened",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = BalanceChangeResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found", content = @Content(schema = @Schema(implementation = ErrorExamples.WalletNotFound.class))),
+                    @ApiResponse(responseCode = "503", description = "Too many streams open", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorExamples.InternalServerError.class)))
+            })
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalanceChanges(@PathVariable UUID id) {
+        return balanceStreamApiService.subscribe(id);
     }
 }
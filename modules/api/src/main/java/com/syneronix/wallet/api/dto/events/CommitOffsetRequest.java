@@ -0,0 +1,19 @@
+package com.syneronix.wallet.api.dto.events;
+
+import com.syneronix.wallet.api.dto.AbstractBaseRequest;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Schema(description = "Request to commit a consumer offset")
+public class CommitOffsetRequest extends AbstractBaseRequest {
+
+    @NotNull
+    @Min(0)
+    @Schema(description = "Position of the last processed event", example = "1042", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long position;
+}
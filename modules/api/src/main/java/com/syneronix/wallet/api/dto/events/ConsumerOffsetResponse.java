@@ -0,0 +1,20 @@
+package com.syneronix.wallet.api.dto.events;
+
+import com.syneronix.wallet.api.dto.AbstractBaseResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@Builder
+@Schema(description = "Committed offset of a consumer")
+@EqualsAndHashCode(callSuper = true)
+public class ConsumerOffsetResponse extends AbstractBaseResponse {
+
+    @Schema(description = "Name of the consumer", example = "ledger-export")
+    private String consumer;
+
+    @Schema(description = "Committed position; never moves back", example = "1042")
+    private long position;
+}
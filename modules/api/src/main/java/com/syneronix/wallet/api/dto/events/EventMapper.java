@@ -0,0 +1,11 @@
+package com.syneronix.wallet.api.dto.events;
+
+import com.syneronix.wallet.services.OutboxMessage;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface EventMapper {
+
+    EventResponse toEventResponse(OutboxMessage message);
+}
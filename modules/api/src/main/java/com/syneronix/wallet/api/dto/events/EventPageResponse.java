@@ -0,0 +1,25 @@
+package com.syneronix.wallet.api.dto.events;
+
+import com.syneronix.wallet.api.dto.AbstractBaseResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Events after the consumer's committed offset, oldest first")
+@EqualsAndHashCode(callSuper = true)
+public class EventPageResponse extends AbstractBaseResponse {
+
+    @Schema(description = "Name of the consumer", example = "ledger-export")
+    private String consumer;
+
+    @Schema(description = "Events of this page")
+    private List<EventResponse> events;
+
+    @Schema(description = "Position of the last event of the page, to commit once processed; absent when the page is empty", example = "1042")
+    private Long lastPosition;
+}
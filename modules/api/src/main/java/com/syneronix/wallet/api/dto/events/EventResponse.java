@@ -0,0 +1,37 @@
+package com.syneronix.wallet.api.dto.events;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.syneronix.wallet.api.dto.AbstractBaseResponse;
+import com.syneronix.wallet.common.OutboxEventType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@Schema(description = "Published wallet event")
+@EqualsAndHashCode(callSuper = true)
+public class EventResponse extends AbstractBaseResponse {
+
+    @Schema(description = "Position of the event in the stream, the offset consumers commit", example = "1042")
+    private long position;
+
+    @Schema(description = "Wallet the event belongs to; events of one wallet are in the order its changes committed",
+            example = "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11")
+    private UUID walletId;
+
+    @Schema(description = "Type of the event", example = "TRANSACTION_COMPLETED")
+    private OutboxEventType eventType;
+
+    @JsonRawValue
+    @Schema(description = "Event body", type = "object",
+            example = "{\"transaction_id\":\"c2ggde11-1e2d-6gb0-dd8f-8dd1df502c33\",\"direction\":\"CREDIT\",\"amount\":10.00}")
+    private String payload;
+
+    @Schema(description = "Timestamp when the event was published", example = "2023-10-27T10:00:00Z")
+    private Instant publishedAt;
+}
@@ -0,0 +1,32 @@
+package com.syneronix.wallet.api.dto.management;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies.SnakeCaseStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonNaming(SnakeCaseStrategy.class)
+@Schema(description = "Statistics of the in-memory idempotency response cache")
+public class IdempotencyCacheStatsResponse {
+
+    @Schema(description = "Whether the cache is enabled", example = "true")
+    private boolean enabled;
+
+    @Schema(description = "Current number of cached outcomes", example = "1250")
+    private long size;
+
+    @Schema(description = "Replays served from the cache", example = "9800")
+    private long hitCount;
+
+    @Schema(description = "Lookups that fell through to the database", example = "200")
+    private long missCount;
+
+    @Schema(description = "Share of lookups served from the cache", example = "0.98")
+    private double hitRate;
+
+    @Schema(description = "Outcomes evicted because of size or TTL", example = "35")
+    private long evictionCount;
+}
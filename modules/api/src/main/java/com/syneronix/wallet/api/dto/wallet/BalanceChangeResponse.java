@@ -0,0 +1,43 @@
+package com.syneronix.wallet.api.dto.wallet;
+
+import com.syneronix.wallet.api.dto.AbstractBaseResponse;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.common.TransactionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Schema(description = "A committed change of a wallet balance, sent as a 'balance' server-sent event")
+@EqualsAndHashCode(callSuper = true)
+public class BalanceChangeResponse extends AbstractBaseResponse {
+
+    @Schema(description = "ID of the wallet", example = "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11")
+    private UUID walletId;
+
+    @Schema(description = "ID of the transaction that changed the balance", example = "c2ggde11-1e2d-6gb0-dd8f-8dd1df502c33")
+    private UUID transactionId;
+
+    @Schema(description = "Type of the transaction", example = "DEPOSIT")
+    private TransactionType type;
+
+    @Schema(description = "Whether the wallet was credited or debited", example = "CREDIT")
+    private MoneyFlowDirection direction;
+
+    @Schema(description = "Amount moved", example = "100.00")
+    private BigDecimal amount;
+
+    @Schema(description = "Currency of the wallet", example = "USD")
+    private Currency currency;
+
+    @Schema(description = "Balance of the wallet after the change; not set for deposits to a wallet with balance slots", example = "1100.00")
+    private BigDecimal balance;
+
+    @Schema(description = "Timestamp of the change", example = "2023-10-27T10:00:00Z")
+    private Instant changedAt;
+}
@@ -0,0 +1,29 @@
+package com.syneronix.wallet.api.dto.wallet;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies.SnakeCaseStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.syneronix.wallet.common.Currency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@JsonNaming(SnakeCaseStrategy.class)
+@Schema(description = "Balance of a wallet at a point in time")
+public class BalanceResponse {
+
+    @Schema(description = "ID of the wallet", example = "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11", requiredMode = Schema.RequiredMode.REQUIRED)
+    private UUID walletId;
+
+    @Schema(description = "Currency of the wallet", example = "USD", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Currency currency;
+
+    @Schema(description = "Balance after all transactions created before the point in time", example = "1000.00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private BigDecimal balance;
+
+    @Schema(description = "Point in time of the balance", example = "2023-10-27T00:00:00Z", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Instant at;
+}
@@ -0,0 +1,29 @@
+package com.syneronix.wallet.api.dto.wallet;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies.SnakeCaseStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@JsonNaming(SnakeCaseStrategy.class)
+@Schema(description = "Outcome of one transfer of a batch")
+public class BatchTransferItemResponse {
+
+    @Schema(description = "Request identifier of the transfer", example = "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11", requiredMode = Schema.RequiredMode.REQUIRED)
+    private UUID requestId;
+
+    @Schema(description = "HTTP status the transfer would have had as a single request", example = "200", requiredMode = Schema.RequiredMode.REQUIRED)
+    private int httpStatus;
+
+    @Schema(description = "The transaction, present when http_status is 200")
+    private TransactionResponse transaction;
+
+    @Schema(description = "Short error code identifier, present when the transfer was rejected", example = "UNPROCESSABLE_ENTITY")
+    private String error;
+
+    @Schema(description = "Human-readable reason of the rejection", example = "Insufficient funds")
+    private String message;
+}
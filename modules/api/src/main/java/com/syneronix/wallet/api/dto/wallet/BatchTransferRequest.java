@@ -0,0 +1,21 @@
+package com.syneronix.wallet.api.dto.wallet;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies.SnakeCaseStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonNaming(SnakeCaseStrategy.class)
+@Schema(description = "Request to execute many transfers in one call")
+public class BatchTransferRequest {
+
+    @NotEmpty
+    @Valid
+    @Schema(description = "Transfers to execute, each is idempotent on its own request_id", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<TransferRequest> transfers;
+}
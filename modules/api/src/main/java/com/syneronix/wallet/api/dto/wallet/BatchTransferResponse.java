@@ -0,0 +1,23 @@
+package com.syneronix.wallet.api.dto.wallet;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies.SnakeCaseStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonNaming(SnakeCaseStrategy.class)
+@Schema(description = "Per-transfer results of a batch, in request order")
+public class BatchTransferResponse {
+
+    @Schema(description = "Number of transfers with http_status 200", example = "998")
+    private int succeeded;
+
+    @Schema(description = "Number of rejected transfers", example = "2")
+    private int failed;
+
+    @Schema(description = "One result per transfer, in request order")
+    private List<BatchTransferItemResponse> results;
+}
@@ -3,6 +3,7 @@ package com.syneronix.wallet.api.dto.wallet;
 import com.syneronix.wallet.api.dto.AbstractBaseRequest;
 import com.syneronix.wallet.common.Currency;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -21,4 +22,8 @@ public class CreateWalletRequest extends AbstractBaseRequest {
     @NotNull
     @Schema(description = "Currency of the wallet", example = "USD", requiredMode = Schema.RequiredMode.REQUIRED)
     private Currency currency;
+
+    @Min(0)
+    @Schema(description = "Number of balance slots for a high-volume wallet; credits are spread over them. Omit or 0 for a plain wallet", example = "16")
+    private Integer balanceSlots;
 }
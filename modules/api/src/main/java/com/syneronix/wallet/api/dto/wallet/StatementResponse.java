@@ -0,0 +1,44 @@
+package com.syneronix.wallet.api.dto.wallet;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies.SnakeCaseStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.syneronix.wallet.common.Currency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@JsonNaming(SnakeCaseStrategy.class)
+@Schema(description = "Summary of a wallet's movements within [from, to)")
+public class StatementResponse {
+
+    @Schema(description = "ID of the wallet", example = "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11", requiredMode = Schema.RequiredMode.REQUIRED)
+    private UUID walletId;
+
+    @Schema(description = "Currency of the wallet", example = "USD", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Currency currency;
+
+    @Schema(description = "Start of the statement, inclusive", example = "2023-10-01T00:00:00Z", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Instant from;
+
+    @Schema(description = "End of the statement, exclusive", example = "2023-11-01T00:00:00Z", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Instant to;
+
+    @Schema(description = "Balance at from", example = "1000.00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private BigDecimal openingBalance;
+
+    @Schema(description = "Balance at to", example = "1250.00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private BigDecimal closingBalance;
+
+    @Schema(description = "Sum of all credits", example = "400.00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private BigDecimal totalCredits;
+
+    @Schema(description = "Sum of all debits", example = "150.00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private BigDecimal totalDebits;
+
+    @Schema(description = "Number of ledger entries", example = "12", requiredMode = Schema.RequiredMode.REQUIRED)
+    private long entryCount;
+}
@@ -0,0 +1,23 @@
+package com.syneronix.wallet.api.dto.wallet;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies.SnakeCaseStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonNaming(SnakeCaseStrategy.class)
+@Schema(description = "One page of a wallet's transactions, newest first")
+public class TransactionPageResponse {
+
+    @Schema(description = "Transactions of the page", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<TransactionResponse> items;
+
+    @Schema(description = "Cursor of the next page, absent on the last page", example = "MjAyMy0xMC0yN1QxMDowMDowMFp8MjRlNmU4N2ItMjc2Ny00MGZmLTgzYzQtNzlmZTRkZjA4NTlh")
+    private String nextCursor;
+
+    @Schema(description = "Whether more transactions follow", example = "true", requiredMode = Schema.RequiredMode.REQUIRED)
+    private boolean hasMore;
+}
@@ -2,6 +2,7 @@ package com.syneronix.wallet.api.dto.wallet;
 
 import com.syneronix.wallet.domain.TransactionEntity;
 import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.services.BalanceChange;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
@@ -20,6 +21,7 @@ public interface WalletMapper {
     @Mapping(target = "createdAt", source = "entity.createdAt")
     @Mapping(target = "updatedAt", source = "entity.updatedAt")
     @Mapping(target = "status", source = "entity.status")
+    @Mapping(target = "balanceSlots", source = "entity.balanceSlots")
     @Mapping(target = "requestId", source = "request.requestId")
     WalletResponse toWalletCreateResponse(WalletEntity entity, CreateWalletRequest request);
 
@@ -31,4 +33,6 @@ public interface WalletMapper {
     TransactionResponse toTransactionResponse(DepositRequest request);
 
     TransactionResponse toTransactionResponse(TransferRequest request);
+
+    BalanceChangeResponse toBalanceChangeResponse(BalanceChange change);
 }
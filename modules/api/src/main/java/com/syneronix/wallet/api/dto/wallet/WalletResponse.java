@@ -30,6 +30,9 @@ public class WalletResponse extends AbstractBaseResponse {
     @Schema(description = "Status of the wallet (ACTIVE, INACTIVE, BLOCKED)", example = "ACTIVE", oneOf = WalletStatus.class, requiredMode = Schema.RequiredMode.REQUIRED)
     private WalletStatus status = WalletStatus.PENDING;
 
+    @Schema(description = "Number of balance slots, 0 for a plain wallet", example = "0")
+    private int balanceSlots;
+
     @Schema(description = "Timestamp when the wallet was created", example = "2023-10-27T10:00:00Z", requiredMode = Schema.RequiredMode.REQUIRED)
     private Instant createdAt;
 
@@ -89,6 +89,15 @@ public class GlobalControllerExceptionHandler {
         return buildResponse(HttpStatus.TOO_MANY_REQUESTS, ex, request);
     }
 
+    @ExceptionHandler(SubscriberLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleSubscriberLimit(
+            SubscriberLimitExceededException ex,
+            HttpServletRequest request
+    ) {
+        logApi(ex, false);
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex, request);
+    }
+
     @ExceptionHandler(TransactionFailedException.class)
     public ResponseEntity<ErrorResponse> handleTransactionFailed(
             TransactionFailedException ex,
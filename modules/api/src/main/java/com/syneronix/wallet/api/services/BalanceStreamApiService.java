@@ -0,0 +1,73 @@
+package com.syneronix.wallet.api.services;
+
+import com.syneronix.wallet.api.dto.wallet.WalletMapper;
+import com.syneronix.wallet.api.dto.wallet.WalletResponse;
+import com.syneronix.wallet.config.BalanceEventsProperties;
+import com.syneronix.wallet.services.BalanceChange;
+import com.syneronix.wallet.services.BalanceEventDispatcher;
+import com.syneronix.wallet.services.BalanceListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BalanceStreamApiService {
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String BALANCE_EVENT = "balance";
+
+    private final WalletApiService walletApiService;
+    private final WalletMapper walletMapper;
+    private final BalanceEventDispatcher balanceEventDispatcher;
+    private final BalanceEventsProperties balanceEventsProperties;
+
+    /**
+     * Opens a stream that starts with the current wallet ({@code snapshot}) and continues with every committed
+     * balance change ({@code balance}). Subscribing before reading the snapshot means no change is missed; one
+     * committed in between may arrive after a snapshot that already includes it.
+     */
+    public SseEmitter subscribe(UUID walletId) {
+        SseEmitter emitter = new SseEmitter(balanceEventsProperties.getStreamTimeout().toMillis());
+        BalanceEventDispatcher.Subscription subscription = balanceEventDispatcher.subscribe(walletId, new BalanceListener() {
+            @Override
+            public void onChange(BalanceChange change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .name(BALANCE_EVENT)
+                        .id(change.transactionId().toString())
+                        .data(walletMapper.toBalanceChangeResponse(change)));
+            }
+
+            @Override
+            public void onDropped() {
+                emitter.complete();
+            }
+        });
+
+        WalletResponse wallet;
+        try {
+            wallet = walletApiService.getWallet(walletId);
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(SNAPSHOT_EVENT).data(wallet));
+        } catch (IOException e) {
+            subscription.close();
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        subscription.start();
+        return emitter;
+    }
+}
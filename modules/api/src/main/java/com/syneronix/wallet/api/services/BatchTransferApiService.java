@@ -0,0 +1,217 @@
+package com.syneronix.wallet.api.services;
+
+import com.syneronix.wallet.api.dto.AbstractBaseRequest;
+import com.syneronix.wallet.api.dto.wallet.*;
+import com.syneronix.wallet.api.errors.*;
+import com.syneronix.wallet.common.RequestType;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.config.ExecutionProperties;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.services.IdempotencyService;
+import com.syneronix.wallet.services.PolicyService;
+import com.syneronix.wallet.services.TransferEngine;
+import com.syneronix.wallet.services.WalletConcurrency;
+import com.syneronix.wallet.services.WalletMetrics;
+import com.syneronix.wallet.services.WalletService;
+import jakarta.persistence.LockModeType;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Executes many transfers in one database transaction.
+ * <p>
+ * The batch is processed in three phases so that Hibernate can batch the writes: idempotency keys of all items
+ * are claimed first, then each transfer runs through the {@link TransferEngine} of single transfers, and finally
+ * all idempotency outcomes are recorded with one lookup. The transaction runs under {@link WalletConcurrency} like a
+ * single transfer in {@code SINGLE_TRANSACTION} mode; with row locks the union of all wallets is locked once in id
+ * order up front, and the transfers find their wallets already locked. Rate limits are counted once per wallet for
+ * the whole batch. Business rejections (unknown wallet, policy, insufficient funds) are reported per item and do not
+ * affect the other items. Any other error rolls the whole batch back, including its idempotency keys, so it can be
+ * retried as is.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BatchTransferApiService {
+
+    private final WalletService walletService;
+    private final PolicyService policyService;
+    private final TransferEngine transferEngine;
+    private final WalletConcurrency walletConcurrency;
+    private final WalletMetrics walletMetrics;
+    private final IdempotencyApiService idempotencyApiService;
+    private final WalletMapper walletMapper;
+    private final ExecutionProperties executionProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public BatchTransferResponse transfer(@Valid BatchTransferRequest request) {
+        List<TransferRequest> transfers = request.getTransfers();
+        validateBatch(transfers);
+
+        log.info("Processing batch of {} transfers", transfers.size());
+
+        long startedAt = System.nanoTime();
+        List<BatchTransferItemResponse> results = null;
+        try {
+            results = walletConcurrency.execute(walletIds(transfers),
+                    lockMode -> transactionTemplate.execute(status -> execute(transfers, lockMode)));
+        } catch (RuntimeException e) {
+            log.error("Error processing batch of {} transfers: {}", transfers.size(), e.getMessage());
+            throw new InternalServerErrorException("Operation failed");
+        } finally {
+            recordRequests(transfers, results, System.nanoTime() - startedAt);
+        }
+
+        BatchTransferResponse response = new BatchTransferResponse();
+        response.setResults(results);
+        response.setSucceeded((int) results.stream().filter(result -> result.getHttpStatus() == 200).count());
+        response.setFailed(results.size() - response.getSucceeded());
+        return response;
+    }
+
+    private void validateBatch(List<TransferRequest> transfers) {
+        int maxItems = executionProperties.getBatch().getMaxItems();
+        if (transfers.size() > maxItems) {
+            throw new BadRequestException("Batch exceeds the maximum of %d transfers".formatted(maxItems));
+        }
+
+        Set<UUID> requestIds = new HashSet<>();
+        for (TransferRequest transfer : transfers) {
+            if (!requestIds.add(transfer.getRequestId())) {
+                throw new BadRequestException("Duplicate request_id in batch: " + transfer.getRequestId());
+            }
+        }
+    }
+
+    private List<BatchTransferItemResponse> execute(List<TransferRequest> transfers, LockModeType lockMode) {
+        Map<UUID, BatchTransferItemResponse> results = new HashMap<>();
+        Set<UUID> claimed = claim(transfers, results);
+        List<TransferRequest> toTransfer = transfers.stream()
+                .filter(transfer -> claimed.contains(transfer.getRequestId()))
+                .toList();
+
+        Set<UUID> walletIds = walletIds(toTransfer);
+        // the PROCEDURE engine locks per transfer whatever the lock mode, so it needs the ordered lock as well
+        if (!walletIds.isEmpty() && (lockMode == LockModeType.PESSIMISTIC_WRITE
+                || executionProperties.getTransferEngine() == ExecutionProperties.Engine.PROCEDURE)) {
+            walletService.lockAllByIdsOrdered(walletIds);
+        }
+
+        List<IdempotencyService.Completion> completions = policyService.withRateLimitBudget(walletIds,
+                () -> transferAll(toTransfer, lockMode, results));
+
+        if (!completions.isEmpty()) {
+            idempotencyApiService.completeAllInCurrentTransaction(completions);
+        }
+        return transfers.stream().map(transfer -> results.get(transfer.getRequestId())).toList();
+    }
+
+    private List<IdempotencyService.Completion> transferAll(List<TransferRequest> transfers, LockModeType lockMode,
+                                                            Map<UUID, BatchTransferItemResponse> results) {
+        List<IdempotencyService.Completion> completions = new ArrayList<>(transfers.size());
+        for (TransferRequest transfer : transfers) {
+            try {
+                TransactionResponse response = apply(transfer, lockMode);
+                completions.add(new IdempotencyService.Completion(transfer.getRequestId(), TransactionStatus.COMPLETED, 200, response, null));
+                results.put(transfer.getRequestId(), succeeded(transfer.getRequestId(), response));
+            } catch (BaseApiExceptionModel e) {
+                completions.add(new IdempotencyService.Completion(transfer.getRequestId(), TransactionStatus.REJECTED, e.getStatus(), transfer, e.getMessage()));
+                results.put(transfer.getRequestId(), rejected(transfer.getRequestId(), e));
+            }
+        }
+        return completions;
+    }
+
+    private static Set<UUID> walletIds(List<TransferRequest> transfers) {
+        Set<UUID> walletIds = new HashSet<>();
+        for (TransferRequest transfer : transfers) {
+            walletIds.add(transfer.getFromWalletId());
+            walletIds.add(transfer.getToWalletId());
+        }
+        return walletIds;
+    }
+
+    /**
+     * Every transfer of the batch counts as a transfer request, with its own status and the duration of the batch,
+     * which is what its client waited for.
+     */
+    private void recordRequests(List<TransferRequest> transfers, List<BatchTransferItemResponse> results, long durationNanos) {
+        for (int i = 0; i < transfers.size(); i++) {
+            int httpStatus = results == null ? 500 : results.get(i).getHttpStatus();
+            walletMetrics.recordRequest(RequestType.TRANSFER, httpStatus, durationNanos);
+        }
+    }
+
+    /**
+     * Claims the idempotency keys of all transfers not seen before; replays the others into {@code results}.
+     * Keys are claimed in request id order, so two batches sharing request ids wait for each other instead of
+     * deadlocking.
+     */
+    private Set<UUID> claim(List<TransferRequest> transfers, Map<UUID, BatchTransferItemResponse> results) {
+        Set<UUID> claimed = new HashSet<>();
+        List<TransferRequest> byRequestId = transfers.stream()
+                .sorted(Comparator.comparing(AbstractBaseRequest::getRequestId))
+                .toList();
+
+        for (TransferRequest transfer : byRequestId) {
+            Optional<BatchTransferItemResponse> replayed = replay(transfer);
+            if (replayed.isPresent()) {
+                results.put(transfer.getRequestId(), replayed.get());
+                continue;
+            }
+
+            if (idempotencyApiService.createInCurrentTransaction(transfer.getRequestId(), transfer, RequestType.TRANSFER,
+                    transfer.getCurrency(), transfer.getFromWalletId(), transfer.getToWalletId())) {
+                claimed.add(transfer.getRequestId());
+            } else {
+                results.put(transfer.getRequestId(), replay(transfer).orElseThrow(() ->
+                        new IllegalStateException("Idempotency key lost after claim conflict: " + transfer.getRequestId())));
+            }
+        }
+        return claimed;
+    }
+
+    private Optional<BatchTransferItemResponse> replay(TransferRequest transfer) {
+        try {
+            return idempotencyApiService.checkIdempotency(transfer.getRequestId(), transfer, TransactionResponse.class)
+                    .map(response -> succeeded(transfer.getRequestId(), response));
+        } catch (PreviousRequestFailedException e) {
+            return Optional.of(rejected(transfer.getRequestId(), e));
+        } catch (RequestTamperingException e) {
+            log.error("Attempt to spoof a request with id {}", transfer.getRequestId());
+            return Optional.of(rejected(transfer.getRequestId(), new BadRequestException("Invalid request")));
+        }
+    }
+
+    private TransactionResponse apply(TransferRequest transfer, LockModeType lockMode) {
+        TransactionEntity transaction = transferEngine.transfer(transfer.getRequestId(), transfer.getFromWalletId(),
+                transfer.getToWalletId(), transfer.getAmount(), transfer.getCurrency(), lockMode);
+        policyService.countOutgoing(transfer.getFromWalletId());
+        if (transaction.getStatus() == TransactionStatus.FAILED) {
+            throw new TransactionFailedException(transaction.getFailureReason());
+        }
+        return walletMapper.toTransactionResponse(transaction);
+    }
+
+    private BatchTransferItemResponse succeeded(UUID requestId, TransactionResponse transaction) {
+        BatchTransferItemResponse result = new BatchTransferItemResponse();
+        result.setRequestId(requestId);
+        result.setHttpStatus(200);
+        result.setTransaction(transaction);
+        return result;
+    }
+
+    private BatchTransferItemResponse rejected(UUID requestId, BaseApiExceptionModel e) {
+        BatchTransferItemResponse result = new BatchTransferItemResponse();
+        result.setRequestId(requestId);
+        result.setHttpStatus(e.getStatus());
+        result.setError(e.getError());
+        result.setMessage(e.getMessage());
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+package com.syneronix.wallet.api.services;
+
+import com.syneronix.wallet.api.dto.events.ConsumerOffsetResponse;
+import com.syneronix.wallet.api.dto.events.EventMapper;
+import com.syneronix.wallet.api.dto.events.EventPageResponse;
+import com.syneronix.wallet.api.dto.events.EventResponse;
+import com.syneronix.wallet.services.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EventApiService {
+
+    private final OutboxService outboxService;
+    private final EventMapper eventMapper;
+
+    public EventPageResponse read(String consumer, int limit) {
+        List<EventResponse> events = outboxService.read(consumer, limit).stream()
+                .map(eventMapper::toEventResponse)
+                .toList();
+        return EventPageResponse.builder()
+                .consumer(consumer)
+                .events(events)
+                .lastPosition(events.isEmpty() ? null : events.get(events.size() - 1).getPosition())
+                .build();
+    }
+
+    public ConsumerOffsetResponse commit(String consumer, long position) {
+        return ConsumerOffsetResponse.builder()
+                .consumer(consumer)
+                .position(outboxService.commit(consumer, position))
+                .build();
+    }
+}
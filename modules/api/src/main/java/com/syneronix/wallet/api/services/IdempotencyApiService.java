@@ -7,13 +7,17 @@ import com.syneronix.wallet.api.errors.RequestTamperingException;
 import com.syneronix.wallet.common.*;
 import com.syneronix.wallet.domain.IdempotencyKeyEntity;
 import com.syneronix.wallet.mappers.JsonMapper;
+import com.syneronix.wallet.mappers.PayloadCodec;
+import com.syneronix.wallet.mappers.RequestFingerprinter;
+import com.syneronix.wallet.services.IdempotencyResponseCache;
 import com.syneronix.wallet.services.IdempotencyService;
-import com.syneronix.wallet.utils.HashUtil;
+import com.syneronix.wallet.services.WalletMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,9 +28,17 @@ public class IdempotencyApiService {
 
     private final IdempotencyService idempotencyService;
     private final JsonMapper jsonMapper;
+    private final PayloadCodec payloadCodec;
+    private final RequestFingerprinter requestFingerprinter;
     private final WalletMapper walletMapper;
+    private final WalletMetrics walletMetrics;
 
     public <T> Optional<T> checkIdempotency(UUID requestId, Object requestObject, Class<T> responseType) {
+        Optional<IdempotencyResponseCache.Outcome> cachedOutcome = idempotencyService.findCachedOutcome(requestId);
+        if (cachedOutcome.isPresent() && isReplayable(cachedOutcome.get(), responseType)) {
+            return replayCachedOutcome(requestId, requestObject, cachedOutcome.get(), responseType);
+        }
+
         Optional<IdempotencyKeyEntity> entityOpt = idempotencyService.findByRequestId(requestId);
 
         if (entityOpt.isEmpty()) {
@@ -36,11 +48,9 @@ public class IdempotencyApiService {
         IdempotencyKeyEntity entity = entityOpt.get();
 
         // 1. Hash Check
-        String jsonRequest = jsonMapper.toJson(requestObject);
-        String currentHash = HashUtil.calculateSha256(jsonRequest);
-        if (!currentHash.equals(entity.getRequestHash())) {
-            throw new RequestTamperingException(requestId);
-        }
+        verifyRequestHash(requestId, requestObject,
+                RequestFingerprinter.storedDigest(entity.getRequestDigest(), entity.getRequestHash()));
+        walletMetrics.recordIdempotencyReplay(WalletMetrics.SOURCE_DATABASE, entity.getStatus());
 
         // 2. Status Check
         if (entity.getStatus() == TransactionStatus.FAILED || entity.getStatus() == TransactionStatus.REJECTED) {
@@ -53,6 +63,9 @@ public class IdempotencyApiService {
         }
 
         // 4. Completed Check
+        if (entity.getResponsePayload() != null) {
+            return Optional.ofNullable(payloadCodec.decode(entity.getResponsePayload(), responseType));
+        }
         String responseBody = entity.getResponseBody();
         if (StringUtils.isBlank(responseBody)) {
             log.error("Data Integrity Error: Idempotency key {} is COMPLETED but response body is missing.", requestId);
@@ -62,6 +75,27 @@ public class IdempotencyApiService {
         return Optional.ofNullable(jsonMapper.fromJson(responseBody, responseType));
     }
 
+    private boolean isReplayable(IdempotencyResponseCache.Outcome outcome, Class<?> responseType) {
+        return outcome.status() != TransactionStatus.COMPLETED || responseType.isInstance(outcome.response());
+    }
+
+    private <T> Optional<T> replayCachedOutcome(UUID requestId, Object requestObject, IdempotencyResponseCache.Outcome outcome, Class<T> responseType) {
+        verifyRequestHash(requestId, requestObject, outcome.requestDigest());
+        walletMetrics.recordIdempotencyReplay(WalletMetrics.SOURCE_CACHE, outcome.status());
+
+        if (outcome.status() != TransactionStatus.COMPLETED) {
+            throw new PreviousRequestFailedException(outcome.httpStatusCode(), outcome.failReason());
+        }
+        return Optional.of(responseType.cast(outcome.response()));
+    }
+
+    private void verifyRequestHash(UUID requestId, Object requestObject, byte[] storedDigest) {
+        byte[] currentDigest = requestFingerprinter.sha256(requestObject);
+        if (!RequestFingerprinter.matches(storedDigest, currentDigest)) {
+            throw new RequestTamperingException(requestId);
+        }
+    }
+
     private <T> T createPendingResponse(RequestType type, Object request, Class<T> responseType) {
         switch (type) {
             case CREATE_WALLET:
@@ -95,14 +129,26 @@ public class IdempotencyApiService {
         }
     }
 
-    public void create(UUID requestId, Object requestBody, RequestType type, Currency currency, UUID fromWalletId, UUID toWalletId) {
-        idempotencyService.create(requestId, requestBody, type, currency, fromWalletId, toWalletId);
+    public boolean create(UUID requestId, Object requestBody, RequestType type, Currency currency, UUID fromWalletId, UUID toWalletId) {
+        return idempotencyService.create(requestId, requestBody, type, currency, fromWalletId, toWalletId);
+    }
+
+    public boolean createInCurrentTransaction(UUID requestId, Object requestBody, RequestType type, Currency currency, UUID fromWalletId, UUID toWalletId) {
+        return idempotencyService.createInCurrentTransaction(requestId, requestBody, type, currency, fromWalletId, toWalletId);
     }
 
     public void success(UUID requestId, Object responseBody, int httpStatus) {
         idempotencyService.success(requestId, responseBody, httpStatus);
     }
 
+    public void successInCurrentTransaction(UUID requestId, Object responseBody, int httpStatus) {
+        idempotencyService.successInCurrentTransaction(requestId, responseBody, httpStatus);
+    }
+
+    public void completeAllInCurrentTransaction(List<IdempotencyService.Completion> completions) {
+        idempotencyService.completeAllInCurrentTransaction(completions);
+    }
+
     public void error(UUID requestId, String reason, int httpStatus) {
         idempotencyService.error(requestId, reason, httpStatus);
     }
@@ -1,11 +1,14 @@
 package com.syneronix.wallet.api.services;
 
+import com.google.common.cache.CacheStats;
 import com.syneronix.wallet.api.dto.management.BlacklistResponse;
+import com.syneronix.wallet.api.dto.management.IdempotencyCacheStatsResponse;
 import com.syneronix.wallet.api.dto.management.ManagementMapper;
 import com.syneronix.wallet.api.dto.management.UnblockWalletResponse;
 import com.syneronix.wallet.common.WalletStatus;
 import com.syneronix.wallet.domain.BlacklistEntity;
 import com.syneronix.wallet.services.BlacklistService;
+import com.syneronix.wallet.services.IdempotencyResponseCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,6 +24,7 @@ public class ManagementApiService {
 
     private final BlacklistService blacklistService;
     private final ManagementMapper managementMapper;
+    private final IdempotencyResponseCache idempotencyResponseCache;
 
     public BlacklistResponse blockWallet(UUID walletId, String reason) {
         BlacklistEntity entity = blacklistService.blockWallet(walletId, reason);
@@ -39,4 +43,16 @@ public class ManagementApiService {
                 .map(managementMapper::toBlacklistResponse)
                 .collect(Collectors.toList());
     }
+
+    public IdempotencyCacheStatsResponse getIdempotencyCacheStats() {
+        CacheStats stats = idempotencyResponseCache.stats();
+        return IdempotencyCacheStatsResponse.builder()
+                .enabled(idempotencyResponseCache.isEnabled())
+                .size(idempotencyResponseCache.size())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
 }
@@ -1,25 +1,46 @@
 package com.syneronix.wallet.api.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.syneronix.wallet.api.dto.AbstractBaseRequest;
 import com.syneronix.wallet.api.dto.wallet.*;
 import com.syneronix.wallet.api.errors.*;
 import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.RequestType;
 import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.common.TransactionType;
+import com.syneronix.wallet.config.ExecutionProperties;
 import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.TransactionHistoryFilter;
 import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.services.BalanceService;
 import com.syneronix.wallet.services.PolicyService;
 import com.syneronix.wallet.services.TransactionService;
+import com.syneronix.wallet.services.TransferEngine;
+import com.syneronix.wallet.services.WalletConcurrency;
+import com.syneronix.wallet.services.WalletMetrics;
+import com.syneronix.wallet.services.WalletReadCache;
 import com.syneronix.wallet.services.WalletService;
+import jakarta.persistence.LockModeType;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,11 +48,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class WalletApiService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final WalletService walletService;
     private final IdempotencyApiService idempotencyApiService;
     private final WalletMapper walletMapper;
     private final TransactionService transactionService;
     private final PolicyService policyService;
+    private final ExecutionProperties executionProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BalanceService balanceService;
+    private final WalletMetrics walletMetrics;
+    private final WalletReadCache walletReadCache;
+    private final WalletConcurrency walletConcurrency;
+    private final TransferEngine transferEngine;
 
     public WalletResponse createWallet(@Valid CreateWalletRequest request) {
         log.info("Processing createWallet request. RequestID: {}", request.getRequestId());
@@ -43,17 +76,35 @@ public class WalletApiService {
                 null, null,
                 WalletResponse.class,
                 201,
-                () -> {
-                    WalletEntity newWalletEntity = walletService.createWallet(request.getUserId(), request.getCurrency());
+                lockMode -> {
+                    WalletEntity newWalletEntity = request.getBalanceSlots() == null
+                            ? walletService.createWallet(request.getUserId(), request.getCurrency())
+                            : walletService.createWallet(request.getUserId(), request.getCurrency(), request.getBalanceSlots());
                     return walletMapper.toWalletCreateResponse(newWalletEntity, request);
                 }
         );
     }
 
+    /**
+     * Answered from the {@link WalletReadCache} when enabled; the returned response may then be shared and must
+     * not be modified.
+     */
     public WalletResponse getWallet(UUID walletId) {
+        Optional<Object> cached = walletReadCache.get(walletId);
+        if (cached.isPresent()) {
+            return (WalletResponse) cached.get();
+        }
+
+        long loadStartedAt = System.nanoTime();
         WalletEntity walletEntity = walletService.findByWalletIdReadOnly(walletId).orElseThrow(()
                 -> new WalletNotFoundException(walletId));
-        return walletMapper.entityToResponse(walletEntity);
+        WalletResponse response = walletMapper.entityToResponse(walletEntity);
+        if (walletEntity.isSharded()) {
+            walletService.findTotalBalanceById(walletId).ifPresent(response::setBalance);
+        } else {
+            walletReadCache.put(walletId, walletEntity.getVersion(), response, loadStartedAt);
+        }
+        return response;
     }
 
     public TransactionResponse deposit(UUID walletId, @Valid DepositRequest request) {
@@ -64,8 +115,8 @@ public class WalletApiService {
                 null, walletId, // from=null, to=walletId
                 TransactionResponse.class,
                 200,
-                () -> {
-                    WalletEntity walletEntity = walletService.findWithLockingById(walletId).orElseThrow(()
+                lockMode -> {
+                    WalletEntity walletEntity = walletService.findForCreditById(walletId, lockMode).orElseThrow(()
                             -> new WalletNotFoundException(walletId));
 
                     policyService.validate(walletEntity);
@@ -91,13 +142,20 @@ public class WalletApiService {
                 walletId, null, // from=walletId, to=null
                 TransactionResponse.class,
                 200,
-                () -> {
-                    WalletEntity walletEntity = walletService.findWithLockingById(walletId).orElseThrow(()
-                            -> new WalletNotFoundException(walletId));
-
-                    policyService.validate(walletEntity);
-
-                    TransactionEntity withdraw = transactionService.withdraw(request.getRequestId(), walletEntity, request.getAmount(), request.getCurrency());
+                lockMode -> {
+                    TransactionEntity withdraw;
+                    if (executionProperties.isConditionalWithdraw()) {
+                        policyService.verifyRateLimit(walletId);
+                        policyService.verifyBlacklist(walletId);
+                        withdraw = transactionService.withdrawById(request.getRequestId(), walletId, request.getAmount(), request.getCurrency());
+                    } else {
+                        WalletEntity walletEntity = walletService.findForDebitById(walletId, lockMode).orElseThrow(()
+                                -> new WalletNotFoundException(walletId));
+
+                        policyService.validate(walletEntity);
+
+                        withdraw = transactionService.withdraw(request.getRequestId(), walletEntity, request.getAmount(), request.getCurrency());
+                    }
 
                     if (withdraw.getStatus() == TransactionStatus.FAILED) {
                         throw new TransactionFailedException(withdraw.getFailureReason());
@@ -118,35 +176,9 @@ public class WalletApiService {
                 request.getFromWalletId(), request.getToWalletId(),
                 TransactionResponse.class,
                 200,
-                () -> {
-                    List<WalletEntity> wallets = walletService.lockAllByIdsAndCurrencyOrdered(
-                            List.of(request.getFromWalletId(), request.getToWalletId()),
-                            request.getCurrency()
-                    );
-
-                    if (wallets.isEmpty()) {
-                        throw new WalletNotFoundException(request.getFromWalletId(), request.getToWalletId());
-                    }
-
-                    if (wallets.size() != 2) {
-                        List<UUID> foundIds = wallets.stream().map(WalletEntity::getId).toList();
-                        if (!foundIds.contains(request.getFromWalletId()))
-                            throw new WalletNotFoundException(request.getFromWalletId());
-                        if (!foundIds.contains(request.getToWalletId()))
-                            throw new WalletNotFoundException(request.getToWalletId());
-                    }
-
-                    WalletEntity fromWallet = wallets.stream().filter(w -> w.getId().equals(request.getFromWalletId())).findFirst().orElseThrow();
-                    WalletEntity toWallet = wallets.stream().filter(w -> w.getId().equals(request.getToWalletId())).findFirst().orElseThrow();
-
-                    if (fromWallet.getId().equals(toWallet.getId())) {
-                        throw new BadRequestException("Cannot transfer to the same wallet");
-                    }
-
-                    policyService.validate(fromWallet);
-                    policyService.validate(toWallet);
-
-                    TransactionEntity transfer = transactionService.transfer(request.getRequestId(), fromWallet, toWallet, request.getAmount(), request.getCurrency());
+                lockMode -> {
+                    TransactionEntity transfer = transferEngine.transfer(request.getRequestId(), request.getFromWalletId(),
+                            request.getToWalletId(), request.getAmount(), request.getCurrency(), lockMode);
 
                     if (transfer.getStatus() == TransactionStatus.FAILED) {
                         throw new TransactionFailedException(transfer.getFailureReason());
@@ -157,15 +189,123 @@ public class WalletApiService {
         );
     }
 
-    public List<TransactionResponse> getTransactions(UUID walletId) {
+    public List<TransactionResponse> getTransactions(UUID walletId, Instant from) {
         if (walletService.findByWalletIdReadOnly(walletId).isEmpty()) {
             throw new WalletNotFoundException(walletId);
         }
-        return transactionService.getTransactions(walletId).stream()
+        return transactionService.getTransactions(walletId, from).stream()
                 .map(walletMapper::toTransactionResponse)
                 .collect(Collectors.toList());
     }
 
+    public TransactionPageResponse getTransactionsPage(UUID walletId, String cursor, Integer limit, Instant from, Instant to, Set<TransactionType> types) {
+        TransactionHistoryFilter filter = historyFilter(walletId, from, to, types);
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+        }
+        TransactionCursor after = cursor == null ? null : TransactionCursor.decode(cursor);
+
+        // one extra row tells whether another page follows
+        List<TransactionEntity> rows = transactionService.getTransactionsPage(filter,
+                after == null ? null : after.createdAt(), after == null ? null : after.id(), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionEntity> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        TransactionPageResponse response = new TransactionPageResponse();
+        response.setItems(page.stream().map(walletMapper::toTransactionResponse).toList());
+        response.setHasMore(hasMore);
+        if (hasMore) {
+            TransactionEntity last = page.get(page.size() - 1);
+            response.setNextCursor(new TransactionCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response;
+    }
+
+    /**
+     * Full history as NDJSON, newest first. The wallet and the filter are validated before the response starts;
+     * the rows are then read in keyset chunks of {@value #EXPORT_CHUNK_SIZE}, each in its own short read-only
+     * transaction, and written as they arrive, so neither the list nor a long-running transaction is ever held.
+     */
+    public StreamingResponseBody exportTransactions(UUID walletId, Instant from, Instant to, Set<TransactionType> types) {
+        TransactionHistoryFilter filter = historyFilter(walletId, from, to, types);
+        return outputStream -> writeHistory(filter, outputStream);
+    }
+
+    private void writeHistory(TransactionHistoryFilter filter, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TransactionResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Instant afterCreatedAt = null;
+            UUID afterId = null;
+            List<TransactionEntity> chunk;
+            do {
+                chunk = transactionService.getTransactionsPage(filter, afterCreatedAt, afterId, EXPORT_CHUNK_SIZE);
+                for (TransactionEntity transaction : chunk) {
+                    writer.writeValue(generator, walletMapper.toTransactionResponse(transaction));
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+
+                if (!chunk.isEmpty()) {
+                    TransactionEntity last = chunk.get(chunk.size() - 1);
+                    afterCreatedAt = last.getCreatedAt();
+                    afterId = last.getId();
+                }
+            } while (chunk.size() == EXPORT_CHUNK_SIZE);
+        }
+    }
+
+    public BalanceResponse getBalanceAt(UUID walletId, Instant at) {
+        WalletEntity wallet = walletService.findByWalletIdReadOnly(walletId).orElseThrow(()
+                -> new WalletNotFoundException(walletId));
+        Instant pointInTime = at == null ? Instant.now() : at;
+
+        BalanceResponse response = new BalanceResponse();
+        response.setWalletId(walletId);
+        response.setCurrency(wallet.getCurrency());
+        response.setBalance(balanceService.balanceAt(walletId, pointInTime));
+        response.setAt(pointInTime);
+        return response;
+    }
+
+    public StatementResponse getStatement(UUID walletId, Instant from, Instant to) {
+        WalletEntity wallet = walletService.findByWalletIdReadOnly(walletId).orElseThrow(()
+                -> new WalletNotFoundException(walletId));
+        Instant end = to == null ? Instant.now() : to;
+        if (!from.isBefore(end)) {
+            throw new BadRequestException("from must be before to");
+        }
+
+        BalanceService.WalletStatement statement = balanceService.statement(walletId, from, end);
+        StatementResponse response = new StatementResponse();
+        response.setWalletId(walletId);
+        response.setCurrency(wallet.getCurrency());
+        response.setFrom(from);
+        response.setTo(end);
+        response.setOpeningBalance(statement.openingBalance());
+        response.setClosingBalance(statement.closingBalance());
+        response.setTotalCredits(statement.movements().credits());
+        response.setTotalDebits(statement.movements().debits());
+        response.setEntryCount(statement.movements().entryCount());
+        return response;
+    }
+
+    private TransactionHistoryFilter historyFilter(UUID walletId, Instant from, Instant to, Set<TransactionType> types) {
+        if (walletService.findByWalletIdReadOnly(walletId).isEmpty()) {
+            throw new WalletNotFoundException(walletId);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        return new TransactionHistoryFilter(walletId, from, to, types == null ? Set.of() : Set.copyOf(types));
+    }
+
     private <T, R extends AbstractBaseRequest> T proccessRequest(
             R request,
             RequestType requestType,
@@ -174,26 +314,37 @@ public class WalletApiService {
             UUID toWalletId,
             Class<T> responseType,
             int successStatus,
-            Supplier<T> businessLogic
+            Function<LockModeType, T> businessLogic
     ) {
+        long startedAt = System.nanoTime();
+        int httpStatus = 500;
         try {
-            Optional<T> storedResponse = idempotencyApiService.checkIdempotency(
-                    request.getRequestId(),
-                    request,
-                    responseType
-            );
-
-            if (storedResponse.isPresent()) {
-                return storedResponse.get();
-            }
-
-            idempotencyApiService.create(request.getRequestId(), request, requestType, currency, fromWalletId, toWalletId);
-
-            T response = businessLogic.get();
-
-            idempotencyApiService.success(request.getRequestId(), response, successStatus);
+            T response = executeRequest(request, requestType, currency, fromWalletId, toWalletId, responseType, successStatus, businessLogic);
+            httpStatus = successStatus;
             return response;
+        } catch (BaseApiExceptionModel e) {
+            httpStatus = e.getStatus();
+            throw e;
+        } finally {
+            walletMetrics.recordRequest(requestType, httpStatus, System.nanoTime() - startedAt);
+        }
+    }
 
+    private <T, R extends AbstractBaseRequest> T executeRequest(
+            R request,
+            RequestType requestType,
+            Currency currency,
+            UUID fromWalletId,
+            UUID toWalletId,
+            Class<T> responseType,
+            int successStatus,
+            Function<LockModeType, T> businessLogic
+    ) {
+        try {
+            if (executionProperties.getMode() == ExecutionProperties.Mode.SINGLE_TRANSACTION) {
+                return executeInSingleTransaction(request, requestType, currency, fromWalletId, toWalletId, responseType, successStatus, businessLogic);
+            }
+            return executePerStep(request, requestType, currency, fromWalletId, toWalletId, responseType, successStatus, businessLogic);
         } catch (WalletNotFoundException e) {
             idempotencyApiService.rejected(request.getRequestId(), request, e.getMessage(), 404);
             throw e;
@@ -220,4 +371,109 @@ public class WalletApiService {
             throw new InternalServerErrorException("Operation failed");
         }
     }
+
+    private <T, R extends AbstractBaseRequest> T executePerStep(
+            R request,
+            RequestType requestType,
+            Currency currency,
+            UUID fromWalletId,
+            UUID toWalletId,
+            Class<T> responseType,
+            int successStatus,
+            Function<LockModeType, T> businessLogic
+    ) {
+        Optional<T> storedResponse = idempotencyApiService.checkIdempotency(
+                request.getRequestId(),
+                request,
+                responseType
+        );
+
+        if (storedResponse.isPresent()) {
+            return storedResponse.get();
+        }
+
+        if (!idempotencyApiService.create(request.getRequestId(), request, requestType, currency, fromWalletId, toWalletId)) {
+            return replayConcurrentDuplicate(request, responseType);
+        }
+
+        T response = walletConcurrency.execute(Arrays.asList(fromWalletId, toWalletId), businessLogic);
+
+        idempotencyApiService.success(request.getRequestId(), response, successStatus);
+        return response;
+    }
+
+    /**
+     * Runs the idempotency check, key insert, locking, mutation, ledger writes and key completion in one
+     * database transaction, so the {@code PESSIMISTIC_WRITE} lock is held until the balance update commits. An
+     * optimistic attempt that conflicts is rolled back as a whole and the transaction runs again.
+     * A movement that fails with {@link TransactionFailedException} still commits, keeping its FAILED transaction row
+     * and the claimed key, and the failure is raised after the commit.
+     */
+    private <T, R extends AbstractBaseRequest> T executeInSingleTransaction(
+            R request,
+            RequestType requestType,
+            Currency currency,
+            UUID fromWalletId,
+            UUID toWalletId,
+            Class<T> responseType,
+            int successStatus,
+            Function<LockModeType, T> businessLogic
+    ) {
+        AtomicReference<TransactionFailedException> failure = new AtomicReference<>();
+        try {
+            T result = walletConcurrency.execute(Arrays.asList(fromWalletId, toWalletId), lockMode -> transactionTemplate.execute(status -> {
+                failure.set(null);
+                Optional<T> storedResponse = idempotencyApiService.checkIdempotency(
+                        request.getRequestId(),
+                        request,
+                        responseType
+                );
+
+                if (storedResponse.isPresent()) {
+                    return storedResponse.get();
+                }
+
+                if (!idempotencyApiService.createInCurrentTransaction(request.getRequestId(), request, requestType, currency, fromWalletId, toWalletId)) {
+                    return replayConcurrentDuplicate(request, responseType);
+                }
+
+                T response;
+                try {
+                    response = businessLogic.apply(lockMode);
+                } catch (TransactionFailedException e) {
+                    // the FAILED transaction row is kept like in PER_STEP: commit it with the key, reject afterwards
+                    failure.set(e);
+                    return null;
+                }
+
+                idempotencyApiService.successInCurrentTransaction(request.getRequestId(), response, successStatus);
+                return response;
+            }));
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            return result;
+        } catch (TransactionFailedException e) {
+            throw e;
+        } catch (PreviousRequestFailedException | RequestTamperingException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // the rollback took the PENDING key with it, put it back so the outcome can be recorded against it
+            if (!idempotencyApiService.create(request.getRequestId(), request, requestType, currency, fromWalletId, toWalletId)) {
+                // a duplicate claimed the key in the meantime, its outcome is the one to report
+                return replayConcurrentDuplicate(request, responseType);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The key was claimed by a concurrent request with the same id. The claim only returns once that request
+     * committed, so its row is visible and is replayed like any other duplicate.
+     */
+    private <T, R extends AbstractBaseRequest> T replayConcurrentDuplicate(R request, Class<T> responseType) {
+        log.info("Request {} already claimed by a concurrent duplicate, replaying", request.getRequestId());
+        return idempotencyApiService.checkIdempotency(request.getRequestId(), request, responseType)
+                .orElseThrow(() -> new IllegalStateException("Idempotency key lost after claim conflict: " + request.getRequestId()));
+    }
 }
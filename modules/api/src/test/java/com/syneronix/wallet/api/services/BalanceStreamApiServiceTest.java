@@ -0,0 +1,67 @@
+package com.syneronix.wallet.api.services;
+
+import com.syneronix.wallet.api.dto.wallet.WalletMapper;
+import com.syneronix.wallet.api.dto.wallet.WalletResponse;
+import com.syneronix.wallet.api.errors.WalletNotFoundException;
+import com.syneronix.wallet.config.BalanceEventsProperties;
+import com.syneronix.wallet.services.BalanceEventDispatcher;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BalanceStreamApiServiceTest extends BaseUnitTest {
+
+    @Mock
+    private WalletApiService walletApiService;
+
+    @Mock
+    private WalletMapper walletMapper;
+
+    @Mock
+    private BalanceEventDispatcher balanceEventDispatcher;
+
+    @Mock
+    private BalanceEventDispatcher.Subscription subscription;
+
+    @Spy
+    private BalanceEventsProperties balanceEventsProperties = new BalanceEventsProperties();
+
+    @InjectMocks
+    private BalanceStreamApiService balanceStreamApiService;
+
+    @Test
+    void subscribe_shouldStartDeliveryAfterSnapshot() {
+        UUID walletId = uuid();
+        when(balanceEventDispatcher.subscribe(eq(walletId), any())).thenReturn(subscription);
+        when(walletApiService.getWallet(walletId)).thenReturn(new WalletResponse());
+
+        assertThat(balanceStreamApiService.subscribe(walletId)).isNotNull();
+
+        InOrder inOrder = inOrder(balanceEventDispatcher, walletApiService, subscription);
+        inOrder.verify(balanceEventDispatcher).subscribe(eq(walletId), any());
+        inOrder.verify(walletApiService).getWallet(walletId);
+        inOrder.verify(subscription).start();
+    }
+
+    @Test
+    void subscribe_shouldCloseSubscription_whenWalletNotFound() {
+        UUID walletId = uuid();
+        when(balanceEventDispatcher.subscribe(eq(walletId), any())).thenReturn(subscription);
+        when(walletApiService.getWallet(walletId)).thenThrow(new WalletNotFoundException(walletId));
+
+        assertThrows(WalletNotFoundException.class, () -> balanceStreamApiService.subscribe(walletId));
+
+        verify(subscription).close();
+        verify(subscription, never()).start();
+    }
+}
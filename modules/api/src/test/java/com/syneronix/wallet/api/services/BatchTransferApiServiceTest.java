@@ -0,0 +1,200 @@
+package com.syneronix.wallet.api.services;
+
+import com.syneronix.wallet.api.dto.wallet.*;
+import com.syneronix.wallet.api.errors.BadRequestException;
+import com.syneronix.wallet.api.errors.InternalServerErrorException;
+import com.syneronix.wallet.api.errors.PreviousRequestFailedException;
+import com.syneronix.wallet.api.errors.WalletNotFoundException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.RequestType;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.config.ExecutionProperties;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.services.IdempotencyService;
+import com.syneronix.wallet.services.PolicyService;
+import com.syneronix.wallet.services.TransferEngine;
+import com.syneronix.wallet.services.WalletConcurrency;
+import com.syneronix.wallet.services.WalletMetrics;
+import com.syneronix.wallet.services.WalletService;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BatchTransferApiServiceTest extends BaseUnitTest {
+
+    @Mock
+    private WalletService walletService;
+    @Mock
+    private PolicyService policyService;
+    @Mock
+    private TransferEngine transferEngine;
+    @Mock
+    private WalletConcurrency walletConcurrency;
+    @Mock
+    private WalletMetrics walletMetrics;
+    @Mock
+    private IdempotencyApiService idempotencyApiService;
+    @Mock
+    private WalletMapper walletMapper;
+    @Spy
+    private ExecutionProperties executionProperties = new ExecutionProperties();
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private BatchTransferApiService batchTransferApiService;
+
+    private WalletEntity sender;
+    private WalletEntity receiver;
+
+    @BeforeEach
+    void setUp() {
+        sender = wallet(BigDecimal.valueOf(100));
+        receiver = wallet(BigDecimal.ZERO);
+
+        lenient().when(walletConcurrency.execute(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<LockModeType, ?>>getArgument(1).apply(LockModeType.PESSIMISTIC_WRITE));
+        lenient().when(policyService.withRateLimitBudget(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
+        lenient().when(idempotencyApiService.createInCurrentTransaction(any(), any(), any(), any(), any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void transfer_shouldLockAllWalletsOnceAndReportPerItemResults() {
+        UUID unknownWalletId = uuid();
+        TransferRequest ok = transfer(sender.getId(), receiver.getId());
+        TransferRequest unknownWallet = transfer(sender.getId(), unknownWalletId);
+
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        TransactionResponse transactionResponse = new TransactionResponse();
+
+        when(transferEngine.transfer(eq(ok.getRequestId()), eq(sender.getId()), eq(receiver.getId()), any(), any(),
+                eq(LockModeType.PESSIMISTIC_WRITE))).thenReturn(transaction);
+        when(transferEngine.transfer(eq(unknownWallet.getRequestId()), any(), any(), any(), any(), any()))
+                .thenThrow(new WalletNotFoundException(unknownWalletId));
+        when(walletMapper.toTransactionResponse(transaction)).thenReturn(transactionResponse);
+
+        BatchTransferResponse response = batchTransferApiService.transfer(batch(ok, unknownWallet));
+
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults()).extracting(BatchTransferItemResponse::getRequestId)
+                .containsExactly(ok.getRequestId(), unknownWallet.getRequestId());
+        assertThat(response.getResults().get(0).getTransaction()).isEqualTo(transactionResponse);
+        assertThat(response.getResults().get(1).getHttpStatus()).isEqualTo(404);
+
+        verify(walletService, times(1)).lockAllByIdsOrdered(any());
+        verify(policyService, times(1)).withRateLimitBudget(any(), any());
+        verify(policyService, times(1)).countOutgoing(sender.getId());
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(walletMetrics).recordRequest(eq(RequestType.TRANSFER), eq(200), anyLong());
+        verify(walletMetrics).recordRequest(eq(RequestType.TRANSFER), eq(404), anyLong());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<IdempotencyService.Completion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(idempotencyApiService).completeAllInCurrentTransaction(captor.capture());
+        assertThat(captor.getValue()).extracting(IdempotencyService.Completion::status)
+                .containsExactly(TransactionStatus.COMPLETED, TransactionStatus.REJECTED);
+    }
+
+    @Test
+    void transfer_shouldRejectItem_whenTransferFails() {
+        TransferRequest request = transfer(sender.getId(), receiver.getId());
+
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setStatus(TransactionStatus.FAILED);
+        transaction.setFailureReason("Insufficient funds");
+        when(transferEngine.transfer(any(), any(), any(), any(), any(), any())).thenReturn(transaction);
+
+        BatchTransferResponse response = batchTransferApiService.transfer(batch(request));
+
+        assertThat(response.getResults().get(0).getHttpStatus()).isEqualTo(422);
+        verify(policyService).countOutgoing(sender.getId());
+        verifyNoInteractions(walletMapper);
+    }
+
+    @Test
+    void transfer_shouldRecordEveryItemAsFailed_whenBatchFails() {
+        TransferRequest first = transfer(sender.getId(), receiver.getId());
+        TransferRequest second = transfer(receiver.getId(), sender.getId());
+
+        when(transferEngine.transfer(any(), any(), any(), any(), any(), any())).thenThrow(new IllegalStateException("connection lost"));
+
+        assertThrows(InternalServerErrorException.class, () -> batchTransferApiService.transfer(batch(first, second)));
+        verify(walletMetrics, times(2)).recordRequest(eq(RequestType.TRANSFER), eq(500), anyLong());
+    }
+
+    @Test
+    void transfer_shouldReplayPreviousOutcome_withoutClaimingAgain() {
+        TransferRequest request = transfer(sender.getId(), receiver.getId());
+
+        when(idempotencyApiService.checkIdempotency(eq(request.getRequestId()), any(), any()))
+                .thenThrow(new PreviousRequestFailedException(422, "Insufficient funds"));
+
+        BatchTransferResponse response = batchTransferApiService.transfer(batch(request));
+
+        assertThat(response.getResults().get(0).getHttpStatus()).isEqualTo(422);
+        assertThat(response.getResults().get(0).getMessage()).isEqualTo("Insufficient funds");
+        verify(idempotencyApiService, never()).createInCurrentTransaction(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(walletService, transferEngine);
+    }
+
+    @Test
+    void transfer_shouldThrow_whenBatchTooLarge() {
+        executionProperties.getBatch().setMaxItems(1);
+
+        BatchTransferRequest request = batch(transfer(sender.getId(), receiver.getId()), transfer(sender.getId(), receiver.getId()));
+
+        assertThrows(BadRequestException.class, () -> batchTransferApiService.transfer(request));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    private WalletEntity wallet(BigDecimal balance) {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(balance);
+        return wallet;
+    }
+
+    private TransferRequest transfer(UUID from, UUID to) {
+        TransferRequest request = new TransferRequest();
+        request.setRequestId(uuid());
+        request.setFromWalletId(from);
+        request.setToWalletId(to);
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.USD);
+        return request;
+    }
+
+    private BatchTransferRequest batch(TransferRequest... transfers) {
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(List.of(transfers));
+        return request;
+    }
+}
@@ -11,9 +11,12 @@ import com.syneronix.wallet.common.TransactionStatus;
 import com.syneronix.wallet.common.WalletStatus;
 import com.syneronix.wallet.domain.IdempotencyKeyEntity;
 import com.syneronix.wallet.mappers.JsonMapper;
+import com.syneronix.wallet.mappers.PayloadCodec;
+import com.syneronix.wallet.mappers.RequestFingerprinter;
+import com.syneronix.wallet.services.IdempotencyResponseCache;
 import com.syneronix.wallet.services.IdempotencyService;
+import com.syneronix.wallet.services.WalletMetrics;
 import com.syneronix.wallet.testing.BaseUnitTest;
-import com.syneronix.wallet.utils.HashUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -23,8 +26,10 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,17 +41,29 @@ class IdempotencyApiServiceTest extends BaseUnitTest {
     @Mock
     private JsonMapper jsonMapper;
 
+    @Mock
+    private PayloadCodec payloadCodec;
+
+    @Mock
+    private RequestFingerprinter requestFingerprinter;
+
     @Mock
     private WalletMapper walletMapper;
 
+    @Mock
+    private WalletMetrics walletMetrics;
+
     @InjectMocks
     private IdempotencyApiService idempotencyApiService;
 
     private UUID requestId;
+    private byte[] digest;
 
     @BeforeEach
     void setup() {
         requestId = uuid();
+        digest = new byte[RequestFingerprinter.DIGEST_LENGTH];
+        digest[0] = 1;
     }
 
 
@@ -63,13 +80,12 @@ class IdempotencyApiServiceTest extends BaseUnitTest {
     @Test
     void checkIdempotency_shouldThrow_whenHashMismatch() {
         Object request = new Object();
-        String json = "{}";
 
         IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
-        entity.setRequestHash("differentHash");
+        entity.setRequestDigest(new byte[RequestFingerprinter.DIGEST_LENGTH]);
 
         when(idempotencyService.findByRequestId(requestId)).thenReturn(Optional.of(entity));
-        when(jsonMapper.toJson(request)).thenReturn(json);
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
 
         assertThrows(RequestTamperingException.class, () ->
                 idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class)
@@ -79,17 +95,15 @@ class IdempotencyApiServiceTest extends BaseUnitTest {
     @Test
     void checkIdempotency_shouldThrow_whenStatusFailed() {
         Object request = new Object();
-        String json = "{}";
-        String hash = HashUtil.calculateSha256(json);
 
         IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
-        entity.setRequestHash(hash);
+        entity.setRequestDigest(digest);
         entity.setStatus(TransactionStatus.FAILED);
         entity.setFailReason("Error");
         entity.setHttpStatusCode(500);
 
         when(idempotencyService.findByRequestId(requestId)).thenReturn(Optional.of(entity));
-        when(jsonMapper.toJson(request)).thenReturn(json);
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
 
         assertThrows(PreviousRequestFailedException.class, () ->
                 idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class)
@@ -99,11 +113,9 @@ class IdempotencyApiServiceTest extends BaseUnitTest {
     @Test
     void checkIdempotency_shouldReturnPendingResponse_whenStatusPending() {
         CreateWalletRequest request = new CreateWalletRequest();
-        String json = "{}";
-        String hash = HashUtil.calculateSha256(json);
 
         IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
-        entity.setRequestHash(hash);
+        entity.setRequestDigest(digest);
         entity.setStatus(TransactionStatus.PENDING);
         entity.setRequestType(RequestType.CREATE_WALLET);
 
@@ -111,7 +123,7 @@ class IdempotencyApiServiceTest extends BaseUnitTest {
         pendingResponse.setStatus(WalletStatus.PENDING);
 
         when(idempotencyService.findByRequestId(requestId)).thenReturn(Optional.of(entity));
-        when(jsonMapper.toJson(request)).thenReturn(json);
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
         when(walletMapper.toWalletCreateResponse(request)).thenReturn(pendingResponse);
 
         Optional<WalletResponse> result = idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class);
@@ -123,19 +135,17 @@ class IdempotencyApiServiceTest extends BaseUnitTest {
     @Test
     void checkIdempotency_shouldReturnCompletedResponse_whenStatusCompleted() {
         Object request = new Object();
-        String json = "{}";
-        String hash = HashUtil.calculateSha256(json);
         String responseJson = "{\"id\":\"123\"}";
 
         IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
-        entity.setRequestHash(hash);
+        entity.setRequestDigest(digest);
         entity.setStatus(TransactionStatus.COMPLETED);
         entity.setResponseBody(responseJson);
 
         WalletResponse completedResponse = new WalletResponse();
 
         when(idempotencyService.findByRequestId(requestId)).thenReturn(Optional.of(entity));
-        when(jsonMapper.toJson(request)).thenReturn(json);
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
         when(jsonMapper.fromJson(responseJson, WalletResponse.class)).thenReturn(completedResponse);
 
         Optional<WalletResponse> result = idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class);
@@ -144,6 +154,90 @@ class IdempotencyApiServiceTest extends BaseUnitTest {
         assertThat(result.get()).isEqualTo(completedResponse);
     }
 
+    @Test
+    void checkIdempotency_shouldDecodeBinaryResponse_whenStatusCompleted() {
+        Object request = new Object();
+        byte[] payload = {0, 1, 2};
+
+        IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
+        entity.setRequestDigest(digest);
+        entity.setStatus(TransactionStatus.COMPLETED);
+        entity.setResponsePayload(payload);
+
+        WalletResponse completedResponse = new WalletResponse();
+
+        when(idempotencyService.findByRequestId(requestId)).thenReturn(Optional.of(entity));
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
+        when(payloadCodec.decode(payload, WalletResponse.class)).thenReturn(completedResponse);
+
+        assertThat(idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class)).contains(completedResponse);
+        verify(jsonMapper, never()).fromJson(any(String.class), eq(WalletResponse.class));
+    }
+
+    @Test
+    void checkIdempotency_shouldVerifyLegacyHexHash_whenDigestMissing() {
+        Object request = new Object();
+        String responseJson = "{\"id\":\"123\"}";
+
+        IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
+        entity.setRequestHash(RequestFingerprinter.toHex(digest));
+        entity.setStatus(TransactionStatus.COMPLETED);
+        entity.setResponseBody(responseJson);
+
+        WalletResponse completedResponse = new WalletResponse();
+
+        when(idempotencyService.findByRequestId(requestId)).thenReturn(Optional.of(entity));
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
+        when(jsonMapper.fromJson(responseJson, WalletResponse.class)).thenReturn(completedResponse);
+
+        assertThat(idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class)).contains(completedResponse);
+    }
+
+    @Test
+    void checkIdempotency_shouldReplayCachedResponse_withoutDatabaseLookup() {
+        Object request = new Object();
+        WalletResponse cachedResponse = new WalletResponse();
+        IdempotencyResponseCache.Outcome outcome = new IdempotencyResponseCache.Outcome(
+                digest, TransactionStatus.COMPLETED, 201, cachedResponse, null);
+
+        when(idempotencyService.findCachedOutcome(requestId)).thenReturn(Optional.of(outcome));
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
+
+        Optional<WalletResponse> result = idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class);
+
+        assertThat(result).containsSame(cachedResponse);
+        verify(idempotencyService, never()).findByRequestId(any());
+    }
+
+    @Test
+    void checkIdempotency_shouldThrow_whenCachedOutcomeRejected() {
+        Object request = new Object();
+        IdempotencyResponseCache.Outcome outcome = new IdempotencyResponseCache.Outcome(
+                digest, TransactionStatus.REJECTED, 404, null, "Wallet not found");
+
+        when(idempotencyService.findCachedOutcome(requestId)).thenReturn(Optional.of(outcome));
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
+
+        assertThrows(PreviousRequestFailedException.class, () ->
+                idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class)
+        );
+        verify(idempotencyService, never()).findByRequestId(any());
+    }
+
+    @Test
+    void checkIdempotency_shouldThrow_whenCachedHashMismatch() {
+        Object request = new Object();
+        IdempotencyResponseCache.Outcome outcome = new IdempotencyResponseCache.Outcome(
+                new byte[RequestFingerprinter.DIGEST_LENGTH], TransactionStatus.COMPLETED, 200, new WalletResponse(), null);
+
+        when(idempotencyService.findCachedOutcome(requestId)).thenReturn(Optional.of(outcome));
+        when(requestFingerprinter.sha256(request)).thenReturn(digest);
+
+        assertThrows(RequestTamperingException.class, () ->
+                idempotencyApiService.checkIdempotency(requestId, request, WalletResponse.class)
+        );
+    }
+
     @Test
     void create_shouldDelegateToService() {
         Object request = new Object();
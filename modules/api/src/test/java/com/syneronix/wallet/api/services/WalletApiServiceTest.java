@@ -6,21 +6,30 @@ import com.syneronix.wallet.api.errors.WalletNotFoundException;
 import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.RequestType;
 import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.config.ExecutionProperties;
 import com.syneronix.wallet.domain.TransactionEntity;
 import com.syneronix.wallet.domain.WalletEntity;
 import com.syneronix.wallet.services.PolicyService;
 import com.syneronix.wallet.services.TransactionService;
+import com.syneronix.wallet.services.TransferEngine;
+import com.syneronix.wallet.services.WalletConcurrency;
+import com.syneronix.wallet.services.WalletMetrics;
+import com.syneronix.wallet.services.WalletReadCache;
 import com.syneronix.wallet.services.WalletService;
 import com.syneronix.wallet.testing.BaseUnitTest;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +48,18 @@ class WalletApiServiceTest extends BaseUnitTest {
     private TransactionService transactionService;
     @Mock
     private PolicyService policyService;
+    @Spy
+    private ExecutionProperties executionProperties = new ExecutionProperties();
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private WalletMetrics walletMetrics;
+    @Mock
+    private WalletReadCache walletReadCache;
+    @Mock
+    private WalletConcurrency walletConcurrency;
+    @Mock
+    private TransferEngine transferEngine;
 
     @InjectMocks
     private WalletApiService walletApiService;
@@ -48,6 +69,10 @@ class WalletApiServiceTest extends BaseUnitTest {
     @BeforeEach
     void setup() {
         walletId = uuid();
+        lenient().when(idempotencyApiService.create(any(), any(), any(), any(), any(), any())).thenReturn(true);
+        lenient().when(idempotencyApiService.createInCurrentTransaction(any(), any(), any(), any(), any(), any())).thenReturn(true);
+        lenient().when(walletConcurrency.execute(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<LockModeType, ?>>getArgument(1).apply(LockModeType.PESSIMISTIC_WRITE));
     }
 
 
@@ -72,6 +97,51 @@ class WalletApiServiceTest extends BaseUnitTest {
         verify(idempotencyApiService).success(eq(request.getRequestId()), eq(walletResponse), eq(201));
     }
 
+    @Test
+    void getWallet_shouldIncludeBalanceSlots_whenWalletIsSharded() {
+        WalletEntity walletEntity = new WalletEntity();
+        walletEntity.setId(walletId);
+        walletEntity.setBalance(BigDecimal.TEN);
+        walletEntity.setBalanceSlots(4);
+        WalletResponse walletResponse = new WalletResponse();
+        walletResponse.setBalance(BigDecimal.TEN);
+
+        when(walletService.findByWalletIdReadOnly(walletId)).thenReturn(Optional.of(walletEntity));
+        when(walletMapper.entityToResponse(walletEntity)).thenReturn(walletResponse);
+        when(walletService.findTotalBalanceById(walletId)).thenReturn(Optional.of(BigDecimal.valueOf(250)));
+
+        WalletResponse result = walletApiService.getWallet(walletId);
+
+        assertThat(result.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(250));
+        verify(walletReadCache, never()).put(any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    void getWallet_shouldReturnCachedResponse() {
+        WalletResponse walletResponse = new WalletResponse();
+        when(walletReadCache.get(walletId)).thenReturn(Optional.of(walletResponse));
+
+        WalletResponse result = walletApiService.getWallet(walletId);
+
+        assertThat(result).isSameAs(walletResponse);
+        verifyNoInteractions(walletService, walletMapper);
+    }
+
+    @Test
+    void getWallet_shouldCacheLoadedResponseWithVersion() {
+        WalletEntity walletEntity = new WalletEntity();
+        walletEntity.setId(walletId);
+        walletEntity.setVersion(7L);
+        WalletResponse walletResponse = new WalletResponse();
+
+        when(walletService.findByWalletIdReadOnly(walletId)).thenReturn(Optional.of(walletEntity));
+        when(walletMapper.entityToResponse(walletEntity)).thenReturn(walletResponse);
+
+        walletApiService.getWallet(walletId);
+
+        verify(walletReadCache).put(eq(walletId), eq(7L), eq(walletResponse), anyLong());
+    }
+
     @Test
     void deposit_shouldSucceed() {
 
@@ -86,7 +156,7 @@ class WalletApiServiceTest extends BaseUnitTest {
         TransactionResponse transactionResponse = new TransactionResponse();
 
         when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
-        when(walletService.findWithLockingById(walletId)).thenReturn(Optional.of(walletEntity));
+        when(walletService.findForCreditById(walletId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(Optional.of(walletEntity));
         when(transactionService.deposit(any(), any(), any(), any())).thenReturn(transactionEntity);
         when(walletMapper.toTransactionResponse(transactionEntity)).thenReturn(transactionResponse);
 
@@ -104,7 +174,7 @@ class WalletApiServiceTest extends BaseUnitTest {
         request.setRequestId(uuid());
 
         when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
-        when(walletService.findWithLockingById(walletId)).thenReturn(Optional.empty());
+        when(walletService.findForCreditById(walletId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(Optional.empty());
 
         assertThrows(WalletNotFoundException.class, () -> walletApiService.deposit(walletId, request));
 
@@ -124,7 +194,7 @@ class WalletApiServiceTest extends BaseUnitTest {
         transactionEntity.setFailureReason("Error");
 
         when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
-        when(walletService.findWithLockingById(walletId)).thenReturn(Optional.of(walletEntity));
+        when(walletService.findForCreditById(walletId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(Optional.of(walletEntity));
         when(transactionService.deposit(any(), any(), any(), any())).thenReturn(transactionEntity);
 
         assertThrows(TransactionFailedException.class, () -> walletApiService.deposit(walletId, request));
@@ -132,6 +202,31 @@ class WalletApiServiceTest extends BaseUnitTest {
         verify(idempotencyApiService).rejected(eq(request.getRequestId()), eq(request), eq("Error"), eq(422));
     }
 
+    @Test
+    void withdraw_shouldNotLoadWallet_whenConditionalWithdraw() {
+        executionProperties.setConditionalWithdraw(true);
+
+        WithdrawRequest request = new WithdrawRequest();
+        request.setRequestId(uuid());
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.USD);
+
+        TransactionEntity transactionEntity = new TransactionEntity();
+        transactionEntity.setStatus(TransactionStatus.COMPLETED);
+        TransactionResponse transactionResponse = new TransactionResponse();
+
+        when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
+        when(transactionService.withdrawById(request.getRequestId(), walletId, BigDecimal.TEN, Currency.USD)).thenReturn(transactionEntity);
+        when(walletMapper.toTransactionResponse(transactionEntity)).thenReturn(transactionResponse);
+
+        TransactionResponse result = walletApiService.withdraw(walletId, request);
+
+        assertThat(result).isEqualTo(transactionResponse);
+        verify(policyService).verifyRateLimit(walletId);
+        verify(policyService).verifyBlacklist(walletId);
+        verifyNoInteractions(walletService);
+    }
+
     @Test
     void transfer_shouldSucceed() {
         TransferRequest request = new TransferRequest();
@@ -141,27 +236,157 @@ class WalletApiServiceTest extends BaseUnitTest {
         request.setCurrency(Currency.USD);
         request.setAmount(BigDecimal.TEN);
 
-        WalletEntity fromWallet = new WalletEntity();
-        fromWallet.setId(request.getFromWalletId());
-        WalletEntity toWallet = new WalletEntity();
-        toWallet.setId(request.getToWalletId());
-
         TransactionEntity transactionEntity = new TransactionEntity();
         transactionEntity.setStatus(TransactionStatus.COMPLETED);
         TransactionResponse transactionResponse = new TransactionResponse();
 
         when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
 
-        when(walletService.lockAllByIdsAndCurrencyOrdered(any(), any())).thenReturn(List.of(fromWallet, toWallet));
-
-        when(transactionService.transfer(any(), any(), any(), any(), any())).thenReturn(transactionEntity);
+        when(transferEngine.transfer(request.getRequestId(), request.getFromWalletId(), request.getToWalletId(),
+                BigDecimal.TEN, Currency.USD, LockModeType.PESSIMISTIC_WRITE)).thenReturn(transactionEntity);
         when(walletMapper.toTransactionResponse(transactionEntity)).thenReturn(transactionResponse);
 
         TransactionResponse result = walletApiService.transfer(request);
 
         assertThat(result).isEqualTo(transactionResponse);
-        verify(policyService).validate(fromWallet);
-        verify(policyService).validate(toWallet);
         verify(idempotencyApiService).success(eq(request.getRequestId()), eq(transactionResponse), eq(200));
     }
+
+    @Test
+    void transfer_shouldThrow_whenTransactionFailed() {
+        TransferRequest request = new TransferRequest();
+        request.setRequestId(uuid());
+        request.setFromWalletId(uuid());
+        request.setToWalletId(uuid());
+        request.setCurrency(Currency.USD);
+        request.setAmount(BigDecimal.TEN);
+
+        TransactionEntity transactionEntity = new TransactionEntity();
+        transactionEntity.setStatus(TransactionStatus.FAILED);
+        transactionEntity.setFailureReason("Insufficient funds");
+
+        when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
+        when(transferEngine.transfer(any(), any(), any(), any(), any(), any())).thenReturn(transactionEntity);
+
+        assertThrows(TransactionFailedException.class, () -> walletApiService.transfer(request));
+
+        verify(idempotencyApiService).rejected(eq(request.getRequestId()), eq(request), eq("Insufficient funds"), eq(422));
+    }
+
+    @Test
+    void deposit_shouldCompleteInsideOneTransaction_whenSingleTransactionMode() {
+        executionProperties.setMode(ExecutionProperties.Mode.SINGLE_TRANSACTION);
+
+        DepositRequest request = new DepositRequest();
+        request.setRequestId(uuid());
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.USD);
+
+        WalletEntity walletEntity = new WalletEntity();
+        TransactionEntity transactionEntity = new TransactionEntity();
+        transactionEntity.setStatus(TransactionStatus.COMPLETED);
+        TransactionResponse transactionResponse = new TransactionResponse();
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
+        when(walletService.findForCreditById(walletId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(Optional.of(walletEntity));
+        when(transactionService.deposit(any(), any(), any(), any())).thenReturn(transactionEntity);
+        when(walletMapper.toTransactionResponse(transactionEntity)).thenReturn(transactionResponse);
+
+        TransactionResponse result = walletApiService.deposit(walletId, request);
+
+        assertThat(result).isEqualTo(transactionResponse);
+        verify(transactionTemplate).execute(any());
+        verify(idempotencyApiService).createInCurrentTransaction(eq(request.getRequestId()), eq(request), eq(RequestType.DEPOSIT), eq(Currency.USD), isNull(), eq(walletId));
+        verify(idempotencyApiService).successInCurrentTransaction(eq(request.getRequestId()), eq(transactionResponse), eq(200));
+        verify(idempotencyApiService, never()).create(any(), any(), any(), any(), any(), any());
+        verify(idempotencyApiService, never()).success(any(), any(), anyInt());
+    }
+
+    @Test
+    void withdraw_shouldCommitFailedTransactionBeforeRejecting_whenSingleTransactionMode() {
+        executionProperties.setMode(ExecutionProperties.Mode.SINGLE_TRANSACTION);
+
+        WithdrawRequest request = new WithdrawRequest();
+        request.setRequestId(uuid());
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.USD);
+
+        TransactionEntity transactionEntity = new TransactionEntity();
+        transactionEntity.setStatus(TransactionStatus.FAILED);
+        transactionEntity.setFailureReason("Insufficient funds");
+
+        WalletEntity walletEntity = new WalletEntity();
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
+        when(walletService.findForDebitById(walletId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(Optional.of(walletEntity));
+        when(transactionService.withdraw(any(), any(), any(), any())).thenReturn(transactionEntity);
+
+        assertThrows(TransactionFailedException.class, () -> walletApiService.withdraw(walletId, request));
+
+        verify(idempotencyApiService).createInCurrentTransaction(eq(request.getRequestId()), eq(request), eq(RequestType.WITHDRAW), eq(Currency.USD), eq(walletId), isNull());
+        verify(idempotencyApiService, never()).successInCurrentTransaction(any(), any(), anyInt());
+        verify(idempotencyApiService, never()).create(any(), any(), any(), any(), any(), any());
+        verify(idempotencyApiService).rejected(eq(request.getRequestId()), eq(request), eq("Insufficient funds"), eq(422));
+    }
+
+    @Test
+    void deposit_shouldRestoreIdempotencyKeyAfterRollback_whenSingleTransactionModeFails() {
+        executionProperties.setMode(ExecutionProperties.Mode.SINGLE_TRANSACTION);
+
+        DepositRequest request = new DepositRequest();
+        request.setRequestId(uuid());
+        request.setCurrency(Currency.USD);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
+        when(walletService.findForCreditById(walletId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(Optional.empty());
+
+        assertThrows(WalletNotFoundException.class, () -> walletApiService.deposit(walletId, request));
+
+        var inOrder = inOrder(idempotencyApiService);
+        inOrder.verify(idempotencyApiService).create(eq(request.getRequestId()), eq(request), eq(RequestType.DEPOSIT), eq(Currency.USD), isNull(), eq(walletId));
+        inOrder.verify(idempotencyApiService).rejected(eq(request.getRequestId()), eq(request), anyString(), eq(404));
+    }
+
+    @Test
+    void deposit_shouldRecordRequestMetricWithErrorStatus_whenWalletNotFound() {
+        DepositRequest request = new DepositRequest();
+        request.setRequestId(uuid());
+        request.setCurrency(Currency.USD);
+
+        when(idempotencyApiService.checkIdempotency(any(), any(), any())).thenReturn(Optional.empty());
+        when(walletService.findForCreditById(walletId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(Optional.empty());
+
+        assertThrows(WalletNotFoundException.class, () -> walletApiService.deposit(walletId, request));
+
+        verify(walletMetrics).recordRequest(eq(RequestType.DEPOSIT), eq(404), anyLong());
+    }
+
+    @Test
+    void deposit_shouldReplayConcurrentDuplicate_whenKeyAlreadyClaimed() {
+        DepositRequest request = new DepositRequest();
+        request.setRequestId(uuid());
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.USD);
+
+        TransactionResponse pendingResponse = new TransactionResponse();
+        pendingResponse.setStatus(TransactionStatus.PENDING);
+
+        when(idempotencyApiService.checkIdempotency(any(), any(), any()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(pendingResponse));
+        when(idempotencyApiService.create(any(), any(), any(), any(), any(), any())).thenReturn(false);
+
+        TransactionResponse result = walletApiService.deposit(walletId, request);
+
+        assertThat(result).isEqualTo(pendingResponse);
+        verifyNoInteractions(walletService, transactionService);
+        verify(idempotencyApiService, never()).success(any(), any(), anyInt());
+        verify(idempotencyApiService, never()).error(any(), any(), anyInt());
+    }
 }
@@ -3,10 +3,12 @@ package com.syneronix.wallet;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
 @ConfigurationPropertiesScan(basePackages = "com.syneronix.wallet")
+@EnableScheduling
 public class WalletApplication {
     public static void main(String[] args) {
         new SpringApplicationBuilder(WalletApplication.class).profiles("prd").run(args);
@@ -0,0 +1,74 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.syneronix.wallet.api.dto.wallet.CreateWalletRequest;
+import com.syneronix.wallet.api.dto.wallet.DepositRequest;
+import com.syneronix.wallet.api.services.WalletApiService;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.testing.IntegrationApplication;
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Boots the full service graph against the PostgreSQL "itest" profile, overridden by {@code application-bench.yml}.
+ * The idempotency claim is a PostgreSQL {@code INSERT ... ON CONFLICT}, so the benchmarks need the docker database.
+ */
+@UtilityClass
+public class BenchmarkContext {
+
+    public static final Currency CURRENCY = Currency.USD;
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(IntegrationApplication.class)
+                .profiles("itest", "bench")
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .logStartupInfo(false)
+                .run();
+    }
+
+    /**
+     * Same as {@link #start()} but with the embedded Tomcat on a random port ({@code local.server.port}).
+     */
+    public static ConfigurableApplicationContext startWeb(boolean virtualThreads) {
+        return new SpringApplicationBuilder(IntegrationApplication.class)
+                .profiles("itest", "bench")
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "syneronix.execution.virtual-threads.enabled=" + virtualThreads)
+                .logStartupInfo(false)
+                .run();
+    }
+
+    public static UUID createWallet(WalletApiService walletApiService) {
+        return createWallet(walletApiService, 0);
+    }
+
+    /**
+     * @param balanceSlots needs {@code syneronix.sharding.enabled} when above 0
+     */
+    public static UUID createWallet(WalletApiService walletApiService, int balanceSlots) {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setRequestId(UUID.randomUUID());
+        request.setTimestamp(Instant.now());
+        request.setUserId(UUID.randomUUID());
+        request.setCurrency(CURRENCY);
+        request.setBalanceSlots(balanceSlots);
+        return walletApiService.createWallet(request).getId();
+    }
+
+    public static DepositRequest depositRequest(BigDecimal amount) {
+        DepositRequest request = new DepositRequest();
+        request.setRequestId(UUID.randomUUID());
+        request.setTimestamp(Instant.now());
+        request.setAmount(amount);
+        request.setCurrency(CURRENCY);
+        return request;
+    }
+}
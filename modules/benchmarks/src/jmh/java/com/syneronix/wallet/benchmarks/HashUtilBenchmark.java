@@ -0,0 +1,76 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syneronix.wallet.api.dto.wallet.TransferRequest;
+import com.syneronix.wallet.mappers.JsonMapper;
+import com.syneronix.wallet.mappers.RequestFingerprinter;
+import com.syneronix.wallet.spring.JacksonMapperConfig;
+import com.syneronix.wallet.utils.HashUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request fingerprinting as done on every idempotency create and replay: the hex {@link HashUtil} path against
+ * {@link RequestFingerprinter}, which streams the serialized request into a pooled digest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashUtilBenchmark {
+
+    private JsonMapper jsonMapper;
+    private RequestFingerprinter requestFingerprinter;
+    private TransferRequest request;
+    private String requestJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = JacksonMapperConfig.newObjectMapper(new Jackson2ObjectMapperBuilder());
+        jsonMapper = new JsonMapper(objectMapper);
+        requestFingerprinter = new RequestFingerprinter(objectMapper);
+
+        request = new TransferRequest();
+        request.setRequestId(UUID.randomUUID());
+        request.setTimestamp(Instant.now());
+        request.setFromWalletId(UUID.randomUUID());
+        request.setToWalletId(UUID.randomUUID());
+        request.setAmount(new BigDecimal("125.50"));
+        request.setCurrency(BenchmarkContext.CURRENCY);
+        requestJson = jsonMapper.toJson(request);
+    }
+
+    @Benchmark
+    public String calculateSha256() {
+        return HashUtil.calculateSha256(requestJson);
+    }
+
+    @Benchmark
+    public String serializeAndCalculateSha256() {
+        return HashUtil.calculateSha256(jsonMapper.toJson(request));
+    }
+
+    @Benchmark
+    public byte[] fingerprintJson() {
+        return requestFingerprinter.sha256(requestJson);
+    }
+
+    @Benchmark
+    public byte[] fingerprintRequest() {
+        return requestFingerprinter.sha256(request);
+    }
+
+    @Benchmark
+    public boolean verifyHex() {
+        return HashUtil.calculateSha256(jsonMapper.toJson(request)).equals(HashUtil.calculateSha256(requestJson));
+    }
+
+    @Benchmark
+    public boolean verifyDigest() {
+        return RequestFingerprinter.matches(requestFingerprinter.sha256(requestJson), requestFingerprinter.sha256(request));
+    }
+}
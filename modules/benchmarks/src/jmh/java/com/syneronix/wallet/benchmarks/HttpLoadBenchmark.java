@@ -0,0 +1,88 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.syneronix.wallet.api.services.WalletApiService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load against the embedded Tomcat with {@value #CLIENTS} concurrent clients, once on the default platform
+ * worker pool and once with {@code syneronix.execution.virtual-threads.enabled}. Throughput gives requests per
+ * second across all clients, SampleTime the per-request p50/p99/p99.9 latency including the time a request waits
+ * for a worker thread or a pooled connection.
+ * <p>
+ * Each client deposits into its own wallet, so the wallet row locks are not what is being measured. The virtual
+ * thread run needs Java 21 or {@code --enable-preview}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(HttpLoadBenchmark.CLIENTS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+public class HttpLoadBenchmark {
+
+    static final int CLIENTS = 1024;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private WalletApiService walletApiService;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        context = BenchmarkContext.startWeb("virtual".equals(threads));
+        walletApiService = context.getBean(WalletApiService.class);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/wallets/";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        UUID walletId;
+
+        @Setup(Level.Trial)
+        public void createWallet(HttpLoadBenchmark benchmark) {
+            walletId = BenchmarkContext.createWallet(benchmark.walletApiService);
+        }
+    }
+
+    @Benchmark
+    public int deposit(Client client) throws Exception {
+        String body = """
+                {"request_id":"%s","timestamp":"%s","amount":%s,"currency":"%s"}
+                """.formatted(UUID.randomUUID(), Instant.now(), BigDecimal.ONE, BenchmarkContext.CURRENCY);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + client.walletId + "/deposit"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int getWallet(Client client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + client.walletId)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
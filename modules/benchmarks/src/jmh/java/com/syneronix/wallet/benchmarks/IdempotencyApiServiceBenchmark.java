@@ -0,0 +1,57 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.syneronix.wallet.api.dto.wallet.DepositRequest;
+import com.syneronix.wallet.api.dto.wallet.TransactionResponse;
+import com.syneronix.wallet.api.services.IdempotencyApiService;
+import com.syneronix.wallet.api.services.WalletApiService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay path of a client retry: key lookup, request re-serialization and hashing, stored response
+ * deserialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdempotencyApiServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private IdempotencyApiService idempotencyApiService;
+
+    private DepositRequest completedRequest;
+    private DepositRequest unknownRequest;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start();
+        idempotencyApiService = context.getBean(IdempotencyApiService.class);
+
+        WalletApiService walletApiService = context.getBean(WalletApiService.class);
+        UUID walletId = BenchmarkContext.createWallet(walletApiService);
+        completedRequest = BenchmarkContext.depositRequest(new BigDecimal("10.00"));
+        walletApiService.deposit(walletId, completedRequest);
+
+        unknownRequest = BenchmarkContext.depositRequest(new BigDecimal("10.00"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<TransactionResponse> replayCompleted() {
+        return idempotencyApiService.checkIdempotency(completedRequest.getRequestId(), completedRequest, TransactionResponse.class);
+    }
+
+    @Benchmark
+    public Optional<TransactionResponse> firstSeen() {
+        return idempotencyApiService.checkIdempotency(unknownRequest.getRequestId(), unknownRequest, TransactionResponse.class);
+    }
+}
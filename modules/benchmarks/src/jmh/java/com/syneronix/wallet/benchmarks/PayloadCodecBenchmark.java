@@ -0,0 +1,98 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syneronix.wallet.api.dto.wallet.TransactionResponse;
+import com.syneronix.wallet.api.dto.wallet.WalletMapper;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.common.TransactionType;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.mappers.JsonMapper;
+import com.syneronix.wallet.mappers.PayloadCodec;
+import com.syneronix.wallet.spring.JacksonMapperConfig;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency response payloads as stored on every completion and read on every database replay: jsonb text
+ * against Smile, with and without deflate. The sizes they come to are asserted by {@code PayloadCodecTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadCodecBenchmark {
+
+    private JsonMapper jsonMapper;
+    private PayloadCodec payloadCodec;
+    private TransactionResponse response;
+    private String json;
+    private byte[] smile;
+    private byte[] deflated;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = JacksonMapperConfig.newObjectMapper(new Jackson2ObjectMapperBuilder());
+        jsonMapper = new JsonMapper(objectMapper);
+        payloadCodec = new PayloadCodec(objectMapper);
+
+        WalletEntity fromWallet = new WalletEntity();
+        fromWallet.setId(UUID.randomUUID());
+        fromWallet.setCurrency(BenchmarkContext.CURRENCY);
+
+        WalletEntity toWallet = new WalletEntity();
+        toWallet.setId(UUID.randomUUID());
+        toWallet.setCurrency(BenchmarkContext.CURRENCY);
+
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setId(UUID.randomUUID());
+        transaction.setRequestId(UUID.randomUUID());
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(new BigDecimal("125.50"));
+        transaction.setCurrency(BenchmarkContext.CURRENCY);
+        transaction.setFromWallet(fromWallet);
+        transaction.setToWallet(toWallet);
+        transaction.setCreatedAt(Instant.now());
+        response = Mappers.getMapper(WalletMapper.class).toTransactionResponse(transaction);
+
+        json = jsonMapper.toJson(response);
+        smile = payloadCodec.encode(response, false);
+        deflated = payloadCodec.encode(response, true);
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return jsonMapper.toJson(response);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() {
+        return payloadCodec.encode(response, false);
+    }
+
+    @Benchmark
+    public byte[] encodeSmileDeflated() {
+        return payloadCodec.encode(response, true);
+    }
+
+    @Benchmark
+    public TransactionResponse decodeJson() {
+        return jsonMapper.fromJson(json, TransactionResponse.class);
+    }
+
+    @Benchmark
+    public TransactionResponse decodeSmile() {
+        return payloadCodec.decode(smile, TransactionResponse.class);
+    }
+
+    @Benchmark
+    public TransactionResponse decodeSmileDeflated() {
+        return payloadCodec.decode(deflated, TransactionResponse.class);
+    }
+}
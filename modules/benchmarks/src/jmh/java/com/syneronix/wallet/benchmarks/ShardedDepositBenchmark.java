@@ -0,0 +1,48 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.syneronix.wallet.api.dto.wallet.TransactionResponse;
+import com.syneronix.wallet.api.services.WalletApiService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits of all threads into one sharded wallet, for a growing number of balance slots. A credit holds only its
+ * slot until commit, so throughput should grow with {@code slots} until it reaches the thread count or the
+ * connection pool (16 each); with a single slot every deposit waits for the previous one to commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class ShardedDepositBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"1", "4", "16"})
+    public int slots;
+
+    private ConfigurableApplicationContext context;
+    private WalletApiService walletApiService;
+    private UUID wallet;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("syneronix.sharding.enabled=true");
+        walletApiService = context.getBean(WalletApiService.class);
+        wallet = BenchmarkContext.createWallet(walletApiService, slots);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse deposit() {
+        return walletApiService.deposit(wallet, BenchmarkContext.depositRequest(AMOUNT));
+    }
+}
@@ -0,0 +1,85 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.syneronix.wallet.api.dto.wallet.TransactionResponse;
+import com.syneronix.wallet.api.dto.wallet.TransferRequest;
+import com.syneronix.wallet.api.dto.wallet.WithdrawRequest;
+import com.syneronix.wallet.api.services.WalletApiService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end money movements through {@link WalletApiService}: idempotency check/create, wallet locking,
+ * policy validation, balance mutation, ledger write and idempotency completion.
+ * <p>
+ * Every thread works on its own pair of wallets so the numbers reflect the per-request cost of the path
+ * rather than row lock contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class WalletApiServiceBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+    private static final BigDecimal INITIAL_FUNDS = new BigDecimal("1000000000.00");
+
+    private ConfigurableApplicationContext context;
+    private WalletApiService walletApiService;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start();
+        walletApiService = context.getBean(WalletApiService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Wallets {
+
+        UUID source;
+        UUID target;
+
+        @Setup(Level.Trial)
+        public void createWallets(WalletApiServiceBenchmark benchmark) {
+            source = BenchmarkContext.createWallet(benchmark.walletApiService);
+            target = BenchmarkContext.createWallet(benchmark.walletApiService);
+            benchmark.walletApiService.deposit(source, BenchmarkContext.depositRequest(INITIAL_FUNDS));
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse deposit(Wallets wallets) {
+        return walletApiService.deposit(wallets.target, BenchmarkContext.depositRequest(AMOUNT));
+    }
+
+    @Benchmark
+    public TransactionResponse withdraw(Wallets wallets) {
+        WithdrawRequest request = new WithdrawRequest();
+        request.setRequestId(UUID.randomUUID());
+        request.setTimestamp(Instant.now());
+        request.setAmount(AMOUNT);
+        request.setCurrency(BenchmarkContext.CURRENCY);
+        return walletApiService.withdraw(wallets.source, request);
+    }
+
+    @Benchmark
+    public TransactionResponse transfer(Wallets wallets) {
+        TransferRequest request = new TransferRequest();
+        request.setRequestId(UUID.randomUUID());
+        request.setTimestamp(Instant.now());
+        request.setFromWalletId(wallets.source);
+        request.setToWalletId(wallets.target);
+        request.setAmount(AMOUNT);
+        request.setCurrency(BenchmarkContext.CURRENCY);
+        return walletApiService.transfer(request);
+    }
+}
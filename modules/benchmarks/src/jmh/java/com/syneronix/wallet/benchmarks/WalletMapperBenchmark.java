@@ -0,0 +1,53 @@
+package com.syneronix.wallet.benchmarks;
+
+import com.syneronix.wallet.api.dto.wallet.TransactionResponse;
+import com.syneronix.wallet.api.dto.wallet.WalletMapper;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.common.TransactionType;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.WalletEntity;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WalletMapperBenchmark {
+
+    private WalletMapper walletMapper;
+    private TransactionEntity transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        walletMapper = Mappers.getMapper(WalletMapper.class);
+
+        WalletEntity fromWallet = new WalletEntity();
+        fromWallet.setId(UUID.randomUUID());
+        fromWallet.setCurrency(BenchmarkContext.CURRENCY);
+
+        WalletEntity toWallet = new WalletEntity();
+        toWallet.setId(UUID.randomUUID());
+        toWallet.setCurrency(BenchmarkContext.CURRENCY);
+
+        transaction = new TransactionEntity();
+        transaction.setId(UUID.randomUUID());
+        transaction.setRequestId(UUID.randomUUID());
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(new BigDecimal("125.50"));
+        transaction.setCurrency(BenchmarkContext.CURRENCY);
+        transaction.setFromWallet(fromWallet);
+        transaction.setToWallet(toWallet);
+        transaction.setCreatedAt(Instant.now());
+    }
+
+    @Benchmark
+    public TransactionResponse toTransactionResponse() {
+        return walletMapper.toTransactionResponse(transaction);
+    }
+}
@@ -0,0 +1,9 @@
+package com.syneronix.wallet.api.errors;
+
+import org.springframework.http.HttpStatus;
+
+public class SubscriberLimitExceededException extends BaseApiExceptionModel {
+    public SubscriberLimitExceededException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+}
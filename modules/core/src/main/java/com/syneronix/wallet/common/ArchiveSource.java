@@ -0,0 +1,6 @@
+package com.syneronix.wallet.common;
+
+public enum ArchiveSource {
+    TRANSACTIONS,
+    LEDGER_ENTRIES
+}
@@ -0,0 +1,7 @@
+package com.syneronix.wallet.common;
+
+public enum OutboxEventType {
+    TRANSACTION_COMPLETED,
+    TRANSACTION_FAILED,
+    WALLET_BLOCKED
+}
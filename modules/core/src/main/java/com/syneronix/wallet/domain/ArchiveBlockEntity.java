@@ -0,0 +1,70 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.ArchiveSource;
+import com.syneronix.wallet.hibernate.base.BaseEntity;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One block of the cold-storage archive: the archived rows of one wallet and one UTC month, newest first, stored at
+ * {@code [fileOffset, fileOffset + byteLength)} of {@code file}. A month with many rows is split into several blocks.
+ */
+@Entity
+@Table(
+        name = "archive_blocks",
+        schema = EntitySchema.NAME,
+        indexes = {
+                @Index(name = "idx_archive_blocks_wallet_source_month", columnList = "wallet_id, source, month_start DESC")
+        }
+)
+@NoArgsConstructor
+@Getter
+@Setter
+public class ArchiveBlockEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private ArchiveSource source;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    /**
+     * First day of the month the rows were created in.
+     */
+    @Column(nullable = false)
+    private LocalDate monthStart;
+
+    /**
+     * Archive file name, relative to the archive directory.
+     */
+    @Column(nullable = false)
+    private String file;
+
+    @Column(nullable = false)
+    private long fileOffset;
+
+    @Column(nullable = false)
+    private int byteLength;
+
+    @Column(nullable = false)
+    private int rowCount;
+
+    @Column(nullable = false)
+    private Instant oldestCreatedAt;
+
+    @Column(nullable = false)
+    private Instant newestCreatedAt;
+}
@@ -0,0 +1,31 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.ArchiveSource;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ArchiveBlockRepository extends JpaRepository<ArchiveBlockEntity, UUID> {
+
+    /**
+     * Blocks of the wallet holding rows created at or after {@code from}, newest first.
+     */
+    @Query("SELECT b FROM ArchiveBlockEntity b WHERE b.walletId = :walletId AND b.source = :source "
+            + "AND b.monthStart >= :fromMonth AND b.newestCreatedAt >= :from ORDER BY b.newestCreatedAt DESC")
+    List<ArchiveBlockEntity> findBlocksSince(@Param("walletId") UUID walletId, @Param("source") ArchiveSource source,
+                                             @Param("fromMonth") LocalDate fromMonth, @Param("from") Instant from);
+
+    /**
+     * Newest block of the wallet holding rows created before {@code before}, the one with the latest of them.
+     */
+    Optional<ArchiveBlockEntity> findFirstByWalletIdAndSourceAndOldestCreatedAtBeforeOrderByNewestCreatedAtDesc(
+            UUID walletId, ArchiveSource source, Instant before);
+}
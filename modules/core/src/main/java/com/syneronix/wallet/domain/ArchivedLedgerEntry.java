@@ -0,0 +1,23 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A ledger entry as it is kept in the cold-storage archive.
+ */
+public record ArchivedLedgerEntry(
+        UUID id,
+        Instant createdAt,
+        UUID transactionId,
+        UUID walletId,
+        BigDecimal amount,
+        Currency currency,
+        MoneyFlowDirection direction,
+        BigDecimal balanceAfter
+) {
+}
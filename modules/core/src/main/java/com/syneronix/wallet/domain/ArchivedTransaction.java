@@ -0,0 +1,57 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.common.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A settled transaction as it is kept in the cold-storage archive.
+ */
+public record ArchivedTransaction(
+        UUID id,
+        Instant createdAt,
+        Instant updatedAt,
+        UUID requestId,
+        TransactionType type,
+        TransactionStatus status,
+        BigDecimal amount,
+        Currency currency,
+        UUID fromWalletId,
+        UUID toWalletId,
+        String description,
+        String failureReason
+) {
+
+    /**
+     * A detached entity for the read path, with wallets that carry their id only.
+     */
+    public TransactionEntity toEntity() {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setId(id);
+        entity.setCreatedAt(createdAt);
+        entity.setUpdatedAt(updatedAt);
+        entity.setRequestId(requestId);
+        entity.setType(type);
+        entity.setStatus(status);
+        entity.setAmount(amount);
+        entity.setCurrency(currency);
+        entity.setFromWallet(wallet(fromWalletId));
+        entity.setToWallet(wallet(toWalletId));
+        entity.setDescription(description);
+        entity.setFailureReason(failureReason);
+        return entity;
+    }
+
+    private static WalletEntity wallet(UUID id) {
+        if (id == null) {
+            return null;
+        }
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(id);
+        return wallet;
+    }
+}
@@ -1,8 +1,10 @@
 package com.syneronix.wallet.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -10,4 +12,7 @@ import java.util.UUID;
 public interface BlacklistRepository extends JpaRepository<BlacklistEntity, UUID> {
     Optional<BlacklistEntity> findByWalletId(UUID walletId);
     boolean existsByWalletId(UUID walletId);
+
+    @Query("SELECT b.walletId FROM BlacklistEntity b")
+    List<UUID> findAllWalletIds();
 }
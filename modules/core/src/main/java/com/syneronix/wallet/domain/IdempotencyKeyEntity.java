@@ -21,7 +21,7 @@ import java.util.UUID;
         name = "idempotency_keys",
         schema = EntitySchema.NAME,
         indexes = {
-                @Index(name = "idx_idempotency_keys_request_id", columnList = "request_id", unique = true)
+                @Index(name = "idx_idempotency_keys_request_id", columnList = "request_id")
         }
 )
 @NoArgsConstructor
@@ -60,16 +60,32 @@ public class IdempotencyKeyEntity extends BaseEntity {
     private int httpStatusCode = -1;
 
     @Type(JsonType.class)
-    @Column(columnDefinition = "jsonb", nullable = false , updatable = false)
+    @Column(columnDefinition = "jsonb", updatable = false)
     private String requestBody;
 
+    /**
+     * Binary request, set instead of {@link #requestBody} when keys are written in the binary payload format.
+     */
+    @Column(updatable = false)
+    private byte[] requestPayload;
+
+    /**
+     * Hex SHA-256 of the request, superseded by {@link #requestDigest}; still written while
+     * {@code syneronix.idempotency.legacy-request-hash} is on.
+     */
     @Column(length = 64)
     private String requestHash;
 
+    @Column(length = 32, updatable = false)
+    private byte[] requestDigest;
+
     @Type(JsonType.class)
     @Column(columnDefinition = "jsonb")
     private String responseBody;
 
+    @Column
+    private byte[] responsePayload;
+
     @Column
     private String failReason;
 }
@@ -1,13 +1,51 @@
 package com.syneronix.wallet.domain;
 
+import com.syneronix.wallet.hibernate.base.EntitySchema;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, UUID> {
-    Optional<IdempotencyKeyEntity> findByRequestId(UUID requestId);
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, UUID>, IdempotencyKeyRepositoryCustom {
+
+    /**
+     * Reads the claim first, so only the partition of its {@code created_at} is searched.
+     */
+    @Query(value = "SELECT k.* FROM " + EntitySchema.NAME + ".idempotency_keys k "
+            + "WHERE k.request_id = :requestId "
+            + "AND k.created_at = (SELECT c.created_at FROM " + EntitySchema.NAME + ".idempotency_key_claims c WHERE c.request_id = :requestId)",
+            nativeQuery = true)
+    Optional<IdempotencyKeyEntity> findByRequestId(@Param("requestId") UUID requestId);
+
     boolean existsByRequestId(UUID requestId);
+
+    @Query(value = "SELECT k.* FROM " + EntitySchema.NAME + ".idempotency_key_claims c "
+            + "JOIN " + EntitySchema.NAME + ".idempotency_keys k ON k.request_id = c.request_id AND k.created_at = c.created_at "
+            + "WHERE c.request_id IN (:requestIds)",
+            nativeQuery = true)
+    List<IdempotencyKeyEntity> findAllByRequestIdIn(@Param("requestIds") Collection<UUID> requestIds);
+
+    /**
+     * Transaction scoped advisory lock that makes one instance at a time create or drop partitions.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(7170012)", nativeQuery = true)
+    boolean tryPartitionLock();
+
+    /**
+     * Deletes up to {@code limit} claims created before {@code before}, whose keys have been dropped with their
+     * partitions.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM " + EntitySchema.NAME + ".idempotency_key_claims WHERE request_id IN ("
+            + "SELECT request_id FROM " + EntitySchema.NAME + ".idempotency_key_claims WHERE created_at < :before LIMIT :limit)",
+            nativeQuery = true)
+    int deleteClaimsBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
 }
@@ -0,0 +1,42 @@
+package com.syneronix.wallet.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IdempotencyKeyRepositoryCustom {
+
+    /**
+     * Inserts the key unless one already exists for its request id, in a single statement: the request id is
+     * claimed in {@code idempotency_key_claims} with {@code INSERT ... ON CONFLICT (request_id) DO NOTHING}, and the
+     * key is inserted only if that claim did.
+     * <p>
+     * A concurrent claim of the same request id waits for the other transaction to finish instead of failing
+     * on the unique constraint.
+     * <p>
+     * A claim created before {@code expiredBefore} belongs to an expired key, whose partition is dropped or about
+     * to be, and is taken over instead: lookups follow the claim's {@code created_at}, so they find the new key.
+     *
+     * @param expiredBefore claims created before it are expired, {@code null} if claims never expire
+     * @return {@code true} if this call inserted the key and the caller owns the request,
+     * {@code false} if the request id was already claimed
+     */
+    boolean claim(IdempotencyKeyEntity key, LocalDateTime expiredBefore);
+
+    /**
+     * Creates the partition holding the keys created on {@code day} (UTC), if it does not exist yet.
+     */
+    void createPartition(LocalDate day);
+
+    /**
+     * Detaches the partition of {@code day} from {@code idempotency_keys} and drops it with all of its keys. The
+     * detach waits at most {@code lockTimeoutMillis} for its lock on the parent, which claims and lookups queue
+     * behind; the drop then only locks the detached table. Both are undone together when the transaction rolls back.
+     */
+    void dropPartition(LocalDate day, long lockTimeoutMillis);
+
+    /**
+     * Days of the existing partitions, oldest first. The oldest one may also hold everything created before its day.
+     */
+    List<LocalDate> findPartitionDays();
+}
@@ -0,0 +1,122 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+public class IdempotencyKeyRepositoryCustomImpl implements IdempotencyKeyRepositoryCustom {
+
+    private static final String CLAIM_SQL = """
+            WITH claimed AS (
+                INSERT INTO %1$s.idempotency_key_claims AS c (request_id, created_at)
+                VALUES (?, ?)
+                ON CONFLICT (request_id) DO UPDATE SET created_at = EXCLUDED.created_at
+                    WHERE c.created_at < CAST(? AS timestamp)
+                RETURNING request_id, created_at
+            )
+            INSERT INTO %1$s.idempotency_keys (id, created_at, updated_at, version, request_id, request_type, currency,
+                                               from_wallet_id, to_wallet_id, status, http_status_code, request_body, request_hash,
+                                               request_digest, request_payload)
+            SELECT ?, claimed.created_at, claimed.created_at, 0, claimed.request_id, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?
+            FROM claimed
+            RETURNING id
+            """.formatted(EntitySchema.NAME);
+
+    private static final String PARTITION_PREFIX = "idempotency_keys_p";
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean claim(IdempotencyKeyEntity key, LocalDateTime expiredBefore) {
+        UUID id = key.getId() != null ? key.getId() : UUID.randomUUID();
+        Instant now = Instant.now();
+
+        boolean claimed = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(CLAIM_SQL)) {
+                LocalDateTime createdAt = LocalDateTime.ofInstant(now, ZoneOffset.UTC);
+                int i = 1;
+                statement.setObject(i++, key.getRequestId());
+                statement.setObject(i++, createdAt);
+                if (expiredBefore != null) {
+                    statement.setObject(i++, expiredBefore);
+                } else {
+                    statement.setNull(i++, Types.TIMESTAMP);
+                }
+                statement.setObject(i++, id);
+                statement.setString(i++, key.getRequestType().name());
+                statement.setString(i++, key.getCurrency().name());
+                statement.setObject(i++, key.getFromWalletId());
+                statement.setObject(i++, key.getToWalletId());
+                statement.setString(i++, key.getStatus().name());
+                statement.setInt(i++, key.getHttpStatusCode());
+                statement.setString(i++, key.getRequestBody());
+                statement.setString(i++, key.getRequestHash());
+                statement.setBytes(i++, key.getRequestDigest());
+                statement.setBytes(i, key.getRequestPayload());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next();
+                }
+            }
+        });
+
+        if (claimed) {
+            key.setId(id);
+            key.setVersion(0L);
+            key.setCreatedAt(now);
+            key.setUpdatedAt(now);
+        }
+        return claimed;
+    }
+
+    @Override
+    public void createPartition(LocalDate day) {
+        entityManager.createNativeQuery("CREATE TABLE IF NOT EXISTS %s.%s PARTITION OF %s.idempotency_keys FOR VALUES FROM ('%s') TO ('%s')"
+                        .formatted(EntitySchema.NAME, partitionName(day), EntitySchema.NAME, day, day.plusDays(1)))
+                .executeUpdate();
+    }
+
+    @Override
+    public void dropPartition(LocalDate day, long lockTimeoutMillis) {
+        entityManager.createNativeQuery("SET LOCAL lock_timeout = %d".formatted(lockTimeoutMillis)).executeUpdate();
+        entityManager.createNativeQuery("ALTER TABLE %s.idempotency_keys DETACH PARTITION %s.%s"
+                        .formatted(EntitySchema.NAME, EntitySchema.NAME, partitionName(day)))
+                .executeUpdate();
+        entityManager.createNativeQuery("DROP TABLE %s.%s".formatted(EntitySchema.NAME, partitionName(day)))
+                .executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<LocalDate> findPartitionDays() {
+        List<String> names = entityManager.createNativeQuery("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                                 JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = CAST('%s.idempotency_keys' AS regclass)
+                        """.formatted(EntitySchema.NAME))
+                .getResultList();
+        return names.stream()
+                .filter(name -> name.startsWith(PARTITION_PREFIX))
+                .map(name -> LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_DAY))
+                .sorted()
+                .toList();
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_DAY);
+    }
+}
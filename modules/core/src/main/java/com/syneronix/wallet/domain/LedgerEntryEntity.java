@@ -3,7 +3,7 @@ package com.syneronix.wallet.domain;
 
 import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.MoneyFlowDirection;
-import com.syneronix.wallet.hibernate.base.BaseEntity;
+import com.syneronix.wallet.hibernate.base.PartitionedEntity;
 import com.syneronix.wallet.hibernate.base.EntitySchema;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -19,13 +19,14 @@ import java.util.UUID;
         schema = EntitySchema.NAME,
         indexes = {
                 @Index(name = "idx_ledger_entries_transaction_id", columnList = "transaction_id"),
-                @Index(name = "idx_ledger_entries_wallet_id", columnList = "wallet_id")
+                @Index(name = "idx_ledger_entries_wallet_created_at", columnList = "wallet_id, created_at DESC, id DESC"),
+                @Index(name = "idx_ledger_entries_created_at", columnList = "created_at")
         }
 )
 @NoArgsConstructor
 @Getter
 @Setter
-public class LedgerEntryEntity extends BaseEntity {
+public class LedgerEntryEntity extends PartitionedEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -33,7 +34,7 @@ public class LedgerEntryEntity extends BaseEntity {
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
-    @JoinColumn(name = "transaction_id", nullable = false)
+    @JoinColumn(name = "transaction_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private TransactionEntity transaction;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -51,6 +52,10 @@ public class LedgerEntryEntity extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private MoneyFlowDirection direction;
 
-    @Column(nullable = false, precision = 19, scale = 4)
+    /**
+     * Wallet balance after this entry. Credits to a balance slot are written without it and get it once
+     * {@link LedgerEntryRepository#settleBalances} reaches them.
+     */
+    @Column(precision = 19, scale = 4)
     private BigDecimal balanceAfter;
 }
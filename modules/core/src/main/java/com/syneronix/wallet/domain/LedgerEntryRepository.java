@@ -1,10 +1,94 @@
 package com.syneronix.wallet.domain;
 
+import com.syneronix.wallet.hibernate.base.EntitySchema;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface LedgerEntryRepository extends JpaRepository<LedgerEntryEntity, UUID> {
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntryEntity, UUID>, LedgerEntryRepositoryCustom {
+
+    /**
+     * Balance of the wallet after its last entry created before the given instant: {@code balance_after} of the last
+     * settled entry, read from {@code idx_ledger_entries_wallet_created_at} without touching the table, plus the
+     * credits after it not settled yet (see {@link #settleBalances}). Empty when the wallet has no entry before it.
+     */
+    @Query(value = "SELECT CASE WHEN a.id IS NULL AND u.amount IS NULL THEN NULL "
+            + "ELSE COALESCE(a.balance_after, 0) + COALESCE(u.amount, 0) END "
+            + "FROM (SELECT 1) one "
+            + "LEFT JOIN LATERAL (SELECT l.id, l.created_at, l.balance_after FROM " + EntitySchema.NAME + ".ledger_entries l "
+            + "WHERE l.wallet_id = :walletId AND l.created_at < :before AND l.balance_after IS NOT NULL "
+            + "ORDER BY l.created_at DESC, l.id DESC LIMIT 1) a ON true "
+            + "LEFT JOIN LATERAL (SELECT SUM(l.amount) AS amount FROM " + EntitySchema.NAME + ".ledger_entries l "
+            + "WHERE l.wallet_id = :walletId AND l.created_at < :before AND l.balance_after IS NULL "
+            + "AND (a.id IS NULL OR (l.created_at, l.id) > (a.created_at, a.id))) u ON true", nativeQuery = true)
+    Optional<BigDecimal> findLatestBalanceBefore(@Param("walletId") UUID walletId, @Param("before") Instant before);
+
+    /**
+     * Wallets with entries that have no {@code balance_after} yet.
+     */
+    @Query(value = "SELECT DISTINCT l.wallet_id FROM " + EntitySchema.NAME + ".ledger_entries l "
+            + "WHERE l.balance_after IS NULL LIMIT :limit", nativeQuery = true)
+    List<UUID> findUnsettledWalletIds(@Param("limit") int limit);
+
+    /**
+     * Sets {@code balance_after} of the oldest {@code limit} unsettled entries of the wallet, in ledger order: the
+     * last settled entry before each of them plus the unsettled credits from there up to and including it. Only
+     * credits to balance slots are unsettled, and only while no other entry of the wallet can still commit before
+     * them; the caller holds all slots of the wallet for that.
+     *
+     * @return number of entries settled
+     */
+    @Modifying
+    @Query(value = "UPDATE " + EntitySchema.NAME + ".ledger_entries l SET balance_after = s.balance_after "
+            + "FROM (SELECT u.id, u.created_at, "
+            + "COALESCE(a.balance_after, 0) + SUM(u.amount) OVER (PARTITION BY a.id ORDER BY u.created_at, u.id) AS balance_after "
+            + "FROM (SELECT p.id, p.created_at, p.amount FROM " + EntitySchema.NAME + ".ledger_entries p "
+            + "WHERE p.wallet_id = :walletId AND p.balance_after IS NULL ORDER BY p.created_at, p.id LIMIT :limit) u "
+            + "LEFT JOIN LATERAL (SELECT e.id, e.balance_after FROM " + EntitySchema.NAME + ".ledger_entries e "
+            + "WHERE e.wallet_id = :walletId AND e.balance_after IS NOT NULL AND (e.created_at, e.id) < (u.created_at, u.id) "
+            + "ORDER BY e.created_at DESC, e.id DESC LIMIT 1) a ON true) s "
+            + "WHERE l.id = s.id AND l.created_at = s.created_at", nativeQuery = true)
+    int settleBalances(@Param("walletId") UUID walletId, @Param("limit") int limit);
+
+    @Query("""
+            SELECT new com.syneronix.wallet.domain.MovementTotals(
+                COALESCE(SUM(CASE WHEN l.direction = com.syneronix.wallet.common.MoneyFlowDirection.CREDIT THEN l.amount END), 0),
+                COALESCE(SUM(CASE WHEN l.direction = com.syneronix.wallet.common.MoneyFlowDirection.DEBIT THEN l.amount END), 0),
+                COUNT(l))
+            FROM LedgerEntryEntity l
+            WHERE l.wallet.id = :walletId AND l.createdAt >= :from AND l.createdAt < :to
+            """)
+    MovementTotals sumMovements(@Param("walletId") UUID walletId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Rebuilds the entries of write-behind movements completed before {@code cutoff} from their transaction rows
+     * ({@code from_balance_after}/{@code to_balance_after}). Entries already written, by the writer or synchronously,
+     * are skipped. Entries take the {@code created_at} of their transaction, as the writer's do, so both land on the
+     * same {@code (id, created_at)} key. Must be followed by {@link TransactionRepository#clearLedgerPendingBefore} in
+     * the same transaction.
+     *
+     * @return number of entries inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO " + EntitySchema.NAME + ".ledger_entries (id, created_at, version, transaction_id, wallet_id, "
+            + "amount, currency, direction, balance_after) "
+            + "SELECT CAST(md5(CAST(t.id AS text) || ':' || e.direction) AS uuid), t.created_at, 0, t.id, e.wallet_id, "
+            + "t.amount, t.currency, e.direction, e.balance_after "
+            + "FROM " + EntitySchema.NAME + ".transactions t "
+            + "CROSS JOIN LATERAL (VALUES ('DEBIT', t.from_wallet_id, t.from_balance_after), "
+            + "('CREDIT', t.to_wallet_id, t.to_balance_after)) AS e (direction, wallet_id, balance_after) "
+            + "WHERE t.ledger_pending AND t.updated_at < :cutoff AND e.balance_after IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM " + EntitySchema.NAME + ".ledger_entries l "
+            + "WHERE l.transaction_id = t.id AND l.direction = e.direction) "
+            + "ON CONFLICT (id, created_at) DO NOTHING", nativeQuery = true)
+    int recoverPending(@Param("cutoff") Instant cutoff);
 }
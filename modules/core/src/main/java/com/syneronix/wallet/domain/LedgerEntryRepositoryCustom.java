@@ -0,0 +1,49 @@
+package com.syneronix.wallet.domain;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface LedgerEntryRepositoryCustom {
+
+    /**
+     * Inserts all entries with one {@code INSERT ... SELECT FROM unnest(...)} statement. Entries that already exist
+     * are skipped, so a retried or recovered batch is harmless.
+     *
+     * @return number of entries inserted
+     */
+    int insertPending(List<PendingLedgerEntry> entries);
+
+    /**
+     * Creates the partition holding the entries created in {@code month} (UTC), if it does not exist yet.
+     */
+    void createPartition(YearMonth month);
+
+    /**
+     * Detaches the partition of {@code month}, see {@link TransactionRepositoryCustom#detachPartition}.
+     */
+    void detachPartition(YearMonth month, long lockTimeoutMillis);
+
+    /**
+     * Months of the attached partitions, oldest first.
+     */
+    List<YearMonth> findPartitionMonths();
+
+    /**
+     * Months of the partitions detached from {@code ledger_entries} and not dropped yet, oldest first.
+     */
+    List<YearMonth> findDetachedPartitionMonths();
+
+    /**
+     * Drops the partition of {@code month}, which must be detached first.
+     */
+    void dropPartition(YearMonth month);
+
+    /**
+     * Reads the partition of {@code month}, attached or detached, ordered by wallet, then newest first, and fetched
+     * in chunks so the month is never held in memory.
+     *
+     * @return number of rows read
+     */
+    long scanPartition(YearMonth month, Consumer<ArchivedLedgerEntry> consumer);
+}
@@ -0,0 +1,144 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public class LedgerEntryRepositoryCustomImpl implements LedgerEntryRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO %s.ledger_entries (id, created_at, version, transaction_id, wallet_id, amount, currency,
+                                           direction, balance_after)
+            SELECT e.id, e.created_at, 0, e.transaction_id, e.wallet_id, e.amount, e.currency, e.direction, e.balance_after
+            FROM unnest(?::uuid[], ?::timestamp[], ?::uuid[], ?::uuid[], ?::numeric[], ?::varchar[], ?::varchar[], ?::numeric[])
+                     AS e (id, created_at, transaction_id, wallet_id, amount, currency, direction, balance_after)
+            ON CONFLICT (id, created_at) DO NOTHING
+            """.formatted(EntitySchema.NAME);
+
+    private static final String TABLE = "ledger_entries";
+    private static final int SCAN_FETCH_SIZE = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Timestamps and amounts are bound as text arrays and parsed by the server, which keeps the full precision of
+     * both without relying on driver support for typed arrays.
+     */
+    @Override
+    public int insertPending(List<PendingLedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        int size = entries.size();
+        UUID[] ids = new UUID[size];
+        String[] createdAt = new String[size];
+        UUID[] transactionIds = new UUID[size];
+        UUID[] walletIds = new UUID[size];
+        String[] amounts = new String[size];
+        String[] currencies = new String[size];
+        String[] directions = new String[size];
+        String[] balancesAfter = new String[size];
+        for (int i = 0; i < size; i++) {
+            PendingLedgerEntry entry = entries.get(i);
+            ids[i] = entry.id();
+            createdAt[i] = LocalDateTime.ofInstant(entry.createdAt(), ZoneOffset.UTC).toString();
+            transactionIds[i] = entry.transactionId();
+            walletIds[i] = entry.walletId();
+            amounts[i] = entry.amount().toPlainString();
+            currencies[i] = entry.currency().name();
+            directions[i] = entry.direction().name();
+            balancesAfter[i] = entry.balanceAfter().toPlainString();
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                int i = 1;
+                statement.setArray(i++, connection.createArrayOf("uuid", ids));
+                statement.setArray(i++, connection.createArrayOf("timestamp", createdAt));
+                statement.setArray(i++, connection.createArrayOf("uuid", transactionIds));
+                statement.setArray(i++, connection.createArrayOf("uuid", walletIds));
+                statement.setArray(i++, connection.createArrayOf("numeric", amounts));
+                statement.setArray(i++, connection.createArrayOf("varchar", currencies));
+                statement.setArray(i++, connection.createArrayOf("varchar", directions));
+                statement.setArray(i, connection.createArrayOf("numeric", balancesAfter));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void createPartition(YearMonth month) {
+        MonthlyPartitions.create(entityManager, TABLE, month);
+    }
+
+    @Override
+    public void detachPartition(YearMonth month, long lockTimeoutMillis) {
+        MonthlyPartitions.detach(entityManager, TABLE, month, lockTimeoutMillis);
+    }
+
+    @Override
+    public List<YearMonth> findPartitionMonths() {
+        return MonthlyPartitions.find(entityManager, TABLE);
+    }
+
+    @Override
+    public List<YearMonth> findDetachedPartitionMonths() {
+        return MonthlyPartitions.findDetached(entityManager, TABLE);
+    }
+
+    @Override
+    public void dropPartition(YearMonth month) {
+        MonthlyPartitions.drop(entityManager, TABLE, month);
+    }
+
+    @Override
+    public long scanPartition(YearMonth month, Consumer<ArchivedLedgerEntry> consumer) {
+        String sql = """
+                SELECT id, created_at, transaction_id, wallet_id, amount, currency, direction, balance_after
+                FROM %s.%s
+                ORDER BY wallet_id, created_at DESC, id DESC
+                """.formatted(EntitySchema.NAME, MonthlyPartitions.partitionName(TABLE, month));
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setFetchSize(SCAN_FETCH_SIZE);
+                long rows = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(new ArchivedLedgerEntry(
+                                resultSet.getObject("id", UUID.class),
+                                instant(resultSet, "created_at"),
+                                resultSet.getObject("transaction_id", UUID.class),
+                                resultSet.getObject("wallet_id", UUID.class),
+                                resultSet.getBigDecimal("amount"),
+                                Currency.valueOf(resultSet.getString("currency")),
+                                MoneyFlowDirection.valueOf(resultSet.getString("direction")),
+                                resultSet.getBigDecimal("balance_after")));
+                        rows++;
+                    }
+                }
+                return rows;
+            }
+        });
+    }
+
+    private static Instant instant(ResultSet resultSet, String column) throws SQLException {
+        return resultSet.getObject(column, LocalDateTime.class).toInstant(ZoneOffset.UTC);
+    }
+}
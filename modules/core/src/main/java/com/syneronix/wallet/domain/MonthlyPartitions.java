@@ -0,0 +1,89 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.EntityManager;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Monthly range partitions of a table partitioned by {@code created_at}: {@code <table>_pYYYYMM} holds the rows
+ * created in that UTC month.
+ */
+final class MonthlyPartitions {
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private MonthlyPartitions() {
+    }
+
+    static void create(EntityManager entityManager, String table, YearMonth month) {
+        entityManager.createNativeQuery("CREATE TABLE IF NOT EXISTS %s.%s PARTITION OF %s.%s FOR VALUES FROM ('%s') TO ('%s')"
+                        .formatted(EntitySchema.NAME, partitionName(table, month), EntitySchema.NAME, table,
+                                month.atDay(1), month.plusMonths(1).atDay(1)))
+                .executeUpdate();
+    }
+
+    /**
+     * {@code lock_timeout} bounds how long the detach waits for its lock on the parent, and with it how long the
+     * statements queued behind it wait; it is transaction local.
+     */
+    static void detach(EntityManager entityManager, String table, YearMonth month, long lockTimeoutMillis) {
+        entityManager.createNativeQuery("SET LOCAL lock_timeout = %d".formatted(lockTimeoutMillis)).executeUpdate();
+        entityManager.createNativeQuery("ALTER TABLE %s.%s DETACH PARTITION %s.%s"
+                        .formatted(EntitySchema.NAME, table, EntitySchema.NAME, partitionName(table, month)))
+                .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<YearMonth> find(EntityManager entityManager, String table) {
+        List<String> names = entityManager.createNativeQuery("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                                 JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = CAST('%s.%s' AS regclass)
+                        """.formatted(EntitySchema.NAME, table))
+                .getResultList();
+        String prefix = table + "_p";
+        return names.stream()
+                .filter(name -> name.startsWith(prefix))
+                .map(name -> YearMonth.parse(name.substring(prefix.length()), PARTITION_MONTH))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Drops the partition of {@code month}, which should be detached first.
+     */
+    static void drop(EntityManager entityManager, String table, YearMonth month) {
+        entityManager.createNativeQuery("DROP TABLE IF EXISTS %s.%s".formatted(EntitySchema.NAME, partitionName(table, month)))
+                .executeUpdate();
+    }
+
+    /**
+     * Months of the partitions detached from the table and not dropped yet, oldest first.
+     */
+    @SuppressWarnings("unchecked")
+    static List<YearMonth> findDetached(EntityManager entityManager, String table) {
+        List<String> names = entityManager.createNativeQuery("""
+                        SELECT c.relname
+                        FROM pg_class c
+                                 JOIN pg_namespace n ON n.oid = c.relnamespace
+                        WHERE n.nspname = '%s'
+                          AND c.relkind = 'r'
+                          AND NOT c.relispartition
+                          AND c.relname LIKE '%s\\_p%%'
+                        """.formatted(EntitySchema.NAME, table))
+                .getResultList();
+        return names.stream()
+                .filter(name -> name.matches(table + "_p\\d{6}"))
+                .map(name -> YearMonth.parse(name.substring(table.length() + 2), PARTITION_MONTH))
+                .sorted()
+                .toList();
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(PARTITION_MONTH);
+    }
+}
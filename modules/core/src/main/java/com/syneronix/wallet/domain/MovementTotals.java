@@ -0,0 +1,15 @@
+package com.syneronix.wallet.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Money that moved through a wallet within a time range.
+ */
+public record MovementTotals(BigDecimal credits, BigDecimal debits, long entryCount) {
+
+    public static final MovementTotals ZERO = new MovementTotals(BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+    public MovementTotals plus(MovementTotals other) {
+        return new MovementTotals(credits.add(other.credits), debits.add(other.debits), entryCount + other.entryCount);
+    }
+}
@@ -0,0 +1,29 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.hibernate.base.BaseEntity;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Committed offset of a named event stream consumer: every event up to and including {@link #position} is processed.
+ */
+@Entity
+@Table(name = "outbox_consumers", schema = EntitySchema.NAME)
+@NoArgsConstructor
+@Getter
+@Setter
+public class OutboxConsumerEntity extends BaseEntity {
+
+    @Id
+    @Column(nullable = false, updatable = false, length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private long position;
+}
@@ -0,0 +1,15 @@
+package com.syneronix.wallet.domain;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxConsumerRepository extends JpaRepository<OutboxConsumerEntity, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OutboxConsumerEntity> findWithLockingByName(String name);
+}
@@ -0,0 +1,53 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.OutboxEventType;
+import com.syneronix.wallet.hibernate.base.BaseEntity;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import com.vladmihalcea.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Type;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An event written in the same transaction as the change it describes. Ids come from an identity column, one per
+ * insert, so events of one wallet, written under its row lock, are numbered in commit order. {@link #position} is
+ * assigned by the relay when it publishes the event and is the offset consumers read by.
+ */
+@Entity
+@Table(
+        name = "outbox_events",
+        schema = EntitySchema.NAME,
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uc_outbox_events_position", columnNames = "position")
+        }
+)
+@NoArgsConstructor
+@Getter
+@Setter
+public class OutboxEventEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, updatable = false)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private UUID walletId;
+
+    @Column(nullable = false, length = 30, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType eventType;
+
+    @Type(JsonType.class)
+    @Column(columnDefinition = "jsonb", nullable = false, updatable = false)
+    private String payload;
+
+    private Long position;
+
+    private Instant publishedAt;
+}
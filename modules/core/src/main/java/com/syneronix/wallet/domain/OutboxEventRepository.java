@@ -0,0 +1,29 @@
+package com.syneronix.wallet.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Transaction scoped advisory lock that makes one relay at a time publish, so positions are handed out
+     * without gaps and in id order across instances.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(7170011)", nativeQuery = true)
+    boolean tryRelayLock();
+
+    @Query("SELECT e FROM OutboxEventEntity e WHERE e.position IS NULL ORDER BY e.id")
+    List<OutboxEventEntity> findUnpublished(Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM OutboxEventEntity e")
+    long findLastPosition();
+
+    @Query("SELECT e FROM OutboxEventEntity e WHERE e.position > :position ORDER BY e.position")
+    List<OutboxEventEntity> findPublishedAfter(@Param("position") long position, Pageable pageable);
+}
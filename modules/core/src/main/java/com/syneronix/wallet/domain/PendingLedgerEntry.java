@@ -0,0 +1,48 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A ledger entry of a committed movement that is not written yet.
+ * <p>
+ * The id is derived from transaction id and direction the same way {@link LedgerEntryRepository#recoverPending}
+ * derives it ({@code md5(transaction_id || ':' || direction)::uuid}), and {@code createdAt} is the transaction's, so
+ * the writer and recovery cannot both insert it.
+ */
+public record PendingLedgerEntry(
+        UUID id,
+        UUID transactionId,
+        UUID walletId,
+        BigDecimal amount,
+        Currency currency,
+        MoneyFlowDirection direction,
+        BigDecimal balanceAfter,
+        Instant createdAt
+) {
+
+    public static PendingLedgerEntry of(UUID transactionId, UUID walletId, BigDecimal amount, Currency currency,
+                                        MoneyFlowDirection direction, BigDecimal balanceAfter, Instant createdAt) {
+        return new PendingLedgerEntry(entryId(transactionId, direction), transactionId, walletId, amount, currency,
+                direction, balanceAfter, createdAt);
+    }
+
+    static UUID entryId(UUID transactionId, MoneyFlowDirection direction) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest((transactionId + ":" + direction.name()).getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -4,7 +4,7 @@ package com.syneronix.wallet.domain;
 import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.TransactionStatus;
 import com.syneronix.wallet.common.TransactionType;
-import com.syneronix.wallet.hibernate.base.BaseEntity;
+import com.syneronix.wallet.hibernate.base.PartitionedEntity;
 import com.syneronix.wallet.hibernate.base.EntitySchema;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -19,22 +19,25 @@ import java.util.UUID;
         name = "transactions",
         schema = EntitySchema.NAME,
         indexes = {
-                @Index(name = "idx_transactions_from_wallet", columnList = "from_wallet_id"),
-                @Index(name = "idx_transactions_to_wallet", columnList = "to_wallet_id"),
-                @Index(name = "idx_transactions_request_id", columnList = "request_id", unique = true)
+                @Index(name = "idx_transactions_from_wallet_created_at", columnList = "from_wallet_id, created_at DESC, id DESC"),
+                @Index(name = "idx_transactions_to_wallet_created_at", columnList = "to_wallet_id, created_at DESC, id DESC"),
+                @Index(name = "idx_transactions_request_id", columnList = "request_id")
         }
 )
 @NoArgsConstructor
 @Getter
 @Setter
-public class TransactionEntity extends BaseEntity {
+public class TransactionEntity extends PartitionedEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(nullable = false, updatable = false)
     private UUID id;
 
-    @Column(name = "request_id", nullable = false, unique = true)
+    /**
+     * Unique per request through {@code idempotency_key_claims}; the partitioned table cannot enforce it alone.
+     */
+    @Column(name = "request_id", nullable = false)
     private UUID requestId;
 
     @Enumerated(EnumType.STRING)
@@ -65,4 +68,22 @@ public class TransactionEntity extends BaseEntity {
 
     @Column(length = 1024)
     private String failureReason;
+
+    /**
+     * Balance of the source wallet after this movement, set while its ledger entry is written behind.
+     */
+    @Column(precision = 19, scale = 4)
+    private BigDecimal fromBalanceAfter;
+
+    /**
+     * Balance of the target wallet after this movement, set while its ledger entry is written behind.
+     */
+    @Column(precision = 19, scale = 4)
+    private BigDecimal toBalanceAfter;
+
+    /**
+     * The ledger entries of this movement are queued for the write-behind writer and may not exist yet.
+     */
+    @Column(nullable = false)
+    private boolean ledgerPending;
 }
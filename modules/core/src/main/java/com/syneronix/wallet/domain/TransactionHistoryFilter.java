@@ -0,0 +1,18 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.TransactionType;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Transactions of a wallet (as sender or receiver), optionally restricted to {@code [from, to)} and to the given
+ * types. {@code null} or empty means no restriction.
+ */
+public record TransactionHistoryFilter(UUID walletId, Instant from, Instant to, Set<TransactionType> types) {
+
+    public static TransactionHistoryFilter of(UUID walletId) {
+        return new TransactionHistoryFilter(walletId, null, null, Set.of());
+    }
+}
@@ -1,22 +1,51 @@
 package com.syneronix.wallet.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<TransactionEntity, UUID> {
-    Optional<TransactionEntity> findByRequestId(UUID requestId);
-
-    @Query("SELECT t FROM TransactionEntity t WHERE t.fromWallet.id = :walletId OR t.toWallet.id = :walletId ORDER BY t.createdAt DESC")
-    List<TransactionEntity> findAllByWalletId(@Param("walletId") UUID walletId);
+public interface TransactionRepository extends JpaRepository<TransactionEntity, UUID>, TransactionRepositoryCustom {
+    /**
+     * Transactions of the wallet created since {@code since}, newest first. The bound on {@code created_at} keeps
+     * the monthly partitions before it out of the scan.
+     */
+    @Query("SELECT t FROM TransactionEntity t WHERE (t.fromWallet.id = :walletId OR t.toWallet.id = :walletId) "
+            + "AND t.createdAt >= :since ORDER BY t.createdAt DESC")
+    List<TransactionEntity> findAllByWalletId(@Param("walletId") UUID walletId, @Param("since") Instant since);
 
+    /**
+     * Reads only the partitions from {@code since} on.
+     */
     @Query("SELECT COUNT(t) FROM TransactionEntity t WHERE t.fromWallet.id = :walletId AND t.createdAt >= :since")
     long countTransactionsSince(@Param("walletId") UUID walletId, @Param("since") Instant since);
+
+    /**
+     * Transaction scoped advisory lock that makes one instance at a time create or detach the monthly partitions of
+     * {@code transactions} and {@code ledger_entries}.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(7170013)", nativeQuery = true)
+    boolean tryPartitionLock();
+
+    /**
+     * Marks the movements whose write-behind ledger entries have been written. {@code createdAts} are their creation
+     * times, which limit the update to the partitions holding them.
+     */
+    @Modifying
+    @Query("UPDATE TransactionEntity t SET t.ledgerPending = false WHERE t.id IN :ids AND t.createdAt IN :createdAts")
+    int clearLedgerPending(@Param("ids") Collection<UUID> ids, @Param("createdAts") Collection<Instant> createdAts);
+
+    /**
+     * Marks the movements handled by {@link LedgerEntryRepository#recoverPending}.
+     */
+    @Modifying
+    @Query("UPDATE TransactionEntity t SET t.ledgerPending = false WHERE t.ledgerPending = true AND t.updatedAt < :cutoff")
+    int clearLedgerPendingBefore(@Param("cutoff") Instant cutoff);
 }
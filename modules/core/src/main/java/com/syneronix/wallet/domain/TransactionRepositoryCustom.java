@@ -0,0 +1,76 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Keyset page of the wallet's transactions, newest first, ordered by {@code (created_at, id)}.
+     * <p>
+     * The sender and receiver sides are read as two index range scans
+     * ({@code idx_transactions_from_wallet_created_at}, {@code idx_transactions_to_wallet_created_at}) merged with
+     * {@code UNION ALL}, each stopping after {@code limit} rows, so the cost of a page does not depend on the size
+     * of the history nor on its position in it.
+     *
+     * @param afterCreatedAt {@code created_at} of the last row of the previous page, {@code null} for the first page
+     * @param afterId        {@code id} of the last row of the previous page, {@code null} for the first page
+     */
+    List<TransactionEntity> findHistoryPage(TransactionHistoryFilter filter, Instant afterCreatedAt, UUID afterId, int limit);
+
+    /**
+     * Creates the partition holding the transactions created in {@code month} (UTC), if it does not exist yet.
+     */
+    void createPartition(YearMonth month);
+
+    /**
+     * Detaches the partition of {@code month}, which stays in the schema as a plain table for archiving. Waits at
+     * most {@code lockTimeoutMillis} for the lock on the parent table, then fails instead of blocking the queries
+     * queued behind it.
+     */
+    void detachPartition(YearMonth month, long lockTimeoutMillis);
+
+    /**
+     * Months of the attached partitions, oldest first. The oldest one may also hold everything created before its month.
+     */
+    List<YearMonth> findPartitionMonths();
+
+    /**
+     * Months of the partitions detached from {@code transactions} and not dropped yet, oldest first.
+     */
+    List<YearMonth> findDetachedPartitionMonths();
+
+    /**
+     * Drops the partition of {@code month}, which must be detached first.
+     */
+    void dropPartition(YearMonth month);
+
+    /**
+     * Whether the partition of {@code month}, attached or detached, still holds pending movements or movements whose
+     * ledger entries are not written yet.
+     */
+    boolean hasUnsettled(YearMonth month);
+
+    /**
+     * Reads the partition of {@code month}, attached or detached, once per side of each movement: ordered by wallet,
+     * then newest first, and fetched in chunks so the month is never held in memory.
+     *
+     * @return number of rows read
+     */
+    long scanPartition(YearMonth month, BiConsumer<UUID, ArchivedTransaction> consumer);
+
+    /**
+     * Runs a whole transfer in one call of the {@code transfer_funds} database function: locks both wallets in id
+     * order, checks them, moves the amount and inserts the transaction with id {@code transactionId} and its two
+     * ledger entries, all created at {@code now}. Pending changes are flushed first, so the function sees them, and
+     * wallets already loaded in the persistence context are refreshed after a completed transfer.
+     */
+    TransferFundsResult transferFunds(UUID transactionId, UUID requestId, UUID fromWalletId, UUID toWalletId,
+                                      BigDecimal amount, Currency currency, Instant now);
+}
@@ -0,0 +1,214 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.common.TransactionType;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final String TABLE = "transactions";
+    private static final int SCAN_FETCH_SIZE = 1_000;
+    private static final String TRANSFER_FUNDS_SQL = "SELECT * FROM %s.transfer_funds(?, ?, ?, ?, ?, ?, ?)"
+            .formatted(EntitySchema.NAME);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TransactionEntity> findHistoryPage(TransactionHistoryFilter filter, Instant afterCreatedAt, UUID afterId, int limit) {
+        boolean hasCursor = afterCreatedAt != null && afterId != null;
+        String conditions = conditions(filter, hasCursor);
+
+        // the receiver side skips rows the sender side already returns, a wallet never transfers to itself anyway
+        String sql = """
+                SELECT * FROM (
+                    (SELECT t.* FROM %1$s.transactions t
+                     WHERE t.from_wallet_id = :walletId%2$s
+                     ORDER BY t.created_at DESC, t.id DESC
+                     LIMIT :limit)
+                    UNION ALL
+                    (SELECT t.* FROM %1$s.transactions t
+                     WHERE t.to_wallet_id = :walletId AND t.from_wallet_id IS DISTINCT FROM :walletId%2$s
+                     ORDER BY t.created_at DESC, t.id DESC
+                     LIMIT :limit)
+                ) history
+                ORDER BY history.created_at DESC, history.id DESC
+                LIMIT :limit
+                """.formatted(EntitySchema.NAME, conditions);
+
+        Query query = entityManager.createNativeQuery(sql, TransactionEntity.class)
+                .setParameter("walletId", filter.walletId())
+                .setParameter("limit", limit);
+        if (hasCursor) {
+            query.setParameter("afterCreatedAt", afterCreatedAt);
+            query.setParameter("afterId", afterId);
+        }
+        if (filter.from() != null) {
+            query.setParameter("from", filter.from());
+        }
+        if (filter.to() != null) {
+            query.setParameter("to", filter.to());
+        }
+        if (hasTypes(filter)) {
+            query.setParameter("types", filter.types().stream().map(TransactionType::name).toList());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public void createPartition(YearMonth month) {
+        MonthlyPartitions.create(entityManager, TABLE, month);
+    }
+
+    @Override
+    public void detachPartition(YearMonth month, long lockTimeoutMillis) {
+        MonthlyPartitions.detach(entityManager, TABLE, month, lockTimeoutMillis);
+    }
+
+    @Override
+    public List<YearMonth> findPartitionMonths() {
+        return MonthlyPartitions.find(entityManager, TABLE);
+    }
+
+    @Override
+    public List<YearMonth> findDetachedPartitionMonths() {
+        return MonthlyPartitions.findDetached(entityManager, TABLE);
+    }
+
+    @Override
+    public void dropPartition(YearMonth month) {
+        MonthlyPartitions.drop(entityManager, TABLE, month);
+    }
+
+    @Override
+    public boolean hasUnsettled(YearMonth month) {
+        return (Boolean) entityManager.createNativeQuery("SELECT EXISTS (SELECT 1 FROM %s.%s WHERE status = '%s' OR ledger_pending)"
+                        .formatted(EntitySchema.NAME, MonthlyPartitions.partitionName(TABLE, month), TransactionStatus.PENDING.name()))
+                .getSingleResult();
+    }
+
+    @Override
+    public long scanPartition(YearMonth month, BiConsumer<UUID, ArchivedTransaction> consumer) {
+        String sql = """
+                SELECT w.wallet_id, t.id, t.created_at, t.updated_at, t.request_id, t.type, t.status, t.amount, t.currency,
+                       t.from_wallet_id, t.to_wallet_id, t.description, t.failure_reason
+                FROM %s.%s t
+                         CROSS JOIN LATERAL (VALUES (t.from_wallet_id), (t.to_wallet_id)) AS w (wallet_id)
+                WHERE w.wallet_id IS NOT NULL
+                ORDER BY w.wallet_id, t.created_at DESC, t.id DESC
+                """.formatted(EntitySchema.NAME, MonthlyPartitions.partitionName(TABLE, month));
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setFetchSize(SCAN_FETCH_SIZE);
+                long rows = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(resultSet.getObject("wallet_id", UUID.class), new ArchivedTransaction(
+                                resultSet.getObject("id", UUID.class),
+                                instant(resultSet, "created_at"),
+                                instant(resultSet, "updated_at"),
+                                resultSet.getObject("request_id", UUID.class),
+                                TransactionType.valueOf(resultSet.getString("type")),
+                                TransactionStatus.valueOf(resultSet.getString("status")),
+                                resultSet.getBigDecimal("amount"),
+                                Currency.valueOf(resultSet.getString("currency")),
+                                resultSet.getObject("from_wallet_id", UUID.class),
+                                resultSet.getObject("to_wallet_id", UUID.class),
+                                resultSet.getString("description"),
+                                resultSet.getString("failure_reason")));
+                        rows++;
+                    }
+                }
+                return rows;
+            }
+        });
+    }
+
+    @Override
+    public TransferFundsResult transferFunds(UUID transactionId, UUID requestId, UUID fromWalletId, UUID toWalletId,
+                                             BigDecimal amount, Currency currency, Instant now) {
+        // plain JDBC does not trigger the auto flush, and the function reads what earlier work of the transaction wrote
+        entityManager.flush();
+        Session session = entityManager.unwrap(Session.class);
+        TransferFundsResult result = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(TRANSFER_FUNDS_SQL)) {
+                int i = 1;
+                statement.setObject(i++, transactionId);
+                statement.setObject(i++, requestId);
+                statement.setObject(i++, fromWalletId);
+                statement.setObject(i++, toWalletId);
+                statement.setBigDecimal(i++, amount);
+                statement.setString(i++, currency.name());
+                statement.setObject(i, LocalDateTime.ofInstant(now, ZoneOffset.UTC));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    String walletStatus = resultSet.getString("failed_wallet_status");
+                    return new TransferFundsResult(
+                            TransferFundsResult.Outcome.valueOf(resultSet.getString("outcome")),
+                            resultSet.getObject("failed_wallet_id", UUID.class),
+                            walletStatus == null ? null : WalletStatus.valueOf(walletStatus),
+                            resultSet.getBigDecimal("from_balance"),
+                            resultSet.getBigDecimal("to_balance"));
+                }
+            }
+        });
+
+        if (result.outcome() == TransferFundsResult.Outcome.COMPLETED) {
+            // the function changed both wallet rows behind the persistence context
+            for (UUID walletId : List.of(fromWalletId, toWalletId)) {
+                WalletEntity wallet = session.getReference(WalletEntity.class, walletId);
+                if (Hibernate.isInitialized(wallet)) {
+                    session.refresh(wallet);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Instant instant(ResultSet resultSet, String column) throws SQLException {
+        LocalDateTime value = resultSet.getObject(column, LocalDateTime.class);
+        return value == null ? null : value.toInstant(ZoneOffset.UTC);
+    }
+
+    private String conditions(TransactionHistoryFilter filter, boolean hasCursor) {
+        StringBuilder conditions = new StringBuilder();
+        if (hasCursor) {
+            conditions.append(" AND (t.created_at, t.id) < (:afterCreatedAt, :afterId)");
+        }
+        if (filter.from() != null) {
+            conditions.append(" AND t.created_at >= :from");
+        }
+        if (filter.to() != null) {
+            conditions.append(" AND t.created_at < :to");
+        }
+        if (hasTypes(filter)) {
+            conditions.append(" AND t.type IN (:types)");
+        }
+        return conditions.toString();
+    }
+
+    private boolean hasTypes(TransactionHistoryFilter filter) {
+        return filter.types() != null && !filter.types().isEmpty();
+    }
+}
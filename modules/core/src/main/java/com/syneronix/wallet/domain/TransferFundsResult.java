@@ -0,0 +1,41 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.WalletStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What {@link TransactionRepositoryCustom#transferFunds} did.
+ *
+ * @param walletId         the wallet not found or locked, {@code null} when neither wallet was found
+ * @param walletStatus     status of the locked wallet
+ * @param fromBalanceAfter balance of the source wallet after a completed transfer
+ * @param toBalanceAfter   balance of the target wallet after a completed transfer
+ */
+public record TransferFundsResult(
+        Outcome outcome,
+        UUID walletId,
+        WalletStatus walletStatus,
+        BigDecimal fromBalanceAfter,
+        BigDecimal toBalanceAfter
+) {
+
+    public enum Outcome {
+        /**
+         * Balances moved, the COMPLETED transaction and both ledger entries written.
+         */
+        COMPLETED,
+        /**
+         * The source wallet does not cover the amount, the FAILED transaction written.
+         */
+        INSUFFICIENT_FUNDS,
+        WALLET_NOT_FOUND,
+        SAME_WALLET,
+        WALLET_LOCKED,
+        /**
+         * One of the wallets has balance slots, nothing written.
+         */
+        SHARDED
+    }
+}
@@ -0,0 +1,45 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.hibernate.base.BaseEntity;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One share of a sharded wallet's balance. Credits land on any free slot, so concurrent credits to the same wallet
+ * lock different rows; the wallet balance is {@link WalletEntity#getBalance()} plus all of its slots.
+ */
+@Entity
+@Table(
+        name = "wallet_balance_slots",
+        schema = EntitySchema.NAME,
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uc_wallet_balance_slots_wallet_slot", columnNames = {"wallet_id", "slot"})
+        }
+)
+@NoArgsConstructor
+@Getter
+@Setter
+public class WalletBalanceSlotEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private UUID walletId;
+
+    @Column(nullable = false, updatable = false)
+    private int slot;
+
+    @PositiveOrZero
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance = BigDecimal.ZERO;
+}
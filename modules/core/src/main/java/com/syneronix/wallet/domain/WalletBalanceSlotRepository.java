@@ -0,0 +1,31 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WalletBalanceSlotRepository extends JpaRepository<WalletBalanceSlotEntity, UUID> {
+
+    /**
+     * Locks a random slot of the wallet that no other transaction holds, or returns empty when all of them are busy.
+     */
+    @Query(value = "SELECT * FROM " + EntitySchema.NAME + ".wallet_balance_slots WHERE wallet_id = :walletId "
+            + "ORDER BY random() LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<WalletBalanceSlotEntity> lockAnyFreeSlot(@Param("walletId") UUID walletId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<WalletBalanceSlotEntity> findWithLockingByWalletIdAndSlot(UUID walletId, int slot);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from WalletBalanceSlotEntity s where s.walletId = :walletId order by s.slot")
+    List<WalletBalanceSlotEntity> lockAllByWalletIdOrdered(@Param("walletId") UUID walletId);
+}
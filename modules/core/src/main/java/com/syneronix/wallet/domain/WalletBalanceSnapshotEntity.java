@@ -0,0 +1,67 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.hibernate.base.BaseEntity;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Ledger movements of one wallet within one period {@code [periodStart, periodEnd)}. Only periods with at least one
+ * ledger entry get a row.
+ */
+@Entity
+@Table(
+        name = "wallet_balance_snapshots",
+        schema = EntitySchema.NAME,
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uc_wallet_balance_snapshots_wallet_period", columnNames = {"wallet_id", "period_start"})
+        },
+        indexes = {
+                @Index(name = "idx_wallet_balance_snapshots_period_start", columnList = "period_start")
+        }
+)
+@NoArgsConstructor
+@Getter
+@Setter
+public class WalletBalanceSnapshotEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    @Column(nullable = false, length = 3)
+    @Enumerated(EnumType.STRING)
+    private Currency currency;
+
+    @Column(nullable = false)
+    private Instant periodStart;
+
+    @Column(nullable = false)
+    private Instant periodEnd;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal openingBalance;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal closingBalance;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalCredits;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalDebits;
+
+    @Column(nullable = false)
+    private long entryCount;
+}
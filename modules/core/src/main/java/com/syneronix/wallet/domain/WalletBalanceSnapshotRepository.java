@@ -0,0 +1,52 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WalletBalanceSnapshotRepository extends JpaRepository<WalletBalanceSnapshotEntity, UUID> {
+
+    Optional<WalletBalanceSnapshotEntity> findFirstByOrderByPeriodStartAsc();
+
+    Optional<WalletBalanceSnapshotEntity> findFirstByOrderByPeriodStartDesc();
+
+    @Query("""
+            SELECT new com.syneronix.wallet.domain.MovementTotals(
+                COALESCE(SUM(s.totalCredits), 0), COALESCE(SUM(s.totalDebits), 0), COALESCE(SUM(s.entryCount), 0))
+            FROM WalletBalanceSnapshotEntity s
+            WHERE s.walletId = :walletId AND s.periodStart >= :from AND s.periodEnd <= :to
+            """)
+    MovementTotals sumMovements(@Param("walletId") UUID walletId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Aggregates the ledger entries of {@code [periodStart, periodEnd)} into one row per wallet. Periods that are
+     * already snapshotted are left as they are, so concurrent or repeated runs are harmless.
+     *
+     * @return number of wallets snapshotted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO " + EntitySchema.NAME + ".wallet_balance_snapshots (id, created_at, version, wallet_id, currency, "
+            + "period_start, period_end, opening_balance, closing_balance, total_credits, total_debits, entry_count) "
+            + "SELECT gen_random_uuid(), now() AT TIME ZONE 'UTC', 0, p.wallet_id, p.currency, :periodStart, :periodEnd, "
+            + "p.closing_balance - p.total_credits + p.total_debits, p.closing_balance, p.total_credits, p.total_debits, p.entry_count "
+            + "FROM (SELECT l.wallet_id, MIN(l.currency) AS currency, "
+            + "SUM(CASE WHEN l.direction = 'CREDIT' THEN l.amount ELSE 0 END) AS total_credits, "
+            + "SUM(CASE WHEN l.direction = 'DEBIT' THEN l.amount ELSE 0 END) AS total_debits, "
+            + "COUNT(*) AS entry_count, "
+            + "(ARRAY_AGG(l.balance_after ORDER BY l.created_at DESC, l.id DESC))[1] AS closing_balance "
+            + "FROM " + EntitySchema.NAME + ".ledger_entries l "
+            + "WHERE l.created_at >= :periodStart AND l.created_at < :periodEnd "
+            + "GROUP BY l.wallet_id) p "
+            + "ON CONFLICT (wallet_id, period_start) DO NOTHING", nativeQuery = true)
+    int snapshotPeriod(@Param("periodStart") Instant periodStart, @Param("periodEnd") Instant periodEnd);
+}
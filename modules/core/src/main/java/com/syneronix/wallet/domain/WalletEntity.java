@@ -45,4 +45,15 @@ public class WalletEntity extends BaseEntity {
     @PositiveOrZero
     @Column(nullable = false, precision = 19, scale = 4)
     private BigDecimal balance = BigDecimal.ZERO;
+
+    /**
+     * Number of {@link WalletBalanceSlotEntity balance slots}; 0 for a plain wallet. For a sharded wallet
+     * {@link #balance} only holds what debits have consolidated from the slots so far.
+     */
+    @Column(name = "balance_slots", nullable = false, updatable = false)
+    private int balanceSlots;
+
+    public boolean isSharded() {
+        return balanceSlots > 0;
+    }
 }
@@ -8,19 +8,57 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface WalletRepository extends JpaRepository<WalletEntity, UUID> {
+public interface WalletRepository extends JpaRepository<WalletEntity, UUID>, WalletRepositoryCustom {
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<WalletEntity> findWithLockingById(UUID id);
 
+    /**
+     * Shared row lock taken by credits to a sharded wallet: credits do not block each other, debits wait for them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<WalletEntity> findWithSharedLockById(UUID id);
+
+    /**
+     * The wallet if it has no balance slots, read without a lock: its update is then checked against the version
+     * read here.
+     */
+    @Query("select w from WalletEntity w where w.id = :id and w.balanceSlots = 0")
+    Optional<WalletEntity> findPlainById(@Param("id") UUID id);
+
+    @Query("select w from WalletEntity w where w.id in :ids and w.currency = :currency and w.balanceSlots = 0 order by w.id")
+    List<WalletEntity> findAllPlainByIdsAndCurrencyOrdered(@Param("ids") List<UUID> ids, @Param("currency") Currency currency);
+
+    @Query("select w.version from WalletEntity w where w.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    @Query("select w.balanceSlots from WalletEntity w where w.id = :id")
+    Optional<Integer> findBalanceSlotsById(@Param("id") UUID id);
+
+    /**
+     * Wallet balance including its balance slots, read in one statement so a concurrent consolidation is not
+     * counted twice or missed.
+     */
+    @Query("select w.balance + coalesce((select sum(s.balance) from WalletBalanceSlotEntity s where s.walletId = w.id), 0) "
+            + "from WalletEntity w where w.id = :id")
+    Optional<BigDecimal> findTotalBalanceById(@Param("id") UUID id);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select w from WalletEntity w where w.id in :ids and w.currency = :currency order by w.id")
     List<WalletEntity> lockAllByIdsAndCurrencyOrdered(@Param("ids") List<UUID> ids, @Param("currency") Currency currency);
 
+    /**
+     * Locks wallets of any currency in id order, so concurrent callers locking overlapping sets cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from WalletEntity w where w.id in :ids order by w.id")
+    List<WalletEntity> lockAllByIdsOrdered(@Param("ids") Collection<UUID> ids);
 
 }
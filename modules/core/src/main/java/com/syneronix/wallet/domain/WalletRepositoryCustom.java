@@ -0,0 +1,20 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface WalletRepositoryCustom {
+
+    /**
+     * Debits the wallet in a single {@code UPDATE ... WHERE balance >= amount ... RETURNING}, without reading or
+     * locking it first; the update itself keeps the row locked until the transaction ends. The version is
+     * incremented like by any other balance update.
+     *
+     * @return the wallet after the debit, not attached to the persistence context, or empty when the wallet does
+     * not exist, is not {@code ACTIVE}, is in another currency, has balance slots, or does not cover {@code amount}
+     */
+    Optional<WalletEntity> debit(UUID walletId, BigDecimal amount, Currency currency);
+}
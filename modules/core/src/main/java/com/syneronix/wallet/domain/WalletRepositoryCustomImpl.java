@@ -0,0 +1,68 @@
+package com.syneronix.wallet.domain;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.hibernate.base.EntitySchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+public class WalletRepositoryCustomImpl implements WalletRepositoryCustom {
+
+    private static final String DEBIT_SQL = """
+            UPDATE %s.wallets
+            SET balance    = balance - ?,
+                version    = version + 1,
+                updated_at = ?
+            WHERE id = ?
+              AND balance >= ?
+              AND status = ?
+              AND currency = ?
+              AND balance_slots = 0
+            RETURNING created_at, user_id, balance, version
+            """.formatted(EntitySchema.NAME);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<WalletEntity> debit(UUID walletId, BigDecimal amount, Currency currency) {
+        Instant now = Instant.now();
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(DEBIT_SQL)) {
+                int i = 1;
+                statement.setBigDecimal(i++, amount);
+                statement.setObject(i++, LocalDateTime.ofInstant(now, ZoneOffset.UTC));
+                statement.setObject(i++, walletId);
+                statement.setBigDecimal(i++, amount);
+                statement.setString(i++, WalletStatus.ACTIVE.name());
+                statement.setString(i, currency.name());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return Optional.empty();
+                    }
+                    WalletEntity wallet = new WalletEntity();
+                    wallet.setId(walletId);
+                    wallet.setUserId(resultSet.getObject("user_id", UUID.class));
+                    wallet.setCurrency(currency);
+                    wallet.setStatus(WalletStatus.ACTIVE);
+                    wallet.setBalance(resultSet.getBigDecimal("balance"));
+                    wallet.setVersion(resultSet.getLong("version"));
+                    wallet.setCreatedAt(resultSet.getObject("created_at", LocalDateTime.class).toInstant(ZoneOffset.UTC));
+                    wallet.setUpdatedAt(now);
+                    return Optional.of(wallet);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,7 @@
+-- Keyset pagination of the transaction history: (wallet, created_at, id) per side of the transfer.
+-- They also cover the rate limit count (from_wallet_id, created_at) and supersede the single column indexes.
+CREATE INDEX IF NOT EXISTS idx_transactions_from_wallet_created_at ON syneronix.transactions (from_wallet_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_to_wallet_created_at ON syneronix.transactions (to_wallet_id, created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS syneronix.idx_transactions_from_wallet;
+DROP INDEX IF EXISTS syneronix.idx_transactions_to_wallet;
@@ -0,0 +1,31 @@
+-- Point-in-time balance: the latest entry of a wallet before a timestamp is a single index-only seek.
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_wallet_created_at ON syneronix.ledger_entries (wallet_id, created_at DESC, id DESC) INCLUDE (balance_after);
+-- Daily snapshot job aggregates one day of entries across all wallets.
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_created_at ON syneronix.ledger_entries (created_at);
+
+DROP INDEX IF EXISTS syneronix.idx_ledger_entries_wallet_id;
+
+CREATE TABLE IF NOT EXISTS syneronix.wallet_balance_snapshots
+(
+    id              UUID           NOT NULL,
+    created_at      TIMESTAMP      NOT NULL,
+    updated_at      TIMESTAMP,
+    version         BIGINT         NOT NULL,
+    wallet_id       UUID           NOT NULL,
+    currency        VARCHAR(3)     NOT NULL,
+    period_start    TIMESTAMP      NOT NULL,
+    period_end      TIMESTAMP      NOT NULL,
+    opening_balance DECIMAL(19, 4) NOT NULL,
+    closing_balance DECIMAL(19, 4) NOT NULL,
+    total_credits   DECIMAL(19, 4) NOT NULL,
+    total_debits    DECIMAL(19, 4) NOT NULL,
+    entry_count     BIGINT         NOT NULL,
+    CONSTRAINT pk_wallet_balance_snapshots PRIMARY KEY (id),
+    CONSTRAINT uc_wallet_balance_snapshots_wallet_period UNIQUE (wallet_id, period_start),
+    CONSTRAINT FK_WALLET_BALANCE_SNAPSHOTS_ON_WALLET FOREIGN KEY (wallet_id) REFERENCES syneronix.wallets (id)
+);
+
+ALTER TABLE syneronix.wallet_balance_snapshots
+    OWNER TO wallet_db_user;
+
+CREATE INDEX IF NOT EXISTS idx_wallet_balance_snapshots_period_start ON syneronix.wallet_balance_snapshots (period_start);
@@ -0,0 +1,21 @@
+-- Sharded wallets: 0 keeps the single balance column, N > 0 spreads credits over N balance slots.
+ALTER TABLE syneronix.wallets
+    ADD COLUMN IF NOT EXISTS balance_slots INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS syneronix.wallet_balance_slots
+(
+    id         UUID           NOT NULL,
+    created_at TIMESTAMP      NOT NULL,
+    updated_at TIMESTAMP,
+    version    BIGINT         NOT NULL,
+    wallet_id  UUID           NOT NULL,
+    slot       INTEGER        NOT NULL,
+    balance    DECIMAL(19, 4) NOT NULL,
+    CONSTRAINT pk_wallet_balance_slots PRIMARY KEY (id),
+    CONSTRAINT uc_wallet_balance_slots_wallet_slot UNIQUE (wallet_id, slot),
+    CONSTRAINT chk_wallet_balance_slots_balance_positive CHECK (balance >= 0),
+    CONSTRAINT FK_WALLET_BALANCE_SLOTS_ON_WALLET FOREIGN KEY (wallet_id) REFERENCES syneronix.wallets (id) ON DELETE CASCADE
+);
+
+ALTER TABLE syneronix.wallet_balance_slots
+    OWNER TO wallet_db_user;
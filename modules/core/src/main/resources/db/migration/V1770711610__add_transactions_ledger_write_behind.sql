@@ -0,0 +1,8 @@
+-- Write-behind ledger: the transaction row carries the balances its ledger entries need, until they are written.
+ALTER TABLE syneronix.transactions
+    ADD COLUMN IF NOT EXISTS from_balance_after DECIMAL(19, 4),
+    ADD COLUMN IF NOT EXISTS to_balance_after   DECIMAL(19, 4),
+    ADD COLUMN IF NOT EXISTS ledger_pending     BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Recovery scans only the movements whose entries are still pending.
+CREATE INDEX IF NOT EXISTS idx_transactions_ledger_pending ON syneronix.transactions (updated_at) WHERE ledger_pending;
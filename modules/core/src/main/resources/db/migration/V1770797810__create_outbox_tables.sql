@@ -0,0 +1,33 @@
+CREATE TABLE IF NOT EXISTS syneronix.outbox_events
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at   TIMESTAMP   NOT NULL,
+    updated_at   TIMESTAMP,
+    version      BIGINT      NOT NULL,
+    wallet_id    UUID        NOT NULL,
+    event_type   VARCHAR(30) NOT NULL,
+    payload      JSONB       NOT NULL,
+    position     BIGINT,
+    published_at TIMESTAMP,
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id),
+    CONSTRAINT uc_outbox_events_position UNIQUE (position)
+);
+
+ALTER TABLE syneronix.outbox_events
+    OWNER TO wallet_db_user;
+
+-- The relay scans the unpublished tail in id order.
+CREATE INDEX IF NOT EXISTS idx_outbox_events_unpublished ON syneronix.outbox_events (id) WHERE position IS NULL;
+
+CREATE TABLE IF NOT EXISTS syneronix.outbox_consumers
+(
+    name       VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP    NOT NULL,
+    updated_at TIMESTAMP,
+    version    BIGINT       NOT NULL,
+    position   BIGINT       NOT NULL,
+    CONSTRAINT pk_outbox_consumers PRIMARY KEY (name)
+);
+
+ALTER TABLE syneronix.outbox_consumers
+    OWNER TO wallet_db_user;
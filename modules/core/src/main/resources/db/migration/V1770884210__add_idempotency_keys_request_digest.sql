@@ -0,0 +1,11 @@
+-- Request fingerprints as raw SHA-256 bytes; request_hash (hex) stays for instances still reading it.
+ALTER TABLE syneronix.idempotency_keys
+    ADD COLUMN IF NOT EXISTS request_digest BYTEA;
+
+UPDATE syneronix.idempotency_keys
+SET request_digest = decode(request_hash, 'hex')
+WHERE request_digest IS NULL
+  AND request_hash IS NOT NULL;
+
+ALTER TABLE syneronix.idempotency_keys
+    ADD CONSTRAINT ck_idempotency_keys_request_digest_length CHECK (octet_length(request_digest) = 32);
@@ -0,0 +1,16 @@
+-- Binary (Smile, optionally deflated) request and response payloads, written instead of the jsonb columns when
+-- syneronix.idempotency.payload.format is SMILE. Existing rows keep their JSON; readers accept either.
+ALTER TABLE syneronix.idempotency_keys
+    ADD COLUMN IF NOT EXISTS request_payload  BYTEA,
+    ADD COLUMN IF NOT EXISTS response_payload BYTEA;
+
+ALTER TABLE syneronix.idempotency_keys
+    ALTER COLUMN request_body DROP NOT NULL;
+
+ALTER TABLE syneronix.idempotency_keys
+    ADD CONSTRAINT ck_idempotency_keys_request_present CHECK (request_body IS NOT NULL OR request_payload IS NOT NULL);
+
+-- Payloads are already compact, skip the TOAST compression pass on them.
+ALTER TABLE syneronix.idempotency_keys
+    ALTER COLUMN request_payload SET STORAGE EXTERNAL,
+    ALTER COLUMN response_payload SET STORAGE EXTERNAL;
@@ -0,0 +1,89 @@
+-- Idempotency keys are range partitioned by created_at, one partition per UTC day (idempotency_keys_pYYYYMMDD
+-- holds the keys created on that day), so expired keys are removed by dropping whole partitions.
+
+-- One narrow row per request id: the uniqueness a partitioned table cannot enforce on request_id alone, and the
+-- created_at that points a lookup at the single partition holding the key.
+CREATE TABLE IF NOT EXISTS syneronix.idempotency_key_claims
+(
+    request_id UUID      NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_idempotency_key_claims PRIMARY KEY (request_id)
+);
+
+ALTER TABLE syneronix.idempotency_key_claims
+    OWNER TO wallet_db_user;
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_claims_created_at ON syneronix.idempotency_key_claims (created_at);
+
+INSERT INTO syneronix.idempotency_key_claims (request_id, created_at)
+SELECT request_id, created_at
+FROM syneronix.idempotency_keys;
+
+-- The existing table becomes the partition of everything created up to the end of today.
+ALTER TABLE syneronix.idempotency_keys
+    RENAME TO idempotency_keys_legacy;
+
+ALTER TABLE syneronix.idempotency_keys_legacy
+    DROP CONSTRAINT pk_idempotency_keys,
+    DROP CONSTRAINT uc_idempotency_keys_request_id;
+
+DROP INDEX IF EXISTS syneronix.idx_idempotency_keys_request_id;
+
+CREATE TABLE syneronix.idempotency_keys
+(
+    id               UUID         NOT NULL,
+    created_at       TIMESTAMP    NOT NULL,
+    updated_at       TIMESTAMP,
+    version          BIGINT       NOT NULL,
+    request_id       UUID         NOT NULL,
+    request_type     VARCHAR(100) NOT NULL,
+    currency         VARCHAR(3)   NOT NULL,
+    from_wallet_id   UUID,
+    to_wallet_id     UUID,
+    status           VARCHAR(20)  NOT NULL,
+    http_status_code INTEGER      NOT NULL,
+    request_body     JSONB,
+    request_hash     VARCHAR(64),
+    response_body    JSONB,
+    fail_reason      VARCHAR(255),
+    request_digest   BYTEA,
+    request_payload  BYTEA,
+    response_payload BYTEA,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (id, created_at),
+    CONSTRAINT ck_idempotency_keys_request_digest_length CHECK (octet_length(request_digest) = 32),
+    CONSTRAINT ck_idempotency_keys_request_present CHECK (request_body IS NOT NULL OR request_payload IS NOT NULL)
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE syneronix.idempotency_keys
+    OWNER TO wallet_db_user;
+
+ALTER TABLE syneronix.idempotency_keys
+    ALTER COLUMN request_payload SET STORAGE EXTERNAL,
+    ALTER COLUMN response_payload SET STORAGE EXTERNAL;
+
+-- Per partition, so it goes away with the partition instead of bloating.
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_request_id ON syneronix.idempotency_keys (request_id);
+
+DO
+$$
+    DECLARE
+        today          DATE := (now() AT TIME ZONE 'UTC')::DATE;
+        partition_day  DATE;
+        partition_name TEXT;
+    BEGIN
+        partition_name := 'idempotency_keys_p' || to_char(today, 'YYYYMMDD');
+        EXECUTE format('ALTER TABLE syneronix.idempotency_keys_legacy RENAME TO %I', partition_name);
+        EXECUTE format('ALTER TABLE syneronix.idempotency_keys ATTACH PARTITION syneronix.%I FOR VALUES FROM (MINVALUE) TO (%L)',
+                       partition_name, today + 1);
+
+        -- The retention job keeps creating partitions ahead from here on.
+        FOR i IN 1..3
+            LOOP
+                partition_day := today + i;
+                partition_name := 'idempotency_keys_p' || to_char(partition_day, 'YYYYMMDD');
+                EXECUTE format('CREATE TABLE IF NOT EXISTS syneronix.%I PARTITION OF syneronix.idempotency_keys FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, partition_day, partition_day + 1);
+                EXECUTE format('ALTER TABLE syneronix.%I OWNER TO wallet_db_user', partition_name);
+            END LOOP;
+    END
+$$;
@@ -0,0 +1,117 @@
+-- Transactions and ledger entries are range partitioned by created_at, one partition per UTC month
+-- (transactions_pYYYYMM / ledger_entries_pYYYYMM), so vacuum and index maintenance work on one month at a time and
+-- old months can be detached for archiving.
+--
+-- Unique constraints of a partitioned table must include created_at: the primary keys become (id, created_at),
+-- request_id is no longer unique here (idempotency_key_claims already admits a request id once), and ledger entries
+-- lose their foreign key to transactions, which can no longer reference id alone.
+ALTER TABLE syneronix.ledger_entries
+    DROP CONSTRAINT FK_LEDGER_ENTRIES_ON_TRANSACTION;
+
+-- The existing tables become the partitions of everything created up to the end of this month. Their secondary
+-- indexes are renamed out of the way and attached to the new parent indexes as they are.
+ALTER TABLE syneronix.transactions
+    RENAME TO transactions_legacy;
+
+ALTER TABLE syneronix.transactions_legacy
+    DROP CONSTRAINT pk_transactions,
+    DROP CONSTRAINT uc_transactions_request_id;
+
+ALTER INDEX syneronix.idx_transactions_from_wallet_created_at RENAME TO idx_transactions_legacy_from_wallet_created_at;
+ALTER INDEX syneronix.idx_transactions_to_wallet_created_at RENAME TO idx_transactions_legacy_to_wallet_created_at;
+ALTER INDEX syneronix.idx_transactions_request_id RENAME TO idx_transactions_legacy_request_id;
+ALTER INDEX syneronix.idx_transactions_ledger_pending RENAME TO idx_transactions_legacy_ledger_pending;
+
+ALTER TABLE syneronix.ledger_entries
+    RENAME TO ledger_entries_legacy;
+
+ALTER TABLE syneronix.ledger_entries_legacy
+    DROP CONSTRAINT pk_ledger_entries;
+
+ALTER INDEX syneronix.idx_ledger_entries_transaction_id RENAME TO idx_ledger_entries_legacy_transaction_id;
+ALTER INDEX syneronix.idx_ledger_entries_wallet_created_at RENAME TO idx_ledger_entries_legacy_wallet_created_at;
+ALTER INDEX syneronix.idx_ledger_entries_created_at RENAME TO idx_ledger_entries_legacy_created_at;
+
+CREATE TABLE syneronix.transactions
+(
+    id                 UUID           NOT NULL,
+    created_at         TIMESTAMP      NOT NULL,
+    updated_at         TIMESTAMP,
+    version            BIGINT         NOT NULL,
+    request_id         UUID           NOT NULL,
+    type               VARCHAR(20)    NOT NULL,
+    status             VARCHAR(20)    NOT NULL,
+    amount             DECIMAL(19, 4) NOT NULL,
+    currency           VARCHAR(3)     NOT NULL,
+    from_wallet_id     UUID,
+    to_wallet_id       UUID,
+    description        VARCHAR(1024),
+    failure_reason     VARCHAR(1024),
+    from_balance_after DECIMAL(19, 4),
+    to_balance_after   DECIMAL(19, 4),
+    ledger_pending     BOOLEAN        NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_transactions PRIMARY KEY (id, created_at),
+    CONSTRAINT chk_transactions_amount_positive CHECK (amount > 0),
+    CONSTRAINT FK_TRANSACTIONS_ON_FROM_WALLET FOREIGN KEY (from_wallet_id) REFERENCES syneronix.wallets (id),
+    CONSTRAINT FK_TRANSACTIONS_ON_TO_WALLET FOREIGN KEY (to_wallet_id) REFERENCES syneronix.wallets (id)
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE syneronix.transactions
+    OWNER TO wallet_db_user;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_from_wallet_created_at ON syneronix.transactions (from_wallet_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_to_wallet_created_at ON syneronix.transactions (to_wallet_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_request_id ON syneronix.transactions (request_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_ledger_pending ON syneronix.transactions (updated_at) WHERE ledger_pending;
+
+CREATE TABLE syneronix.ledger_entries
+(
+    id             UUID           NOT NULL,
+    created_at     TIMESTAMP      NOT NULL,
+    updated_at     TIMESTAMP,
+    version        BIGINT         NOT NULL,
+    transaction_id UUID           NOT NULL,
+    wallet_id      UUID           NOT NULL,
+    amount         DECIMAL(19, 4) NOT NULL,
+    currency       VARCHAR(3)     NOT NULL,
+    direction      VARCHAR(6)     NOT NULL,
+    balance_after  DECIMAL(19, 4) NOT NULL,
+    CONSTRAINT pk_ledger_entries PRIMARY KEY (id, created_at),
+    CONSTRAINT chk_ledger_entries_amount_positive CHECK (amount > 0),
+    CONSTRAINT FK_LEDGER_ENTRIES_ON_WALLET FOREIGN KEY (wallet_id) REFERENCES syneronix.wallets (id)
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE syneronix.ledger_entries
+    OWNER TO wallet_db_user;
+
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_transaction_id ON syneronix.ledger_entries (transaction_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_wallet_created_at ON syneronix.ledger_entries (wallet_id, created_at DESC, id DESC) INCLUDE (balance_after);
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_created_at ON syneronix.ledger_entries (created_at);
+
+DO
+$$
+    DECLARE
+        this_month      DATE := date_trunc('month', now() AT TIME ZONE 'UTC')::DATE;
+        partition_month DATE;
+        partition_table TEXT;
+        partition_name  TEXT;
+    BEGIN
+        FOREACH partition_table IN ARRAY ARRAY ['transactions', 'ledger_entries']
+            LOOP
+                partition_name := partition_table || '_p' || to_char(this_month, 'YYYYMM');
+                EXECUTE format('ALTER TABLE syneronix.%I RENAME TO %I', partition_table || '_legacy', partition_name);
+                EXECUTE format('ALTER TABLE syneronix.%I ATTACH PARTITION syneronix.%I FOR VALUES FROM (MINVALUE) TO (%L)',
+                               partition_table, partition_name, (this_month + INTERVAL '1 month')::DATE);
+
+                -- The partition maintenance job keeps creating months ahead from here on.
+                FOR i IN 1..2
+                    LOOP
+                        partition_month := (this_month + make_interval(months => i))::DATE;
+                        partition_name := partition_table || '_p' || to_char(partition_month, 'YYYYMM');
+                        EXECUTE format('CREATE TABLE IF NOT EXISTS syneronix.%I PARTITION OF syneronix.%I FOR VALUES FROM (%L) TO (%L)',
+                                       partition_name, partition_table, partition_month, (partition_month + INTERVAL '1 month')::DATE);
+                        EXECUTE format('ALTER TABLE syneronix.%I OWNER TO wallet_db_user', partition_name);
+                    END LOOP;
+            END LOOP;
+    END
+$$;
@@ -0,0 +1,24 @@
+-- Manifest of the cold-storage archive: one row per block of archived rows of one wallet and one UTC month, pointing
+-- at its byte range in an archive file.
+CREATE TABLE IF NOT EXISTS syneronix.archive_blocks
+(
+    id                UUID         NOT NULL,
+    created_at        TIMESTAMP    NOT NULL,
+    updated_at        TIMESTAMP,
+    version           BIGINT       NOT NULL,
+    source            VARCHAR(20)  NOT NULL,
+    wallet_id         UUID         NOT NULL,
+    month_start       DATE         NOT NULL,
+    file              VARCHAR(255) NOT NULL,
+    file_offset       BIGINT       NOT NULL,
+    byte_length       INTEGER      NOT NULL,
+    row_count         INTEGER      NOT NULL,
+    oldest_created_at TIMESTAMP    NOT NULL,
+    newest_created_at TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_archive_blocks PRIMARY KEY (id)
+);
+
+ALTER TABLE syneronix.archive_blocks
+    OWNER TO wallet_db_user;
+
+CREATE INDEX IF NOT EXISTS idx_archive_blocks_wallet_source_month ON syneronix.archive_blocks (wallet_id, source, month_start DESC);
@@ -0,0 +1,121 @@
+-- A whole transfer in one call, for the PROCEDURE transfer engine: locks both wallets in id order, checks them and
+-- either moves the amount and writes the COMPLETED transaction with its two ledger entries, or writes the FAILED
+-- transaction of a transfer the source wallet cannot cover. The checks and their order are those of the JPA path:
+-- a wallet in another currency is not found, a wallet that is not ACTIVE is locked. Nothing is written for any other
+-- outcome, and sharded wallets (SHARDED) are left to the JPA path, which consolidates their balance slots.
+-- Ledger entry ids are derived like the write-behind writer derives them.
+CREATE OR REPLACE FUNCTION syneronix.transfer_funds(
+    p_transaction_id UUID,
+    p_request_id UUID,
+    p_from_wallet_id UUID,
+    p_to_wallet_id UUID,
+    p_amount DECIMAL(19, 4),
+    p_currency VARCHAR(3),
+    p_now TIMESTAMP
+)
+    RETURNS TABLE
+            (
+                outcome              VARCHAR(20),
+                failed_wallet_id     UUID,
+                failed_wallet_status VARCHAR(20),
+                from_balance         DECIMAL(19, 4),
+                to_balance           DECIMAL(19, 4)
+            )
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    v_wallet syneronix.wallets%ROWTYPE;
+    v_from   syneronix.wallets%ROWTYPE;
+    v_to     syneronix.wallets%ROWTYPE;
+BEGIN
+    FOR v_wallet IN
+        SELECT *
+        FROM syneronix.wallets w
+        WHERE w.id IN (p_from_wallet_id, p_to_wallet_id)
+          AND w.currency = p_currency
+        ORDER BY w.id
+        FOR UPDATE
+        LOOP
+            IF v_wallet.id = p_from_wallet_id THEN
+                v_from := v_wallet;
+            END IF;
+            IF v_wallet.id = p_to_wallet_id THEN
+                v_to := v_wallet;
+            END IF;
+        END LOOP;
+
+    IF v_from.id IS NULL OR v_to.id IS NULL THEN
+        outcome := 'WALLET_NOT_FOUND';
+        -- no wallet id when neither was found
+        failed_wallet_id := CASE
+                                WHEN v_from.id IS NULL AND v_to.id IS NULL THEN NULL
+                                WHEN v_from.id IS NULL THEN p_from_wallet_id
+                                ELSE p_to_wallet_id END;
+        RETURN NEXT;
+        RETURN;
+    END IF;
+
+    IF p_from_wallet_id = p_to_wallet_id THEN
+        outcome := 'SAME_WALLET';
+        RETURN NEXT;
+        RETURN;
+    END IF;
+
+    IF v_from.status <> 'ACTIVE' OR v_to.status <> 'ACTIVE' THEN
+        outcome := 'WALLET_LOCKED';
+        failed_wallet_id := CASE WHEN v_from.status <> 'ACTIVE' THEN v_from.id ELSE v_to.id END;
+        failed_wallet_status := CASE WHEN v_from.status <> 'ACTIVE' THEN v_from.status ELSE v_to.status END;
+        RETURN NEXT;
+        RETURN;
+    END IF;
+
+    IF v_from.balance_slots > 0 OR v_to.balance_slots > 0 THEN
+        outcome := 'SHARDED';
+        RETURN NEXT;
+        RETURN;
+    END IF;
+
+    IF v_from.balance < p_amount THEN
+        INSERT INTO syneronix.transactions (id, created_at, updated_at, version, request_id, type, status, amount,
+                                            currency, from_wallet_id, to_wallet_id, failure_reason, ledger_pending)
+        VALUES (p_transaction_id, p_now, p_now, 0, p_request_id, 'TRANSFER', 'FAILED', p_amount,
+                p_currency, p_from_wallet_id, p_to_wallet_id, 'Insufficient funds', FALSE);
+        outcome := 'INSUFFICIENT_FUNDS';
+        RETURN NEXT;
+        RETURN;
+    END IF;
+
+    UPDATE syneronix.wallets w
+    SET balance    = w.balance - p_amount,
+        version    = w.version + 1,
+        updated_at = p_now
+    WHERE w.id = p_from_wallet_id
+    RETURNING w.balance INTO from_balance;
+
+    UPDATE syneronix.wallets w
+    SET balance    = w.balance + p_amount,
+        version    = w.version + 1,
+        updated_at = p_now
+    WHERE w.id = p_to_wallet_id
+    RETURNING w.balance INTO to_balance;
+
+    INSERT INTO syneronix.transactions (id, created_at, updated_at, version, request_id, type, status, amount,
+                                        currency, from_wallet_id, to_wallet_id, ledger_pending)
+    VALUES (p_transaction_id, p_now, p_now, 0, p_request_id, 'TRANSFER', 'COMPLETED', p_amount,
+            p_currency, p_from_wallet_id, p_to_wallet_id, FALSE);
+
+    INSERT INTO syneronix.ledger_entries (id, created_at, updated_at, version, transaction_id, wallet_id, amount,
+                                          currency, direction, balance_after)
+    VALUES (CAST(md5(CAST(p_transaction_id AS text) || ':DEBIT') AS uuid), p_now, p_now, 0, p_transaction_id,
+            p_from_wallet_id, p_amount, p_currency, 'DEBIT', from_balance),
+           (CAST(md5(CAST(p_transaction_id AS text) || ':CREDIT') AS uuid), p_now, p_now, 0, p_transaction_id,
+            p_to_wallet_id, p_amount, p_currency, 'CREDIT', to_balance);
+
+    outcome := 'COMPLETED';
+    RETURN NEXT;
+END;
+$$;
+
+ALTER FUNCTION syneronix.transfer_funds(UUID, UUID, UUID, UUID, DECIMAL, VARCHAR, TIMESTAMP)
+    OWNER TO wallet_db_user;
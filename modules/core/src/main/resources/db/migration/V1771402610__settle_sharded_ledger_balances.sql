@@ -0,0 +1,7 @@
+-- Credits to balance slots are written without a balance after, which is settled later in ledger order.
+ALTER TABLE syneronix.ledger_entries
+    ALTER COLUMN balance_after DROP NOT NULL;
+
+-- Settling and point-in-time balances find the unsettled entries of a wallet without scanning its settled ones.
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_unsettled ON syneronix.ledger_entries (wallet_id, created_at, id)
+    WHERE balance_after IS NULL;
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -50,4 +52,62 @@ class LedgerEntryRepositoryTest extends BaseH2InMemoryTest {
 
         assertThat(saved.getId()).isNotNull();
     }
+
+    @Test
+    void findLatestBalanceBefore_shouldReturnBalanceOfLastEntry() {
+        WalletEntity wallet = saveWallet();
+        TransactionEntity transaction = saveDeposit(wallet);
+        saveEntry(transaction, wallet, MoneyFlowDirection.CREDIT, BigDecimal.TEN, BigDecimal.valueOf(9));
+
+        Instant later = Instant.now().plus(1, ChronoUnit.MINUTES);
+
+        assertThat(ledgerEntryRepository.findLatestBalanceBefore(wallet.getId(), later)).hasValueSatisfying(
+                balance -> assertThat(balance).isEqualByComparingTo("9"));
+        assertThat(ledgerEntryRepository.findLatestBalanceBefore(wallet.getId(), Instant.EPOCH)).isEmpty();
+    }
+
+    @Test
+    void sumMovements_shouldSplitCreditsAndDebits() {
+        WalletEntity wallet = saveWallet();
+        TransactionEntity transaction = saveDeposit(wallet);
+        saveEntry(transaction, wallet, MoneyFlowDirection.CREDIT, BigDecimal.TEN, BigDecimal.TEN);
+        saveEntry(transaction, wallet, MoneyFlowDirection.DEBIT, BigDecimal.ONE, BigDecimal.valueOf(9));
+
+        MovementTotals totals = ledgerEntryRepository.sumMovements(wallet.getId(), Instant.EPOCH, Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        assertThat(totals.credits()).isEqualByComparingTo("10");
+        assertThat(totals.debits()).isEqualByComparingTo("1");
+        assertThat(totals.entryCount()).isEqualTo(2);
+    }
+
+    private WalletEntity saveWallet() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(BigDecimal.ZERO);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        return walletRepository.save(wallet);
+    }
+
+    private TransactionEntity saveDeposit(WalletEntity wallet) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setRequestId(uuid());
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setCurrency(Currency.USD);
+        transaction.setToWallet(wallet);
+        return transactionRepository.save(transaction);
+    }
+
+    private void saveEntry(TransactionEntity transaction, WalletEntity wallet, MoneyFlowDirection direction, BigDecimal amount, BigDecimal balanceAfter) {
+        LedgerEntryEntity entry = new LedgerEntryEntity();
+        entry.setTransaction(transaction);
+        entry.setWallet(wallet);
+        entry.setAmount(amount);
+        entry.setDirection(direction);
+        entry.setCurrency(Currency.USD);
+        entry.setBalanceAfter(balanceAfter);
+        ledgerEntryRepository.saveAndFlush(entry);
+    }
 }
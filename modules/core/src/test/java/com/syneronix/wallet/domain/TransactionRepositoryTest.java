@@ -9,6 +9,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -42,4 +46,64 @@ class TransactionRepositoryTest extends BaseH2InMemoryTest {
         assertThat(saved.getId()).isNotNull();
         assertThat(saved.getRequestId()).isNotNull();
     }
+
+    @Test
+    void findHistoryPage_shouldWalkBothSidesOfWalletWithoutGapsOrDuplicates() {
+        WalletEntity wallet = saveWallet();
+        WalletEntity other = saveWallet();
+        saveTransaction(TransactionType.DEPOSIT, null, wallet);
+        saveTransaction(TransactionType.TRANSFER, wallet, other);
+        saveTransaction(TransactionType.WITHDRAW, wallet, null);
+        saveTransaction(TransactionType.TRANSFER, other, wallet);
+        saveTransaction(TransactionType.DEPOSIT, null, other);
+        TransactionHistoryFilter filter = TransactionHistoryFilter.of(wallet.getId());
+
+        List<UUID> all = transactionRepository.findHistoryPage(filter, null, null, 100).stream()
+                .map(TransactionEntity::getId)
+                .toList();
+
+        List<UUID> paged = new ArrayList<>();
+        List<TransactionEntity> page = transactionRepository.findHistoryPage(filter, null, null, 2);
+        while (!page.isEmpty()) {
+            page.forEach(transaction -> paged.add(transaction.getId()));
+            TransactionEntity last = page.get(page.size() - 1);
+            page = transactionRepository.findHistoryPage(filter, last.getCreatedAt(), last.getId(), 2);
+        }
+
+        assertThat(all).hasSize(4);
+        assertThat(paged).containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void findHistoryPage_shouldApplyTypeFilter() {
+        WalletEntity wallet = saveWallet();
+        saveTransaction(TransactionType.DEPOSIT, null, wallet);
+        saveTransaction(TransactionType.WITHDRAW, wallet, null);
+
+        List<TransactionEntity> deposits = transactionRepository.findHistoryPage(
+                new TransactionHistoryFilter(wallet.getId(), null, null, Set.of(TransactionType.DEPOSIT)), null, null, 10);
+
+        assertThat(deposits).extracting(TransactionEntity::getType).containsExactly(TransactionType.DEPOSIT);
+    }
+
+    private WalletEntity saveWallet() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(BigDecimal.ZERO);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        return walletRepository.save(wallet);
+    }
+
+    private void saveTransaction(TransactionType type, WalletEntity from, WalletEntity to) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setRequestId(uuid());
+        transaction.setType(type);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setCurrency(Currency.USD);
+        transaction.setFromWallet(from);
+        transaction.setToWallet(to);
+        transactionRepository.saveAndFlush(transaction);
+    }
 }
@@ -0,0 +1,87 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.config.ArchiveProperties;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.domain.WalletRepository;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+
+class ArchiveIntegrationTest extends BaseIntegrationTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2000, 1);
+    private static final String PARTITION = "syneronix.transactions_p200001";
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private ArchiveProperties archiveProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Path originalDirectory;
+
+    @BeforeEach
+    void setUp() {
+        originalDirectory = archiveProperties.getDirectory();
+        archiveProperties.setDirectory(directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiveProperties.setDirectory(originalDirectory);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + PARTITION);
+    }
+
+    @Test
+    void archiveTransactions_shouldMoveDetachedPartitionToArchive() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(BigDecimal.ZERO);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet = walletRepository.save(wallet);
+
+        TransactionEntity deposit = transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+        jdbcTemplate.execute("CREATE TABLE " + PARTITION + " (LIKE syneronix.transactions INCLUDING DEFAULTS)");
+        jdbcTemplate.update("INSERT INTO " + PARTITION + " SELECT * FROM syneronix.transactions WHERE id = ?", deposit.getId());
+        jdbcTemplate.update("UPDATE " + PARTITION + " SET created_at = ?, ledger_pending = false",
+                Timestamp.from(Instant.parse("2000-01-15T10:00:00Z")));
+        jdbcTemplate.update("DELETE FROM syneronix.transactions WHERE id = ?", deposit.getId());
+
+        assertThat(archiveService.archiveTransactions(MONTH)).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, PARTITION)).isTrue();
+        assertThat(transactionService.getTransactions(wallet.getId(), Instant.parse("1999-12-01T00:00:00Z")))
+                .singleElement()
+                .satisfies(transaction -> {
+                    assertThat(transaction.getId()).isEqualTo(deposit.getId());
+                    assertThat(transaction.getAmount()).isEqualByComparingTo(BigDecimal.TEN);
+                    assertThat(transaction.getCreatedAt()).isEqualTo(Instant.parse("2000-01-15T10:00:00Z"));
+                });
+    }
+}
@@ -0,0 +1,120 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.*;
+import com.syneronix.wallet.domain.*;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+class BalanceServiceIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private WalletBalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+    private WalletEntity wallet;
+    private TransactionEntity transaction;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAll();
+
+        wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(BigDecimal.ZERO);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet = walletRepository.save(wallet);
+
+        transaction = new TransactionEntity();
+        transaction.setRequestId(uuid());
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setCurrency(Currency.USD);
+        transaction.setToWallet(wallet);
+        transaction = transactionRepository.save(transaction);
+
+        createEntry(today.minus(3, ChronoUnit.DAYS).plus(10, ChronoUnit.HOURS), MoneyFlowDirection.CREDIT, 100, 100);
+        createEntry(today.minus(2, ChronoUnit.DAYS).plus(12, ChronoUnit.HOURS), MoneyFlowDirection.DEBIT, 30, 70);
+        createEntry(today.minus(1, ChronoUnit.DAYS).plus(8, ChronoUnit.HOURS), MoneyFlowDirection.CREDIT, 50, 120);
+    }
+
+    @Test
+    void balanceAt_shouldReturnBalanceAfterLastEntryBefore() {
+        assertThat(balanceService.balanceAt(wallet.getId(), today.minus(4, ChronoUnit.DAYS))).isEqualByComparingTo("0");
+        assertThat(balanceService.balanceAt(wallet.getId(), today.minus(2, ChronoUnit.DAYS))).isEqualByComparingTo("100");
+        assertThat(balanceService.balanceAt(wallet.getId(), today)).isEqualByComparingTo("120");
+    }
+
+    @Test
+    void snapshotCompletedDays_shouldWriteOneRowPerActiveDay() {
+        balanceService.snapshotCompletedDays(Instant.now());
+
+        assertThat(snapshotRepository.findAll())
+                .filteredOn(snapshot -> snapshot.getWalletId().equals(wallet.getId()))
+                .hasSize(3)
+                .anySatisfy(snapshot -> {
+                    assertThat(snapshot.getPeriodStart()).isEqualTo(today.minus(2, ChronoUnit.DAYS));
+                    assertThat(snapshot.getOpeningBalance()).isEqualByComparingTo("100");
+                    assertThat(snapshot.getClosingBalance()).isEqualByComparingTo("70");
+                    assertThat(snapshot.getTotalDebits()).isEqualByComparingTo("30");
+                    assertThat(snapshot.getEntryCount()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    void statement_shouldMatchLedger_whenServedFromSnapshots() {
+        Instant from = today.minus(3, ChronoUnit.DAYS).plus(6, ChronoUnit.HOURS);
+        Instant to = Instant.now();
+        BalanceService.WalletStatement fromLedger = balanceService.statement(wallet.getId(), from, to);
+
+        balanceService.snapshotCompletedDays(Instant.now());
+        BalanceService.WalletStatement fromSnapshots = balanceService.statement(wallet.getId(), from, to);
+
+        assertThat(fromSnapshots).usingRecursiveComparison().withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(fromLedger);
+        assertThat(fromSnapshots.openingBalance()).isEqualByComparingTo("0");
+        assertThat(fromSnapshots.closingBalance()).isEqualByComparingTo("120");
+        assertThat(fromSnapshots.movements().credits()).isEqualByComparingTo("150");
+        assertThat(fromSnapshots.movements().debits()).isEqualByComparingTo("30");
+        assertThat(fromSnapshots.movements().entryCount()).isEqualTo(3);
+    }
+
+    private void createEntry(Instant createdAt, MoneyFlowDirection direction, long amount, long balanceAfter) {
+        LedgerEntryEntity entry = new LedgerEntryEntity();
+        entry.setTransaction(transaction);
+        entry.setWallet(wallet);
+        entry.setAmount(BigDecimal.valueOf(amount));
+        entry.setDirection(direction);
+        entry.setCurrency(Currency.USD);
+        entry.setBalanceAfter(BigDecimal.valueOf(balanceAfter));
+        entry = ledgerEntryRepository.save(entry);
+
+        // created_at is set by auditing on insert, move the entry into the past afterwards
+        jdbcTemplate.update("UPDATE syneronix.ledger_entries SET created_at = ? WHERE id = ?",
+                Timestamp.from(createdAt), entry.getId());
+    }
+}
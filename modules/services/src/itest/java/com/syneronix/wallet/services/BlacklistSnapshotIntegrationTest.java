@@ -0,0 +1,96 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.domain.BlacklistEntity;
+import com.syneronix.wallet.domain.BlacklistRepository;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.domain.WalletRepository;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.BooleanSupplier;
+
+@TestPropertySource(properties = {
+        "syneronix.blacklist.cache.enabled=true",
+        "syneronix.blacklist.notifications.enabled=true",
+        "syneronix.blacklist.notifications.poll-timeout=100ms"
+})
+class BlacklistSnapshotIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private BlacklistService blacklistService;
+
+    @Autowired
+    private BlacklistSnapshot blacklistSnapshot;
+
+    @Autowired
+    private BlacklistRepository blacklistRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WalletEntity testWallet;
+
+    @BeforeEach
+    void setUp() {
+        blacklistRepository.deleteAll();
+
+        testWallet = new WalletEntity();
+        testWallet.setUserId(uuid());
+        testWallet.setCurrency(Currency.USD);
+        testWallet.setBalance(BigDecimal.ZERO);
+        testWallet.setStatus(WalletStatus.ACTIVE);
+        testWallet = walletRepository.save(testWallet);
+
+        blacklistSnapshot.reload();
+    }
+
+    @Test
+    void blockAndUnblock_shouldUpdateSnapshotOnCommit() {
+        blacklistService.blockWallet(testWallet.getId(), "Test");
+        assertThat(blacklistSnapshot.contains(testWallet.getId())).isTrue();
+        assertThat(blacklistService.isBlocked(testWallet.getId())).isTrue();
+
+        blacklistService.unblockWallet(testWallet.getId());
+        assertThat(blacklistSnapshot.contains(testWallet.getId())).isFalse();
+    }
+
+    @Test
+    void notification_shouldUpdateSnapshot_whenChangedByAnotherInstance() {
+        // what another instance does in BlacklistService.blockWallet
+        BlacklistEntity entity = new BlacklistEntity();
+        entity.setWalletId(testWallet.getId());
+        entity.setReason("Test");
+        blacklistRepository.save(entity);
+        jdbcTemplate.query("SELECT pg_notify('wallet_blacklist', ?)", rs -> null, "block:" + testWallet.getId());
+
+        assertThat(waitFor(() -> blacklistSnapshot.contains(testWallet.getId()), Duration.ofSeconds(5))).isTrue();
+    }
+
+    private boolean waitFor(BooleanSupplier condition, Duration timeout) {
+        Instant deadline = Instant.now().plus(timeout);
+        while (Instant.now().isBefore(deadline)) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return condition.getAsBoolean();
+    }
+}
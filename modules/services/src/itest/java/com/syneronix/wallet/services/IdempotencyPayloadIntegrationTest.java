@@ -0,0 +1,73 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.RequestType;
+import com.syneronix.wallet.domain.IdempotencyKeyEntity;
+import com.syneronix.wallet.domain.IdempotencyKeyRepository;
+import com.syneronix.wallet.mappers.JsonMapper;
+import com.syneronix.wallet.mappers.PayloadCodec;
+import com.syneronix.wallet.mappers.RequestFingerprinter;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@TestPropertySource(properties = "syneronix.idempotency.payload.format=smile")
+class IdempotencyPayloadIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PayloadCodec payloadCodec;
+
+    @Autowired
+    private RequestFingerprinter requestFingerprinter;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private UUID requestId;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository.deleteAll();
+        requestId = uuid();
+    }
+
+    @Test
+    void create_shouldStoreBinaryRequest() {
+        Map<String, String> requestBody = Map.of("key", "value");
+
+        idempotencyService.create(requestId, requestBody, RequestType.DEPOSIT, Currency.USD, null, null);
+
+        IdempotencyKeyEntity entity = idempotencyKeyRepository.findByRequestId(requestId).orElseThrow();
+        assertThat(entity.getRequestBody()).isNull();
+        assertThat(payloadCodec.decode(entity.getRequestPayload(), Map.class)).isEqualTo(requestBody);
+        assertThat(entity.getRequestDigest()).isEqualTo(requestFingerprinter.sha256(jsonMapper.toJson(requestBody)));
+    }
+
+    @Test
+    void success_shouldStoreCompressedResponse() {
+        Map<String, String> response = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            response.put("field_" + i, "value");
+        }
+        idempotencyService.create(requestId, Map.of(), RequestType.DEPOSIT, Currency.USD, null, null);
+
+        idempotencyService.success(requestId, response, 200);
+
+        IdempotencyKeyEntity entity = idempotencyKeyRepository.findByRequestId(requestId).orElseThrow();
+        assertThat(entity.getResponseBody()).isNull();
+        assertThat(entity.getResponsePayload().length).isLessThan(jsonMapper.toJson(response).length() / 2);
+        assertThat(payloadCodec.decode(entity.getResponsePayload(), Map.class)).isEqualTo(response);
+    }
+}
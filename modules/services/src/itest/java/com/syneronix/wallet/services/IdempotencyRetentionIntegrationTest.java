@@ -0,0 +1,99 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.RequestType;
+import com.syneronix.wallet.config.IdempotencyProperties;
+import com.syneronix.wallet.domain.IdempotencyKeyRepository;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+class IdempotencyRetentionIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRetentionService idempotencyRetentionService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private IdempotencyProperties idempotencyProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository.deleteAll();
+        today = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyProperties.getRetention().setEnabled(false);
+        idempotencyRetentionService.createPartitions(Instant.now());
+    }
+
+    @Test
+    void createPartitions_shouldKeepDaysAheadCreated() {
+        idempotencyRetentionService.createPartitions(Instant.now().plus(Duration.ofDays(5)));
+
+        assertThat(idempotencyKeyRepository.findPartitionDays()).contains(today.plusDays(5), today.plusDays(8));
+    }
+
+    @Test
+    void findByRequestId_shouldFindKeyThroughClaim() {
+        UUID requestId = uuid();
+        idempotencyService.create(requestId, Map.of("key", "value"), RequestType.DEPOSIT, Currency.USD, null, null);
+        boolean again = idempotencyService.create(requestId, Map.of("key", "value"), RequestType.DEPOSIT, Currency.USD, null, null);
+
+        assertThat(again).isFalse();
+        assertThat(idempotencyKeyRepository.findByRequestId(requestId)).isPresent();
+    }
+
+    @Test
+    void dropExpiredPartitions_shouldRemoveExpiredKeysAndReleaseRequestIds() {
+        UUID requestId = uuid();
+        idempotencyService.create(requestId, Map.of("key", "value"), RequestType.DEPOSIT, Currency.USD, null, null);
+
+        Instant later = Instant.now().plus(Duration.ofDays(8));
+        LocalDateTime cutoff = idempotencyRetentionService.dropExpiredPartitions(later).orElseThrow();
+        idempotencyRetentionService.deleteClaims(cutoff);
+
+        assertThat(cutoff).isEqualTo(today.plusDays(1).atStartOfDay());
+        assertThat(idempotencyKeyRepository.findPartitionDays()).doesNotContain(today);
+        assertThat(idempotencyKeyRepository.findByRequestId(requestId)).isEmpty();
+
+        idempotencyRetentionService.createPartitions(Instant.now());
+        assertThat(idempotencyService.create(requestId, Map.of("key", "value"), RequestType.DEPOSIT, Currency.USD, null, null)).isTrue();
+    }
+
+    @Test
+    void create_shouldTakeOverExpiredClaim_whoseKeyIsAlreadyDropped() {
+        idempotencyProperties.getRetention().setEnabled(true);
+        UUID requestId = uuid();
+        // the partition of its key is gone, the claim is not deleted yet
+        jdbcTemplate.update("INSERT INTO syneronix.idempotency_key_claims (request_id, created_at) VALUES (?, ?)",
+                requestId, LocalDateTime.now(ZoneOffset.UTC).minusDays(10));
+
+        assertThat(idempotencyService.create(requestId, Map.of("key", "value"), RequestType.DEPOSIT, Currency.USD, null, null)).isTrue();
+        assertThat(idempotencyKeyRepository.findByRequestId(requestId)).isPresent();
+        assertThat(idempotencyService.create(requestId, Map.of("key", "value"), RequestType.DEPOSIT, Currency.USD, null, null)).isFalse();
+    }
+}
@@ -40,6 +40,19 @@ class IdempotencyServiceIntegrationTest extends BaseIntegrationTest {
         assertThat(entity.getRequestBody()).isEqualTo("{\"key\": \"value\"}");
     }
 
+    @Test
+    void create_shouldNotClaimTwice_whenDuplicateRequest() {
+        boolean first = idempotencyService.create(requestId, Map.of("key", "value"), RequestType.DEPOSIT, Currency.USD, null, null);
+        boolean second = idempotencyService.create(requestId, Map.of("key", "other"), RequestType.DEPOSIT, Currency.USD, null, null);
+
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(idempotencyKeyRepository.count()).isEqualTo(1);
+
+        IdempotencyKeyEntity entity = idempotencyKeyRepository.findByRequestId(requestId).orElseThrow();
+        assertThat(entity.getRequestBody()).isEqualTo("{\"key\": \"value\"}");
+    }
+
     @Test
     void success_shouldUpdateStatusToCompleted() {
         idempotencyService.create(requestId, Map.of(), RequestType.DEPOSIT, Currency.USD, null, null);
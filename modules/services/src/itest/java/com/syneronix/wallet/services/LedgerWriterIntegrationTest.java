@@ -0,0 +1,106 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.*;
+import com.syneronix.wallet.domain.*;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+@TestPropertySource(properties = "syneronix.ledger.write-behind.enabled=true")
+class LedgerWriterIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletRepository.deleteAll();
+
+        wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(BigDecimal.valueOf(100));
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet = walletRepository.save(wallet);
+    }
+
+    @Test
+    void deposit_shouldWriteLedgerEntryAfterCommit() throws InterruptedException {
+        TransactionEntity deposit = transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+
+        awaitTrue(() -> ledgerEntryRepository.count() == 1);
+        awaitTrue(() -> !transactionRepository.findById(deposit.getId()).orElseThrow().isLedgerPending());
+
+        LedgerEntryEntity entry = ledgerEntryRepository.findAll().get(0);
+        assertThat(entry.getId()).isEqualTo(PendingLedgerEntry.of(deposit.getId(), wallet.getId(), BigDecimal.TEN,
+                Currency.USD, MoneyFlowDirection.CREDIT, BigDecimal.valueOf(110), Instant.now()).id());
+        assertThat(entry.getBalanceAfter()).isEqualByComparingTo(BigDecimal.valueOf(110));
+        assertThat(entry.getDirection()).isEqualTo(MoneyFlowDirection.CREDIT);
+    }
+
+    @Test
+    void recover_shouldRebuildMissingEntriesOnce() {
+        WalletEntity receiver = new WalletEntity();
+        receiver.setUserId(uuid());
+        receiver.setCurrency(Currency.USD);
+        receiver.setBalance(BigDecimal.valueOf(25));
+        receiver.setStatus(WalletStatus.ACTIVE);
+        receiver = walletRepository.save(receiver);
+
+        TransactionEntity transfer = new TransactionEntity();
+        transfer.setRequestId(uuid());
+        transfer.setType(TransactionType.TRANSFER);
+        transfer.setStatus(TransactionStatus.COMPLETED);
+        transfer.setAmount(BigDecimal.valueOf(25));
+        transfer.setCurrency(Currency.USD);
+        transfer.setFromWallet(wallet);
+        transfer.setToWallet(receiver);
+        transfer.setFromBalanceAfter(BigDecimal.valueOf(75));
+        transfer.setToBalanceAfter(BigDecimal.valueOf(25));
+        transfer.setLedgerPending(true);
+        transfer = transactionRepository.save(transfer);
+
+        assertThat(ledgerWriter.recover(Instant.now().plusSeconds(1))).isEqualTo(2);
+        assertThat(ledgerWriter.recover(Instant.now().plusSeconds(1))).isZero();
+
+        List<LedgerEntryEntity> entries = ledgerEntryRepository.findAll();
+        assertThat(entries).hasSize(2);
+        assertThat(entries).extracting(LedgerEntryEntity::getId).containsExactlyInAnyOrder(
+                PendingLedgerEntry.of(transfer.getId(), wallet.getId(), transfer.getAmount(), Currency.USD,
+                        MoneyFlowDirection.DEBIT, BigDecimal.valueOf(75), Instant.now()).id(),
+                PendingLedgerEntry.of(transfer.getId(), receiver.getId(), transfer.getAmount(), Currency.USD,
+                        MoneyFlowDirection.CREDIT, BigDecimal.valueOf(25), Instant.now()).id());
+        assertThat(transactionRepository.findById(transfer.getId()).orElseThrow().isLedgerPending()).isFalse();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.CurrencyMismatchException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.OutboxEventType;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.domain.*;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@TestPropertySource(properties = {"syneronix.outbox.enabled=true", "syneronix.outbox.sink=in-memory", "syneronix.sharding.enabled=true"})
+class OutboxServiceIntegrationTest extends BaseIntegrationTest {
+
+    private static final String CONSUMER = "itest-consumer";
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private InMemoryOutboxSink inMemoryOutboxSink;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxConsumerRepository outboxConsumerRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WalletEntity sender;
+    private WalletEntity receiver;
+
+    @BeforeEach
+    void setUp() {
+        outboxConsumerRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletRepository.deleteAll();
+        inMemoryOutboxSink.clear();
+
+        sender = wallet(BigDecimal.valueOf(100));
+        receiver = wallet(BigDecimal.ZERO);
+    }
+
+    @Test
+    void movements_shouldBePublishedInOrderAndReadByOffset() {
+        transactionService.deposit(uuid(), sender, BigDecimal.TEN, Currency.USD);
+        transactionService.transfer(uuid(), walletRepository.findById(sender.getId()).orElseThrow(),
+                receiver, BigDecimal.valueOf(30), Currency.USD);
+        transactionService.withdraw(uuid(), walletRepository.findById(receiver.getId()).orElseThrow(),
+                BigDecimal.valueOf(500), Currency.USD);
+
+        assertThat(outboxService.read(CONSUMER, 10)).isEmpty();
+        assertThat(outboxService.relayBatch()).isEqualTo(4);
+        assertThat(outboxService.relayBatch()).isZero();
+
+        List<OutboxMessage> messages = outboxService.read(CONSUMER, 10);
+        assertThat(messages).extracting(OutboxMessage::position).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(messages).extracting(OutboxMessage::eventType).containsExactly(
+                OutboxEventType.TRANSACTION_COMPLETED, OutboxEventType.TRANSACTION_COMPLETED,
+                OutboxEventType.TRANSACTION_COMPLETED, OutboxEventType.TRANSACTION_FAILED);
+        assertThat(messages).extracting(OutboxMessage::walletId).containsExactly(
+                sender.getId(), sender.getId(), receiver.getId(), receiver.getId());
+        assertThat(inMemoryOutboxSink.getMessages()).isEqualTo(messages);
+
+        assertThat(outboxService.commit(CONSUMER, 3)).isEqualTo(3);
+        assertThat(outboxService.read(CONSUMER, 10)).extracting(OutboxMessage::position).containsExactly(4L);
+    }
+
+    @Test
+    void rejectedMovement_shouldAppendNothing() {
+        assertThatThrownBy(() -> transactionService.deposit(uuid(), sender, BigDecimal.TEN, Currency.EUR))
+                .isInstanceOf(CurrencyMismatchException.class);
+
+        assertThat(outboxService.relayBatch()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void concurrentCreditsToShardedWallet_shouldBeNumberedBeforeTheDebitAfterThem() throws Exception {
+        int deposits = 40;
+        WalletEntity sharded = walletService.createWallet(uuid(), Currency.USD, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TransactionEntity>> futures = new ArrayList<>();
+            for (int i = 0; i < deposits; i++) {
+                futures.add(executor.submit(() -> transactionService.deposit(uuid(), sharded, BigDecimal.TEN, Currency.USD)));
+            }
+            for (Future<TransactionEntity> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        transactionService.withdraw(uuid(), walletRepository.findById(sharded.getId()).orElseThrow(), BigDecimal.valueOf(15), Currency.USD);
+
+        // credits share the wallet lock and carry no balance after; the debit waits for them under the exclusive one
+        List<String> balances = jdbcTemplate.queryForList("""
+                SELECT payload ->> 'balance_after'
+                FROM syneronix.outbox_events
+                WHERE wallet_id = ?
+                ORDER BY id
+                """, String.class, sharded.getId());
+        assertThat(balances).hasSize(deposits + 1);
+        assertThat(balances.subList(0, deposits)).containsOnlyNulls();
+        assertThat(new BigDecimal(balances.get(deposits))).isEqualByComparingTo(BigDecimal.valueOf(385));
+    }
+
+    private WalletEntity wallet(BigDecimal balance) {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(balance);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        return walletRepository.save(wallet);
+    }
+}
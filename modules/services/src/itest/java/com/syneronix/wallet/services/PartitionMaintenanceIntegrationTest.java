@@ -0,0 +1,127 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.config.PartitionProperties;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.TransactionRepository;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.domain.WalletRepository;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+class PartitionMaintenanceIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PartitionProperties partitionProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        partitionProperties.setListWindow(null);
+    }
+
+    @Test
+    void createPartitions_shouldKeepMonthsAheadCreatedForBothTables() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+        partitionMaintenanceService.createPartitions(Instant.now().plus(150, ChronoUnit.DAYS));
+
+        YearMonth ahead = YearMonth.from(Instant.now().plus(150, ChronoUnit.DAYS).atOffset(ZoneOffset.UTC)).plusMonths(2);
+        assertThat(transactionRepository.findPartitionMonths()).contains(current, ahead);
+        assertThat(ledgerEntryRepository.findPartitionMonths()).contains(current, ahead);
+    }
+
+    @Test
+    void detachPartition_shouldKeepTableOutsideParent() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC).plusYears(5);
+        String partition = "syneronix.transactions_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.createPartition(month));
+            assertThat(transactionRepository.findPartitionMonths()).contains(month);
+
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.detachPartition(month, 1000));
+
+            assertThat(transactionRepository.findPartitionMonths()).doesNotContain(month);
+            assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition)).isTrue();
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        }
+    }
+
+    @Test
+    void getTransactions_shouldReturnFullHistory_byDefault() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(BigDecimal.ZERO);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet = walletRepository.save(wallet);
+
+        TransactionEntity old = transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+        TransactionEntity recent = transactionService.deposit(uuid(), walletRepository.findById(wallet.getId()).orElseThrow(), BigDecimal.ONE, Currency.USD);
+        jdbcTemplate.update("UPDATE syneronix.transactions SET created_at = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minus(200, ChronoUnit.DAYS)), old.getId());
+
+        assertThat(transactionService.getTransactions(wallet.getId(), null))
+                .extracting(TransactionEntity::getId)
+                .containsExactly(recent.getId(), old.getId());
+    }
+
+    @Test
+    void getTransactions_shouldSkipTransactionsBeforeListWindow_whenSet() {
+        partitionProperties.setListWindow(Duration.ofDays(90));
+        WalletEntity wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(Currency.USD);
+        wallet.setBalance(BigDecimal.ZERO);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet = walletRepository.save(wallet);
+
+        TransactionEntity old = transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+        TransactionEntity recent = transactionService.deposit(uuid(), walletRepository.findById(wallet.getId()).orElseThrow(), BigDecimal.ONE, Currency.USD);
+        jdbcTemplate.update("UPDATE syneronix.transactions SET created_at = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minus(200, ChronoUnit.DAYS)), old.getId());
+
+        assertThat(transactionService.getTransactions(wallet.getId(), null))
+                .extracting(TransactionEntity::getId)
+                .containsExactly(recent.getId());
+    }
+}
@@ -99,6 +99,30 @@ class TransactionServiceIntegrationTest extends BaseIntegrationTest {
         assertThat(ledgerEntryRepository.count()).isEqualTo(0);
     }
 
+    @Test
+    void withdrawById_shouldDebitInOneUpdate_andBumpVersion() {
+        long version = testWallet.getVersion();
+
+        TransactionEntity transaction = transactionService.withdrawById(requestId, testWallet.getId(), BigDecimal.valueOf(30), Currency.USD);
+
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        WalletEntity updatedWallet = walletRepository.findById(testWallet.getId()).orElseThrow();
+        assertThat(updatedWallet.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(70));
+        assertThat(updatedWallet.getVersion()).isEqualTo(version + 1);
+        assertThat(ledgerEntryRepository.findAll()).singleElement()
+                .satisfies(entry -> assertThat(entry.getBalanceAfter()).isEqualByComparingTo(BigDecimal.valueOf(70)));
+    }
+
+    @Test
+    void withdrawById_shouldFail_whenInsufficientFunds() {
+        TransactionEntity transaction = transactionService.withdrawById(requestId, testWallet.getId(), BigDecimal.valueOf(200), Currency.USD);
+
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        WalletEntity updatedWallet = walletRepository.findById(testWallet.getId()).orElseThrow();
+        assertThat(updatedWallet.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(100));
+        assertThat(ledgerEntryRepository.count()).isEqualTo(0);
+    }
+
     @Test
     void deposit_shouldRollbackLedger_whenExceptionOccursAfterLedgerCreation() {
         doAnswer(invocation -> {
@@ -0,0 +1,162 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.BadRequestException;
+import com.syneronix.wallet.api.errors.WalletLockedException;
+import com.syneronix.wallet.api.errors.WalletNotFoundException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.domain.WalletRepository;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Runs every scenario once through each {@link TransferEngine}, on wallets of its own, and expects the same outcome:
+ * the error, the transaction rows, the ledger entries and the balances after.
+ */
+class TransferEngineParityIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private JpaTransferEngine jpaTransferEngine;
+
+    @Autowired
+    private PolicyService policyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProcedureTransferEngine procedureTransferEngine;
+
+    @BeforeEach
+    void setUp() {
+        procedureTransferEngine = new ProcedureTransferEngine(policyService, transactionService, jpaTransferEngine);
+    }
+
+    @Test
+    void transfer_shouldCompleteAlike() {
+        Outcome outcome = assertParity(engine -> transfer(engine,
+                wallet(Currency.USD, 100, WalletStatus.ACTIVE), wallet(Currency.USD, 5, WalletStatus.ACTIVE), 30));
+
+        assertThat(outcome.error()).isNull();
+        assertThat(outcome.transactions()).containsExactly("COMPLETED");
+        assertThat(outcome.ledgerEntries()).containsExactly("CREDIT 30.0000 35.0000", "DEBIT 30.0000 70.0000");
+        assertThat(outcome.fromBalance()).isEqualByComparingTo("70");
+        assertThat(outcome.toBalance()).isEqualByComparingTo("35");
+    }
+
+    @Test
+    void transfer_shouldFailAlike_whenInsufficientFunds() {
+        Outcome outcome = assertParity(engine -> transfer(engine,
+                wallet(Currency.USD, 10, WalletStatus.ACTIVE), wallet(Currency.USD, 0, WalletStatus.ACTIVE), 30));
+
+        assertThat(outcome.transactions()).containsExactly("FAILED Insufficient funds");
+        assertThat(outcome.ledgerEntries()).isEmpty();
+        assertThat(outcome.fromBalance()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void transfer_shouldRejectAlike_whenWalletInAnotherCurrency() {
+        Outcome outcome = assertParity(engine -> transfer(engine,
+                wallet(Currency.USD, 100, WalletStatus.ACTIVE), wallet(Currency.EUR, 0, WalletStatus.ACTIVE), 30));
+
+        assertThat(outcome.error()).isEqualTo(WalletNotFoundException.class);
+        assertThat(outcome.transactions()).isEmpty();
+    }
+
+    @Test
+    void transfer_shouldRejectAlike_whenWalletNotActive() {
+        Outcome outcome = assertParity(engine -> transfer(engine,
+                wallet(Currency.USD, 100, WalletStatus.ACTIVE), wallet(Currency.USD, 0, WalletStatus.INACTIVE), 30));
+
+        assertThat(outcome.error()).isEqualTo(WalletLockedException.class);
+        assertThat(outcome.fromBalance()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void transfer_shouldRejectAlike_whenSameWallet() {
+        Outcome outcome = assertParity(engine -> {
+            WalletEntity wallet = wallet(Currency.USD, 100, WalletStatus.ACTIVE);
+            return transfer(engine, wallet, wallet, 30);
+        });
+
+        assertThat(outcome.error()).isEqualTo(BadRequestException.class);
+    }
+
+    @Test
+    void transfer_shouldCompleteAlike_whenSourceWalletIsSharded() {
+        Outcome outcome = assertParity(engine -> {
+            WalletEntity from = walletService.createWallet(uuid(), Currency.USD, 4);
+            transactionService.deposit(uuid(), walletRepository.findById(from.getId()).orElseThrow(), BigDecimal.valueOf(100), Currency.USD);
+            return transfer(engine, from, wallet(Currency.USD, 0, WalletStatus.ACTIVE), 30);
+        });
+
+        assertThat(outcome.transactions()).containsExactly("COMPLETED");
+        assertThat(outcome.fromBalance()).isEqualByComparingTo("70");
+        assertThat(outcome.toBalance()).isEqualByComparingTo("30");
+    }
+
+    private Outcome assertParity(Function<TransferEngine, Outcome> scenario) {
+        Outcome jpa = scenario.apply(jpaTransferEngine);
+        Outcome procedure = scenario.apply(procedureTransferEngine);
+        assertThat(procedure).isEqualTo(jpa);
+        return jpa;
+    }
+
+    private Outcome transfer(TransferEngine engine, WalletEntity from, WalletEntity to, long amount) {
+        UUID requestId = uuid();
+        Throwable error = catchThrowable(() -> engine.transfer(requestId, from.getId(), to.getId(),
+                BigDecimal.valueOf(amount), Currency.USD, LockModeType.PESSIMISTIC_WRITE));
+
+        List<String> transactions = jdbcTemplate.queryForList("""
+                SELECT trim(status || ' ' || coalesce(failure_reason, ''))
+                FROM syneronix.transactions
+                WHERE request_id = ?
+                """, String.class, requestId);
+        List<String> ledgerEntries = jdbcTemplate.queryForList("""
+                SELECT e.direction || ' ' || e.amount || ' ' || e.balance_after
+                FROM syneronix.ledger_entries e
+                         JOIN syneronix.transactions t ON t.id = e.transaction_id
+                WHERE t.request_id = ?
+                ORDER BY e.direction
+                """, String.class, requestId);
+        return new Outcome(error == null ? null : error.getClass(), transactions, ledgerEntries,
+                walletRepository.findTotalBalanceById(from.getId()).orElseThrow(),
+                walletRepository.findTotalBalanceById(to.getId()).orElseThrow());
+    }
+
+    private WalletEntity wallet(Currency currency, long balance, WalletStatus status) {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setUserId(uuid());
+        wallet.setCurrency(currency);
+        wallet.setBalance(BigDecimal.valueOf(balance));
+        wallet.setStatus(status);
+        return walletRepository.save(wallet);
+    }
+
+    private record Outcome(
+            Class<? extends Throwable> error,
+            List<String> transactions,
+            List<String> ledgerEntries,
+            BigDecimal fromBalance,
+            BigDecimal toBalance
+    ) {
+    }
+}
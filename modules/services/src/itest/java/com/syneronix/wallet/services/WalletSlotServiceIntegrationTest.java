@@ -0,0 +1,228 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.domain.*;
+import com.syneronix.wallet.testing.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@TestPropertySource(properties = "syneronix.sharding.enabled=true")
+class WalletSlotServiceIntegrationTest extends BaseIntegrationTest {
+
+    private static final int SLOTS = 4;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletSlotService walletSlotService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletBalanceSlotRepository walletBalanceSlotRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletRepository.deleteAll();
+
+        wallet = walletService.createWallet(uuid(), Currency.USD, SLOTS);
+    }
+
+    @Test
+    void createWallet_shouldCreateEmptySlots() {
+        assertThat(walletBalanceSlotRepository.findAll())
+                .hasSize(SLOTS)
+                .allSatisfy(slot -> {
+                    assertThat(slot.getWalletId()).isEqualTo(wallet.getId());
+                    assertThat(slot.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+                });
+    }
+
+    @Test
+    void deposit_shouldSpreadConcurrentCreditsOverSlots() throws Exception {
+        int deposits = 40;
+        depositConcurrently(deposits);
+
+        assertThat(walletRepository.findById(wallet.getId()).orElseThrow().getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(walletService.findTotalBalanceById(wallet.getId())).hasValueSatisfying(balance ->
+                assertThat(balance).isEqualByComparingTo(BigDecimal.valueOf(400)));
+        assertThat(ledgerEntryRepository.count()).isEqualTo(deposits);
+    }
+
+    @Test
+    void deposit_shouldNotWaitForAnotherCreditToCommit() throws Exception {
+        CountDownLatch credited = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> open = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+                credited.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(credited.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // completes while the first credit still holds its slot, ledger entry and outbox event uncommitted
+            TransactionEntity second = executor.submit(() -> transactionService.deposit(uuid(), wallet, BigDecimal.ONE, Currency.USD))
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(second.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+
+            release.countDown();
+            open.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        assertThat(walletService.findTotalBalanceById(wallet.getId())).hasValueSatisfying(balance ->
+                assertThat(balance).isEqualByComparingTo(BigDecimal.valueOf(11)));
+    }
+
+    @Test
+    void deposit_shouldKeepBalanceAtMonotonic_whenCreditsRunConcurrently() throws Exception {
+        int deposits = 40;
+        depositConcurrently(deposits);
+
+        // unsettled credits are added up from the last settled entry
+        assertBalanceAtIncreasesUpTo(deposits, BigDecimal.valueOf(10L * deposits));
+
+        walletSlotService.settle(wallet.getId(), 1000);
+        assertBalanceAtIncreasesUpTo(deposits, BigDecimal.valueOf(10L * deposits));
+    }
+
+    @Test
+    void settle_shouldSetBalanceAfterInLedgerOrder() throws Exception {
+        depositConcurrently(12);
+        transactionService.withdraw(uuid(), walletRepository.findById(wallet.getId()).orElseThrow(), BigDecimal.valueOf(45), Currency.USD);
+        for (int i = 0; i < 3; i++) {
+            transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+        }
+
+        int settled = 0;
+        int batch;
+        do {
+            batch = walletSlotService.settle(wallet.getId(), 5);
+            settled += batch;
+        } while (batch == 5);
+
+        assertThat(settled).isEqualTo(15);
+        List<BigDecimal> balances = jdbcTemplate.queryForList("""
+                SELECT balance_after FROM syneronix.ledger_entries WHERE wallet_id = ? ORDER BY created_at, id
+                """, BigDecimal.class, wallet.getId());
+        List<Long> expected = new ArrayList<>();
+        for (long i = 1; i <= 12; i++) {
+            expected.add(10 * i);
+        }
+        expected.addAll(List.of(75L, 85L, 95L, 105L));
+        assertThat(balances).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(balances.get(i)).isEqualByComparingTo(BigDecimal.valueOf(expected.get(i)));
+        }
+        assertThat(walletSlotService.findUnsettledWalletIds(10)).isEmpty();
+    }
+
+    @Test
+    void withdraw_shouldConsolidateSlots() {
+        for (int i = 0; i < 6; i++) {
+            transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+        }
+
+        TransactionEntity withdraw = transactionService.withdraw(uuid(), walletRepository.findById(wallet.getId()).orElseThrow(),
+                BigDecimal.valueOf(45), Currency.USD);
+
+        assertThat(withdraw.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(walletService.findTotalBalanceById(wallet.getId())).hasValueSatisfying(balance ->
+                assertThat(balance).isEqualByComparingTo(BigDecimal.valueOf(15)));
+    }
+
+    @Test
+    void withdraw_shouldLeaveSlots_whenInsufficientFunds() {
+        transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD);
+
+        TransactionEntity withdraw = transactionService.withdraw(uuid(), walletRepository.findById(wallet.getId()).orElseThrow(),
+                BigDecimal.valueOf(45), Currency.USD);
+
+        assertThat(withdraw.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        assertThat(walletRepository.findById(wallet.getId()).orElseThrow().getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(walletService.findTotalBalanceById(wallet.getId())).hasValueSatisfying(balance ->
+                assertThat(balance).isEqualByComparingTo(BigDecimal.TEN));
+    }
+
+    private void depositConcurrently(int deposits) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TransactionEntity>> futures = new ArrayList<>();
+            for (int i = 0; i < deposits; i++) {
+                futures.add(executor.submit(() -> transactionService.deposit(uuid(), wallet, BigDecimal.TEN, Currency.USD)));
+            }
+            for (Future<TransactionEntity> future : futures) {
+                assertThat(future.get().getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertBalanceAtIncreasesUpTo(int entries, BigDecimal last) {
+        List<Instant> entryTimes = jdbcTemplate.queryForList("""
+                SELECT created_at FROM syneronix.ledger_entries WHERE wallet_id = ? ORDER BY created_at, id
+                """, LocalDateTime.class, wallet.getId()).stream().map(time -> time.toInstant(ZoneOffset.UTC)).toList();
+        assertThat(entryTimes).hasSize(entries);
+
+        BigDecimal previous = BigDecimal.ZERO;
+        for (Instant entryTime : entryTimes) {
+            BigDecimal balance = balanceService.balanceAt(wallet.getId(), entryTime.plus(1, ChronoUnit.MICROS));
+            assertThat(balance).isGreaterThan(previous);
+            previous = balance;
+        }
+        assertThat(previous).isEqualByComparingTo(last);
+    }
+}
@@ -0,0 +1,35 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.archive")
+public class ArchiveProperties {
+    /**
+     * Move the monthly partitions of settled transactions and ledger entries older than {@code after} into archive
+     * files. Archived rows are read back either way.
+     */
+    private boolean enabled = false;
+    /**
+     * Where the archive files are written; every instance reading the archive needs it.
+     */
+    private Path directory = Path.of("archive");
+    /**
+     * A month is archived once all of it is older than this.
+     */
+    private Duration after = Duration.ofDays(365);
+    /**
+     * Upper bound of rows of one wallet compressed together into one block.
+     */
+    private int blockSize = 1000;
+    /**
+     * When the job runs, in UTC.
+     */
+    private String cron = "0 45 1 * * *";
+}
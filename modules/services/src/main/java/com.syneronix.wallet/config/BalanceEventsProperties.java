@@ -0,0 +1,30 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.balance-events")
+public class BalanceEventsProperties {
+    /**
+     * Committed balance changes waiting for the dispatcher. Changes arriving while it is full are dropped.
+     */
+    private int queueCapacity = 10_000;
+    /**
+     * Changes buffered per subscriber. A subscriber whose buffer overflows is disconnected and has to resubscribe,
+     * which starts it again from the current balance.
+     */
+    private int subscriberBuffer = 64;
+    /**
+     * Upper bound of open streams per instance.
+     */
+    private int maxSubscribers = 10_000;
+    /**
+     * Streams are closed after this long; clients reconnect and get the current balance again.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(10);
+}
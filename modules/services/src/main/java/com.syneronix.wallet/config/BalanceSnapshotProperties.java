@@ -0,0 +1,23 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.balance-snapshots")
+public class BalanceSnapshotProperties {
+    /**
+     * Aggregate each completed UTC day of the ledger into per-wallet snapshot rows.
+     */
+    private boolean enabled = false;
+    /**
+     * When the job runs, in UTC. Leave a margin after midnight for transactions still committing.
+     */
+    private String cron = "0 15 0 * * *";
+    /**
+     * How many past days the first run snapshots. Later runs continue after the last snapshotted day.
+     */
+    private int initialDays = 31;
+}
@@ -0,0 +1,39 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.blacklist")
+public class BlacklistProperties {
+    private Cache cache = new Cache();
+    private Notifications notifications = new Notifications();
+
+    @Data
+    public static class Cache {
+        /**
+         * Answer blacklist checks from an in-memory snapshot instead of a query per check.
+         */
+        private boolean enabled = false;
+        /**
+         * Full reload of the snapshot, a safety net for missed notifications.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Notifications {
+        /**
+         * Propagate block/unblock to the snapshots of all instances through Postgres {@code LISTEN/NOTIFY}.
+         * Without it the snapshot only sees changes made by its own instance and the periodic reload.
+         */
+        private boolean enabled = false;
+        private String channel = "wallet_blacklist";
+        private Duration pollTimeout = Duration.ofSeconds(1);
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,111 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.execution")
+public class ExecutionProperties {
+    private Mode mode = Mode.PER_STEP;
+    /**
+     * Withdraw with one conditional {@code UPDATE ... RETURNING} instead of locking and loading the wallet first;
+     * only a withdrawal it cannot complete falls back to the locked path.
+     */
+    private boolean conditionalWithdraw = false;
+    private Engine transferEngine = Engine.JPA;
+    private Batch batch = new Batch();
+    private VirtualThreads virtualThreads = new VirtualThreads();
+    private Concurrency concurrency = new Concurrency();
+
+    public enum Mode {
+        /**
+         * Idempotency key, locking, balance mutation and idempotency completion each run in their own transaction.
+         */
+        PER_STEP,
+        /**
+         * The whole money movement runs in one database transaction on one connection, so the row lock spans
+         * the mutation. A movement the wallet cannot cover commits its {@code FAILED} transaction row, with its
+         * outbox event, together with the idempotency key, and the rejection is recorded right after that commit,
+         * like in {@link #PER_STEP}. Any other rejection or error rolls back and leaves nothing behind except the
+         * idempotency outcome, recorded in a separate transaction after the rollback.
+         */
+        SINGLE_TRANSACTION
+    }
+
+    public enum Engine {
+        /**
+         * Transfers lock, check and update the wallets and write the transaction and ledger entries through JPA.
+         */
+        JPA,
+        /**
+         * Transfers between wallets without balance slots run as one call of the {@code transfer_funds} database
+         * function, one round trip instead of one per statement. Others keep the JPA path.
+         */
+        PROCEDURE
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * Upper bound of transfers per batch request. All wallets of a batch stay locked until it commits.
+         */
+        private int maxItems = 1000;
+    }
+
+    @Data
+    public static class Concurrency {
+        private Strategy strategy = Strategy.PESSIMISTIC;
+        /**
+         * Optimistic attempts of one movement; once they all conflicted it runs once more under row locks.
+         */
+        private int maxAttempts = 3;
+        /**
+         * Upper bound of the random pause before the first retry, doubled for every further one.
+         */
+        private Duration retryBackoff = Duration.ofMillis(5);
+        /**
+         * Share of a wallet's optimistic attempts in the current window that ended in a version conflict from
+         * which on its movements take row locks right away, until the window ends.
+         */
+        private double conflictThreshold = 0.2;
+        /**
+         * Optimistic attempts a wallet needs in the window before its conflict share counts.
+         */
+        private int minAttempts = 20;
+        /**
+         * Conflicts are counted per wallet over windows of this length, starting with the wallet's first attempt.
+         */
+        private Duration window = Duration.ofMinutes(1);
+        /**
+         * Upper bound of wallets whose conflicts are tracked; the least recently tracked are forgotten first.
+         */
+        private long maxTrackedWallets = 100_000;
+
+        public enum Strategy {
+            /**
+             * Deposits, withdrawals and transfers lock their wallet rows with {@code PESSIMISTIC_WRITE} before reading
+             * them.
+             */
+            PESSIMISTIC,
+            /**
+             * Plain wallets are read without a lock and updated with {@code UPDATE ... WHERE id = ? AND version = ?};
+             * a movement that loses the race is rolled back and retried. Sharded wallets keep their locks.
+             */
+            OPTIMISTIC
+        }
+    }
+
+    @Data
+    public static class VirtualThreads {
+        /**
+         * Handle HTTP requests, and with them the {@code @Transactional} service calls, on virtual threads instead
+         * of the Tomcat worker pool. Concurrency is then bounded by the Hikari pool, not by the thread count.
+         * Needs Java 21, or {@code --enable-preview} on Java 19/20.
+         */
+        private boolean enabled = false;
+    }
+}
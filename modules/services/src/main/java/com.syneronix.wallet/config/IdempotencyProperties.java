@@ -0,0 +1,85 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.idempotency")
+public class IdempotencyProperties {
+    private Cache cache = new Cache();
+    /**
+     * Also write the hex {@code request_hash} next to {@code request_digest}, for instances that only read the hex.
+     */
+    private boolean legacyRequestHash = true;
+    private Payload payload = new Payload();
+    private Retention retention = new Retention();
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Payload {
+        /**
+         * Format new keys store their request and response in; keys in the other format are still read.
+         */
+        private PayloadFormat format = PayloadFormat.JSON;
+        /**
+         * Deflate binary payloads (larger ones only, and only when it pays off).
+         */
+        private boolean compress = true;
+    }
+
+    @Data
+    public static class Retention {
+        /**
+         * Drop the partitions whose keys are all older than {@code ttl}. Partitions ahead are created either way.
+         */
+        private boolean enabled = false;
+        /**
+         * How long a request id is remembered; must exceed the longest client retry window.
+         */
+        private Duration ttl = Duration.ofDays(7);
+        /**
+         * Daily partitions kept created ahead of today.
+         */
+        private int premakeDays = 3;
+        private Duration interval = Duration.ofHours(1);
+        private int claimDeleteBatchSize = 10_000;
+        /**
+         * Longest wait for the lock on {@code idempotency_keys} when detaching an expired partition; claims queue
+         * behind a waiting detach, so a run that cannot get it gives up and is retried by the next one.
+         */
+        private Duration lockTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Keys created before the start of the day {@code ttl} ago are expired: their partitions get dropped and
+         * their request ids can be claimed again.
+         */
+        public LocalDateTime expiredBefore(Instant now) {
+            return LocalDate.ofInstant(now.minus(ttl), ZoneOffset.UTC).atStartOfDay();
+        }
+    }
+
+    public enum PayloadFormat {
+        /**
+         * jsonb {@code request_body} / {@code response_body}.
+         */
+        JSON,
+        /**
+         * Smile {@code request_payload} / {@code response_payload}.
+         */
+        SMILE
+    }
+}
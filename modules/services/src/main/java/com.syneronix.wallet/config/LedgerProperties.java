@@ -0,0 +1,49 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.ledger")
+public class LedgerProperties {
+    private WriteBehind writeBehind = new WriteBehind();
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * Write ledger entries after the money movement commits, from a single writer thread, instead of inserting
+         * them inside it. The transaction row carries what is needed to rebuild its entries, so nothing is lost
+         * if the process dies before they are written. Ledger reads lag behind balances by up to one flush.
+         */
+        private boolean enabled = false;
+        /**
+         * Committed movements waiting for the writer. While the queue is full new entries are inserted synchronously.
+         */
+        private int queueCapacity = 16_384;
+        /**
+         * Upper bound of committed movements written by one multi-row insert and one commit.
+         */
+        private int maxBatchSize = 512;
+        /**
+         * How long a committing request waits for queue space before leaving its entries to recovery.
+         */
+        private Duration offerTimeout = Duration.ofMillis(50);
+        /**
+         * Pause before a failed flush is retried.
+         */
+        private Duration retryDelay = Duration.ofSeconds(1);
+        /**
+         * How often the writer rebuilds entries of movements that never reached it (crash, full queue).
+         */
+        private Duration recoveryInterval = Duration.ofMinutes(1);
+        /**
+         * Only movements completed longer ago than this are recovered, so entries still queued on another instance
+         * are not raced.
+         */
+        private Duration recoveryGrace = Duration.ofMinutes(5);
+    }
+}
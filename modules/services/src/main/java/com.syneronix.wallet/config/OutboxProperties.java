@@ -0,0 +1,65 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.outbox")
+public class OutboxProperties {
+    /**
+     * Write wallet events to the outbox in the same transaction as the movement and relay them to the sink.
+     */
+    private boolean enabled = false;
+    /**
+     * Upper bound of events published by one relay run, in one transaction.
+     */
+    private int batchSize = 500;
+    /**
+     * Pause between relay runs. A run that fills a whole batch is followed by the next one right away.
+     */
+    private Duration relayInterval = Duration.ofMillis(500);
+    /**
+     * Upper bound of events returned by one consumer read.
+     */
+    private int maxReadLimit = 1000;
+    /**
+     * Where published events are pushed: {@code in-memory}, {@code file} or {@code tcp}. Consumers reading through
+     * the event API do not depend on it.
+     */
+    private Sink sink = Sink.IN_MEMORY;
+    private InMemory inMemory = new InMemory();
+    private File file = new File();
+    private Tcp tcp = new Tcp();
+
+    public enum Sink {
+        IN_MEMORY, FILE, TCP
+    }
+
+    @Data
+    public static class InMemory {
+        /**
+         * Most recent events kept; older ones are dropped.
+         */
+        private int capacity = 10_000;
+    }
+
+    @Data
+    public static class File {
+        /**
+         * Events are appended as newline delimited JSON.
+         */
+        private Path path = Path.of("outbox-events.ndjson");
+    }
+
+    @Data
+    public static class Tcp {
+        private String host = "localhost";
+        private int port = 9555;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+    }
+}
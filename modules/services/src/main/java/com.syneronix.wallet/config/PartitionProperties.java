@@ -0,0 +1,44 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.partitions")
+public class PartitionProperties {
+    /**
+     * Monthly partitions kept created ahead of the current month.
+     */
+    private int premakeMonths = 2;
+    private Duration interval = Duration.ofHours(6);
+    /**
+     * When set, how far back the unpaged transaction list of a wallet reads without a {@code from}, so it only scans
+     * the recent partitions and older history has to be read through the paged endpoint. Unset, the list returns the
+     * full history.
+     */
+    private Duration listWindow;
+    private Detach detach = new Detach();
+
+    @Data
+    public static class Detach {
+        /**
+         * Detach old partitions from both tables. They stay in the schema as plain tables until archived or dropped,
+         * and are no longer visible to the application.
+         */
+        private boolean enabled = false;
+        /**
+         * Full months kept attached before the current one. Keep it beyond {@code list-window} and any ledger range
+         * still queried.
+         */
+        private int afterMonths = 12;
+        /**
+         * Longest wait for the lock on the parent table; live queries queue behind a waiting detach, so a run that
+         * cannot get it gives up and is retried by the next one.
+         */
+        private Duration lockTimeout = Duration.ofSeconds(2);
+    }
+}
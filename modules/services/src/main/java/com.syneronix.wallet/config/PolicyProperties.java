@@ -14,5 +14,23 @@ public class PolicyProperties {
     public static class RateLimit {
         private int maxTransactions;
         private int windowMinutes;
+        private Engine engine = Engine.DATABASE;
+        /**
+         * Upper bound of wallets tracked by the {@link Engine#IN_MEMORY} engine. Wallets idle for two windows are
+         * evicted first.
+         */
+        private long maxTrackedWallets = 100_000;
+    }
+
+    public enum Engine {
+        /**
+         * Counts the wallet's outgoing transactions of the window in the database on every check.
+         */
+        DATABASE,
+        /**
+         * Per-wallet sliding-window counter held in memory. No query per check, but the limit applies per
+         * application instance and starts empty after a restart.
+         */
+        IN_MEMORY
     }
 }
@@ -0,0 +1,33 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.sharding")
+public class ShardingProperties {
+    /**
+     * Allow creating wallets with balance slots, and let credits to them take a shared wallet lock plus one slot
+     * lock instead of the exclusive wallet lock. Existing sharded wallets stay correct when this is switched off,
+     * their credits just serialize on the wallet row again.
+     */
+    private boolean enabled = false;
+    /**
+     * Upper bound of balance slots per wallet. Credit throughput of one wallet scales with its slot count, every
+     * debit that has to consolidate locks all of them.
+     */
+    private int maxSlots = 64;
+    /**
+     * Pause between runs that settle the balance after of credits to balance slots. Until then, balances at a point
+     * in time add those credits up from the last settled entry.
+     */
+    private Duration settleInterval = Duration.ofSeconds(1);
+    /**
+     * Upper bound of ledger entries settled in one transaction, which holds all slots of the wallet.
+     */
+    private int settleBatchSize = 1000;
+}
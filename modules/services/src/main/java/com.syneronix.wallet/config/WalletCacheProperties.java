@@ -0,0 +1,24 @@
+package com.syneronix.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.wallet-cache")
+public class WalletCacheProperties {
+    /**
+     * Answer wallet reads from an in-memory cache of mapped responses. Sharded wallets are never cached.
+     */
+    private boolean enabled = false;
+    private long maximumSize = 100_000;
+    private Duration ttl = Duration.ofMinutes(1);
+    /**
+     * Serve cached wallets without checking their version. Changes made on this instance are still seen right
+     * after commit, changes made on other instances only once the entry expires ({@code ttl}).
+     */
+    private boolean allowStale = false;
+}
@@ -0,0 +1,35 @@
+package com.syneronix.wallet.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.YearMonth;
+
+/**
+ * Archives the months that fell behind the archive horizon, oldest first, ledger entries before the transactions of
+ * the same month. Each month is archived in its own transactions, a failed one is retried by the next run.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "syneronix.archive", name = "enabled", havingValue = "true")
+public class ArchiveJob {
+
+    private final ArchiveService archiveService;
+
+    @Scheduled(cron = "${syneronix.archive.cron:0 45 1 * * *}", zone = "UTC")
+    public void archive() {
+        try {
+            for (YearMonth month : archiveService.findArchivableMonths(Instant.now())) {
+                archiveService.archiveLedgerEntries(month);
+                archiveService.archiveTransactions(month);
+            }
+        } catch (RuntimeException e) {
+            log.error("Archive run failed, the next run continues where this one stopped", e);
+        }
+    }
+}
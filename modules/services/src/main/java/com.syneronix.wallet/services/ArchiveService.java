@@ -0,0 +1,124 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.ArchiveSource;
+import com.syneronix.wallet.config.ArchiveProperties;
+import com.syneronix.wallet.config.PartitionProperties;
+import com.syneronix.wallet.domain.ArchiveBlockRepository;
+import com.syneronix.wallet.domain.ArchivedLedgerEntry;
+import com.syneronix.wallet.domain.ArchivedTransaction;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Moves whole monthly partitions of settled rows into the {@link ArchiveStore}: writes the archive file, saves its
+ * manifest rows, then detaches and drops the partition, all in one transaction, so a month is either still in the
+ * database or fully archived. A month with pending movements or unwritten ledger entries is left for a later run.
+ * Only one instance at a time changes partitions, the others skip the run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArchiveService {
+
+    private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final ArchiveBlockRepository archiveBlockRepository;
+    private final ArchiveStore archiveStore;
+    private final ArchiveProperties archiveProperties;
+    private final PartitionProperties partitionProperties;
+
+    /**
+     * Months whose partitions, attached or detached, were all created before {@code now - after}, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<YearMonth> findArchivableMonths(Instant now) {
+        YearMonth newest = YearMonth.from(now.minus(archiveProperties.getAfter()).atOffset(ZoneOffset.UTC)).minusMonths(1);
+        TreeSet<YearMonth> months = new TreeSet<>();
+        months.addAll(transactionRepository.findPartitionMonths());
+        months.addAll(transactionRepository.findDetachedPartitionMonths());
+        months.addAll(ledgerEntryRepository.findPartitionMonths());
+        months.addAll(ledgerEntryRepository.findDetachedPartitionMonths());
+        return List.copyOf(months.headSet(newest, true));
+    }
+
+    /**
+     * @return number of transactions archived, counted once per wallet side
+     */
+    @Transactional
+    public long archiveTransactions(YearMonth month) {
+        if (!transactionRepository.tryPartitionLock() || !hasTransactions(month) || isUnsettled(month)) {
+            return 0;
+        }
+        long rows;
+        try (ArchiveStore.BlockWriter<ArchivedTransaction> writer = archiveStore.openWriter(ArchiveSource.TRANSACTIONS, month, ArchivedTransaction::createdAt)) {
+            rows = transactionRepository.scanPartition(month, writer::add);
+            archiveBlockRepository.saveAll(writer.finish());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (transactionRepository.findPartitionMonths().contains(month)) {
+            transactionRepository.detachPartition(month, partitionProperties.getDetach().getLockTimeout().toMillis());
+        }
+        transactionRepository.dropPartition(month);
+        log.info("Archived {} transaction rows of {}", rows, month);
+        return rows;
+    }
+
+    /**
+     * Runs before {@link #archiveTransactions} of the same month: ledger entries are settled once their month of
+     * transactions is.
+     *
+     * @return number of ledger entries archived
+     */
+    @Transactional
+    public long archiveLedgerEntries(YearMonth month) {
+        if (!transactionRepository.tryPartitionLock() || !hasLedgerEntries(month) || (hasTransactions(month) && isUnsettled(month))) {
+            return 0;
+        }
+        long rows;
+        try (ArchiveStore.BlockWriter<ArchivedLedgerEntry> writer = archiveStore.openWriter(ArchiveSource.LEDGER_ENTRIES, month, ArchivedLedgerEntry::createdAt)) {
+            rows = ledgerEntryRepository.scanPartition(month, entry -> writer.add(entry.walletId(), entry));
+            archiveBlockRepository.saveAll(writer.finish());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (ledgerEntryRepository.findPartitionMonths().contains(month)) {
+            ledgerEntryRepository.detachPartition(month, partitionProperties.getDetach().getLockTimeout().toMillis());
+        }
+        ledgerEntryRepository.dropPartition(month);
+        log.info("Archived {} ledger entries of {}", rows, month);
+        return rows;
+    }
+
+    private boolean hasTransactions(YearMonth month) {
+        return transactionRepository.findPartitionMonths().contains(month)
+                || transactionRepository.findDetachedPartitionMonths().contains(month);
+    }
+
+    private boolean hasLedgerEntries(YearMonth month) {
+        return ledgerEntryRepository.findPartitionMonths().contains(month)
+                || ledgerEntryRepository.findDetachedPartitionMonths().contains(month);
+    }
+
+    private boolean isUnsettled(YearMonth month) {
+        if (transactionRepository.hasUnsettled(month)) {
+            log.warn("Transactions of {} are not settled yet, archiving of the month postponed", month);
+            return true;
+        }
+        return false;
+    }
+}
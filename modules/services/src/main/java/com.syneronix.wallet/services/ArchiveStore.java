@@ -0,0 +1,208 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.ArchiveSource;
+import com.syneronix.wallet.config.ArchiveProperties;
+import com.syneronix.wallet.domain.ArchiveBlockEntity;
+import com.syneronix.wallet.domain.ArchiveBlockRepository;
+import com.syneronix.wallet.domain.ArchivedLedgerEntry;
+import com.syneronix.wallet.domain.ArchivedTransaction;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.mappers.PayloadCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Append-only archive files of settled rows, one file per source table and partition month. A file is a sequence of
+ * blocks, each holding up to {@code block-size} rows of one wallet and one month, newest first, encoded with
+ * {@link PayloadCodec} (deflated Smile). {@code archive_blocks} is the manifest: it finds the blocks of a wallet by
+ * month, so a read touches only the blocks it needs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArchiveStore {
+
+    private final PayloadCodec payloadCodec;
+    private final ArchiveBlockRepository archiveBlockRepository;
+    private final ArchiveProperties archiveProperties;
+
+    /**
+     * Starts a new archive file for the partition of {@code month}. Rows must be added grouped by wallet.
+     */
+    public <T> BlockWriter<T> openWriter(ArchiveSource source, YearMonth month, Function<T, Instant> createdAt) {
+        String file = source.name().toLowerCase() + "-" + month + ".blk";
+        return new BlockWriter<>(source, file, createdAt);
+    }
+
+    /**
+     * Archived transactions of the wallet created at or after {@code from}, newest first.
+     */
+    public List<TransactionEntity> readTransactions(UUID walletId, Instant from) {
+        LocalDate fromMonth = YearMonth.from(from.atOffset(ZoneOffset.UTC)).atDay(1);
+        List<TransactionEntity> transactions = new ArrayList<>();
+        for (ArchiveBlockEntity block : archiveBlockRepository.findBlocksSince(walletId, ArchiveSource.TRANSACTIONS, fromMonth, from)) {
+            for (ArchivedTransaction transaction : payloadCodec.decode(read(block), ArchivedTransaction[].class)) {
+                if (!transaction.createdAt().isBefore(from)) {
+                    transactions.add(transaction.toEntity());
+                }
+            }
+        }
+        transactions.sort(Comparator.comparing(TransactionEntity::getCreatedAt).thenComparing(TransactionEntity::getId).reversed());
+        return transactions;
+    }
+
+    /**
+     * {@code balance_after} of the last archived ledger entry of the wallet created before {@code before}.
+     */
+    public Optional<BigDecimal> findLatestBalanceBefore(UUID walletId, Instant before) {
+        return archiveBlockRepository.findFirstByWalletIdAndSourceAndOldestCreatedAtBeforeOrderByNewestCreatedAtDesc(
+                        walletId, ArchiveSource.LEDGER_ENTRIES, before)
+                .flatMap(block -> Arrays.stream(payloadCodec.decode(read(block), ArchivedLedgerEntry[].class))
+                        .filter(entry -> entry.createdAt().isBefore(before))
+                        .findFirst())
+                .map(ArchivedLedgerEntry::balanceAfter);
+    }
+
+    private byte[] read(ArchiveBlockEntity block) {
+        Path path = archiveProperties.getDirectory().resolve(block.getFile());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(block.getByteLength());
+            long position = block.getFileOffset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of archive file");
+                }
+                position += read;
+            }
+            return buffer.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive block %s of %s".formatted(block.getId(), path), e);
+        }
+    }
+
+    /**
+     * Writes the blocks of one archive file. The file is written under a temporary name and moved into place by
+     * {@link #finish()}, so a file that the manifest points at is always complete; a file left behind by a run that
+     * did not commit its manifest rows is overwritten by the next one.
+     */
+    public class BlockWriter<T> implements Closeable {
+
+        private final ArchiveSource source;
+        private final String file;
+        private final Function<T, Instant> createdAt;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final List<ArchiveBlockEntity> blocks = new ArrayList<>();
+        private final List<T> rows = new ArrayList<>();
+        private UUID walletId;
+        private YearMonth month;
+        private long offset;
+        private boolean finished;
+
+        private BlockWriter(ArchiveSource source, String file, Function<T, Instant> createdAt) {
+            this.source = source;
+            this.file = file;
+            this.createdAt = createdAt;
+            try {
+                Files.createDirectories(archiveProperties.getDirectory());
+                this.temporary = Files.createTempFile(archiveProperties.getDirectory(), file, ".tmp");
+                this.channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create archive file " + file, e);
+            }
+        }
+
+        public void add(UUID walletId, T row) {
+            YearMonth rowMonth = YearMonth.from(createdAt.apply(row).atOffset(ZoneOffset.UTC));
+            if (!Objects.equals(walletId, this.walletId) || !rowMonth.equals(month) || rows.size() >= archiveProperties.getBlockSize()) {
+                flush();
+                this.walletId = walletId;
+                this.month = rowMonth;
+            }
+            rows.add(row);
+        }
+
+        /**
+         * Syncs the file and moves it into place.
+         *
+         * @return the manifest rows of its blocks, to be saved by the caller
+         */
+        public List<ArchiveBlockEntity> finish() {
+            flush();
+            try {
+                channel.force(true);
+                channel.close();
+                Files.move(temporary, archiveProperties.getDirectory().resolve(file),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to complete archive file " + file, e);
+            }
+            finished = true;
+            log.info("Wrote archive file {}, {} blocks, {} bytes", file, blocks.size(), offset);
+            return blocks;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            byte[] payload = payloadCodec.encode(rows, true);
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write archive file " + file, e);
+            }
+
+            ArchiveBlockEntity block = new ArchiveBlockEntity();
+            block.setSource(source);
+            block.setWalletId(walletId);
+            block.setMonthStart(month.atDay(1));
+            block.setFile(file);
+            block.setFileOffset(offset);
+            block.setByteLength(payload.length);
+            block.setRowCount(rows.size());
+            block.setNewestCreatedAt(createdAt.apply(rows.get(0)));
+            block.setOldestCreatedAt(createdAt.apply(rows.get(rows.size() - 1)));
+            blocks.add(block);
+
+            offset += payload.length;
+            rows.clear();
+        }
+    }
+}
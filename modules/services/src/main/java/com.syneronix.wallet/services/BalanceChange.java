@@ -0,0 +1,17 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.common.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One committed change of a wallet balance, as pushed to balance stream subscribers.
+ */
+public record BalanceChange(UUID walletId, UUID transactionId, UUID requestId, TransactionType type,
+                            MoneyFlowDirection direction, BigDecimal amount, Currency currency,
+                            BigDecimal balance, Instant changedAt) {
+}
@@ -0,0 +1,243 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.SubscriberLimitExceededException;
+import com.syneronix.wallet.config.BalanceEventsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed balance changes out to per-wallet subscribers.
+ * <p>
+ * Changes of a transaction are queued together once it commits. A single dispatcher thread moves them into the
+ * bounded buffer of every subscriber of the wallet; a subscriber whose buffer is full is disconnected instead of
+ * slowing down the others. Buffers are delivered to the listeners by short-lived tasks, one at a time per
+ * subscriber, so a client blocked on its socket holds a delivery thread but never the dispatcher.
+ */
+@Slf4j
+@Component
+public class BalanceEventDispatcher implements SmartLifecycle {
+
+    private final BalanceEventsProperties properties;
+    private final WalletMetrics walletMetrics;
+    private final BlockingQueue<List<BalanceChange>> queue;
+    private final Map<UUID, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private volatile boolean running;
+    private Thread dispatcherThread;
+    private ExecutorService deliveryExecutor;
+
+    public BalanceEventDispatcher(BalanceEventsProperties properties, WalletMetrics walletMetrics) {
+        this.properties = properties;
+        this.walletMetrics = walletMetrics;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        walletMetrics.registerBalanceSubscribers(subscriberCount);
+    }
+
+    /**
+     * Queues the change once the current transaction commits; dropped on rollback. Free when nobody watches
+     * the wallet.
+     */
+    public void publishAfterCommit(BalanceChange change) {
+        if (!running || !subscriptions.containsKey(change.walletId())) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(List.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<BalanceChange> changes = (List<BalanceChange>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            List<BalanceChange> committed = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, committed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BalanceEventDispatcher.this);
+                    if (status == STATUS_COMMITTED) {
+                        offer(committed);
+                    }
+                }
+            });
+            changes = committed;
+        }
+        changes.add(change);
+    }
+
+    /**
+     * Registers a listener for the wallet's changes. Nothing is delivered before {@link Subscription#start()}, so
+     * the caller can send the current balance first; changes committed in between are buffered.
+     */
+    public Subscription subscribe(UUID walletId, BalanceListener listener) {
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriberLimitExceededException("Too many balance streams open, retry later");
+        }
+        Subscription subscription = new Subscription(walletId, listener);
+        subscriptions.computeIfAbsent(walletId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        return subscription;
+    }
+
+    private void offer(List<BalanceChange> changes) {
+        if (!queue.offer(changes)) {
+            walletMetrics.recordBalanceEventDropped(WalletMetrics.DROP_QUEUE);
+            log.warn("Balance event queue full, dropped {} changes", changes.size());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        deliveryExecutor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "balance-events-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcherThread = new Thread(this::dispatch, "balance-events-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+
+    /**
+     * Stops dispatching and disconnects every subscriber.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+            dispatcherThread = null;
+        }
+        subscriptions.values().forEach(subscribers -> subscribers.forEach(Subscription::drop));
+        if (deliveryExecutor != null) {
+            deliveryExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                List<BalanceChange> changes = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (changes == null) {
+                    continue;
+                }
+                for (BalanceChange change : changes) {
+                    Set<Subscription> subscribers = subscriptions.get(change.walletId());
+                    if (subscribers != null) {
+                        subscribers.forEach(subscription -> subscription.offer(change));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Balance event dispatch failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    public final class Subscription {
+
+        private final UUID walletId;
+        private final BalanceListener listener;
+        private final BlockingQueue<BalanceChange> buffer;
+        private final AtomicBoolean delivering = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean started;
+
+        private Subscription(UUID walletId, BalanceListener listener) {
+            this.walletId = walletId;
+            this.listener = listener;
+            this.buffer = new ArrayBlockingQueue<>(properties.getSubscriberBuffer());
+        }
+
+        public void start() {
+            started = true;
+            scheduleDelivery();
+        }
+
+        /**
+         * Unregisters the subscription; called when the client goes away.
+         */
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.computeIfPresent(walletId, (id, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+                subscriberCount.decrementAndGet();
+                buffer.clear();
+            }
+        }
+
+        private void offer(BalanceChange change) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(change)) {
+                walletMetrics.recordBalanceEventDropped(WalletMetrics.DROP_SUBSCRIBER);
+                log.info("Balance stream of wallet {} fell {} changes behind, disconnecting", walletId, buffer.size());
+                drop();
+                return;
+            }
+            scheduleDelivery();
+        }
+
+        private void drop() {
+            if (closed.get()) {
+                return;
+            }
+            close();
+            try {
+                deliveryExecutor.execute(listener::onDropped);
+            } catch (RuntimeException e) {
+                listener.onDropped();
+            }
+        }
+
+        private void scheduleDelivery() {
+            if (started && !closed.get() && !buffer.isEmpty() && delivering.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            try {
+                BalanceChange change;
+                while (!closed.get() && (change = buffer.poll()) != null) {
+                    listener.onChange(change);
+                }
+            } catch (Exception e) {
+                log.debug("Balance stream of wallet {} closed: {}", walletId, e.getMessage());
+                close();
+            } finally {
+                delivering.set(false);
+            }
+            // a change offered after the last poll but before the flag was cleared
+            scheduleDelivery();
+        }
+    }
+}
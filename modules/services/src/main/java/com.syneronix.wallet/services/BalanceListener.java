@@ -0,0 +1,18 @@
+package com.syneronix.wallet.services;
+
+/**
+ * Receives the balance changes of one wallet from the {@link BalanceEventDispatcher}. Calls for one listener never
+ * overlap and come in dispatch order.
+ */
+public interface BalanceListener {
+
+    /**
+     * May block on a slow client; changes arriving meanwhile are buffered. Throwing closes the subscription.
+     */
+    void onChange(BalanceChange change) throws Exception;
+
+    /**
+     * The subscription was closed by the dispatcher: the buffer overflowed or the application is stopping.
+     */
+    void onDropped();
+}
@@ -0,0 +1,104 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.BalanceSnapshotProperties;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.MovementTotals;
+import com.syneronix.wallet.domain.WalletBalanceSnapshotEntity;
+import com.syneronix.wallet.domain.WalletBalanceSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Historical balances and statements, answered from the ledger ({@code balance_after} of each entry) and the daily
+ * {@link WalletBalanceSnapshotEntity} rows instead of replaying the whole ledger.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BalanceService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final WalletBalanceSnapshotRepository snapshotRepository;
+    private final BalanceSnapshotProperties properties;
+    private final ArchiveStore archiveStore;
+
+    /**
+     * Balance after all ledger entries created before {@code at}, zero before the first entry. Falls back to the
+     * archive when the wallet has no entry before {@code at} left in the database.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAt(UUID walletId, Instant at) {
+        return ledgerEntryRepository.findLatestBalanceBefore(walletId, at)
+                .or(() -> archiveStore.findLatestBalanceBefore(walletId, at))
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Transactional(readOnly = true)
+    public WalletStatement statement(UUID walletId, Instant from, Instant to) {
+        return new WalletStatement(balanceAt(walletId, from), balanceAt(walletId, to), movements(walletId, from, to));
+    }
+
+    /**
+     * Whole days of {@code [from, to)} that the snapshots cover are summed from them, only the remaining edges
+     * are read from the ledger.
+     */
+    private MovementTotals movements(UUID walletId, Instant from, Instant to) {
+        Optional<WalletBalanceSnapshotEntity> earliest = snapshotRepository.findFirstByOrderByPeriodStartAsc();
+        Optional<WalletBalanceSnapshotEntity> latest = snapshotRepository.findFirstByOrderByPeriodStartDesc();
+        if (earliest.isEmpty() || latest.isEmpty()) {
+            return ledgerEntryRepository.sumMovements(walletId, from, to);
+        }
+
+        Instant fromDay = from.truncatedTo(ChronoUnit.DAYS);
+        Instant firstFullDay = fromDay.equals(from) ? from : fromDay.plus(1, ChronoUnit.DAYS);
+        Instant lastFullDay = to.truncatedTo(ChronoUnit.DAYS);
+        Instant coveredFrom = max(firstFullDay, earliest.get().getPeriodStart());
+        Instant coveredTo = min(lastFullDay, latest.get().getPeriodEnd());
+
+        if (!coveredFrom.isBefore(coveredTo)) {
+            return ledgerEntryRepository.sumMovements(walletId, from, to);
+        }
+        return ledgerEntryRepository.sumMovements(walletId, from, coveredFrom)
+                .plus(snapshotRepository.sumMovements(walletId, coveredFrom, coveredTo))
+                .plus(ledgerEntryRepository.sumMovements(walletId, coveredTo, to));
+    }
+
+    /**
+     * Snapshots every completed UTC day after the last snapshotted one, each day in its own transaction.
+     *
+     * @return number of wallet snapshots written
+     */
+    public int snapshotCompletedDays(Instant now) {
+        Instant today = now.truncatedTo(ChronoUnit.DAYS);
+        Instant day = snapshotRepository.findFirstByOrderByPeriodStartDesc()
+                .map(WalletBalanceSnapshotEntity::getPeriodEnd)
+                .orElse(today.minus(properties.getInitialDays(), ChronoUnit.DAYS));
+
+        int written = 0;
+        for (; day.isBefore(today); day = day.plus(1, ChronoUnit.DAYS)) {
+            int wallets = snapshotRepository.snapshotPeriod(day, day.plus(1, ChronoUnit.DAYS));
+            log.debug("Snapshotted {} wallets for {}", wallets, day);
+            written += wallets;
+        }
+        return written;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    public record WalletStatement(BigDecimal openingBalance, BigDecimal closingBalance, MovementTotals movements) {
+    }
+}
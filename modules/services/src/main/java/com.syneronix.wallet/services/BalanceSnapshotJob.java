@@ -0,0 +1,32 @@
+package com.syneronix.wallet.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Writes the daily balance snapshots. Running it on several instances is safe, a day already snapshotted by one
+ * of them is skipped by the others.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "syneronix.balance-snapshots", name = "enabled", havingValue = "true")
+public class BalanceSnapshotJob {
+
+    private final BalanceService balanceService;
+
+    @Scheduled(cron = "${syneronix.balance-snapshots.cron:0 15 0 * * *}", zone = "UTC")
+    public void snapshot() {
+        try {
+            int written = balanceService.snapshotCompletedDays(Instant.now());
+            log.info("Balance snapshot run finished, {} wallet snapshots written", written);
+        } catch (RuntimeException e) {
+            log.error("Balance snapshot run failed, the next run continues where this one stopped", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.BlacklistProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the {@link BlacklistSnapshot} of every instance in sync through Postgres {@code LISTEN/NOTIFY}.
+ * <p>
+ * {@link #publishBlocked}/{@link #publishUnblocked} issue {@code pg_notify} in the caller's transaction, so the
+ * notification is delivered on commit only. A daemon thread listens on a dedicated connection (outside the pool)
+ * and applies notifications to the snapshot; the periodic reload is {@link BlacklistRefreshJob}'s. While that
+ * connection is down the snapshot is invalidated and blacklist checks go to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlacklistChangeNotifier implements SmartLifecycle {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String BLOCKED = "block:";
+    private static final String UNBLOCKED = "unblock:";
+
+    private final BlacklistProperties blacklistProperties;
+    private final BlacklistSnapshot blacklistSnapshot;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public void publishBlocked(UUID walletId) {
+        publish(BLOCKED + walletId);
+    }
+
+    public void publishUnblocked(UUID walletId) {
+        publish(UNBLOCKED + walletId);
+    }
+
+    private void publish(String payload) {
+        if (!isListening()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, blacklistProperties.getNotifications().getChannel(), payload);
+    }
+
+    @Override
+    public void start() {
+        if (!isListening()) {
+            return;
+        }
+        String channel = blacklistProperties.getNotifications().getChannel();
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalStateException("Invalid blacklist notification channel: " + channel);
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "blacklist-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private boolean isListening() {
+        return blacklistProperties.getCache().isEnabled() && blacklistProperties.getNotifications().isEnabled();
+    }
+
+    private void listen() {
+        BlacklistProperties.Notifications notifications = blacklistProperties.getNotifications();
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + notifications.getChannel());
+                }
+                // reload after LISTEN, so nothing committed in between is missed
+                blacklistSnapshot.reload();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = pgConnection.getNotifications((int) notifications.getPollTimeout().toMillis());
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                blacklistSnapshot.invalidate();
+                if (running) {
+                    log.warn("Blacklist listener connection lost, retrying in {}: {}", notifications.getReconnectDelay(), e.getMessage());
+                    sleep(notifications.getReconnectDelay().toMillis());
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        try {
+            if (payload.startsWith(BLOCKED)) {
+                blacklistSnapshot.add(UUID.fromString(payload.substring(BLOCKED.length())));
+            } else if (payload.startsWith(UNBLOCKED)) {
+                blacklistSnapshot.remove(UUID.fromString(payload.substring(UNBLOCKED.length())));
+            } else {
+                log.warn("Unknown blacklist notification '{}', reloading snapshot", payload);
+                blacklistSnapshot.reload();
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed blacklist notification '{}', reloading snapshot", payload);
+            blacklistSnapshot.reload();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
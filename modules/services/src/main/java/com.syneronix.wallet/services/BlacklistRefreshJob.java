@@ -0,0 +1,30 @@
+package com.syneronix.wallet.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads the {@link BlacklistSnapshot} every {@code cache.refresh-interval}, with or without notifications, as a
+ * safety net for changes the snapshot missed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "syneronix.blacklist.cache", name = "enabled", havingValue = "true")
+public class BlacklistRefreshJob {
+
+    private final BlacklistSnapshot blacklistSnapshot;
+
+    @Scheduled(fixedDelayString = "${syneronix.blacklist.cache.refresh-interval:PT5M}",
+            initialDelayString = "${syneronix.blacklist.cache.refresh-interval:PT5M}")
+    public void refresh() {
+        try {
+            blacklistSnapshot.refresh();
+        } catch (RuntimeException e) {
+            log.warn("Blacklist snapshot reload failed, the current snapshot is kept until the next run: {}", e.getMessage());
+        }
+    }
+}
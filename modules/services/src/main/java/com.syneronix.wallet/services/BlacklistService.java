@@ -23,6 +23,10 @@ public class BlacklistService {
 
     private final BlacklistRepository blacklistRepository;
     private final WalletRepository walletRepository;
+    private final BlacklistSnapshot blacklistSnapshot;
+    private final BlacklistChangeNotifier blacklistChangeNotifier;
+    private final OutboxService outboxService;
+    private final WalletReadCache walletReadCache;
 
     @Transactional
     public BlacklistEntity blockWallet(UUID walletId, String reason) {
@@ -41,6 +45,11 @@ public class BlacklistService {
         walletEntity.setStatus(WalletStatus.SUSPENDED);
         walletRepository.save(walletEntity);
 
+        blacklistSnapshot.addAfterCommit(walletId);
+        walletReadCache.invalidateAfterCommit(walletId);
+        blacklistChangeNotifier.publishBlocked(walletId);
+        outboxService.walletBlocked(walletEntity, reason);
+
         log.info("Wallet {} blocked. Reason: {}", walletId, reason);
         return savedEntity;
     }
@@ -58,12 +67,21 @@ public class BlacklistService {
         walletEntity.setStatus(WalletStatus.ACTIVE);
         walletRepository.save(walletEntity);
 
+        blacklistSnapshot.removeAfterCommit(walletId);
+        walletReadCache.invalidateAfterCommit(walletId);
+        blacklistChangeNotifier.publishUnblocked(walletId);
+
         log.info("Wallet {} unblocked and status set to ACTIVE", walletId);
         return entity;
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Answered from the {@link BlacklistSnapshot} once it is loaded, otherwise with a query.
+     */
     public boolean isBlocked(UUID walletId) {
+        if (blacklistSnapshot.isLoaded()) {
+            return blacklistSnapshot.contains(walletId);
+        }
         return blacklistRepository.existsByWalletId(walletId);
     }
 
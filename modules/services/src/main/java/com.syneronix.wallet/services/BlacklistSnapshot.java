@@ -0,0 +1,148 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.BlacklistProperties;
+import com.syneronix.wallet.domain.BlacklistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory copy of the blacklisted wallet ids.
+ * <p>
+ * The snapshot is only used once loaded; until then, and after {@link #invalidate()}, {@link BlacklistService}
+ * falls back to the database. Local block/unblock are applied after commit, changes made by other instances
+ * arrive through {@link BlacklistChangeNotifier}. Changes applied while a reload queries the database are replayed
+ * on the reloaded set, so the reload cannot undo them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlacklistSnapshot {
+
+    private final BlacklistProperties blacklistProperties;
+    private final BlacklistRepository blacklistRepository;
+
+    private final Object reloadLock = new Object();
+
+    private volatile Set<UUID> walletIds;
+    /**
+     * Changes applied during the running reload, guarded by {@code this}.
+     */
+    private List<Consumer<Set<UUID>>> changesDuringReload;
+    /**
+     * Number of invalidations, guarded by {@code this}. A reload that overlapped one does not publish its set.
+     */
+    private long invalidations;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (blacklistProperties.getCache().isEnabled()) {
+            reload();
+        }
+    }
+
+    public boolean isLoaded() {
+        return walletIds != null;
+    }
+
+    public boolean contains(UUID walletId) {
+        Set<UUID> current = walletIds;
+        return current != null && current.contains(walletId);
+    }
+
+    /**
+     * Scheduled full reload. With notifications on, an invalidated snapshot is left to the listener, which reloads
+     * it once it listens again.
+     */
+    public void refresh() {
+        if (blacklistProperties.getNotifications().isEnabled() && !isLoaded()) {
+            return;
+        }
+        reload();
+    }
+
+    public void reload() {
+        synchronized (reloadLock) {
+            long invalidationsBefore;
+            synchronized (this) {
+                invalidationsBefore = invalidations;
+                changesDuringReload = new ArrayList<>();
+            }
+
+            Set<UUID> loaded = ConcurrentHashMap.newKeySet();
+            try {
+                loaded.addAll(blacklistRepository.findAllWalletIds());
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changesDuringReload = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                changesDuringReload.forEach(change -> change.accept(loaded));
+                changesDuringReload = null;
+                if (invalidations != invalidationsBefore) {
+                    return;
+                }
+                walletIds = loaded;
+            }
+            log.debug("Blacklist snapshot loaded with {} wallet(s)", loaded.size());
+        }
+    }
+
+    public synchronized void invalidate() {
+        invalidations++;
+        walletIds = null;
+    }
+
+    public void add(UUID walletId) {
+        apply(current -> current.add(walletId));
+    }
+
+    public void remove(UUID walletId) {
+        apply(current -> current.remove(walletId));
+    }
+
+    private synchronized void apply(Consumer<Set<UUID>> change) {
+        Set<UUID> current = walletIds;
+        if (current != null) {
+            change.accept(current);
+        }
+        if (changesDuringReload != null) {
+            changesDuringReload.add(change);
+        }
+    }
+
+    public void addAfterCommit(UUID walletId) {
+        runAfterCommit(() -> add(walletId));
+    }
+
+    public void removeAfterCommit(UUID walletId) {
+        runAfterCommit(() -> remove(walletId));
+    }
+
+    private void runAfterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.RateLimitExceededException;
+import com.syneronix.wallet.config.PolicyProperties;
+import com.syneronix.wallet.domain.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Counts the transactions of the window in the {@code transactions} table, exact and shared by all instances.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "syneronix.policy.rate-limit", name = "engine", havingValue = "DATABASE", matchIfMissing = true)
+public class DatabaseRateLimiter implements RateLimiter {
+
+    private final PolicyProperties policyProperties;
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    public void verify(UUID walletId) {
+        int maxTransactions = policyProperties.getRateLimit().getMaxTransactions();
+        int windowMinutes = policyProperties.getRateLimit().getWindowMinutes();
+
+        if (count(walletId) >= maxTransactions) {
+            throw new RateLimitExceededException("Transaction limit exceeded: max " + maxTransactions + " per " + windowMinutes + " minute(s)");
+        }
+    }
+
+    @Override
+    public long remaining(UUID walletId) {
+        return Math.max(0, policyProperties.getRateLimit().getMaxTransactions() - count(walletId));
+    }
+
+    @Override
+    public void record(UUID walletId) {
+        // the transaction row itself is the record
+    }
+
+    private long count(UUID walletId) {
+        Instant since = Instant.now().minus(policyProperties.getRateLimit().getWindowMinutes(), ChronoUnit.MINUTES);
+        return transactionRepository.countTransactionsSince(walletId, since);
+    }
+}
@@ -0,0 +1,44 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.OutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a newline delimited JSON file, one write and sync per batch.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "syneronix.outbox", name = "sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+
+    public FileOutboxSink(OutboxProperties outboxProperties) {
+        this.path = outboxProperties.getFile().getPath();
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE, StandardOpenOption.DSYNC)) {
+            for (OutboxMessage message : messages) {
+                writer.write(message.toJsonLine());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append %d outbox events to %s".formatted(messages.size(), path), e);
+        }
+        log.debug("Appended {} outbox events to {}", messages.size(), path);
+    }
+}
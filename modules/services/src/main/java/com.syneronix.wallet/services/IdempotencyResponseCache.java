@@ -0,0 +1,85 @@
+package com.syneronix.wallet.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.config.IdempotencyProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded, TTL-evicting cache of terminal idempotency outcomes keyed by request id, so client retries of an
+ * already finished request are answered without a database round trip.
+ * <p>
+ * Only terminal states are cached; they never change once written, which keeps the cache safe to use on
+ * every node. Entries are published after the owning transaction commits.
+ */
+@Slf4j
+@Component
+public class IdempotencyResponseCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, Outcome> cache;
+
+    public IdempotencyResponseCache(IdempotencyProperties idempotencyProperties) {
+        IdempotencyProperties.Cache properties = idempotencyProperties.getCache();
+        this.enabled = properties.isEnabled();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Outcome> get(UUID requestId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(requestId));
+    }
+
+    public void putAfterCommit(UUID requestId, Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        if (outcome.status() == TransactionStatus.PENDING) {
+            throw new IllegalArgumentException("Only terminal idempotency outcomes can be cached: " + requestId);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(requestId, outcome);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(requestId, outcome);
+            }
+        });
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param requestDigest SHA-256 of the original request, checked on every replay
+     * @param response      the response object returned to the original caller (COMPLETED only); shared between
+     *                      replays and must not be modified
+     */
+    public record Outcome(byte[] requestDigest, TransactionStatus status, int httpStatusCode, Object response, String failReason) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.IdempotencyProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency key partitions created ahead, and with retention enabled drops the expired ones. Runs at
+ * startup and then every {@code interval}; keys cannot be claimed for a day without a partition.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyRetentionJob {
+
+    private final IdempotencyRetentionService idempotencyRetentionService;
+    private final IdempotencyProperties idempotencyProperties;
+
+    @Scheduled(fixedDelayString = "${syneronix.idempotency.retention.interval:PT1H}")
+    public void run() {
+        Instant now = Instant.now();
+        try {
+            idempotencyRetentionService.createPartitions(now);
+        } catch (RuntimeException e) {
+            log.error("Creating idempotency key partitions failed, retried by the next run", e);
+        }
+
+        if (!idempotencyProperties.getRetention().isEnabled()) {
+            return;
+        }
+        try {
+            Optional<LocalDateTime> cutoff = idempotencyRetentionService.dropExpiredPartitions(now);
+            if (cutoff.isPresent()) {
+                long deleted = 0;
+                int batch;
+                do {
+                    batch = idempotencyRetentionService.deleteClaims(cutoff.get());
+                    deleted += batch;
+                } while (batch == idempotencyProperties.getRetention().getClaimDeleteBatchSize());
+                if (deleted > 0) {
+                    log.info("Deleted {} idempotency claims created before {}", deleted, cutoff.get());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Idempotency key retention failed, the next run continues where this one stopped", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.IdempotencyProperties;
+import com.syneronix.wallet.domain.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Daily partitions of {@code idempotency_keys}: creates them ahead of time and drops them, together with their
+ * claims, once all of their keys are older than the retention ttl. Only one instance at a time changes partitions,
+ * the others skip the run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyRetentionService {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyProperties idempotencyProperties;
+
+    /**
+     * Creates the missing partitions from today up to {@code premake-days} ahead.
+     *
+     * @return number of partitions created
+     */
+    @Transactional
+    public int createPartitions(Instant now) {
+        if (!idempotencyKeyRepository.tryPartitionLock()) {
+            return 0;
+        }
+        Set<LocalDate> existing = new HashSet<>(idempotencyKeyRepository.findPartitionDays());
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+
+        int created = 0;
+        for (int i = 0; i <= idempotencyProperties.getRetention().getPremakeDays(); i++) {
+            LocalDate day = today.plusDays(i);
+            if (!existing.contains(day)) {
+                idempotencyKeyRepository.createPartition(day);
+                created++;
+            }
+        }
+        if (created > 0) {
+            log.info("Created {} idempotency key partitions up to {}", created, today.plusDays(idempotencyProperties.getRetention().getPremakeDays()));
+        }
+        return created;
+    }
+
+    /**
+     * Detaches and drops the partitions whose keys were all created before the start of the day {@code ttl} ago.
+     *
+     * @return the cutoff the claims can be deleted up to, empty if another instance holds the partition lock
+     */
+    @Transactional
+    public Optional<LocalDateTime> dropExpiredPartitions(Instant now) {
+        if (!idempotencyKeyRepository.tryPartitionLock()) {
+            return Optional.empty();
+        }
+        LocalDateTime expiredBefore = idempotencyProperties.getRetention().expiredBefore(now);
+        LocalDate cutoff = expiredBefore.toLocalDate();
+        long lockTimeout = idempotencyProperties.getRetention().getLockTimeout().toMillis();
+
+        for (LocalDate day : idempotencyKeyRepository.findPartitionDays()) {
+            if (!day.plusDays(1).isAfter(cutoff)) {
+                idempotencyKeyRepository.dropPartition(day, lockTimeout);
+                log.info("Dropped idempotency key partition of {}", day);
+            }
+        }
+        return Optional.of(expiredBefore);
+    }
+
+    /**
+     * Deletes one batch of claims created before {@code before}.
+     *
+     * @return number of claims deleted
+     */
+    @Transactional
+    public int deleteClaims(LocalDateTime before) {
+        return idempotencyKeyRepository.deleteClaimsBefore(before, idempotencyProperties.getRetention().getClaimDeleteBatchSize());
+    }
+}
@@ -4,10 +4,12 @@ package com.syneronix.wallet.services;
 import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.RequestType;
 import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.config.IdempotencyProperties;
 import com.syneronix.wallet.domain.IdempotencyKeyEntity;
 import com.syneronix.wallet.domain.IdempotencyKeyRepository;
 import com.syneronix.wallet.mappers.JsonMapper;
-import com.syneronix.wallet.utils.HashUtil;
+import com.syneronix.wallet.mappers.PayloadCodec;
+import com.syneronix.wallet.mappers.RequestFingerprinter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -15,8 +17,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -25,43 +32,55 @@ public class IdempotencyService {
 
     private final IdempotencyKeyRepository idempotencyKeyRepository;
     private final JsonMapper jsonMapper;
-
-    @Transactional(readOnly = true)
+    private final PayloadCodec payloadCodec;
+    private final RequestFingerprinter requestFingerprinter;
+    private final IdempotencyResponseCache responseCache;
+    private final IdempotencyProperties idempotencyProperties;
+
+    /**
+     * Not read-only on purpose: the key is read right after a claim conflict, so the lookup has to go to the primary,
+     * a read replica may not have the committed key yet.
+     */
+    @Transactional
     public Optional<IdempotencyKeyEntity> findByRequestId(UUID requestId) {
         return idempotencyKeyRepository.findByRequestId(requestId);
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void create(UUID requestId, Object requestBody, RequestType type, Currency currency, UUID fromWalletId, UUID toWalletId) {
-        if (idempotencyKeyRepository.existsByRequestId(requestId)) {
-            return;
-        }
-
-        IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
-        entity.setRequestId(requestId);
-        entity.setRequestType(type);
-        entity.setCurrency(currency);
-        entity.setFromWalletId(fromWalletId);
-        entity.setToWalletId(toWalletId);
-        entity.setStatus(TransactionStatus.PENDING);
+    public Optional<IdempotencyResponseCache.Outcome> findCachedOutcome(UUID requestId) {
+        return responseCache.get(requestId);
+    }
 
-        String requestJson = jsonMapper.toJson(requestBody);
-        String requestHash = HashUtil.calculateSha256(requestJson);
-        entity.setRequestBody(requestJson);
-        entity.setRequestHash(requestHash);
+    /**
+     * Claims the request id with a PENDING key.
+     *
+     * @return {@code true} if the key was inserted by this call, {@code false} if the request id is already
+     * claimed (by an earlier or a concurrent request)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean create(UUID requestId, Object requestBody, RequestType type, Currency currency, UUID fromWalletId, UUID toWalletId) {
+        return insertPending(requestId, requestBody, type, currency, fromWalletId, toWalletId);
+    }
 
-        idempotencyKeyRepository.save(entity);
+    /**
+     * Same as {@link #create} but joins the caller's transaction, so the key is rolled back together with
+     * the money movement (single-transaction execution mode).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean createInCurrentTransaction(UUID requestId, Object requestBody, RequestType type, Currency currency, UUID fromWalletId, UUID toWalletId) {
+        return insertPending(requestId, requestBody, type, currency, fromWalletId, toWalletId);
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void success(UUID requestId, Object responseBody, int httpStatus) {
-        IdempotencyKeyEntity entity = idempotencyKeyRepository.findByRequestId(requestId)
-                .orElseThrow(() -> new RuntimeException("Idempotency key not found for success update: " + requestId));
-        entity.setStatus(TransactionStatus.COMPLETED);
-        entity.setHttpStatusCode(httpStatus);
-        entity.setResponseBody(jsonMapper.toJson(responseBody));
+        markCompleted(requestId, responseBody, httpStatus);
+    }
 
-        idempotencyKeyRepository.save(entity);
+    /**
+     * Same as {@link #success} but joins the caller's transaction (single-transaction execution mode).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void successInCurrentTransaction(UUID requestId, Object responseBody, int httpStatus) {
+        markCompleted(requestId, responseBody, httpStatus);
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -70,9 +89,11 @@ public class IdempotencyService {
                 .orElseThrow(() -> new RuntimeException("Idempotency key not found for success update: " + requestId));
         entity.setStatus(TransactionStatus.REJECTED);
         entity.setHttpStatusCode(httpStatus);
-        entity.setResponseBody(jsonMapper.toJson(responseBody));
+        setResponse(entity, responseBody);
         entity.setFailReason(truncateReason(reason));
         idempotencyKeyRepository.save(entity);
+
+        cacheOutcome(entity, null);
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -85,8 +106,102 @@ public class IdempotencyService {
         entity.setFailReason(truncateReason(reason));
 
         idempotencyKeyRepository.save(entity);
+
+        cacheOutcome(entity, null);
     }
 
+    /**
+     * Records the outcomes of many requests claimed in the caller's transaction with one lookup, leaving the
+     * updates to Hibernate's JDBC batching (batch transfers).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void completeAllInCurrentTransaction(List<Completion> completions) {
+        Map<UUID, IdempotencyKeyEntity> entities = idempotencyKeyRepository.findAllByRequestIdIn(
+                        completions.stream().map(Completion::requestId).toList()).stream()
+                .collect(Collectors.toMap(IdempotencyKeyEntity::getRequestId, Function.identity()));
+
+        for (Completion completion : completions) {
+            IdempotencyKeyEntity entity = entities.get(completion.requestId());
+            if (entity == null) {
+                throw new RuntimeException("Idempotency key not found for batch update: " + completion.requestId());
+            }
+            entity.setStatus(completion.status());
+            entity.setHttpStatusCode(completion.httpStatus());
+            setResponse(entity, completion.responseBody());
+            entity.setFailReason(truncateReason(completion.failReason()));
+        }
+        idempotencyKeyRepository.saveAll(entities.values());
+
+        for (Completion completion : completions) {
+            IdempotencyKeyEntity entity = entities.get(completion.requestId());
+            cacheOutcome(entity, entity.getStatus() == TransactionStatus.COMPLETED ? completion.responseBody() : null);
+        }
+    }
+
+    private boolean insertPending(UUID requestId, Object requestBody, RequestType type, Currency currency, UUID fromWalletId, UUID toWalletId) {
+        IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
+        entity.setRequestId(requestId);
+        entity.setRequestType(type);
+        entity.setCurrency(currency);
+        entity.setFromWalletId(fromWalletId);
+        entity.setToWalletId(toWalletId);
+        entity.setStatus(TransactionStatus.PENDING);
+
+        byte[] requestDigest;
+        if (isBinaryPayload()) {
+            entity.setRequestPayload(payloadCodec.encode(requestBody, idempotencyProperties.getPayload().isCompress()));
+            requestDigest = requestFingerprinter.sha256(requestBody);
+        } else {
+            String requestJson = jsonMapper.toJson(requestBody);
+            entity.setRequestBody(requestJson);
+            requestDigest = requestFingerprinter.sha256(requestJson);
+        }
+        entity.setRequestDigest(requestDigest);
+        if (idempotencyProperties.isLegacyRequestHash()) {
+            entity.setRequestHash(RequestFingerprinter.toHex(requestDigest));
+        }
+
+        IdempotencyProperties.Retention retention = idempotencyProperties.getRetention();
+        boolean claimed = idempotencyKeyRepository.claim(entity, retention.isEnabled() ? retention.expiredBefore(Instant.now()) : null);
+        if (!claimed) {
+            log.debug("Idempotency key {} already claimed", requestId);
+        }
+        return claimed;
+    }
+
+    private void markCompleted(UUID requestId, Object responseBody, int httpStatus) {
+        IdempotencyKeyEntity entity = idempotencyKeyRepository.findByRequestId(requestId)
+                .orElseThrow(() -> new RuntimeException("Idempotency key not found for success update: " + requestId));
+        entity.setStatus(TransactionStatus.COMPLETED);
+        entity.setHttpStatusCode(httpStatus);
+        setResponse(entity, responseBody);
+
+        idempotencyKeyRepository.save(entity);
+
+        cacheOutcome(entity, responseBody);
+    }
+
+    private void setResponse(IdempotencyKeyEntity entity, Object responseBody) {
+        if (isBinaryPayload()) {
+            entity.setResponsePayload(payloadCodec.encode(responseBody, idempotencyProperties.getPayload().isCompress()));
+        } else {
+            entity.setResponseBody(jsonMapper.toJson(responseBody));
+        }
+    }
+
+    private boolean isBinaryPayload() {
+        return idempotencyProperties.getPayload().getFormat() == IdempotencyProperties.PayloadFormat.SMILE;
+    }
+
+    private void cacheOutcome(IdempotencyKeyEntity entity, Object response) {
+        responseCache.putAfterCommit(entity.getRequestId(), new IdempotencyResponseCache.Outcome(
+                RequestFingerprinter.storedDigest(entity.getRequestDigest(), entity.getRequestHash()),
+                entity.getStatus(),
+                entity.getHttpStatusCode(),
+                response,
+                entity.getFailReason()
+        ));
+    }
 
     private String truncateReason(String reason) {
         if (StringUtils.isBlank(reason)) {
@@ -96,4 +211,10 @@ public class IdempotencyService {
                 ? reason.substring(0, 255)
                 : reason;
     }
+
+    /**
+     * Terminal outcome of a request, {@code responseBody} is the response for COMPLETED and the request for REJECTED.
+     */
+    public record Completion(UUID requestId, TransactionStatus status, int httpStatus, Object responseBody, String failReason) {
+    }
 }
@@ -0,0 +1,43 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.OutboxProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent events in memory. Meant for tests and local runs.
+ */
+@Component
+@ConditionalOnProperty(prefix = "syneronix.outbox", name = "sink", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxMessage> messages = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(OutboxProperties outboxProperties) {
+        this.capacity = outboxProperties.getInMemory().getCapacity();
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> published) {
+        for (OutboxMessage message : published) {
+            if (messages.size() == capacity) {
+                messages.removeFirst();
+            }
+            messages.addLast(message);
+        }
+    }
+
+    public synchronized List<OutboxMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,56 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.BadRequestException;
+import com.syneronix.wallet.api.errors.WalletNotFoundException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.WalletEntity;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Loads both wallets in id order, then validates and transfers through {@link TransactionService#transfer}. Always
+ * available: it is the default engine and the fallback of {@link ProcedureTransferEngine}.
+ */
+@Component
+@RequiredArgsConstructor
+public class JpaTransferEngine implements TransferEngine {
+
+    private final WalletService walletService;
+    private final PolicyService policyService;
+    private final TransactionService transactionService;
+
+    @Override
+    public TransactionEntity transfer(UUID requestId, UUID fromWalletId, UUID toWalletId, BigDecimal amount, Currency currency, LockModeType lockMode) {
+        List<WalletEntity> wallets = walletService.findAllForTransferOrdered(List.of(fromWalletId, toWalletId), currency, lockMode);
+
+        if (wallets.isEmpty()) {
+            throw new WalletNotFoundException(fromWalletId, toWalletId);
+        }
+
+        if (wallets.size() != 2) {
+            List<UUID> foundIds = wallets.stream().map(WalletEntity::getId).toList();
+            if (!foundIds.contains(fromWalletId))
+                throw new WalletNotFoundException(fromWalletId);
+            if (!foundIds.contains(toWalletId))
+                throw new WalletNotFoundException(toWalletId);
+        }
+
+        WalletEntity fromWallet = wallets.stream().filter(w -> w.getId().equals(fromWalletId)).findFirst().orElseThrow();
+        WalletEntity toWallet = wallets.stream().filter(w -> w.getId().equals(toWalletId)).findFirst().orElseThrow();
+
+        if (fromWallet.getId().equals(toWallet.getId())) {
+            throw new BadRequestException("Cannot transfer to the same wallet");
+        }
+
+        policyService.validate(fromWallet);
+        policyService.validate(toWallet);
+
+        return transactionService.transfer(requestId, fromWallet, toWallet, amount, currency);
+    }
+}
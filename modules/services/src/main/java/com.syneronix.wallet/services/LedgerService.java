@@ -1,8 +1,10 @@
 package com.syneronix.wallet.services;
 
 import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.config.LedgerProperties;
 import com.syneronix.wallet.domain.LedgerEntryEntity;
 import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.PendingLedgerEntry;
 import com.syneronix.wallet.domain.TransactionEntity;
 import com.syneronix.wallet.domain.WalletEntity;
 import lombok.RequiredArgsConstructor;
@@ -19,10 +21,18 @@ import java.math.BigDecimal;
 public class LedgerService {
 
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerProperties ledgerProperties;
+    private final LedgerWriter ledgerWriter;
 
     //required existing transaction
     @Transactional(propagation = Propagation.MANDATORY)
     public void createLedgerEntry(TransactionEntity transaction, MoneyFlowDirection direction, WalletEntity wallet, BigDecimal amount, BigDecimal balanceAfter) {
+        // entries written behind are dated by their transaction, created before a credit holds its slot, which settling relies on
+        if (ledgerProperties.getWriteBehind().isEnabled() && !wallet.isSharded() && ledgerWriter.hasCapacity()) {
+            writeBehind(transaction, direction, wallet, amount, balanceAfter);
+            return;
+        }
+
         LedgerEntryEntity entry = new LedgerEntryEntity();
         entry.setTransaction(transaction);
         entry.setWallet(wallet);
@@ -33,4 +43,21 @@ public class LedgerService {
         ledgerEntryRepository.save(entry);
         log.debug("Created ledger entry for transaction {} and wallet {}", transaction.getId(), wallet.getId());
     }
+
+    /**
+     * Records the balance on the transaction row, which is saved by the caller in the same transaction, and hands
+     * the entry to the writer on commit.
+     */
+    private void writeBehind(TransactionEntity transaction, MoneyFlowDirection direction, WalletEntity wallet, BigDecimal amount, BigDecimal balanceAfter) {
+        if (direction == MoneyFlowDirection.DEBIT) {
+            transaction.setFromBalanceAfter(balanceAfter);
+        } else {
+            transaction.setToBalanceAfter(balanceAfter);
+        }
+        transaction.setLedgerPending(true);
+
+        ledgerWriter.submitAfterCommit(PendingLedgerEntry.of(transaction.getId(), wallet.getId(), amount,
+                wallet.getCurrency(), direction, balanceAfter, transaction.getCreatedAt()));
+        log.debug("Queued ledger entry for transaction {} and wallet {}", transaction.getId(), wallet.getId());
+    }
 }
@@ -0,0 +1,38 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.ShardingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Settles the balance after of credits to balance slots, wallet by wallet. Runs whether sharding is on or not, as
+ * wallets created with slots keep crediting them. Running it on several instances is safe, settling a wallet waits
+ * for all of its slots, so a second run finds nothing left.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerSettleJob {
+
+    private final WalletSlotService walletSlotService;
+    private final ShardingProperties shardingProperties;
+
+    @Scheduled(fixedDelayString = "${syneronix.sharding.settle-interval:PT1S}")
+    public void settle() {
+        int batchSize = shardingProperties.getSettleBatchSize();
+        try {
+            for (UUID walletId : walletSlotService.findUnsettledWalletIds(batchSize)) {
+                int settled;
+                do {
+                    settled = walletSlotService.settle(walletId, batchSize);
+                } while (settled == batchSize);
+            }
+        } catch (RuntimeException e) {
+            log.error("Ledger settle run failed, the next run continues where this one stopped: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.LedgerProperties;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.PendingLedgerEntry;
+import com.syneronix.wallet.domain.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ledger. Entries created in a transaction are queued together once it commits, and a single daemon
+ * thread writes whatever has accumulated with one multi-row insert and one commit (group commit).
+ * <p>
+ * Durability comes from the transaction rows: while a movement's entries are queued its row is
+ * {@code ledger_pending} and carries the balances after. The writer clears the flag in the same commit as the
+ * insert; entries that never reach it (process crash, queue full for longer than {@code offer-timeout}) are rebuilt
+ * from the rows by {@link #recover}, which the writer runs every {@code recovery-interval}.
+ */
+@Slf4j
+@Component
+public class LedgerWriter implements SmartLifecycle {
+
+    private final LedgerProperties.WriteBehind properties;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<List<PendingLedgerEntry>> queue;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public LedgerWriter(LedgerProperties ledgerProperties, LedgerEntryRepository ledgerEntryRepository,
+                        TransactionRepository transactionRepository, TransactionTemplate transactionTemplate,
+                        WalletMetrics walletMetrics) {
+        this.properties = ledgerProperties.getWriteBehind();
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        walletMetrics.registerLedgerQueue(queue);
+    }
+
+    /**
+     * Whether new entries should be queued. Checked before a movement writes its entries, so a full queue turns
+     * into synchronous inserts instead of blocking or losing anything.
+     */
+    public boolean hasCapacity() {
+        return running && queue.remainingCapacity() > 0;
+    }
+
+    /**
+     * Queues the entry once the current transaction commits; all entries of the transaction are queued, and later
+     * written, together. Dropped on rollback.
+     */
+    public void submitAfterCommit(PendingLedgerEntry entry) {
+        @SuppressWarnings("unchecked")
+        List<PendingLedgerEntry> entries = (List<PendingLedgerEntry>) TransactionSynchronizationManager.getResource(this);
+        if (entries == null) {
+            List<PendingLedgerEntry> committed = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, committed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LedgerWriter.this);
+                    if (status == STATUS_COMMITTED) {
+                        offer(committed);
+                    }
+                }
+            });
+            entries = committed;
+        }
+        entries.add(entry);
+    }
+
+    private void offer(List<PendingLedgerEntry> entries) {
+        try {
+            if (!queue.offer(entries, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Ledger queue full, {} entries of transaction {} left to recovery",
+                        entries.size(), entries.get(0).transactionId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queueing ledger entries of transaction {}, left to recovery", entries.get(0).transactionId());
+        }
+    }
+
+    /**
+     * Writes the entries of write-behind movements completed before {@code cutoff} that are still missing.
+     *
+     * @return number of entries written
+     */
+    public int recover(Instant cutoff) {
+        Integer recovered = transactionTemplate.execute(status -> {
+            int inserted = ledgerEntryRepository.recoverPending(cutoff);
+            transactionRepository.clearLedgerPendingBefore(cutoff);
+            return inserted;
+        });
+        if (recovered != null && recovered > 0) {
+            log.warn("Recovered {} ledger entries of movements completed before {}", recovered, cutoff);
+        }
+        return recovered == null ? 0 : recovered;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::write, "ledger-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stops accepting entries and waits for the writer to drain the queue.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(properties.getRetryDelay().multipliedBy(3).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void write() {
+        long recoveryIntervalNanos = properties.getRecoveryInterval().toNanos();
+        long lastRecovery = System.nanoTime() - recoveryIntervalNanos;
+        List<List<PendingLedgerEntry>> batch = new ArrayList<>(properties.getMaxBatchSize());
+
+        while (running || !queue.isEmpty()) {
+            try {
+                List<PendingLedgerEntry> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, properties.getMaxBatchSize() - 1);
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ledger write of {} movements failed, left to recovery: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+
+            if (running && System.nanoTime() - lastRecovery >= recoveryIntervalNanos) {
+                try {
+                    recover(Instant.now().minus(properties.getRecoveryGrace()));
+                } catch (RuntimeException e) {
+                    log.error("Ledger recovery failed: {}", e.getMessage());
+                }
+                lastRecovery = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Retries until written; once stopping, a failed batch is left to recovery on the next start.
+     */
+    private void flush(List<List<PendingLedgerEntry>> batch) throws InterruptedException {
+        List<PendingLedgerEntry> entries = new ArrayList<>();
+        Set<UUID> transactionIds = new HashSet<>();
+        Set<Instant> createdAts = new HashSet<>();
+        for (List<PendingLedgerEntry> committed : batch) {
+            for (PendingLedgerEntry entry : committed) {
+                entries.add(entry);
+                transactionIds.add(entry.transactionId());
+                createdAts.add(entry.createdAt());
+            }
+        }
+
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    ledgerEntryRepository.insertPending(entries);
+                    transactionRepository.clearLedgerPending(transactionIds, createdAts);
+                });
+                log.debug("Wrote {} ledger entries of {} movements", entries.size(), transactionIds.size());
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Ledger flush failed while stopping, {} entries left to recovery: {}", entries.size(), e.getMessage());
+                    return;
+                }
+                log.error("Ledger flush of {} entries failed, retrying in {}: {}", entries.size(), properties.getRetryDelay(), e.getMessage());
+                Thread.sleep(properties.getRetryDelay().toMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.OutboxEventType;
+import com.syneronix.wallet.domain.OutboxEventEntity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A published outbox event. {@code payload} is the stored JSON document.
+ */
+public record OutboxMessage(long position, UUID walletId, OutboxEventType eventType, String payload, Instant publishedAt) {
+
+    public static OutboxMessage of(OutboxEventEntity event) {
+        return new OutboxMessage(event.getPosition(), event.getWalletId(), event.getEventType(), event.getPayload(), event.getPublishedAt());
+    }
+
+    /**
+     * Single line JSON, as written by the file and TCP sinks.
+     */
+    public String toJsonLine() {
+        return "{\"position\":%d,\"wallet_id\":\"%s\",\"event_type\":\"%s\",\"published_at\":\"%s\",\"payload\":%s}"
+                .formatted(position, walletId, eventType, publishedAt, payload.replace('\n', ' '));
+    }
+}
@@ -0,0 +1,34 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relays outbox events to the sink. Runs back to back while batches come back full, so a backlog drains without
+ * waiting for the interval.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "syneronix.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelayJob {
+
+    private final OutboxService outboxService;
+    private final OutboxProperties outboxProperties;
+
+    @Scheduled(fixedDelayString = "${syneronix.outbox.relay-interval:PT0.5S}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = outboxService.relayBatch();
+            } while (published == outboxProperties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed, the batch is published again by the next run: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.BadRequestException;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.common.OutboxEventType;
+import com.syneronix.wallet.config.OutboxProperties;
+import com.syneronix.wallet.domain.OutboxConsumerEntity;
+import com.syneronix.wallet.domain.OutboxConsumerRepository;
+import com.syneronix.wallet.domain.OutboxEventEntity;
+import com.syneronix.wallet.domain.OutboxEventRepository;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.mappers.JsonMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Transactional outbox of wallet events. Events are appended inside the transaction that makes the change, while it
+ * holds the wallet lock, so they exist exactly when the change commits and events of one wallet are numbered in the
+ * order its changes committed. Credits to a sharded wallet share its lock, so their events may be numbered in any
+ * order among themselves; they commute and carry no balance after, and every other change of the wallet waits for
+ * them under the exclusive lock. The relay later gives published events a gap free, global {@code position} in that
+ * order; consumers read by position and commit the last one they processed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final int MAX_CONSUMER_NAME_LENGTH = 100;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxConsumerRepository outboxConsumerRepository;
+    private final OutboxProperties outboxProperties;
+    private final OutboxSink outboxSink;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * One event per wallet the movement touched, with that wallet's side of it. {@code balanceAfter} is null for a
+     * credit to a balance slot.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionCompleted(TransactionEntity transaction, WalletEntity wallet, MoneyFlowDirection direction, BigDecimal balanceAfter) {
+        Map<String, Object> payload = transactionPayload(transaction, wallet.getId());
+        payload.put("direction", direction);
+        payload.put("balance_after", balanceAfter);
+        append(wallet.getId(), OutboxEventType.TRANSACTION_COMPLETED, payload);
+    }
+
+    /**
+     * Keyed to the wallet that was to be debited.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionFailed(TransactionEntity transaction, WalletEntity wallet) {
+        Map<String, Object> payload = transactionPayload(transaction, wallet.getId());
+        payload.put("failure_reason", transaction.getFailureReason());
+        append(wallet.getId(), OutboxEventType.TRANSACTION_FAILED, payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void walletBlocked(WalletEntity wallet, String reason) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("wallet_id", wallet.getId());
+        payload.put("reason", reason);
+        append(wallet.getId(), OutboxEventType.WALLET_BLOCKED, payload);
+    }
+
+    /**
+     * Publishes the oldest unpublished events. Only one instance relays at a time; the others return 0 right away.
+     *
+     * @return number of events published
+     */
+    @Transactional
+    public int relayBatch() {
+        if (!outboxEventRepository.tryRelayLock()) {
+            return 0;
+        }
+        List<OutboxEventEntity> events = outboxEventRepository.findUnpublished(PageRequest.of(0, outboxProperties.getBatchSize()));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        long position = outboxEventRepository.findLastPosition();
+        Instant now = Instant.now();
+        List<OutboxMessage> messages = new ArrayList<>(events.size());
+        for (OutboxEventEntity event : events) {
+            event.setPosition(++position);
+            event.setPublishedAt(now);
+            messages.add(OutboxMessage.of(event));
+        }
+        outboxEventRepository.saveAll(events);
+        outboxEventRepository.flush();
+
+        outboxSink.publish(messages);
+        log.debug("Relayed {} outbox events up to position {}", events.size(), position);
+        return events.size();
+    }
+
+    /**
+     * Published events after the consumer's committed position, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxMessage> read(String consumer, int limit) {
+        long position = outboxConsumerRepository.findById(consumer).map(OutboxConsumerEntity::getPosition).orElse(0L);
+        int pageSize = Math.max(1, Math.min(limit, outboxProperties.getMaxReadLimit()));
+        return outboxEventRepository.findPublishedAfter(position, PageRequest.of(0, pageSize)).stream()
+                .map(OutboxMessage::of)
+                .toList();
+    }
+
+    /**
+     * Moves the consumer's offset forward to {@code position}. Committing an older position is a no-op, so a
+     * consumer retrying after a timeout never goes back.
+     *
+     * @return the committed position
+     */
+    @Transactional
+    public long commit(String consumer, long position) {
+        if (consumer.length() > MAX_CONSUMER_NAME_LENGTH) {
+            throw new BadRequestException("Consumer name must not be longer than %d characters".formatted(MAX_CONSUMER_NAME_LENGTH));
+        }
+        if (position < 0 || position > outboxEventRepository.findLastPosition()) {
+            throw new BadRequestException("Position %d is outside of the published event stream".formatted(position));
+        }
+        OutboxConsumerEntity entity = outboxConsumerRepository.findWithLockingByName(consumer).orElseGet(() -> {
+            OutboxConsumerEntity created = new OutboxConsumerEntity();
+            created.setName(consumer);
+            return created;
+        });
+        if (position > entity.getPosition()) {
+            entity.setPosition(position);
+            outboxConsumerRepository.save(entity);
+        }
+        return entity.getPosition();
+    }
+
+    private Map<String, Object> transactionPayload(TransactionEntity transaction, UUID walletId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("transaction_id", transaction.getId());
+        payload.put("request_id", transaction.getRequestId());
+        payload.put("wallet_id", walletId);
+        payload.put("type", transaction.getType());
+        payload.put("status", transaction.getStatus());
+        payload.put("amount", transaction.getAmount());
+        payload.put("currency", transaction.getCurrency());
+        return payload;
+    }
+
+    private void append(UUID walletId, OutboxEventType type, Map<String, Object> payload) {
+        if (!outboxProperties.isEnabled()) {
+            return;
+        }
+        OutboxEventEntity event = new OutboxEventEntity();
+        event.setWalletId(walletId);
+        event.setEventType(type);
+        event.setPayload(jsonMapper.toJson(payload));
+        outboxEventRepository.save(event);
+    }
+}
@@ -0,0 +1,13 @@
+package com.syneronix.wallet.services;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay pushes published events to, selected by {@code syneronix.outbox.sink}. Called inside
+ * the relay transaction: a failure rolls the batch back and it is published again by the next run, so delivery is
+ * at least once and consumers deduplicate by {@link OutboxMessage#position()}.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxMessage> messages);
+}
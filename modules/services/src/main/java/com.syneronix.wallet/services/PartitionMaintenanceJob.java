@@ -0,0 +1,41 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.PartitionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Keeps transaction and ledger partitions created ahead, and with detaching enabled detaches the old ones. Runs at
+ * startup and then every {@code interval}; nothing can be written for a month without a partition.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartitionMaintenanceJob {
+
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final PartitionProperties partitionProperties;
+
+    @Scheduled(fixedDelayString = "${syneronix.partitions.interval:PT6H}")
+    public void run() {
+        Instant now = Instant.now();
+        try {
+            partitionMaintenanceService.createPartitions(now);
+        } catch (RuntimeException e) {
+            log.error("Creating transaction and ledger partitions failed, retried by the next run", e);
+        }
+
+        if (!partitionProperties.getDetach().isEnabled()) {
+            return;
+        }
+        try {
+            partitionMaintenanceService.detachPartitions(now);
+        } catch (RuntimeException e) {
+            log.error("Detaching transaction and ledger partitions failed, retried by the next run", e);
+        }
+    }
+}
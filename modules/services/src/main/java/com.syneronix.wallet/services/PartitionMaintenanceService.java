@@ -0,0 +1,95 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.PartitionProperties;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Monthly partitions of {@code transactions} and {@code ledger_entries}: creates them ahead of time and, with
+ * detaching enabled, detaches the old months of both tables together. Only one instance at a time changes
+ * partitions, the others skip the run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final PartitionProperties partitionProperties;
+
+    /**
+     * Creates the missing partitions from the current month up to {@code premake-months} ahead.
+     *
+     * @return number of partitions created, over both tables
+     */
+    @Transactional
+    public int createPartitions(Instant now) {
+        if (!transactionRepository.tryPartitionLock()) {
+            return 0;
+        }
+        Set<YearMonth> transactionMonths = new HashSet<>(transactionRepository.findPartitionMonths());
+        Set<YearMonth> ledgerMonths = new HashSet<>(ledgerEntryRepository.findPartitionMonths());
+        YearMonth current = YearMonth.from(now.atOffset(ZoneOffset.UTC));
+
+        int created = 0;
+        for (int i = 0; i <= partitionProperties.getPremakeMonths(); i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!transactionMonths.contains(month)) {
+                transactionRepository.createPartition(month);
+                created++;
+            }
+            if (!ledgerMonths.contains(month)) {
+                ledgerEntryRepository.createPartition(month);
+                created++;
+            }
+        }
+        if (created > 0) {
+            log.info("Created {} transaction and ledger partitions up to {}", created, current.plusMonths(partitionProperties.getPremakeMonths()));
+        }
+        return created;
+    }
+
+    /**
+     * Detaches the partitions of the months before the last {@code after-months} full months, in one transaction so
+     * a month is detached from both tables or from neither.
+     *
+     * @return the months detached
+     */
+    @Transactional
+    public List<YearMonth> detachPartitions(Instant now) {
+        if (!transactionRepository.tryPartitionLock()) {
+            return List.of();
+        }
+        YearMonth oldestKept = YearMonth.from(now.atOffset(ZoneOffset.UTC)).minusMonths(partitionProperties.getDetach().getAfterMonths());
+        long lockTimeout = partitionProperties.getDetach().getLockTimeout().toMillis();
+        Set<YearMonth> ledgerMonths = new HashSet<>(ledgerEntryRepository.findPartitionMonths());
+
+        List<YearMonth> detached = new ArrayList<>();
+        for (YearMonth month : transactionRepository.findPartitionMonths()) {
+            if (month.isBefore(oldestKept)) {
+                transactionRepository.detachPartition(month, lockTimeout);
+                if (ledgerMonths.contains(month)) {
+                    ledgerEntryRepository.detachPartition(month, lockTimeout);
+                }
+                detached.add(month);
+            }
+        }
+        if (!detached.isEmpty()) {
+            log.info("Detached transaction and ledger partitions of {}", detached);
+        }
+        return detached;
+    }
+}
@@ -3,34 +3,71 @@ package com.syneronix.wallet.services;
 import com.syneronix.wallet.api.errors.RateLimitExceededException;
 import com.syneronix.wallet.api.errors.WalletLockedException;
 import com.syneronix.wallet.config.PolicyProperties;
-import com.syneronix.wallet.domain.TransactionRepository;
 import com.syneronix.wallet.domain.WalletEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class PolicyService {
 
-    private final PolicyProperties policyProperties;
-    private final TransactionRepository transactionRepository;
+    private final RateLimiter rateLimiter;
     private final BlacklistService blacklistService;
+    private final PolicyProperties policyProperties;
+
+    /**
+     * Rate limit allowance left per wallet while {@link #withRateLimitBudget} runs on this thread.
+     */
+    private final ThreadLocal<Map<UUID, Long>> rateLimitBudget = new ThreadLocal<>();
 
     public void verifyRateLimit(UUID walletId) {
-        int maxTransactions = policyProperties.getRateLimit().getMaxTransactions();
-        int windowMinutes = policyProperties.getRateLimit().getWindowMinutes();
+        Map<UUID, Long> budget = rateLimitBudget.get();
+        if (budget == null || !budget.containsKey(walletId)) {
+            rateLimiter.verify(walletId);
+            return;
+        }
+        if (budget.get(walletId) <= 0) {
+            PolicyProperties.RateLimit rateLimit = policyProperties.getRateLimit();
+            throw new RateLimitExceededException("Transaction limit exceeded: max " + rateLimit.getMaxTransactions()
+                    + " per " + rateLimit.getWindowMinutes() + " minute(s)");
+        }
+    }
 
-        Instant since = Instant.now().minus(windowMinutes, ChronoUnit.MINUTES);
-        long count = transactionRepository.countTransactionsSince(walletId, since);
+    /**
+     * Reads the rate limit allowance of {@code walletIds} once and runs {@code work} with it: rate limit checks of
+     * these wallets inside {@code work} are answered from memory, and {@link #countOutgoing} takes the transactions
+     * made inside off the allowance. Meant for many transfers in one database transaction, which would otherwise
+     * count the window per transfer.
+     */
+    public <T> T withRateLimitBudget(Collection<UUID> walletIds, Supplier<T> work) {
+        Map<UUID, Long> budget = new HashMap<>();
+        for (UUID walletId : walletIds) {
+            budget.put(walletId, rateLimiter.remaining(walletId));
+        }
+        rateLimitBudget.set(budget);
+        try {
+            return work.get();
+        } finally {
+            rateLimitBudget.remove();
+        }
+    }
 
-        if (count >= maxTransactions) {
-            throw new RateLimitExceededException("Transaction limit exceeded: max " + maxTransactions + " per " + windowMinutes + " minute(s)");
+    /**
+     * Takes an outgoing transaction of the wallet off the allowance of the running {@link #withRateLimitBudget}, if
+     * there is one.
+     */
+    public void countOutgoing(UUID walletId) {
+        Map<UUID, Long> budget = rateLimitBudget.get();
+        if (budget != null) {
+            budget.computeIfPresent(walletId, (id, remaining) -> remaining - 1);
         }
     }
 
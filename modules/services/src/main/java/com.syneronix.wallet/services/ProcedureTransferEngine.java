@@ -0,0 +1,44 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.BaseApiExceptionModel;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.domain.TransactionEntity;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Checks rate limits and the blacklist by wallet id, then leaves locking, the remaining checks and all writes to
+ * one {@link TransactionService#transferByProcedure call} of the {@code transfer_funds} database function. The
+ * function always locks, so the lock mode is ignored and the transfer never conflicts. A transfer involving a
+ * sharded wallet is handed to {@link JpaTransferEngine} under lock, in the same transaction. A rejection writes
+ * nothing and leaves a surrounding transaction, such as a batch, usable for the next transfer.
+ */
+@Primary
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "syneronix.execution", name = "transfer-engine", havingValue = "PROCEDURE")
+public class ProcedureTransferEngine implements TransferEngine {
+
+    private final PolicyService policyService;
+    private final TransactionService transactionService;
+    private final JpaTransferEngine jpaTransferEngine;
+
+    @Override
+    @Transactional(noRollbackFor = BaseApiExceptionModel.class)
+    public TransactionEntity transfer(UUID requestId, UUID fromWalletId, UUID toWalletId, BigDecimal amount, Currency currency, LockModeType lockMode) {
+        policyService.verifyRateLimit(fromWalletId);
+        policyService.verifyBlacklist(fromWalletId);
+        policyService.verifyRateLimit(toWalletId);
+        policyService.verifyBlacklist(toWalletId);
+
+        return transactionService.transferByProcedure(requestId, fromWalletId, toWalletId, amount, currency)
+                .orElseGet(() -> jpaTransferEngine.transfer(requestId, fromWalletId, toWalletId, amount, currency, LockModeType.PESSIMISTIC_WRITE));
+    }
+}
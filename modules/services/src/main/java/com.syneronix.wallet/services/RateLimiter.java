@@ -0,0 +1,25 @@
+package com.syneronix.wallet.services;
+
+import java.util.UUID;
+
+/**
+ * Limits the number of outgoing transactions (withdrawals and transfers) of a wallet per
+ * {@code syneronix.policy.rate-limit.window-minutes}.
+ */
+public interface RateLimiter {
+
+    /**
+     * @throws com.syneronix.wallet.api.errors.RateLimitExceededException if the wallet already reached the limit
+     */
+    void verify(UUID walletId);
+
+    /**
+     * Outgoing transactions the wallet may still make in the current window, zero once it reached the limit.
+     */
+    long remaining(UUID walletId);
+
+    /**
+     * Counts an outgoing transaction of the wallet, called once its transaction row is committed.
+     */
+    void record(UUID walletId);
+}
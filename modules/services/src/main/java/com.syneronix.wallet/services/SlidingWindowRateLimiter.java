@@ -0,0 +1,127 @@
+package com.syneronix.wallet.services;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.syneronix.wallet.api.errors.RateLimitExceededException;
+import com.syneronix.wallet.config.PolicyProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory sliding-window counter per wallet.
+ * <p>
+ * Each wallet keeps the count of the current and the previous fixed window; the count of the sliding window is
+ * estimated as {@code previous * (1 - elapsed / window) + current}. Counters are immutable and swapped with a
+ * CAS, so checks and records never block. The map is bounded by {@code max-tracked-wallets} and drops wallets
+ * idle for two windows, whose counters would be zero anyway.
+ */
+@Component
+@ConditionalOnProperty(prefix = "syneronix.policy.rate-limit", name = "engine", havingValue = "IN_MEMORY")
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    private final PolicyProperties policyProperties;
+    private final Ticker ticker;
+    private final long windowNanos;
+    private final Cache<UUID, AtomicReference<Window>> windows;
+
+    @Autowired
+    public SlidingWindowRateLimiter(PolicyProperties policyProperties) {
+        this(policyProperties, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    SlidingWindowRateLimiter(PolicyProperties policyProperties, Ticker ticker) {
+        PolicyProperties.RateLimit rateLimit = policyProperties.getRateLimit();
+        this.policyProperties = policyProperties;
+        this.ticker = ticker;
+        this.windowNanos = Duration.ofMinutes(rateLimit.getWindowMinutes()).toNanos();
+        this.windows = CacheBuilder.newBuilder()
+                .maximumSize(rateLimit.getMaxTrackedWallets())
+                .expireAfterAccess(Duration.ofNanos(windowNanos * 2))
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public void verify(UUID walletId) {
+        AtomicReference<Window> window = windows.getIfPresent(walletId);
+        if (window == null) {
+            return;
+        }
+
+        int maxTransactions = policyProperties.getRateLimit().getMaxTransactions();
+        long now = ticker.read();
+        if (window.get().estimate(now, windowNanos) >= maxTransactions) {
+            throw new RateLimitExceededException("Transaction limit exceeded: max " + maxTransactions + " per "
+                    + policyProperties.getRateLimit().getWindowMinutes() + " minute(s)");
+        }
+    }
+
+    /**
+     * The allowance left under the estimate: with an estimate of 3.4 of 5, two more transactions pass the check.
+     */
+    @Override
+    public long remaining(UUID walletId) {
+        int maxTransactions = policyProperties.getRateLimit().getMaxTransactions();
+        AtomicReference<Window> window = windows.getIfPresent(walletId);
+        if (window == null) {
+            return maxTransactions;
+        }
+        return Math.max(0, (long) Math.ceil(maxTransactions - window.get().estimate(ticker.read(), windowNanos)));
+    }
+
+    @Override
+    public void record(UUID walletId) {
+        long now = ticker.read();
+        AtomicReference<Window> window;
+        try {
+            window = windows.get(walletId, () -> new AtomicReference<>(new Window(alignedStart(now), 0, 0)));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        window.updateAndGet(current -> current.increment(now, windowNanos));
+    }
+
+    @VisibleForTesting
+    long trackedWallets() {
+        windows.cleanUp();
+        return windows.size();
+    }
+
+    private long alignedStart(long now) {
+        return now - Math.floorMod(now, windowNanos);
+    }
+
+    private record Window(long start, long previous, long current) {
+
+        Window increment(long now, long windowNanos) {
+            Window rolled = roll(now, windowNanos);
+            return new Window(rolled.start, rolled.previous, rolled.current + 1);
+        }
+
+        double estimate(long now, long windowNanos) {
+            Window rolled = roll(now, windowNanos);
+            double previousWeight = 1.0 - (double) (now - rolled.start) / windowNanos;
+            return rolled.previous * previousWeight + rolled.current;
+        }
+
+        private Window roll(long now, long windowNanos) {
+            long elapsedWindows = (now - start) / windowNanos;
+            if (elapsedWindows == 0) {
+                return this;
+            }
+            if (elapsedWindows == 1) {
+                return new Window(start + windowNanos, current, 0);
+            }
+            return new Window(start + elapsedWindows * windowNanos, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.OutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams events as newline delimited JSON over a TCP connection, reconnecting on the next batch after a failure.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "syneronix.outbox", name = "sink", havingValue = "tcp")
+public class TcpOutboxSink implements OutboxSink, DisposableBean {
+
+    private final OutboxProperties.Tcp properties;
+
+    private Socket socket;
+    private BufferedWriter writer;
+
+    public TcpOutboxSink(OutboxProperties outboxProperties) {
+        this.properties = outboxProperties.getTcp();
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        try {
+            BufferedWriter out = connection();
+            for (OutboxMessage message : messages) {
+                out.write(message.toJsonLine());
+                out.newLine();
+            }
+            out.flush();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to send %d outbox events to %s:%d"
+                    .formatted(messages.size(), properties.getHost(), properties.getPort()), e);
+        }
+    }
+
+    private BufferedWriter connection() throws IOException {
+        if (writer == null) {
+            Socket connected = new Socket();
+            connected.setTcpNoDelay(true);
+            connected.connect(new InetSocketAddress(properties.getHost(), properties.getPort()),
+                    (int) properties.getConnectTimeout().toMillis());
+            socket = connected;
+            writer = new BufferedWriter(new OutputStreamWriter(connected.getOutputStream(), StandardCharsets.UTF_8));
+            log.info("Outbox sink connected to {}:{}", properties.getHost(), properties.getPort());
+        }
+        return writer;
+    }
+
+    private void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close outbox sink connection: {}", e.getMessage());
+            }
+        }
+        socket = null;
+        writer = null;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        close();
+    }
+}
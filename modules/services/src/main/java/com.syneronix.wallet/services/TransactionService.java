@@ -1,21 +1,36 @@
 package com.syneronix.wallet.services;
 
+import com.syneronix.wallet.api.errors.BadRequestException;
+import com.syneronix.wallet.api.errors.BaseApiExceptionModel;
 import com.syneronix.wallet.api.errors.CurrencyMismatchException;
+import com.syneronix.wallet.api.errors.WalletLockedException;
+import com.syneronix.wallet.api.errors.WalletNotFoundException;
 import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.MoneyFlowDirection;
 import com.syneronix.wallet.common.TransactionStatus;
 import com.syneronix.wallet.common.TransactionType;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.config.PartitionProperties;
 import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.TransactionHistoryFilter;
 import com.syneronix.wallet.domain.TransactionRepository;
+import com.syneronix.wallet.domain.TransferFundsResult;
 import com.syneronix.wallet.domain.WalletEntity;
 import com.syneronix.wallet.domain.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -26,6 +41,14 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
     private final LedgerService ledgerService;
+    private final RateLimiter rateLimiter;
+    private final WalletSlotService walletSlotService;
+    private final OutboxService outboxService;
+    private final BalanceEventDispatcher balanceEventDispatcher;
+    private final WalletReadCache walletReadCache;
+    private final PartitionProperties partitionProperties;
+    private final ArchiveStore archiveStore;
+    private final PolicyService policyService;
 
     @Transactional
     public TransactionEntity deposit(UUID requestId, WalletEntity wallet, BigDecimal amount, Currency currency) {
@@ -38,12 +61,21 @@ public class TransactionService {
         transaction.setToWallet(wallet);
         transaction = transactionRepository.save(transaction);
 
-        wallet.setBalance(wallet.getBalance().add(amount));
-        walletRepository.save(wallet);
+        BigDecimal balanceAfter;
+        if (wallet.isSharded()) {
+            // concurrent credits to other slots would make any balance read here out of order, it is settled later
+            walletSlotService.credit(wallet, amount);
+            balanceAfter = null;
+        } else {
+            wallet.setBalance(wallet.getBalance().add(amount));
+            walletRepository.save(wallet);
+            balanceAfter = wallet.getBalance();
+        }
 
-        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.CREDIT,  wallet, amount, wallet.getBalance());
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.CREDIT,  wallet, amount, balanceAfter);
 
         transaction.setStatus(TransactionStatus.COMPLETED);
+        completed(transaction, wallet, MoneyFlowDirection.CREDIT, balanceAfter);
         return transactionRepository.save(transaction);
     }
 
@@ -57,23 +89,62 @@ public class TransactionService {
         TransactionEntity transaction = createInitialTransaction(requestId, amount, currency, TransactionType.WITHDRAW);
         transaction.setFromWallet(wallet);
         transaction = transactionRepository.save(transaction);
+        recordOutgoingAfterCommit(wallet.getId());
+        consolidateIfSharded(wallet, amount);
 
         if (wallet.getBalance().compareTo(amount) < 0) {
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setFailureReason("Insufficient funds");
+            outboxService.transactionFailed(transaction, wallet);
             return transactionRepository.save(transaction);
         }
 
         wallet.setBalance(wallet.getBalance().subtract(amount));
         walletRepository.save(wallet);
 
-        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.DEBIT, wallet, amount, wallet.getBalance());
+        BigDecimal balanceAfter = balanceOf(wallet);
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.DEBIT, wallet, amount, balanceAfter);
 
         transaction.setStatus(TransactionStatus.COMPLETED);
+        completed(transaction, wallet, MoneyFlowDirection.DEBIT, balanceAfter);
         return transactionRepository.save(transaction);
     }
 
+    /**
+     * Withdrawal without a prior read: the balance check and the debit are one conditional
+     * {@link WalletRepository#debit UPDATE ... RETURNING}, which also returns the balance after it. Only when that
+     * matches no row is the wallet loaded, under the exclusive lock, to tell why: not found, locked, in another
+     * currency, sharded (its slots may still cover the amount) or short of funds, the last three handled like by
+     * {@link #withdraw(UUID, WalletEntity, BigDecimal, Currency)}. Rate limit and blacklist checks are the caller's.
+     */
     @Transactional
+    public TransactionEntity withdrawById(UUID requestId, UUID walletId, BigDecimal amount, Currency currency) {
+        Optional<WalletEntity> debited = walletRepository.debit(walletId, amount, currency);
+        if (debited.isEmpty()) {
+            WalletEntity wallet = walletRepository.findWithLockingById(walletId)
+                    .orElseThrow(() -> new WalletNotFoundException(walletId));
+            policyService.verifyBlacklist(wallet);
+            return withdraw(requestId, wallet, amount, currency);
+        }
+
+        WalletEntity wallet = debited.get();
+        TransactionEntity transaction = createInitialTransaction(requestId, amount, currency, TransactionType.WITHDRAW);
+        transaction.setFromWallet(wallet);
+        transaction = transactionRepository.save(transaction);
+        recordOutgoingAfterCommit(walletId);
+
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.DEBIT, wallet, amount, wallet.getBalance());
+
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        completed(transaction, wallet, MoneyFlowDirection.DEBIT, wallet.getBalance());
+        return transactionRepository.save(transaction);
+    }
+
+    /**
+     * The currency is checked before anything is written, so a mismatch leaves a surrounding transaction, such as a
+     * batch, usable for the next transfer.
+     */
+    @Transactional(noRollbackFor = BaseApiExceptionModel.class)
     public TransactionEntity transfer(UUID requestId, WalletEntity fromWallet, WalletEntity toWallet, BigDecimal amount, Currency currency) {
 
         if (!fromWallet.getCurrency().equals(currency) || !toWallet.getCurrency().equals(currency)) {
@@ -84,10 +155,13 @@ public class TransactionService {
         transaction.setFromWallet(fromWallet);
         transaction.setToWallet(toWallet);
         transaction = transactionRepository.save(transaction);
+        recordOutgoingAfterCommit(fromWallet.getId());
+        consolidateIfSharded(fromWallet, amount);
 
         if (fromWallet.getBalance().compareTo(amount) < 0) {
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setFailureReason("Insufficient funds");
+            outboxService.transactionFailed(transaction, fromWallet);
             return transactionRepository.save(transaction);
         }
 
@@ -99,16 +173,155 @@ public class TransactionService {
         walletRepository.save(toWallet);
 
         // Create ledger entries (positive amounts)
-        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.DEBIT, fromWallet, amount, fromWallet.getBalance());
-        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.CREDIT, toWallet, amount, toWallet.getBalance());
+        BigDecimal fromBalanceAfter = balanceOf(fromWallet);
+        BigDecimal toBalanceAfter = balanceOf(toWallet);
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.DEBIT, fromWallet, amount, fromBalanceAfter);
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.CREDIT, toWallet, amount, toBalanceAfter);
 
         transaction.setStatus(TransactionStatus.COMPLETED);
+        completed(transaction, fromWallet, MoneyFlowDirection.DEBIT, fromBalanceAfter);
+        completed(transaction, toWallet, MoneyFlowDirection.CREDIT, toBalanceAfter);
         return transactionRepository.save(transaction);
     }
 
+    /**
+     * Transfer in one call of the {@code transfer_funds} database function, which locks and checks the wallets like
+     * the lookup before {@link #transfer(UUID, WalletEntity, WalletEntity, BigDecimal, Currency)} and the status check
+     * of {@link PolicyService#verifyBlacklist(WalletEntity)} do, then moves the amount and writes the transaction and
+     * both ledger entries itself, the ledger entries always right away, never behind. Rate limit and blacklist checks
+     * are the caller's.
+     *
+     * @return the transaction, not attached to the persistence context, or empty, with nothing written, when one of
+     * the wallets is sharded; such a transfer goes through {@link #transfer} instead
+     */
+    @Transactional(noRollbackFor = BaseApiExceptionModel.class)
+    public Optional<TransactionEntity> transferByProcedure(UUID requestId, UUID fromWalletId, UUID toWalletId, BigDecimal amount, Currency currency) {
+        // the precision of the timestamp columns, so the returned transaction matches its row
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        UUID transactionId = UUID.randomUUID();
+        TransferFundsResult result = transactionRepository.transferFunds(transactionId, requestId, fromWalletId, toWalletId, amount, currency, now);
+
+        switch (result.outcome()) {
+            case WALLET_NOT_FOUND -> throw result.walletId() == null
+                    ? new WalletNotFoundException(fromWalletId, toWalletId)
+                    : new WalletNotFoundException(result.walletId());
+            case SAME_WALLET -> throw new BadRequestException("Cannot transfer to the same wallet");
+            case WALLET_LOCKED -> throw new WalletLockedException("Operation denied: wallet is locked. Current status: %s."
+                    .formatted(result.walletStatus().name()));
+            case SHARDED -> {
+                return Optional.empty();
+            }
+            case COMPLETED, INSUFFICIENT_FUNDS -> {
+                // the transaction row is written
+            }
+        }
+
+        WalletEntity fromWallet = walletStub(fromWalletId);
+        WalletEntity toWallet = walletStub(toWalletId);
+        TransactionEntity transaction = createInitialTransaction(requestId, amount, currency, TransactionType.TRANSFER);
+        transaction.setId(transactionId);
+        transaction.setVersion(0L);
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+        transaction.setFromWallet(fromWallet);
+        transaction.setToWallet(toWallet);
+        recordOutgoingAfterCommit(fromWalletId);
+
+        if (result.outcome() == TransferFundsResult.Outcome.INSUFFICIENT_FUNDS) {
+            transaction.setStatus(TransactionStatus.FAILED);
+            transaction.setFailureReason("Insufficient funds");
+            outboxService.transactionFailed(transaction, fromWallet);
+            return Optional.of(transaction);
+        }
+
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        completed(transaction, fromWallet, MoneyFlowDirection.DEBIT, result.fromBalanceAfter());
+        completed(transaction, toWallet, MoneyFlowDirection.CREDIT, result.toBalanceAfter());
+        return Optional.of(transaction);
+    }
+
+    /**
+     * The wallet's transactions created at or after {@code from}, newest first, by default all of them, or those of
+     * the last {@code list-window} when it is set. Archived months are older than every month still in the database,
+     * so their transactions follow the database ones.
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionEntity> getTransactions(UUID walletId, Instant from) {
+        Instant since = from != null ? from : defaultSince();
+        List<TransactionEntity> transactions = transactionRepository.findAllByWalletId(walletId, since);
+        List<TransactionEntity> archived = archiveStore.readTransactions(walletId, since);
+        if (archived.isEmpty()) {
+            return transactions;
+        }
+        List<TransactionEntity> all = new ArrayList<>(transactions.size() + archived.size());
+        all.addAll(transactions);
+        all.addAll(archived);
+        return all;
+    }
+
+    private Instant defaultSince() {
+        Duration listWindow = partitionProperties.getListWindow();
+        return listWindow != null ? Instant.now().minus(listWindow) : Instant.EPOCH;
+    }
+
+    /**
+     * One keyset page of the wallet's history, newest first; see {@link TransactionRepository#findHistoryPage}.
+     */
     @Transactional(readOnly = true)
-    public List<TransactionEntity> getTransactions(UUID walletId) {
-        return transactionRepository.findAllByWalletId(walletId);
+    public List<TransactionEntity> getTransactionsPage(TransactionHistoryFilter filter, Instant afterCreatedAt, UUID afterId, int limit) {
+        return transactionRepository.findHistoryPage(filter, afterCreatedAt, afterId, limit);
+    }
+
+    /**
+     * Debits of a sharded wallet come from the wallet row only, so slot balances are pulled in first when it falls short.
+     */
+    private void consolidateIfSharded(WalletEntity wallet, BigDecimal amount) {
+        if (wallet.isSharded()) {
+            walletSlotService.consolidate(wallet, amount);
+        }
+    }
+
+    /**
+     * Counts the outgoing transaction for the rate limit once its row is committed, so a movement that rolls back
+     * does not use up the wallet's allowance.
+     */
+    private void recordOutgoingAfterCommit(UUID walletId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rateLimiter.record(walletId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rateLimiter.record(walletId);
+            }
+        });
+    }
+
+    /**
+     * Records one wallet's side of a completed movement for the wallet cache, the event stream and the balance
+     * subscribers. {@code balanceAfter} is null for a credit to a balance slot.
+     */
+    private void completed(TransactionEntity transaction, WalletEntity wallet, MoneyFlowDirection direction, BigDecimal balanceAfter) {
+        walletReadCache.invalidateAfterCommit(wallet.getId());
+        outboxService.transactionCompleted(transaction, wallet, direction, balanceAfter);
+        balanceEventDispatcher.publishAfterCommit(new BalanceChange(wallet.getId(), transaction.getId(),
+                transaction.getRequestId(), transaction.getType(), direction, transaction.getAmount(),
+                transaction.getCurrency(), balanceAfter, Instant.now()));
+    }
+
+    private BigDecimal balanceOf(WalletEntity wallet) {
+        return wallet.isSharded() ? walletSlotService.balance(wallet) : wallet.getBalance();
+    }
+
+    /**
+     * Stands in for a wallet the database function changed, for consumers that only need its id.
+     */
+    private WalletEntity walletStub(UUID walletId) {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setStatus(WalletStatus.ACTIVE);
+        return wallet;
     }
 
     private TransactionEntity createInitialTransaction(UUID requestId, BigDecimal amount, Currency currency, TransactionType type) {
@@ -0,0 +1,25 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.domain.TransactionEntity;
+import jakarta.persistence.LockModeType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Carries out a single transfer request: finds both wallets, applies the wallet policies and moves the amount,
+ * selected by {@code syneronix.execution.transfer-engine}.
+ */
+public interface TransferEngine {
+
+    /**
+     * @param lockMode how the wallets are read, see {@link WalletConcurrency#execute}
+     * @return the transaction, {@code FAILED} when the source wallet does not cover the amount
+     * @throws com.syneronix.wallet.api.errors.WalletNotFoundException    if a wallet does not exist in {@code currency}
+     * @throws com.syneronix.wallet.api.errors.BadRequestException        if both ids name the same wallet
+     * @throws com.syneronix.wallet.api.errors.WalletLockedException      if a wallet is not active or is blacklisted
+     * @throws com.syneronix.wallet.api.errors.RateLimitExceededException if a wallet reached its rate limit
+     */
+    TransactionEntity transfer(UUID requestId, UUID fromWalletId, UUID toWalletId, BigDecimal amount, Currency currency, LockModeType lockMode);
+}
@@ -0,0 +1,127 @@
+package com.syneronix.wallet.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.syneronix.wallet.config.ExecutionProperties;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs money movements under the configured {@link ExecutionProperties.Concurrency.Strategy}.
+ * <p>
+ * Under {@code OPTIMISTIC} a movement first runs without wallet row locks and fails at its version checked wallet
+ * update when another movement changed the wallet in between. It is then run again after a random pause, and once
+ * {@code max-attempts} attempts conflicted, a last time under row locks, so it never fails on a conflict. Wallets
+ * with a conflict share of at least {@code conflict-threshold} in the current window skip the optimistic attempts
+ * until the window ends: on a hot wallet, waiting for the lock is cheaper than repeating the movement.
+ */
+@Slf4j
+@Component
+public class WalletConcurrency {
+
+    static final String CONTENTION_CACHE = "wallet.contention";
+
+    private final ExecutionProperties.Concurrency properties;
+    private final WalletMetrics walletMetrics;
+    private final Cache<UUID, Contention> contention;
+
+    public WalletConcurrency(ExecutionProperties executionProperties, WalletMetrics walletMetrics) {
+        this.properties = executionProperties.getConcurrency();
+        this.walletMetrics = walletMetrics;
+        this.contention = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaxTrackedWallets())
+                .expireAfterWrite(properties.getWindow())
+                .recordStats()
+                .build();
+        walletMetrics.registerCache(CONTENTION_CACHE, contention);
+    }
+
+    /**
+     * @param walletIds wallets the movement updates, {@code null}s are ignored
+     * @param movement  one attempt in a transaction of its own, reading the wallets either without a lock
+     *                  ({@link LockModeType#OPTIMISTIC}) or with {@link LockModeType#PESSIMISTIC_WRITE}
+     */
+    public <T> T execute(Collection<UUID> walletIds, Function<LockModeType, T> movement) {
+        List<UUID> wallets = walletIds.stream().filter(Objects::nonNull).toList();
+        if (properties.getStrategy() != ExecutionProperties.Concurrency.Strategy.OPTIMISTIC || wallets.isEmpty()) {
+            return movement.apply(LockModeType.PESSIMISTIC_WRITE);
+        }
+
+        for (int attempt = 1; attempt <= properties.getMaxAttempts() && !isContended(wallets); attempt++) {
+            try {
+                T result = movement.apply(LockModeType.OPTIMISTIC);
+                record(wallets, false);
+                return result;
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                record(wallets, true);
+                walletMetrics.recordOptimisticConflict();
+                log.debug("Version conflict on wallets {}, attempt {} of {}", wallets, attempt, properties.getMaxAttempts());
+                if (attempt < properties.getMaxAttempts()) {
+                    pause(attempt);
+                }
+            }
+        }
+        return movement.apply(LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    boolean isContended(Collection<UUID> walletIds) {
+        for (UUID walletId : walletIds) {
+            Contention wallet = contention.getIfPresent(walletId);
+            if (wallet != null && wallet.isOver(properties.getMinAttempts(), properties.getConflictThreshold())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(List<UUID> walletIds, boolean conflict) {
+        for (UUID walletId : walletIds) {
+            Contention wallet = contention.asMap().computeIfAbsent(walletId, id -> new Contention());
+            wallet.attempts.incrementAndGet();
+            if (conflict) {
+                wallet.conflicts.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Full jitter: concurrent losers of the same race spread out instead of colliding again.
+     */
+    private void pause(int attempt) {
+        long bound = properties.getRetryBackoff().toNanos() << (attempt - 1);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Optimistic attempts and conflicts of one wallet since its entry was created; the entry expires after a window.
+     */
+    private static final class Contention {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger conflicts = new AtomicInteger();
+
+        boolean isOver(int minAttempts, double threshold) {
+            int total = attempts.get();
+            return total >= minAttempts && conflicts.get() >= threshold * total;
+        }
+    }
+}
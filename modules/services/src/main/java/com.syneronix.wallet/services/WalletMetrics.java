@@ -0,0 +1,161 @@
+package com.syneronix.wallet.services;
+
+import com.google.common.cache.Cache;
+import com.syneronix.wallet.common.RequestType;
+import com.syneronix.wallet.common.TransactionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wallet specific meters. Meters are cached per tag combination so the hot path does not build a meter id on
+ * every call. Without a registry in the context (tests, tools) the meters go to a private {@link SimpleMeterRegistry}.
+ */
+@Component
+public class WalletMetrics {
+
+    static final String REQUESTS = "wallet.requests";
+    static final String LOCK_WAIT = "wallet.lock.wait";
+    static final String IDEMPOTENCY_REPLAYS = "wallet.idempotency.replays";
+    static final String LEDGER_QUEUE = "wallet.ledger.queue";
+    static final String BALANCE_SUBSCRIBERS = "wallet.balance.subscribers";
+    static final String BALANCE_EVENTS_DROPPED = "wallet.balance.events.dropped";
+    static final String OPTIMISTIC_CONFLICTS = "wallet.optimistic.conflicts";
+
+    public static final String LOCK_SINGLE = "single";
+    public static final String LOCK_ORDERED = "ordered";
+    public static final String LOCK_SHARED = "shared";
+
+    public static final String DROP_QUEUE = "queue";
+    public static final String DROP_SUBSCRIBER = "subscriber";
+
+    public static final String SOURCE_CACHE = "cache";
+    public static final String SOURCE_DATABASE = "database";
+
+    private final MeterRegistry registry;
+    private final Map<RequestKey, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> lockTimers = new ConcurrentHashMap<>();
+    private final Map<ReplayKey, Counter> replayCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> droppedBalanceEventCounters = new ConcurrentHashMap<>();
+    private final Counter optimisticConflicts;
+
+    @Autowired
+    public WalletMetrics(ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    WalletMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.optimisticConflicts = Counter.builder(OPTIMISTIC_CONFLICTS)
+                .description("Optimistic movement attempts rolled back on a wallet version conflict")
+                .register(registry);
+    }
+
+    /**
+     * One money movement or wallet creation as seen by the client, replays included.
+     */
+    public void recordRequest(RequestType type, int httpStatus, long durationNanos) {
+        requestTimers.computeIfAbsent(new RequestKey(type, httpStatus), key -> Timer.builder(REQUESTS)
+                        .description("Wallet API requests by type, outcome and HTTP status")
+                        .tag("type", key.type().name())
+                        .tag("outcome", outcome(key.httpStatus()))
+                        .tag("status", Integer.toString(key.httpStatus()))
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time spent acquiring wallet row locks, including the locking query itself. All scopes but
+     * {@link #LOCK_SHARED} are {@code PESSIMISTIC_WRITE}.
+     */
+    public void recordLockWait(String scope, long durationNanos) {
+        lockTimers.computeIfAbsent(scope, key -> Timer.builder(LOCK_WAIT)
+                        .description("Time to acquire wallet row locks")
+                        .tag("scope", key)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A duplicate request answered from a stored idempotency outcome instead of being executed.
+     */
+    public void recordIdempotencyReplay(String source, TransactionStatus status) {
+        replayCounters.computeIfAbsent(new ReplayKey(source, status), key -> Counter.builder(IDEMPOTENCY_REPLAYS)
+                        .description("Requests answered from a stored idempotency outcome")
+                        .tag("source", key.source())
+                        .tag("status", key.status().name())
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Movements whose ledger entries wait for the write-behind writer.
+     */
+    public void registerLedgerQueue(Collection<?> queue) {
+        Gauge.builder(LEDGER_QUEUE, queue, Collection::size)
+                .description("Committed movements waiting for the ledger writer")
+                .register(registry);
+    }
+
+    /**
+     * Size, hit, miss and eviction meters of an in-memory cache.
+     */
+    public void registerCache(String name, Cache<?, ?> cache) {
+        GuavaCacheMetrics.monitor(registry, cache, name);
+    }
+
+    /**
+     * Open balance streams.
+     */
+    public void registerBalanceSubscribers(AtomicInteger subscribers) {
+        Gauge.builder(BALANCE_SUBSCRIBERS, subscribers, AtomicInteger::get)
+                .description("Open balance change streams")
+                .register(registry);
+    }
+
+    /**
+     * A balance change not delivered: the dispatcher queue was full ({@link #DROP_QUEUE}), or a subscriber fell
+     * behind and was disconnected ({@link #DROP_SUBSCRIBER}).
+     */
+    public void recordBalanceEventDropped(String reason) {
+        droppedBalanceEventCounters.computeIfAbsent(reason, key -> Counter.builder(BALANCE_EVENTS_DROPPED)
+                        .description("Balance changes not delivered to stream subscribers")
+                        .tag("reason", key)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * An optimistic attempt lost the race for a wallet row and was rolled back.
+     */
+    public void recordOptimisticConflict() {
+        optimisticConflicts.increment();
+    }
+
+    private static String outcome(int httpStatus) {
+        if (httpStatus < 400) {
+            return "success";
+        }
+        return httpStatus < 500 ? "rejected" : "error";
+    }
+
+    private record RequestKey(RequestType type, int httpStatus) {
+    }
+
+    private record ReplayKey(String source, TransactionStatus status) {
+    }
+}
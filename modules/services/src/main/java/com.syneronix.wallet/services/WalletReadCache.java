@@ -0,0 +1,122 @@
+package com.syneronix.wallet.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.syneronix.wallet.config.WalletCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of wallet responses keyed by wallet id, each stored with the row version it was mapped from.
+ * <p>
+ * A hit is served after a version lookup (or, with {@code allow-stale}, without one); a different version means
+ * the wallet changed elsewhere and it is loaded again. Balance and status changes on this instance invalidate the
+ * entry after commit. Invalidation leaves a marker so a read that started before the commit cannot put the old
+ * state back.
+ */
+@Slf4j
+@Component
+public class WalletReadCache {
+
+    static final String WALLET_CACHE = "wallet.read";
+
+    private final boolean enabled;
+    private final boolean allowStale;
+    private final WalletService walletService;
+    private final Cache<UUID, Entry> cache;
+
+    public WalletReadCache(WalletCacheProperties properties, WalletService walletService, WalletMetrics walletMetrics) {
+        this.enabled = properties.isEnabled();
+        this.allowStale = properties.isAllowStale();
+        this.walletService = walletService;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        walletMetrics.registerCache(WALLET_CACHE, cache);
+    }
+
+    /**
+     * The cached response, shared between callers and not to be modified.
+     */
+    public Optional<Object> get(UUID walletId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Entry entry = cache.getIfPresent(walletId);
+        if (entry == null || entry.isInvalidated()) {
+            return Optional.empty();
+        }
+        if (!allowStale && !walletService.findVersionById(walletId).map(version -> version == entry.version()).orElse(false)) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.response());
+    }
+
+    /**
+     * Caches a response mapped from the wallet at {@code version}. Ignored when the wallet was invalidated after
+     * {@code loadStartedAt} ({@link System#nanoTime()} taken before the load) or a newer version is cached.
+     */
+    public void put(UUID walletId, long version, Object response, long loadStartedAt) {
+        if (!enabled) {
+            return;
+        }
+        cache.asMap().compute(walletId, (id, current) -> {
+            if (current != null && (current.isInvalidated() ? current.at() - loadStartedAt > 0 : current.version() > version)) {
+                return current;
+            }
+            return new Entry(version, response, System.nanoTime());
+        });
+    }
+
+    public void invalidateAfterCommit(UUID walletId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(walletId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(walletId);
+            }
+        });
+    }
+
+    private void invalidate(UUID walletId) {
+        cache.put(walletId, new Entry(Entry.INVALIDATED, null, System.nanoTime()));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param at {@link System#nanoTime()} of the put or invalidation
+     */
+    private record Entry(long version, Object response, long at) {
+
+        static final long INVALIDATED = -1;
+
+        boolean isInvalidated() {
+            return version == INVALIDATED;
+        }
+    }
+}
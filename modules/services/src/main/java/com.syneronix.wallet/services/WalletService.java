@@ -1,15 +1,25 @@
 package com.syneronix.wallet.services;
 
+import com.syneronix.wallet.api.errors.BadRequestException;
 import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.config.ShardingProperties;
 import com.syneronix.wallet.domain.WalletEntity;
 import com.syneronix.wallet.domain.WalletRepository;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,13 +28,39 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class WalletService {
 
+    /**
+     * Transaction resource holding the wallets locked by {@link #lockAllByIdsOrdered}.
+     */
+    private static final String LOCKED_WALLETS = WalletService.class.getName() + ".lockedWallets";
+
     private final WalletRepository walletRepository;
+    private final WalletMetrics walletMetrics;
+    private final WalletSlotService walletSlotService;
+    private final ShardingProperties shardingProperties;
 
     public WalletEntity createWallet(UUID userId, Currency currency) {
+        return createWallet(userId, currency, 0);
+    }
+
+    /**
+     * @param balanceSlots 0 for a plain wallet, otherwise the number of balance slots credits are spread over
+     */
+    @Transactional
+    public WalletEntity createWallet(UUID userId, Currency currency, int balanceSlots) {
+        if (balanceSlots > 0) {
+            verifySlots(balanceSlots);
+        }
+
         WalletEntity walletEntity = new WalletEntity();
         walletEntity.setUserId(userId);
         walletEntity.setCurrency(currency);
-        return walletRepository.save(walletEntity);
+        walletEntity.setBalanceSlots(balanceSlots);
+        walletEntity = walletRepository.save(walletEntity);
+
+        if (walletEntity.isSharded()) {
+            walletSlotService.createSlots(walletEntity);
+        }
+        return walletEntity;
     }
 
     @Transactional(readOnly = true)
@@ -32,14 +68,149 @@ public class WalletService {
        return walletRepository.findById(walletId);
     }
 
+    /**
+     * Current row version, changed by every balance or status update of a plain wallet. Read from the primary, not
+     * a replica, because it decides whether a cached wallet is still current.
+     */
+    @Transactional
+    public Optional<Long> findVersionById(UUID walletId) {
+        return walletRepository.findVersionById(walletId);
+    }
+
+
+    /**
+     * Wallet balance including balance slots.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> findTotalBalanceById(UUID walletId) {
+        return walletRepository.findTotalBalanceById(walletId);
+    }
 
     @Transactional()
     public Optional<WalletEntity> findWithLockingById(UUID walletId) {
-        return walletRepository.findWithLockingById(walletId);
+        long startedAt = System.nanoTime();
+        Optional<WalletEntity> wallet = walletRepository.findWithLockingById(walletId);
+        walletMetrics.recordLockWait(WalletMetrics.LOCK_SINGLE, System.nanoTime() - startedAt);
+        return wallet;
+    }
+
+    /**
+     * Locks the wallet for a credit. Sharded wallets are only share-locked, their credits serialize per balance slot
+     * instead; plain wallets, and all wallets while sharding is off, get the exclusive lock.
+     */
+    @Transactional
+    public Optional<WalletEntity> findForCreditById(UUID walletId) {
+        if (!shardingProperties.isEnabled()) {
+            return findWithLockingById(walletId);
+        }
+
+        long startedAt = System.nanoTime();
+        boolean sharded = walletRepository.findBalanceSlotsById(walletId).orElse(0) > 0;
+        Optional<WalletEntity> wallet = sharded
+                ? walletRepository.findWithSharedLockById(walletId)
+                : walletRepository.findWithLockingById(walletId);
+        walletMetrics.recordLockWait(sharded ? WalletMetrics.LOCK_SHARED : WalletMetrics.LOCK_SINGLE, System.nanoTime() - startedAt);
+        return wallet;
+    }
+
+    /**
+     * The wallet for a credit: with {@link LockModeType#OPTIMISTIC} a plain wallet is read without a lock, sharded
+     * wallets are locked as by {@link #findForCreditById(UUID)} either way.
+     */
+    @Transactional
+    public Optional<WalletEntity> findForCreditById(UUID walletId, LockModeType lockMode) {
+        if (lockMode == LockModeType.OPTIMISTIC) {
+            return walletRepository.findPlainById(walletId).or(() -> findForCreditById(walletId));
+        }
+        return findForCreditById(walletId);
+    }
+
+    /**
+     * The wallet for a debit: with {@link LockModeType#OPTIMISTIC} a plain wallet is read without a lock, sharded
+     * wallets consolidate their slots under the exclusive lock either way.
+     */
+    @Transactional
+    public Optional<WalletEntity> findForDebitById(UUID walletId, LockModeType lockMode) {
+        if (lockMode == LockModeType.OPTIMISTIC) {
+            return walletRepository.findPlainById(walletId).or(() -> findWithLockingById(walletId));
+        }
+        return findWithLockingById(walletId);
+    }
+
+    /**
+     * Like {@link #lockAllByIdsAndCurrencyOrdered}, but with {@link LockModeType#OPTIMISTIC} the wallets are read
+     * without locks, unless one of them is sharded or missing. Wallets the transaction already locked through
+     * {@link #lockAllByIdsOrdered} are taken from there, without a query and the flush it would cause.
+     */
+    @Transactional
+    public List<WalletEntity> findAllForTransferOrdered(List<UUID> ids, Currency currency, LockModeType lockMode) {
+        Map<UUID, WalletEntity> locked = lockedInCurrentTransaction();
+        if (locked.keySet().containsAll(ids)) {
+            return ids.stream().distinct()
+                    .map(locked::get)
+                    .filter(wallet -> wallet.getCurrency() == currency)
+                    .sorted(Comparator.comparing(WalletEntity::getId))
+                    .toList();
+        }
+        if (lockMode == LockModeType.OPTIMISTIC) {
+            List<WalletEntity> wallets = walletRepository.findAllPlainByIdsAndCurrencyOrdered(ids, currency);
+            if (wallets.size() == ids.stream().distinct().count()) {
+                return wallets;
+            }
+        }
+        return lockAllByIdsAndCurrencyOrdered(ids, currency);
     }
 
     @Transactional
     public List<WalletEntity> lockAllByIdsAndCurrencyOrdered(List<UUID> ids, Currency currency) {
-        return walletRepository.lockAllByIdsAndCurrencyOrdered(ids, currency);
+        long startedAt = System.nanoTime();
+        List<WalletEntity> wallets = walletRepository.lockAllByIdsAndCurrencyOrdered(ids, currency);
+        walletMetrics.recordLockWait(WalletMetrics.LOCK_ORDERED, System.nanoTime() - startedAt);
+        return wallets;
+    }
+
+    /**
+     * Locks the wallets in id order and keeps them for {@link #findAllForTransferOrdered} until the transaction ends.
+     */
+    @Transactional
+    public List<WalletEntity> lockAllByIdsOrdered(Collection<UUID> ids) {
+        long startedAt = System.nanoTime();
+        List<WalletEntity> wallets = walletRepository.lockAllByIdsOrdered(ids);
+        walletMetrics.recordLockWait(WalletMetrics.LOCK_ORDERED, System.nanoTime() - startedAt);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return wallets;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<UUID, WalletEntity> locked = (Map<UUID, WalletEntity>) TransactionSynchronizationManager.getResource(LOCKED_WALLETS);
+        if (locked == null) {
+            locked = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(LOCKED_WALLETS, locked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LOCKED_WALLETS);
+                }
+            });
+        }
+        for (WalletEntity wallet : wallets) {
+            locked.put(wallet.getId(), wallet);
+        }
+        return wallets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, WalletEntity> lockedInCurrentTransaction() {
+        Object locked = TransactionSynchronizationManager.getResource(LOCKED_WALLETS);
+        return locked != null ? (Map<UUID, WalletEntity>) locked : Map.of();
+    }
+
+    private void verifySlots(int balanceSlots) {
+        if (!shardingProperties.isEnabled()) {
+            throw new BadRequestException("Sharded wallets are disabled");
+        }
+        if (balanceSlots > shardingProperties.getMaxSlots()) {
+            throw new BadRequestException("A wallet can have at most %d balance slots".formatted(shardingProperties.getMaxSlots()));
+        }
     }
 }
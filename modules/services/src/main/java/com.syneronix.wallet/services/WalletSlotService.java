@@ -0,0 +1,127 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.WalletBalanceSlotEntity;
+import com.syneronix.wallet.domain.WalletBalanceSlotRepository;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.domain.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balance slots of sharded wallets. Credits take a shared lock on the wallet row and an exclusive lock on one slot,
+ * debits take the exclusive wallet lock and pull slot balances into the wallet row when it does not cover them.
+ * Credits do not read the wallet balance; the balance after of their ledger entries is settled later, see
+ * {@link #settle}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletSlotService {
+
+    private final WalletBalanceSlotRepository walletBalanceSlotRepository;
+    private final WalletRepository walletRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    @Transactional
+    public void createSlots(WalletEntity wallet) {
+        List<WalletBalanceSlotEntity> slots = new ArrayList<>(wallet.getBalanceSlots());
+        for (int i = 0; i < wallet.getBalanceSlots(); i++) {
+            WalletBalanceSlotEntity slot = new WalletBalanceSlotEntity();
+            slot.setWalletId(wallet.getId());
+            slot.setSlot(i);
+            slots.add(slot);
+        }
+        walletBalanceSlotRepository.saveAll(slots);
+    }
+
+    /**
+     * Adds {@code amount} to a slot no other credit is holding; only when all slots are busy does it wait for one.
+     * The slot stays locked until commit, so the credit's ledger entry must be written before then.
+     */
+    @Transactional
+    public void credit(WalletEntity wallet, BigDecimal amount) {
+        WalletBalanceSlotEntity slot = walletBalanceSlotRepository.lockAnyFreeSlot(wallet.getId())
+                .or(() -> walletBalanceSlotRepository.findWithLockingByWalletIdAndSlot(wallet.getId(),
+                        ThreadLocalRandom.current().nextInt(wallet.getBalanceSlots())))
+                .orElseThrow(() -> new IllegalStateException("Balance slots missing for wallet " + wallet.getId()));
+
+        slot.setBalance(slot.getBalance().add(amount));
+        walletBalanceSlotRepository.save(slot);
+    }
+
+    /**
+     * Moves slot balances into the wallet row, in slot order, until it covers {@code amount}. Nothing is moved when
+     * the slots cannot cover it either, so a rejected debit leaves the wallet as it was. The caller must hold the
+     * exclusive wallet lock.
+     */
+    @Transactional
+    public void consolidate(WalletEntity wallet, BigDecimal amount) {
+        if (wallet.getBalance().compareTo(amount) >= 0) {
+            return;
+        }
+
+        List<WalletBalanceSlotEntity> slots = walletBalanceSlotRepository.lockAllByWalletIdOrdered(wallet.getId());
+        BigDecimal total = slots.stream().map(WalletBalanceSlotEntity::getBalance).reduce(wallet.getBalance(), BigDecimal::add);
+        if (total.compareTo(amount) < 0) {
+            return;
+        }
+
+        BigDecimal balance = wallet.getBalance();
+        List<WalletBalanceSlotEntity> drained = new ArrayList<>();
+        for (WalletBalanceSlotEntity slot : slots) {
+            if (balance.compareTo(amount) >= 0) {
+                break;
+            }
+            if (slot.getBalance().signum() == 0) {
+                continue;
+            }
+            balance = balance.add(slot.getBalance());
+            slot.setBalance(BigDecimal.ZERO);
+            drained.add(slot);
+        }
+
+        log.debug("Consolidated {} balance slots of wallet {}", drained.size(), wallet.getId());
+        walletBalanceSlotRepository.saveAll(drained);
+        wallet.setBalance(balance);
+    }
+
+    /**
+     * The wallet row plus all of its slots, read from the database. The caller must hold the exclusive wallet lock,
+     * so no credit is in flight and the sum is the balance after the caller's movement.
+     */
+    @Transactional
+    public BigDecimal balance(WalletEntity wallet) {
+        return walletRepository.findTotalBalanceById(wallet.getId())
+                .orElseThrow(() -> new IllegalStateException("Wallet missing: " + wallet.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<UUID> findUnsettledWalletIds(int limit) {
+        return ledgerEntryRepository.findUnsettledWalletIds(limit);
+    }
+
+    /**
+     * Sets the balance after of up to {@code limit} ledger entries of credits to the wallet's slots, oldest first.
+     * A credit writes its entry while it holds its slot, so once all slots are held here, no entry of the wallet
+     * that belongs before the settled ones can still commit. Credits to the wallet wait only for this update, not
+     * for each other.
+     *
+     * @return number of entries settled
+     */
+    @Transactional
+    public int settle(UUID walletId, int limit) {
+        walletBalanceSlotRepository.lockAllByWalletIdOrdered(walletId);
+        int settled = ledgerEntryRepository.settleBalances(walletId, limit);
+        log.debug("Settled {} ledger entries of wallet {}", settled, walletId);
+        return settled;
+    }
+}
@@ -0,0 +1,105 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.ArchiveSource;
+import com.syneronix.wallet.config.ArchiveProperties;
+import com.syneronix.wallet.config.PartitionProperties;
+import com.syneronix.wallet.domain.ArchiveBlockEntity;
+import com.syneronix.wallet.domain.ArchiveBlockRepository;
+import com.syneronix.wallet.domain.ArchivedTransaction;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.TransactionRepository;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ArchiveServiceTest extends BaseUnitTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T13:00:00Z");
+    private static final YearMonth MONTH = YearMonth.of(2025, 1);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private ArchiveBlockRepository archiveBlockRepository;
+
+    @Mock
+    private ArchiveStore archiveStore;
+
+    @Mock
+    private ArchiveStore.BlockWriter<ArchivedTransaction> writer;
+
+    @Spy
+    private ArchiveProperties archiveProperties = new ArchiveProperties();
+
+    @Spy
+    private PartitionProperties partitionProperties = new PartitionProperties();
+
+    @InjectMocks
+    private ArchiveService archiveService;
+
+    @Test
+    void findArchivableMonths_shouldReturnMonthsFullyBeyondHorizon() {
+        archiveProperties.setAfter(Duration.ofDays(60));
+        when(transactionRepository.findPartitionMonths()).thenReturn(List.of(YearMonth.of(2025, 12), YearMonth.of(2026, 1), YearMonth.of(2026, 2)));
+        when(transactionRepository.findDetachedPartitionMonths()).thenReturn(List.of(YearMonth.of(2025, 11)));
+        when(ledgerEntryRepository.findPartitionMonths()).thenReturn(List.of(YearMonth.of(2025, 12), YearMonth.of(2026, 1)));
+
+        assertThat(archiveService.findArchivableMonths(NOW)).containsExactly(YearMonth.of(2025, 11), YearMonth.of(2025, 12));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archiveTransactions_shouldWriteManifestAndDropPartition() {
+        List<ArchiveBlockEntity> blocks = List.of(new ArchiveBlockEntity());
+        when(transactionRepository.tryPartitionLock()).thenReturn(true);
+        when(transactionRepository.findPartitionMonths()).thenReturn(List.of(MONTH));
+        when(transactionRepository.hasUnsettled(MONTH)).thenReturn(false);
+        when(archiveStore.openWriter(eq(ArchiveSource.TRANSACTIONS), eq(MONTH), any())).thenReturn((ArchiveStore.BlockWriter) writer);
+        when(transactionRepository.scanPartition(eq(MONTH), any())).thenReturn(3L);
+        when(writer.finish()).thenReturn(blocks);
+
+        assertThat(archiveService.archiveTransactions(MONTH)).isEqualTo(3);
+
+        verify(archiveBlockRepository).saveAll(blocks);
+        verify(transactionRepository).detachPartition(MONTH, partitionProperties.getDetach().getLockTimeout().toMillis());
+        verify(transactionRepository).dropPartition(MONTH);
+    }
+
+    @Test
+    void archiveTransactions_shouldPostponeUnsettledMonth() {
+        when(transactionRepository.tryPartitionLock()).thenReturn(true);
+        when(transactionRepository.findPartitionMonths()).thenReturn(List.of(MONTH));
+        when(transactionRepository.hasUnsettled(MONTH)).thenReturn(true);
+
+        assertThat(archiveService.archiveTransactions(MONTH)).isZero();
+
+        verifyNoInteractions(archiveStore, archiveBlockRepository);
+        verify(transactionRepository, never()).detachPartition(any(), anyLong());
+        verify(transactionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    void archiveLedgerEntries_shouldSkip_whenAnotherInstanceHoldsLock() {
+        when(transactionRepository.tryPartitionLock()).thenReturn(false);
+
+        assertThat(archiveService.archiveLedgerEntries(MONTH)).isZero();
+
+        verifyNoInteractions(archiveStore, archiveBlockRepository);
+        verify(ledgerEntryRepository, never()).dropPartition(any());
+    }
+}
@@ -0,0 +1,113 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.SubscriberLimitExceededException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.common.TransactionType;
+import com.syneronix.wallet.config.BalanceEventsProperties;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BalanceEventDispatcherTest extends BaseUnitTest {
+
+    private BalanceEventsProperties properties;
+    private BalanceEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BalanceEventsProperties();
+        properties.setSubscriberBuffer(2);
+        properties.setMaxSubscribers(2);
+        dispatcher = new BalanceEventDispatcher(properties, new WalletMetrics(new SimpleMeterRegistry()));
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void publish_shouldDeliverChangesOfSubscribedWalletInOrder() throws InterruptedException {
+        UUID walletId = uuid();
+        RecordingListener listener = new RecordingListener(2);
+        dispatcher.subscribe(walletId, listener).start();
+
+        dispatcher.publishAfterCommit(change(walletId, 10));
+        dispatcher.publishAfterCommit(change(uuid(), 99));
+        dispatcher.publishAfterCommit(change(walletId, 20));
+
+        assertThat(listener.delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.changes).extracting(BalanceChange::balance)
+                .containsExactly(BigDecimal.valueOf(10), BigDecimal.valueOf(20));
+    }
+
+    @Test
+    void publish_shouldDropSubscriber_whenItFallsBehind() throws InterruptedException {
+        UUID walletId = uuid();
+        RecordingListener listener = new RecordingListener(1);
+        // not started: nothing is delivered, so the buffer fills up
+        dispatcher.subscribe(walletId, listener);
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.publishAfterCommit(change(walletId, i));
+        }
+
+        assertThat(listener.dropped.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.changes).isEmpty();
+        // the slot is free again
+        dispatcher.subscribe(uuid(), new RecordingListener(1));
+        dispatcher.subscribe(uuid(), new RecordingListener(1));
+    }
+
+    @Test
+    void subscribe_shouldThrow_whenLimitReached() {
+        dispatcher.subscribe(uuid(), new RecordingListener(1));
+        BalanceEventDispatcher.Subscription second = dispatcher.subscribe(uuid(), new RecordingListener(1));
+
+        assertThrows(SubscriberLimitExceededException.class, () -> dispatcher.subscribe(uuid(), new RecordingListener(1)));
+
+        second.close();
+        dispatcher.subscribe(uuid(), new RecordingListener(1));
+    }
+
+    private BalanceChange change(UUID walletId, long balance) {
+        return new BalanceChange(walletId, uuid(), uuid(), TransactionType.DEPOSIT, MoneyFlowDirection.CREDIT,
+                BigDecimal.ONE, Currency.USD, BigDecimal.valueOf(balance), Instant.now());
+    }
+
+    private static class RecordingListener implements BalanceListener {
+
+        private final List<BalanceChange> changes = new CopyOnWriteArrayList<>();
+        private final CountDownLatch delivered;
+        private final CountDownLatch dropped = new CountDownLatch(1);
+
+        RecordingListener(int expected) {
+            this.delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onChange(BalanceChange change) {
+            changes.add(change);
+            delivered.countDown();
+        }
+
+        @Override
+        public void onDropped() {
+            dropped.countDown();
+        }
+    }
+}
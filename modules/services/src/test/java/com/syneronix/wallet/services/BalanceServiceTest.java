@@ -0,0 +1,116 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.BalanceSnapshotProperties;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.MovementTotals;
+import com.syneronix.wallet.domain.WalletBalanceSnapshotEntity;
+import com.syneronix.wallet.domain.WalletBalanceSnapshotRepository;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BalanceServiceTest extends BaseUnitTest {
+
+    private static final Instant DAY = Instant.parse("2024-03-10T00:00:00Z");
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private WalletBalanceSnapshotRepository snapshotRepository;
+
+    @Mock
+    private ArchiveStore archiveStore;
+
+    private BalanceService balanceService;
+
+    @BeforeEach
+    void setUp() {
+        balanceService = new BalanceService(ledgerEntryRepository, snapshotRepository, new BalanceSnapshotProperties(), archiveStore);
+    }
+
+    @Test
+    void balanceAt_shouldReturnZero_whenNoEntryBefore() {
+        UUID walletId = uuid();
+        when(ledgerEntryRepository.findLatestBalanceBefore(walletId, DAY)).thenReturn(Optional.empty());
+
+        assertThat(balanceService.balanceAt(walletId, DAY)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void balanceAt_shouldFallBackToArchive_whenNoEntryLeftInDatabase() {
+        UUID walletId = uuid();
+        when(ledgerEntryRepository.findLatestBalanceBefore(walletId, DAY)).thenReturn(Optional.empty());
+        when(archiveStore.findLatestBalanceBefore(walletId, DAY)).thenReturn(Optional.of(BigDecimal.valueOf(42)));
+
+        assertThat(balanceService.balanceAt(walletId, DAY)).isEqualByComparingTo("42");
+    }
+
+    @Test
+    void statement_shouldReadOnlyEdgesFromLedger_whenSnapshotsCoverFullDays() {
+        UUID walletId = uuid();
+        Instant from = DAY.plus(6, ChronoUnit.HOURS);
+        Instant to = DAY.plus(5, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS);
+        when(snapshotRepository.findFirstByOrderByPeriodStartAsc()).thenReturn(Optional.of(snapshot(DAY.minus(30, ChronoUnit.DAYS))));
+        when(snapshotRepository.findFirstByOrderByPeriodStartDesc()).thenReturn(Optional.of(snapshot(DAY.plus(3, ChronoUnit.DAYS))));
+        when(ledgerEntryRepository.findLatestBalanceBefore(any(), any())).thenReturn(Optional.of(BigDecimal.TEN));
+        when(ledgerEntryRepository.sumMovements(walletId, from, DAY.plus(1, ChronoUnit.DAYS))).thenReturn(totals(1, 0, 1));
+        when(snapshotRepository.sumMovements(walletId, DAY.plus(1, ChronoUnit.DAYS), DAY.plus(4, ChronoUnit.DAYS))).thenReturn(totals(5, 2, 4));
+        when(ledgerEntryRepository.sumMovements(walletId, DAY.plus(4, ChronoUnit.DAYS), to)).thenReturn(totals(0, 3, 1));
+
+        BalanceService.WalletStatement statement = balanceService.statement(walletId, from, to);
+
+        assertThat(statement.movements().credits()).isEqualByComparingTo("6");
+        assertThat(statement.movements().debits()).isEqualByComparingTo("5");
+        assertThat(statement.movements().entryCount()).isEqualTo(6);
+    }
+
+    @Test
+    void statement_shouldReadLedger_whenNoSnapshots() {
+        UUID walletId = uuid();
+        Instant to = DAY.plus(10, ChronoUnit.DAYS);
+        when(snapshotRepository.findFirstByOrderByPeriodStartAsc()).thenReturn(Optional.empty());
+        when(snapshotRepository.findFirstByOrderByPeriodStartDesc()).thenReturn(Optional.empty());
+        when(ledgerEntryRepository.findLatestBalanceBefore(any(), any())).thenReturn(Optional.empty());
+        when(ledgerEntryRepository.sumMovements(walletId, DAY, to)).thenReturn(totals(7, 0, 1));
+
+        BalanceService.WalletStatement statement = balanceService.statement(walletId, DAY, to);
+
+        assertThat(statement.movements().credits()).isEqualByComparingTo("7");
+        verify(snapshotRepository, never()).sumMovements(any(), any(), any());
+    }
+
+    @Test
+    void snapshotCompletedDays_shouldContinueAfterLastSnapshottedDay() {
+        when(snapshotRepository.findFirstByOrderByPeriodStartDesc()).thenReturn(Optional.of(snapshot(DAY)));
+        when(snapshotRepository.snapshotPeriod(any(), any())).thenReturn(2);
+
+        int written = balanceService.snapshotCompletedDays(DAY.plus(3, ChronoUnit.DAYS).plus(15, ChronoUnit.MINUTES));
+
+        assertThat(written).isEqualTo(4);
+        verify(snapshotRepository).snapshotPeriod(DAY.plus(1, ChronoUnit.DAYS), DAY.plus(2, ChronoUnit.DAYS));
+        verify(snapshotRepository).snapshotPeriod(DAY.plus(2, ChronoUnit.DAYS), DAY.plus(3, ChronoUnit.DAYS));
+        verifyNoMoreInteractions(snapshotRepository);
+    }
+
+    private WalletBalanceSnapshotEntity snapshot(Instant periodStart) {
+        WalletBalanceSnapshotEntity snapshot = new WalletBalanceSnapshotEntity();
+        snapshot.setPeriodStart(periodStart);
+        snapshot.setPeriodEnd(periodStart.plus(1, ChronoUnit.DAYS));
+        return snapshot;
+    }
+
+    private MovementTotals totals(long credits, long debits, long entryCount) {
+        return new MovementTotals(BigDecimal.valueOf(credits), BigDecimal.valueOf(debits), entryCount);
+    }
+}
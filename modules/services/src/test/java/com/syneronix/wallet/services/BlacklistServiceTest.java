@@ -19,6 +19,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +31,18 @@ class BlacklistServiceTest extends BaseUnitTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private BlacklistSnapshot blacklistSnapshot;
+
+    @Mock
+    private BlacklistChangeNotifier blacklistChangeNotifier;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private WalletReadCache walletReadCache;
+
     @InjectMocks
     private BlacklistService blacklistService;
 
@@ -58,6 +71,10 @@ class BlacklistServiceTest extends BaseUnitTest {
         assertThat(result.getWalletId()).isEqualTo(walletId);
         assertThat(result.getReason()).isEqualTo("reason");
         verify(walletRepository).save(wallet);
+        verify(blacklistSnapshot).addAfterCommit(walletId);
+        verify(blacklistChangeNotifier).publishBlocked(walletId);
+        verify(outboxService).walletBlocked(wallet, "reason");
+        verify(walletReadCache).invalidateAfterCommit(walletId);
         assertThat(wallet.getStatus()).isEqualTo(WalletStatus.SUSPENDED);
     }
 
@@ -85,6 +102,8 @@ class BlacklistServiceTest extends BaseUnitTest {
 
         verify(blacklistRepository).delete(blacklistEntity);
         verify(walletRepository).save(wallet);
+        verify(blacklistSnapshot).removeAfterCommit(walletId);
+        verify(blacklistChangeNotifier).publishUnblocked(walletId);
         assertThat(wallet.getStatus()).isEqualTo(WalletStatus.ACTIVE);
     }
 
@@ -94,4 +113,21 @@ class BlacklistServiceTest extends BaseUnitTest {
 
         assertThrows(NotFoundException.class, () -> blacklistService.unblockWallet(walletId));
     }
+
+    @Test
+    void isBlocked_shouldUseSnapshot_whenLoaded() {
+        when(blacklistSnapshot.isLoaded()).thenReturn(true);
+        when(blacklistSnapshot.contains(walletId)).thenReturn(true);
+
+        assertThat(blacklistService.isBlocked(walletId)).isTrue();
+        verify(blacklistRepository, never()).existsByWalletId(any());
+    }
+
+    @Test
+    void isBlocked_shouldQueryDatabase_whenSnapshotNotLoaded() {
+        when(blacklistSnapshot.isLoaded()).thenReturn(false);
+        when(blacklistRepository.existsByWalletId(walletId)).thenReturn(true);
+
+        assertThat(blacklistService.isBlocked(walletId)).isTrue();
+    }
 }
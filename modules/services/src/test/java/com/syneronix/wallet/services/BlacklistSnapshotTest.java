@@ -0,0 +1,141 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.BlacklistProperties;
+import com.syneronix.wallet.domain.BlacklistRepository;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BlacklistSnapshotTest extends BaseUnitTest {
+
+    @Mock
+    private BlacklistRepository blacklistRepository;
+
+    private BlacklistProperties blacklistProperties;
+    private BlacklistSnapshot blacklistSnapshot;
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        blacklistProperties = new BlacklistProperties();
+        blacklistSnapshot = new BlacklistSnapshot(blacklistProperties, blacklistRepository);
+        walletId = uuid();
+    }
+
+    @Test
+    void onApplicationReady_shouldNotLoad_whenCacheDisabled() {
+        blacklistSnapshot.onApplicationReady();
+
+        assertThat(blacklistSnapshot.isLoaded()).isFalse();
+        verifyNoInteractions(blacklistRepository);
+    }
+
+    @Test
+    void onApplicationReady_shouldLoadBlockedWallets_whenCacheEnabled() {
+        blacklistProperties.getCache().setEnabled(true);
+        when(blacklistRepository.findAllWalletIds()).thenReturn(List.of(walletId));
+
+        blacklistSnapshot.onApplicationReady();
+
+        assertThat(blacklistSnapshot.isLoaded()).isTrue();
+        assertThat(blacklistSnapshot.contains(walletId)).isTrue();
+        assertThat(blacklistSnapshot.contains(uuid())).isFalse();
+    }
+
+    @Test
+    void addAndRemove_shouldUpdateLoadedSnapshot() {
+        when(blacklistRepository.findAllWalletIds()).thenReturn(List.of());
+        blacklistSnapshot.reload();
+
+        blacklistSnapshot.addAfterCommit(walletId);
+        assertThat(blacklistSnapshot.contains(walletId)).isTrue();
+
+        blacklistSnapshot.removeAfterCommit(walletId);
+        assertThat(blacklistSnapshot.contains(walletId)).isFalse();
+    }
+
+    @Test
+    void add_shouldBeIgnored_whenNotLoaded() {
+        blacklistSnapshot.add(walletId);
+
+        assertThat(blacklistSnapshot.isLoaded()).isFalse();
+        assertThat(blacklistSnapshot.contains(walletId)).isFalse();
+    }
+
+    @Test
+    void invalidate_shouldFallBackToDatabase() {
+        when(blacklistRepository.findAllWalletIds()).thenReturn(List.of(walletId));
+        blacklistSnapshot.reload();
+
+        blacklistSnapshot.invalidate();
+
+        assertThat(blacklistSnapshot.isLoaded()).isFalse();
+    }
+
+    @Test
+    void reload_shouldKeepChangeAppliedWhileLoading() {
+        UUID unblockedWalletId = uuid();
+        when(blacklistRepository.findAllWalletIds()).thenReturn(List.of(unblockedWalletId));
+        blacklistSnapshot.reload();
+        when(blacklistRepository.findAllWalletIds()).thenAnswer(invocation -> {
+            // both commits landed after the query read the table
+            blacklistSnapshot.add(walletId);
+            blacklistSnapshot.remove(unblockedWalletId);
+            return List.of(unblockedWalletId);
+        });
+
+        blacklistSnapshot.reload();
+
+        assertThat(blacklistSnapshot.contains(walletId)).isTrue();
+        assertThat(blacklistSnapshot.contains(unblockedWalletId)).isFalse();
+    }
+
+    @Test
+    void reload_shouldNotPublish_whenInvalidatedWhileLoading() {
+        when(blacklistRepository.findAllWalletIds()).thenAnswer(invocation -> {
+            blacklistSnapshot.invalidate();
+            return List.of(walletId);
+        });
+
+        blacklistSnapshot.reload();
+
+        assertThat(blacklistSnapshot.isLoaded()).isFalse();
+    }
+
+    @Test
+    void reload_shouldKeepCurrentSnapshot_whenQueryFails() {
+        when(blacklistRepository.findAllWalletIds()).thenReturn(List.of(walletId));
+        blacklistSnapshot.reload();
+        when(blacklistRepository.findAllWalletIds()).thenThrow(new IllegalStateException("connection lost"));
+
+        assertThatThrownBy(() -> blacklistSnapshot.reload()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(blacklistSnapshot.contains(walletId)).isTrue();
+    }
+
+    @Test
+    void refresh_shouldReload_whenNotificationsDisabled() {
+        when(blacklistRepository.findAllWalletIds()).thenReturn(List.of(walletId));
+
+        blacklistSnapshot.refresh();
+
+        assertThat(blacklistSnapshot.contains(walletId)).isTrue();
+    }
+
+    @Test
+    void refresh_shouldLeaveInvalidatedSnapshotToListener_whenNotificationsEnabled() {
+        blacklistProperties.getNotifications().setEnabled(true);
+
+        blacklistSnapshot.refresh();
+
+        assertThat(blacklistSnapshot.isLoaded()).isFalse();
+        verifyNoInteractions(blacklistRepository);
+    }
+}
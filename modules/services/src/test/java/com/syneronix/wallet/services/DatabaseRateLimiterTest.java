@@ -0,0 +1,61 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.RateLimitExceededException;
+import com.syneronix.wallet.config.PolicyProperties;
+import com.syneronix.wallet.domain.TransactionRepository;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class DatabaseRateLimiterTest extends BaseUnitTest {
+
+    @Mock
+    private PolicyProperties policyProperties;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private DatabaseRateLimiter rateLimiter;
+
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        walletId = uuid();
+
+        PolicyProperties.RateLimit rateLimit = new PolicyProperties.RateLimit();
+        rateLimit.setMaxTransactions(5);
+        rateLimit.setWindowMinutes(1);
+        when(policyProperties.getRateLimit()).thenReturn(rateLimit);
+    }
+
+    @Test
+    void verify_shouldPass_whenUnderLimit() {
+        when(transactionRepository.countTransactionsSince(any(), any())).thenReturn(4L);
+        assertDoesNotThrow(() -> rateLimiter.verify(walletId));
+    }
+
+    @Test
+    void verify_shouldThrow_whenOverLimit() {
+        when(transactionRepository.countTransactionsSince(any(), any())).thenReturn(5L);
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.verify(walletId));
+    }
+
+    @Test
+    void remaining_shouldSubtractCountFromLimit() {
+        when(transactionRepository.countTransactionsSince(any(), any())).thenReturn(3L, 7L);
+
+        assertThat(rateLimiter.remaining(walletId)).isEqualTo(2);
+        assertThat(rateLimiter.remaining(walletId)).isZero();
+    }
+}
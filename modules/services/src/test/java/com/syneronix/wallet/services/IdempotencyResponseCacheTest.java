@@ -0,0 +1,89 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.config.IdempotencyProperties;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyResponseCacheTest extends BaseUnitTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_shouldReturnOutcome_whenPutOutsideTransaction() {
+        IdempotencyResponseCache cache = new IdempotencyResponseCache(new IdempotencyProperties());
+        UUID requestId = uuid();
+        IdempotencyResponseCache.Outcome outcome = completed("response");
+
+        cache.putAfterCommit(requestId, outcome);
+
+        assertThat(cache.get(requestId)).contains(outcome);
+        assertThat(cache.get(uuid())).isEmpty();
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void putAfterCommit_shouldDeferUntilCommit_whenTransactionActive() {
+        IdempotencyResponseCache cache = new IdempotencyResponseCache(new IdempotencyProperties());
+        UUID requestId = uuid();
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.putAfterCommit(requestId, completed("response"));
+
+        assertThat(cache.get(requestId)).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.get(requestId)).isPresent();
+    }
+
+    @Test
+    void putAfterCommit_shouldEvictOldest_whenMaximumSizeReached() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.getCache().setMaximumSize(1);
+        IdempotencyResponseCache cache = new IdempotencyResponseCache(properties);
+
+        cache.putAfterCommit(uuid(), completed("first"));
+        cache.putAfterCommit(uuid(), completed("second"));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.stats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void putAfterCommit_shouldRejectPendingOutcome() {
+        IdempotencyResponseCache cache = new IdempotencyResponseCache(new IdempotencyProperties());
+        IdempotencyResponseCache.Outcome pending = new IdempotencyResponseCache.Outcome(new byte[32], TransactionStatus.PENDING, -1, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.putAfterCommit(uuid(), pending));
+    }
+
+    @Test
+    void get_shouldReturnEmpty_whenDisabled() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.getCache().setEnabled(false);
+        IdempotencyResponseCache cache = new IdempotencyResponseCache(properties);
+        UUID requestId = uuid();
+
+        cache.putAfterCommit(requestId, completed("response"));
+
+        assertThat(cache.get(requestId)).isEmpty();
+    }
+
+    private IdempotencyResponseCache.Outcome completed(Object response) {
+        return new IdempotencyResponseCache.Outcome(new byte[32], TransactionStatus.COMPLETED, 200, response, null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.IdempotencyProperties;
+import com.syneronix.wallet.domain.IdempotencyKeyRepository;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IdempotencyRetentionServiceTest extends BaseUnitTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T13:00:00Z");
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Spy
+    private IdempotencyProperties idempotencyProperties = new IdempotencyProperties();
+
+    @InjectMocks
+    private IdempotencyRetentionService idempotencyRetentionService;
+
+    @Test
+    void createPartitions_shouldCreateMissingDaysAhead() {
+        when(idempotencyKeyRepository.tryPartitionLock()).thenReturn(true);
+        when(idempotencyKeyRepository.findPartitionDays()).thenReturn(List.of(LocalDate.parse("2026-03-10"), LocalDate.parse("2026-03-11")));
+
+        int created = idempotencyRetentionService.createPartitions(NOW);
+
+        assertThat(created).isEqualTo(2);
+        verify(idempotencyKeyRepository).createPartition(LocalDate.parse("2026-03-12"));
+        verify(idempotencyKeyRepository).createPartition(LocalDate.parse("2026-03-13"));
+        verify(idempotencyKeyRepository, times(2)).createPartition(any());
+    }
+
+    @Test
+    void createPartitions_shouldSkip_whenAnotherInstanceHoldsLock() {
+        when(idempotencyKeyRepository.tryPartitionLock()).thenReturn(false);
+
+        assertThat(idempotencyRetentionService.createPartitions(NOW)).isZero();
+        verify(idempotencyKeyRepository, never()).createPartition(any());
+    }
+
+    @Test
+    void dropExpiredPartitions_shouldDropOnlyFullyExpiredDays() {
+        idempotencyProperties.getRetention().setTtl(Duration.ofDays(2));
+        when(idempotencyKeyRepository.tryPartitionLock()).thenReturn(true);
+        when(idempotencyKeyRepository.findPartitionDays()).thenReturn(List.of(
+                LocalDate.parse("2026-03-06"), LocalDate.parse("2026-03-07"), LocalDate.parse("2026-03-08"), LocalDate.parse("2026-03-09")));
+
+        assertThat(idempotencyRetentionService.dropExpiredPartitions(NOW)).contains(LocalDate.parse("2026-03-08").atStartOfDay());
+
+        verify(idempotencyKeyRepository).dropPartition(LocalDate.parse("2026-03-06"), 2000);
+        verify(idempotencyKeyRepository).dropPartition(LocalDate.parse("2026-03-07"), 2000);
+        verify(idempotencyKeyRepository, never()).dropPartition(LocalDate.parse("2026-03-08"), 2000);
+        verify(idempotencyKeyRepository, never()).dropPartition(LocalDate.parse("2026-03-09"), 2000);
+    }
+
+    @Test
+    void dropExpiredPartitions_shouldReturnEmpty_whenAnotherInstanceHoldsLock() {
+        when(idempotencyKeyRepository.tryPartitionLock()).thenReturn(false);
+
+        assertThat(idempotencyRetentionService.dropExpiredPartitions(NOW)).isEmpty();
+        verify(idempotencyKeyRepository, never()).dropPartition(any(), anyLong());
+    }
+}
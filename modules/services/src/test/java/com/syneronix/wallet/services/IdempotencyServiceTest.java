@@ -5,18 +5,28 @@ import com.syneronix.wallet.common.RequestType;
 import com.syneronix.wallet.common.TransactionStatus;
 import com.syneronix.wallet.domain.IdempotencyKeyEntity;
 import com.syneronix.wallet.domain.IdempotencyKeyRepository;
+import com.syneronix.wallet.config.IdempotencyProperties;
 import com.syneronix.wallet.mappers.JsonMapper;
+import com.syneronix.wallet.mappers.PayloadCodec;
+import com.syneronix.wallet.mappers.RequestFingerprinter;
 import com.syneronix.wallet.testing.BaseUnitTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +38,18 @@ class IdempotencyServiceTest extends BaseUnitTest {
     @Mock
     private JsonMapper jsonMapper;
 
+    @Mock
+    private PayloadCodec payloadCodec;
+
+    @Mock
+    private RequestFingerprinter requestFingerprinter;
+
+    @Mock
+    private IdempotencyResponseCache responseCache;
+
+    @Spy
+    private IdempotencyProperties idempotencyProperties = new IdempotencyProperties();
+
     @InjectMocks
     private IdempotencyService idempotencyService;
 
@@ -44,18 +66,84 @@ class IdempotencyServiceTest extends BaseUnitTest {
     }
 
     @Test
-    void create_shouldSaveEntity() {
-        when(idempotencyKeyRepository.existsByRequestId(requestId)).thenReturn(false);
+    void create_shouldClaimPendingKey() {
+        byte[] digest = new byte[RequestFingerprinter.DIGEST_LENGTH];
+        when(jsonMapper.toJson(requestObject)).thenReturn("{}");
+        when(requestFingerprinter.sha256("{}")).thenReturn(digest);
+        when(idempotencyKeyRepository.claim(any(), any())).thenReturn(true);
+
+        boolean claimed = idempotencyService.create(requestId, requestObject, RequestType.DEPOSIT, Currency.USD, null, null);
+
+        ArgumentCaptor<IdempotencyKeyEntity> captor = ArgumentCaptor.forClass(IdempotencyKeyEntity.class);
+        verify(idempotencyKeyRepository).claim(captor.capture(), isNull());
+
+        IdempotencyKeyEntity claimedKey = captor.getValue();
+        assertThat(claimed).isTrue();
+        assertThat(claimedKey.getRequestId()).isEqualTo(requestId);
+        assertThat(claimedKey.getStatus()).isEqualTo(TransactionStatus.PENDING);
+        assertThat(claimedKey.getRequestBody()).isEqualTo("{}");
+        assertThat(claimedKey.getRequestDigest()).isSameAs(digest);
+        assertThat(claimedKey.getRequestHash()).isEqualTo(RequestFingerprinter.toHex(digest));
+    }
+
+    @Test
+    void create_shouldLetExpiredClaimsBeTakenOver_whenRetentionEnabled() {
+        idempotencyProperties.getRetention().setEnabled(true);
+        when(jsonMapper.toJson(requestObject)).thenReturn("{}");
+        when(requestFingerprinter.sha256("{}")).thenReturn(new byte[RequestFingerprinter.DIGEST_LENGTH]);
+        when(idempotencyKeyRepository.claim(any(), any())).thenReturn(true);
+
+        idempotencyService.create(requestId, requestObject, RequestType.DEPOSIT, Currency.USD, null, null);
+
+        ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(idempotencyKeyRepository).claim(any(), captor.capture());
+        assertThat(captor.getValue()).isEqualTo(idempotencyProperties.getRetention().expiredBefore(Instant.now()));
+    }
+
+    @Test
+    void create_shouldSkipLegacyHash_whenDisabled() {
+        idempotencyProperties.setLegacyRequestHash(false);
         when(jsonMapper.toJson(requestObject)).thenReturn("{}");
+        when(requestFingerprinter.sha256("{}")).thenReturn(new byte[RequestFingerprinter.DIGEST_LENGTH]);
+        when(idempotencyKeyRepository.claim(any(), any())).thenReturn(true);
 
         idempotencyService.create(requestId, requestObject, RequestType.DEPOSIT, Currency.USD, null, null);
 
         ArgumentCaptor<IdempotencyKeyEntity> captor = ArgumentCaptor.forClass(IdempotencyKeyEntity.class);
-        verify(idempotencyKeyRepository).save(captor.capture());
+        verify(idempotencyKeyRepository).claim(captor.capture(), isNull());
+        assertThat(captor.getValue().getRequestDigest()).isNotNull();
+        assertThat(captor.getValue().getRequestHash()).isNull();
+    }
+
+    @Test
+    void create_shouldStoreBinaryRequest_whenSmileFormat() {
+        idempotencyProperties.getPayload().setFormat(IdempotencyProperties.PayloadFormat.SMILE);
+        byte[] payload = {0, 1, 2};
+        byte[] digest = new byte[RequestFingerprinter.DIGEST_LENGTH];
+        when(payloadCodec.encode(requestObject, true)).thenReturn(payload);
+        when(requestFingerprinter.sha256(requestObject)).thenReturn(digest);
+        when(idempotencyKeyRepository.claim(any(), any())).thenReturn(true);
+
+        idempotencyService.create(requestId, requestObject, RequestType.DEPOSIT, Currency.USD, null, null);
+
+        ArgumentCaptor<IdempotencyKeyEntity> captor = ArgumentCaptor.forClass(IdempotencyKeyEntity.class);
+        verify(idempotencyKeyRepository).claim(captor.capture(), isNull());
+        assertThat(captor.getValue().getRequestPayload()).isSameAs(payload);
+        assertThat(captor.getValue().getRequestBody()).isNull();
+        assertThat(captor.getValue().getRequestDigest()).isSameAs(digest);
+        verify(jsonMapper, never()).toJson(any());
+    }
+
+    @Test
+    void create_shouldReturnFalse_whenKeyAlreadyClaimed() {
+        when(jsonMapper.toJson(requestObject)).thenReturn("{}");
+        when(requestFingerprinter.sha256("{}")).thenReturn(new byte[RequestFingerprinter.DIGEST_LENGTH]);
+        when(idempotencyKeyRepository.claim(any(), any())).thenReturn(false);
 
-        IdempotencyKeyEntity saved = captor.getValue();
-        assertThat(saved.getRequestId()).isEqualTo(requestId);
-        assertThat(saved.getStatus()).isEqualTo(TransactionStatus.PENDING);
+        boolean claimed = idempotencyService.create(requestId, requestObject, RequestType.DEPOSIT, Currency.USD, null, null);
+
+        assertThat(claimed).isFalse();
+        verify(idempotencyKeyRepository, never()).save(any());
     }
 
     @Test
@@ -68,4 +156,69 @@ class IdempotencyServiceTest extends BaseUnitTest {
         verify(idempotencyKeyRepository).save(entity);
         assertThat(entity.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
     }
+
+    @Test
+    void success_shouldStoreBinaryResponse_whenSmileFormat() {
+        idempotencyProperties.getPayload().setFormat(IdempotencyProperties.PayloadFormat.SMILE);
+        idempotencyProperties.getPayload().setCompress(false);
+        Object response = new Object();
+        byte[] payload = {0, 1, 2};
+        when(idempotencyKeyRepository.findByRequestId(requestId)).thenReturn(Optional.of(entity));
+        when(payloadCodec.encode(response, false)).thenReturn(payload);
+
+        idempotencyService.success(requestId, response, 200);
+
+        assertThat(entity.getResponsePayload()).isSameAs(payload);
+        assertThat(entity.getResponseBody()).isNull();
+        verify(idempotencyKeyRepository).save(entity);
+    }
+
+    @Test
+    void success_shouldCacheTerminalOutcome() {
+        Object response = new Object();
+        byte[] digest = new byte[RequestFingerprinter.DIGEST_LENGTH];
+        entity.setRequestDigest(digest);
+        when(idempotencyKeyRepository.findByRequestId(requestId)).thenReturn(Optional.of(entity));
+        when(jsonMapper.toJson(any())).thenReturn("{}");
+
+        idempotencyService.success(requestId, response, 200);
+
+        ArgumentCaptor<IdempotencyResponseCache.Outcome> captor = ArgumentCaptor.forClass(IdempotencyResponseCache.Outcome.class);
+        verify(responseCache).putAfterCommit(eq(requestId), captor.capture());
+        assertThat(captor.getValue().status()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(captor.getValue().requestDigest()).isSameAs(digest);
+        assertThat(captor.getValue().response()).isSameAs(response);
+    }
+
+    @Test
+    void rejected_shouldCacheTerminalOutcome() {
+        when(idempotencyKeyRepository.findByRequestId(requestId)).thenReturn(Optional.of(entity));
+
+        idempotencyService.rejected(requestId, requestObject, "Wallet not found", 404);
+
+        ArgumentCaptor<IdempotencyResponseCache.Outcome> captor = ArgumentCaptor.forClass(IdempotencyResponseCache.Outcome.class);
+        verify(responseCache).putAfterCommit(eq(requestId), captor.capture());
+        assertThat(captor.getValue().status()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(captor.getValue().httpStatusCode()).isEqualTo(404);
+        assertThat(captor.getValue().failReason()).isEqualTo("Wallet not found");
+    }
+
+    @Test
+    void completeAllInCurrentTransaction_shouldUpdateAllKeysWithOneLookup() {
+        IdempotencyKeyEntity rejectedEntity = new IdempotencyKeyEntity();
+        rejectedEntity.setRequestId(uuid());
+        when(idempotencyKeyRepository.findAllByRequestIdIn(any())).thenReturn(List.of(entity, rejectedEntity));
+        when(jsonMapper.toJson(any())).thenReturn("{}");
+
+        idempotencyService.completeAllInCurrentTransaction(List.of(
+                new IdempotencyService.Completion(requestId, TransactionStatus.COMPLETED, 200, new Object(), null),
+                new IdempotencyService.Completion(rejectedEntity.getRequestId(), TransactionStatus.REJECTED, 422, requestObject, "Insufficient funds")
+        ));
+
+        assertThat(entity.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(entity.getHttpStatusCode()).isEqualTo(200);
+        assertThat(rejectedEntity.getStatus()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(rejectedEntity.getFailReason()).isEqualTo("Insufficient funds");
+        verify(idempotencyKeyRepository).saveAll(any());
+    }
 }
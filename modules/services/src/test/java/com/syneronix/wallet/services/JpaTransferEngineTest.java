@@ -0,0 +1,85 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.BadRequestException;
+import com.syneronix.wallet.api.errors.WalletNotFoundException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JpaTransferEngineTest extends BaseUnitTest {
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private PolicyService policyService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @InjectMocks
+    private JpaTransferEngine jpaTransferEngine;
+
+    private UUID requestId;
+    private WalletEntity fromWallet;
+    private WalletEntity toWallet;
+
+    @BeforeEach
+    void setUp() {
+        requestId = uuid();
+        fromWallet = new WalletEntity();
+        fromWallet.setId(uuid());
+        toWallet = new WalletEntity();
+        toWallet.setId(uuid());
+    }
+
+    @Test
+    void transfer_shouldValidateBothWalletsAndTransfer() {
+        TransactionEntity transaction = new TransactionEntity();
+        when(walletService.findAllForTransferOrdered(List.of(fromWallet.getId(), toWallet.getId()), Currency.USD, LockModeType.OPTIMISTIC))
+                .thenReturn(List.of(toWallet, fromWallet));
+        when(transactionService.transfer(requestId, fromWallet, toWallet, BigDecimal.TEN, Currency.USD)).thenReturn(transaction);
+
+        TransactionEntity result = jpaTransferEngine.transfer(requestId, fromWallet.getId(), toWallet.getId(), BigDecimal.TEN, Currency.USD, LockModeType.OPTIMISTIC);
+
+        assertThat(result).isSameAs(transaction);
+        verify(policyService).validate(fromWallet);
+        verify(policyService).validate(toWallet);
+    }
+
+    @Test
+    void transfer_shouldThrow_whenTargetWalletNotFound() {
+        when(walletService.findAllForTransferOrdered(any(), any(), any())).thenReturn(List.of(fromWallet));
+
+        WalletNotFoundException exception = assertThrows(WalletNotFoundException.class, () ->
+                jpaTransferEngine.transfer(requestId, fromWallet.getId(), toWallet.getId(), BigDecimal.TEN, Currency.USD, LockModeType.PESSIMISTIC_WRITE));
+
+        assertThat(exception.getMessage()).contains(toWallet.getId().toString());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void transfer_shouldThrow_whenSameWallet() {
+        when(walletService.findAllForTransferOrdered(any(), any(), any())).thenReturn(List.of(fromWallet));
+
+        assertThrows(BadRequestException.class, () ->
+                jpaTransferEngine.transfer(requestId, fromWallet.getId(), fromWallet.getId(), BigDecimal.TEN, Currency.USD, LockModeType.PESSIMISTIC_WRITE));
+
+        verifyNoInteractions(policyService, transactionService);
+    }
+}
@@ -1,8 +1,11 @@
 package com.syneronix.wallet.services;
 
+import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.config.LedgerProperties;
 import com.syneronix.wallet.domain.LedgerEntryEntity;
 import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.PendingLedgerEntry;
 import com.syneronix.wallet.domain.TransactionEntity;
 import com.syneronix.wallet.domain.WalletEntity;
 import com.syneronix.wallet.testing.BaseUnitTest;
@@ -11,16 +14,28 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 class LedgerServiceTest extends BaseUnitTest {
 
     @Mock
     private LedgerEntryRepository ledgerEntryRepository;
 
+    @Mock
+    private LedgerWriter ledgerWriter;
+
+    @Spy
+    private LedgerProperties ledgerProperties = new LedgerProperties();
+
     @InjectMocks
     private LedgerService ledgerService;
 
@@ -30,7 +45,11 @@ class LedgerServiceTest extends BaseUnitTest {
     @BeforeEach
     void setUp() {
         transaction = new TransactionEntity();
+        transaction.setId(uuid());
+        transaction.setCreatedAt(Instant.now());
         wallet = new WalletEntity();
+        wallet.setId(uuid());
+        wallet.setCurrency(Currency.USD);
     }
 
     @Test
@@ -44,5 +63,52 @@ class LedgerServiceTest extends BaseUnitTest {
         assertThat(saved.getTransaction()).isEqualTo(transaction);
         assertThat(saved.getWallet()).isEqualTo(wallet);
         assertThat(saved.getAmount()).isEqualTo(BigDecimal.TEN);
+        verifyNoInteractions(ledgerWriter);
+    }
+
+    @Test
+    void createLedgerEntry_shouldQueueEntry_whenWriteBehindEnabled() {
+        ledgerProperties.getWriteBehind().setEnabled(true);
+        when(ledgerWriter.hasCapacity()).thenReturn(true);
+
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.DEBIT, wallet, BigDecimal.TEN, BigDecimal.valueOf(90));
+
+        ArgumentCaptor<PendingLedgerEntry> captor = ArgumentCaptor.forClass(PendingLedgerEntry.class);
+        verify(ledgerWriter).submitAfterCommit(captor.capture());
+        verify(ledgerEntryRepository, never()).save(any());
+
+        PendingLedgerEntry entry = captor.getValue();
+        assertThat(entry.transactionId()).isEqualTo(transaction.getId());
+        assertThat(entry.walletId()).isEqualTo(wallet.getId());
+        assertThat(entry.direction()).isEqualTo(MoneyFlowDirection.DEBIT);
+        assertThat(entry.balanceAfter()).isEqualByComparingTo(BigDecimal.valueOf(90));
+        assertThat(entry.createdAt()).isEqualTo(transaction.getCreatedAt());
+
+        assertThat(transaction.isLedgerPending()).isTrue();
+        assertThat(transaction.getFromBalanceAfter()).isEqualByComparingTo(BigDecimal.valueOf(90));
+        assertThat(transaction.getToBalanceAfter()).isNull();
+    }
+
+    @Test
+    void createLedgerEntry_shouldSaveSynchronously_whenWriterQueueIsFull() {
+        ledgerProperties.getWriteBehind().setEnabled(true);
+        when(ledgerWriter.hasCapacity()).thenReturn(false);
+
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.CREDIT, wallet, BigDecimal.TEN, BigDecimal.valueOf(100));
+
+        verify(ledgerEntryRepository).save(any(LedgerEntryEntity.class));
+        verify(ledgerWriter, never()).submitAfterCommit(any());
+        assertThat(transaction.isLedgerPending()).isFalse();
+    }
+
+    @Test
+    void createLedgerEntry_shouldSaveSynchronously_whenWalletIsSharded() {
+        ledgerProperties.getWriteBehind().setEnabled(true);
+        wallet.setBalanceSlots(4);
+
+        ledgerService.createLedgerEntry(transaction, MoneyFlowDirection.CREDIT, wallet, BigDecimal.TEN, BigDecimal.valueOf(100));
+
+        verify(ledgerEntryRepository).save(any(LedgerEntryEntity.class));
+        verifyNoInteractions(ledgerWriter);
     }
 }
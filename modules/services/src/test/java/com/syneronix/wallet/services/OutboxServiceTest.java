@@ -0,0 +1,154 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.BadRequestException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.common.MoneyFlowDirection;
+import com.syneronix.wallet.common.OutboxEventType;
+import com.syneronix.wallet.common.TransactionType;
+import com.syneronix.wallet.config.OutboxProperties;
+import com.syneronix.wallet.domain.*;
+import com.syneronix.wallet.mappers.JsonMapper;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class OutboxServiceTest extends BaseUnitTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxConsumerRepository outboxConsumerRepository;
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Mock
+    private OutboxSink outboxSink;
+
+    @Mock
+    private JsonMapper jsonMapper;
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    @Test
+    void transactionCompleted_shouldAppendEventForWallet() {
+        outboxProperties.setEnabled(true);
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(uuid());
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setId(uuid());
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setCurrency(Currency.USD);
+        when(jsonMapper.toJson(any())).thenReturn("{}");
+
+        outboxService.transactionCompleted(transaction, wallet, MoneyFlowDirection.CREDIT, BigDecimal.TEN);
+
+        ArgumentCaptor<OutboxEventEntity> captor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(captor.capture());
+        assertThat(captor.getValue().getWalletId()).isEqualTo(wallet.getId());
+        assertThat(captor.getValue().getEventType()).isEqualTo(OutboxEventType.TRANSACTION_COMPLETED);
+        assertThat(captor.getValue().getPayload()).isEqualTo("{}");
+        assertThat(captor.getValue().getPosition()).isNull();
+    }
+
+    @Test
+    void transactionFailed_shouldAppendEventForWallet() {
+        outboxProperties.setEnabled(true);
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(uuid());
+        wallet.setBalanceSlots(4);
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setId(uuid());
+        when(jsonMapper.toJson(any())).thenReturn("{}");
+
+        outboxService.transactionFailed(transaction, wallet);
+
+        ArgumentCaptor<OutboxEventEntity> captor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(captor.capture());
+        assertThat(captor.getValue().getWalletId()).isEqualTo(wallet.getId());
+        assertThat(captor.getValue().getEventType()).isEqualTo(OutboxEventType.TRANSACTION_FAILED);
+    }
+
+    @Test
+    void walletBlocked_shouldAppendNothing_whenDisabled() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(uuid());
+        wallet.setBalanceSlots(4);
+
+        outboxService.walletBlocked(wallet, "reason");
+
+        verifyNoInteractions(outboxEventRepository, jsonMapper);
+    }
+
+    @Test
+    void relayBatch_shouldAssignPositionsInIdOrderAndPublish() {
+        OutboxEventEntity first = event(1L);
+        OutboxEventEntity second = event(2L);
+        when(outboxEventRepository.tryRelayLock()).thenReturn(true);
+        when(outboxEventRepository.findUnpublished(any())).thenReturn(List.of(first, second));
+        when(outboxEventRepository.findLastPosition()).thenReturn(40L);
+
+        int published = outboxService.relayBatch();
+
+        assertThat(published).isEqualTo(2);
+        assertThat(first.getPosition()).isEqualTo(41L);
+        assertThat(second.getPosition()).isEqualTo(42L);
+        assertThat(first.getPublishedAt()).isNotNull();
+        verify(outboxEventRepository).saveAll(List.of(first, second));
+        verify(outboxSink).publish(List.of(OutboxMessage.of(first), OutboxMessage.of(second)));
+    }
+
+    @Test
+    void relayBatch_shouldSkip_whenAnotherInstanceRelays() {
+        when(outboxEventRepository.tryRelayLock()).thenReturn(false);
+
+        assertThat(outboxService.relayBatch()).isZero();
+
+        verify(outboxEventRepository, never()).findUnpublished(any());
+        verifyNoInteractions(outboxSink);
+    }
+
+    @Test
+    void commit_shouldNotMoveOffsetBack() {
+        OutboxConsumerEntity consumer = new OutboxConsumerEntity();
+        consumer.setName("ledger-export");
+        consumer.setPosition(30);
+        when(outboxEventRepository.findLastPosition()).thenReturn(50L);
+        when(outboxConsumerRepository.findWithLockingByName("ledger-export")).thenReturn(Optional.of(consumer));
+
+        assertThat(outboxService.commit("ledger-export", 20)).isEqualTo(30);
+
+        verify(outboxConsumerRepository, never()).save(any());
+    }
+
+    @Test
+    void commit_shouldThrow_whenPositionIsNotPublished() {
+        when(outboxEventRepository.findLastPosition()).thenReturn(50L);
+
+        assertThrows(BadRequestException.class, () -> outboxService.commit("ledger-export", 51));
+
+        verifyNoInteractions(outboxConsumerRepository);
+    }
+
+    private OutboxEventEntity event(long id) {
+        OutboxEventEntity event = new OutboxEventEntity();
+        event.setId(id);
+        event.setWalletId(uuid());
+        event.setEventType(OutboxEventType.WALLET_BLOCKED);
+        event.setPayload("{}");
+        return event;
+    }
+}
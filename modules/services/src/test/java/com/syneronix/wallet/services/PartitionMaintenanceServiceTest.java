@@ -0,0 +1,87 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.PartitionProperties;
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.TransactionRepository;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class PartitionMaintenanceServiceTest extends BaseUnitTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T13:00:00Z");
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Spy
+    private PartitionProperties partitionProperties = new PartitionProperties();
+
+    @InjectMocks
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Test
+    void createPartitions_shouldCreateMissingMonthsAheadOfBothTables() {
+        when(transactionRepository.tryPartitionLock()).thenReturn(true);
+        when(transactionRepository.findPartitionMonths()).thenReturn(List.of(YearMonth.of(2026, 3), YearMonth.of(2026, 4)));
+        when(ledgerEntryRepository.findPartitionMonths()).thenReturn(List.of(YearMonth.of(2026, 3)));
+
+        int created = partitionMaintenanceService.createPartitions(NOW);
+
+        assertThat(created).isEqualTo(3);
+        verify(transactionRepository).createPartition(YearMonth.of(2026, 5));
+        verify(transactionRepository, times(1)).createPartition(any());
+        verify(ledgerEntryRepository).createPartition(YearMonth.of(2026, 4));
+        verify(ledgerEntryRepository).createPartition(YearMonth.of(2026, 5));
+        verify(ledgerEntryRepository, times(2)).createPartition(any());
+    }
+
+    @Test
+    void createPartitions_shouldSkip_whenAnotherInstanceHoldsLock() {
+        when(transactionRepository.tryPartitionLock()).thenReturn(false);
+
+        assertThat(partitionMaintenanceService.createPartitions(NOW)).isZero();
+        verify(transactionRepository, never()).createPartition(any());
+        verify(ledgerEntryRepository, never()).createPartition(any());
+    }
+
+    @Test
+    void detachPartitions_shouldDetachMonthsBeforeKeptOnes() {
+        partitionProperties.getDetach().setAfterMonths(2);
+        partitionProperties.getDetach().setLockTimeout(Duration.ofMillis(500));
+        List<YearMonth> months = List.of(YearMonth.of(2025, 12), YearMonth.of(2026, 1), YearMonth.of(2026, 2), YearMonth.of(2026, 3));
+        when(transactionRepository.tryPartitionLock()).thenReturn(true);
+        when(transactionRepository.findPartitionMonths()).thenReturn(months);
+        when(ledgerEntryRepository.findPartitionMonths()).thenReturn(months);
+
+        assertThat(partitionMaintenanceService.detachPartitions(NOW)).containsExactly(YearMonth.of(2025, 12));
+
+        verify(transactionRepository).detachPartition(YearMonth.of(2025, 12), 500);
+        verify(ledgerEntryRepository).detachPartition(YearMonth.of(2025, 12), 500);
+        verify(transactionRepository, times(1)).detachPartition(any(), anyLong());
+        verify(ledgerEntryRepository, times(1)).detachPartition(any(), anyLong());
+    }
+
+    @Test
+    void detachPartitions_shouldSkip_whenAnotherInstanceHoldsLock() {
+        when(transactionRepository.tryPartitionLock()).thenReturn(false);
+
+        assertThat(partitionMaintenanceService.detachPartitions(NOW)).isEmpty();
+        verify(transactionRepository, never()).detachPartition(any(), anyLong());
+        verify(ledgerEntryRepository, never()).detachPartition(any(), anyLong());
+    }
+}
@@ -4,32 +4,33 @@ import com.syneronix.wallet.api.errors.RateLimitExceededException;
 import com.syneronix.wallet.api.errors.WalletLockedException;
 import com.syneronix.wallet.common.WalletStatus;
 import com.syneronix.wallet.config.PolicyProperties;
-import com.syneronix.wallet.domain.TransactionRepository;
 import com.syneronix.wallet.domain.WalletEntity;
 import com.syneronix.wallet.testing.BaseUnitTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class PolicyServiceTest extends BaseUnitTest {
 
     @Mock
-    private PolicyProperties policyProperties;
-
-    @Mock
-    private TransactionRepository transactionRepository;
+    private RateLimiter rateLimiter;
 
     @Mock
     private BlacklistService blacklistService;
 
+    @Spy
+    private PolicyProperties policyProperties = new PolicyProperties();
+
     @InjectMocks
     private PolicyService policyService;
 
@@ -42,23 +43,51 @@ class PolicyServiceTest extends BaseUnitTest {
         wallet = new WalletEntity();
         wallet.setId(walletId);
         wallet.setStatus(WalletStatus.ACTIVE);
+    }
+
+    @Test
+    void verifyRateLimit_shouldDelegateToRateLimiter() {
+        policyService.verifyRateLimit(walletId);
+        verify(rateLimiter).verify(walletId);
+    }
 
-        PolicyProperties.RateLimit rateLimit = new PolicyProperties.RateLimit();
-        rateLimit.setMaxTransactions(5);
-        rateLimit.setWindowMinutes(1);
-        when(policyProperties.getRateLimit()).thenReturn(rateLimit);
+    @Test
+    void withRateLimitBudget_shouldCountOnceAndTrackOutgoingTransactions() {
+        UUID otherWalletId = uuid();
+        when(rateLimiter.remaining(walletId)).thenReturn(2L);
+
+        policyService.withRateLimitBudget(List.of(walletId), () -> {
+            policyService.verifyRateLimit(walletId);
+            policyService.countOutgoing(walletId);
+            policyService.verifyRateLimit(walletId);
+            policyService.countOutgoing(walletId);
+            assertThrows(RateLimitExceededException.class, () -> policyService.verifyRateLimit(walletId));
+
+            // a wallet outside the budget is checked as usual
+            policyService.verifyRateLimit(otherWalletId);
+            return null;
+        });
+
+        verify(rateLimiter, times(1)).remaining(walletId);
+        verify(rateLimiter, never()).verify(walletId);
+        verify(rateLimiter).verify(otherWalletId);
     }
 
     @Test
-    void verifyRateLimit_shouldPass_whenUnderLimit() {
-        when(transactionRepository.countTransactionsSince(any(), any())).thenReturn(4L);
-        assertDoesNotThrow(() -> policyService.verifyRateLimit(walletId));
+    void verifyRateLimit_shouldDelegateToRateLimiter_afterBudgetEnds() {
+        when(rateLimiter.remaining(walletId)).thenReturn(0L);
+        policyService.withRateLimitBudget(List.of(walletId), () -> null);
+
+        policyService.verifyRateLimit(walletId);
+
+        verify(rateLimiter).verify(walletId);
     }
 
     @Test
-    void verifyRateLimit_shouldThrow_whenOverLimit() {
-        when(transactionRepository.countTransactionsSince(any(), any())).thenReturn(5L);
-        assertThrows(RateLimitExceededException.class, () -> policyService.verifyRateLimit(walletId));
+    void validate_shouldThrow_whenRateLimitExceeded() {
+        doThrow(new RateLimitExceededException("limit")).when(rateLimiter).verify(walletId);
+        assertThrows(RateLimitExceededException.class, () -> policyService.validate(wallet));
+        verifyNoInteractions(blacklistService);
     }
 
     @Test
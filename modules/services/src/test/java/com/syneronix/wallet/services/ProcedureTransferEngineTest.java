@@ -0,0 +1,84 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.api.errors.WalletLockedException;
+import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.domain.TransactionEntity;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProcedureTransferEngineTest extends BaseUnitTest {
+
+    @Mock
+    private PolicyService policyService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private JpaTransferEngine jpaTransferEngine;
+
+    @InjectMocks
+    private ProcedureTransferEngine procedureTransferEngine;
+
+    private UUID requestId;
+    private UUID fromWalletId;
+    private UUID toWalletId;
+
+    @BeforeEach
+    void setUp() {
+        requestId = uuid();
+        fromWalletId = uuid();
+        toWalletId = uuid();
+    }
+
+    @Test
+    void transfer_shouldCheckPoliciesAndCallFunction() {
+        TransactionEntity transaction = new TransactionEntity();
+        when(transactionService.transferByProcedure(requestId, fromWalletId, toWalletId, BigDecimal.TEN, Currency.USD))
+                .thenReturn(Optional.of(transaction));
+
+        TransactionEntity result = procedureTransferEngine.transfer(requestId, fromWalletId, toWalletId, BigDecimal.TEN, Currency.USD, LockModeType.OPTIMISTIC);
+
+        assertThat(result).isSameAs(transaction);
+        verify(policyService).verifyRateLimit(fromWalletId);
+        verify(policyService).verifyBlacklist(fromWalletId);
+        verify(policyService).verifyRateLimit(toWalletId);
+        verify(policyService).verifyBlacklist(toWalletId);
+        verifyNoInteractions(jpaTransferEngine);
+    }
+
+    @Test
+    void transfer_shouldFallBackToJpaUnderLock_whenWalletIsSharded() {
+        TransactionEntity transaction = new TransactionEntity();
+        when(transactionService.transferByProcedure(requestId, fromWalletId, toWalletId, BigDecimal.TEN, Currency.USD))
+                .thenReturn(Optional.empty());
+        when(jpaTransferEngine.transfer(requestId, fromWalletId, toWalletId, BigDecimal.TEN, Currency.USD, LockModeType.PESSIMISTIC_WRITE))
+                .thenReturn(transaction);
+
+        TransactionEntity result = procedureTransferEngine.transfer(requestId, fromWalletId, toWalletId, BigDecimal.TEN, Currency.USD, LockModeType.OPTIMISTIC);
+
+        assertThat(result).isSameAs(transaction);
+    }
+
+    @Test
+    void transfer_shouldNotCallFunction_whenWalletBlacklisted() {
+        doThrow(new WalletLockedException("Operation denied: wallet is suspended.")).when(policyService).verifyBlacklist(toWalletId);
+
+        assertThrows(WalletLockedException.class, () ->
+                procedureTransferEngine.transfer(requestId, fromWalletId, toWalletId, BigDecimal.TEN, Currency.USD, LockModeType.PESSIMISTIC_WRITE));
+
+        verify(transactionService, never()).transferByProcedure(any(), any(), any(), any(), any());
+    }
+}
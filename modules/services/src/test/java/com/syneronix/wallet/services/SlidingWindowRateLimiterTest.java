@@ -0,0 +1,115 @@
+package com.syneronix.wallet.services;
+
+import com.google.common.base.Ticker;
+import com.syneronix.wallet.api.errors.RateLimitExceededException;
+import com.syneronix.wallet.config.PolicyProperties;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SlidingWindowRateLimiterTest extends BaseUnitTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private SlidingWindowRateLimiter rateLimiter;
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        PolicyProperties policyProperties = new PolicyProperties();
+        policyProperties.getRateLimit().setMaxTransactions(5);
+        policyProperties.getRateLimit().setWindowMinutes(1);
+        policyProperties.getRateLimit().setMaxTrackedWallets(2);
+
+        rateLimiter = new SlidingWindowRateLimiter(policyProperties, ticker);
+        walletId = uuid();
+    }
+
+    @Test
+    void verify_shouldPass_whenWalletUnknown() {
+        assertDoesNotThrow(() -> rateLimiter.verify(walletId));
+    }
+
+    @Test
+    void verify_shouldThrow_whenLimitReachedWithinWindow() {
+        recordTimes(walletId, 4);
+        assertDoesNotThrow(() -> rateLimiter.verify(walletId));
+
+        rateLimiter.record(walletId);
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.verify(walletId));
+    }
+
+    @Test
+    void verify_shouldWeightPreviousWindow() {
+        recordTimes(walletId, 5);
+
+        // half way into the next window half of the previous count still applies
+        advance(Duration.ofSeconds(90));
+        assertDoesNotThrow(() -> rateLimiter.verify(walletId));
+
+        recordTimes(walletId, 3);
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.verify(walletId));
+    }
+
+    @Test
+    void remaining_shouldCountTransactionsThatStillPassVerify() {
+        assertThat(rateLimiter.remaining(walletId)).isEqualTo(5);
+
+        recordTimes(walletId, 5);
+        assertThat(rateLimiter.remaining(walletId)).isZero();
+
+        // an estimate of 2.5 lets three more through: at 2.5, 3.5 and 4.5
+        advance(Duration.ofSeconds(90));
+        assertThat(rateLimiter.remaining(walletId)).isEqualTo(3);
+    }
+
+    @Test
+    void verify_shouldPass_afterTwoIdleWindows() {
+        recordTimes(walletId, 5);
+
+        advance(Duration.ofMinutes(2));
+
+        assertDoesNotThrow(() -> rateLimiter.verify(walletId));
+    }
+
+    @Test
+    void record_shouldEvictIdleWallets() {
+        rateLimiter.record(uuid());
+        advance(Duration.ofMinutes(3));
+        rateLimiter.record(uuid());
+
+        assertThat(rateLimiter.trackedWallets()).isEqualTo(1);
+    }
+
+    @Test
+    void record_shouldBoundTrackedWallets() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.record(uuid());
+        }
+
+        assertThat(rateLimiter.trackedWallets()).isLessThanOrEqualTo(2);
+    }
+
+    private void recordTimes(UUID walletId, int times) {
+        for (int i = 0; i < times; i++) {
+            rateLimiter.record(walletId);
+        }
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
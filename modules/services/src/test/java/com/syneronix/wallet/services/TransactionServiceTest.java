@@ -1,25 +1,39 @@
 package com.syneronix.wallet.services;
 
 import com.syneronix.wallet.api.errors.CurrencyMismatchException;
+import com.syneronix.wallet.api.errors.WalletLockedException;
+import com.syneronix.wallet.api.errors.WalletNotFoundException;
 import com.syneronix.wallet.common.Currency;
 import com.syneronix.wallet.common.MoneyFlowDirection;
 import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.common.WalletStatus;
+import com.syneronix.wallet.config.PartitionProperties;
 import com.syneronix.wallet.domain.TransactionEntity;
 import com.syneronix.wallet.domain.TransactionRepository;
+import com.syneronix.wallet.domain.TransferFundsResult;
 import com.syneronix.wallet.domain.WalletEntity;
 import com.syneronix.wallet.domain.WalletRepository;
 import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceTest extends BaseUnitTest {
@@ -33,6 +47,30 @@ class TransactionServiceTest extends BaseUnitTest {
     @Mock
     private LedgerService ledgerService;
 
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Mock
+    private WalletSlotService walletSlotService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BalanceEventDispatcher balanceEventDispatcher;
+
+    @Mock
+    private WalletReadCache walletReadCache;
+
+    @Spy
+    private PartitionProperties partitionProperties = new PartitionProperties();
+
+    @Mock
+    private ArchiveStore archiveStore;
+
+    @Mock
+    private PolicyService policyService;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -61,6 +99,13 @@ class TransactionServiceTest extends BaseUnitTest {
         receiver.setBalance(BigDecimal.ZERO);
     }
 
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void deposit_shouldSucceed() {
         wallet.setBalance(BigDecimal.ZERO);
@@ -86,6 +131,42 @@ class TransactionServiceTest extends BaseUnitTest {
         verifyNoInteractions(ledgerService);
     }
 
+    @Test
+    void deposit_shouldCreditBalanceSlot_whenWalletIsSharded() {
+        wallet.setBalanceSlots(4);
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        TransactionEntity result = transactionService.deposit(requestId, wallet, BigDecimal.TEN, Currency.USD);
+
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(wallet.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(100));
+
+        verify(walletSlotService).credit(wallet, BigDecimal.TEN);
+        verify(walletSlotService, never()).balance(any());
+        verify(walletRepository, never()).save(wallet);
+        verify(ledgerService).createLedgerEntry(eq(result), eq(MoneyFlowDirection.CREDIT), eq(wallet), eq(BigDecimal.TEN), isNull());
+    }
+
+    @Test
+    void withdraw_shouldConsolidateSlotsFirst_whenWalletIsSharded() {
+        wallet.setBalanceSlots(4);
+        wallet.setBalance(BigDecimal.ZERO);
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(i -> i.getArgument(0));
+        doAnswer(i -> {
+            wallet.setBalance(BigDecimal.valueOf(30));
+            return null;
+        }).when(walletSlotService).consolidate(wallet, BigDecimal.TEN);
+        when(walletSlotService.balance(wallet)).thenReturn(BigDecimal.valueOf(45));
+
+        TransactionEntity result = transactionService.withdraw(requestId, wallet, BigDecimal.TEN, Currency.USD);
+
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(wallet.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(20));
+
+        verify(walletRepository).save(wallet);
+        verify(ledgerService).createLedgerEntry(eq(result), eq(MoneyFlowDirection.DEBIT), eq(wallet), eq(BigDecimal.TEN), eq(BigDecimal.valueOf(45)));
+    }
+
     @Test
     void withdraw_shouldSucceed() {
         when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(i -> i.getArgument(0));
@@ -97,6 +178,79 @@ class TransactionServiceTest extends BaseUnitTest {
 
         verify(walletRepository).save(wallet);
         verify(ledgerService).createLedgerEntry(eq(result), eq(MoneyFlowDirection.DEBIT), eq(wallet), eq(BigDecimal.TEN), eq(BigDecimal.valueOf(90)));
+        verify(rateLimiter).record(wallet.getId());
+    }
+
+    @Test
+    void withdraw_shouldRecordRateLimitOnlyAfterCommit() {
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(i -> i.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        transactionService.withdraw(requestId, wallet, BigDecimal.TEN, Currency.USD);
+
+        verifyNoInteractions(rateLimiter);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(rateLimiter).record(wallet.getId());
+    }
+
+    @Test
+    void withdraw_shouldNotRecordRateLimit_whenRolledBack() {
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(i -> i.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        transactionService.withdraw(requestId, wallet, BigDecimal.TEN, Currency.USD);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(rateLimiter);
+    }
+
+    @Test
+    void withdrawById_shouldTakeBalanceAfterFromConditionalUpdate() {
+        WalletEntity debited = new WalletEntity();
+        debited.setId(wallet.getId());
+        debited.setCurrency(Currency.USD);
+        debited.setBalance(BigDecimal.valueOf(90));
+        when(walletRepository.debit(wallet.getId(), BigDecimal.TEN, Currency.USD)).thenReturn(Optional.of(debited));
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        TransactionEntity result = transactionService.withdrawById(requestId, wallet.getId(), BigDecimal.TEN, Currency.USD);
+
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(result.getFromWallet()).isSameAs(debited);
+        verify(ledgerService).createLedgerEntry(eq(result), eq(MoneyFlowDirection.DEBIT), eq(debited), eq(BigDecimal.TEN), eq(BigDecimal.valueOf(90)));
+        verify(rateLimiter).record(wallet.getId());
+        verify(walletRepository, never()).findWithLockingById(any());
+        verify(walletRepository, never()).save(any());
+    }
+
+    @Test
+    void withdrawById_shouldFail_whenConditionalUpdateMatchesNoRowForLackOfFunds() {
+        wallet.setBalance(BigDecimal.ONE);
+        when(walletRepository.debit(wallet.getId(), BigDecimal.TEN, Currency.USD)).thenReturn(Optional.empty());
+        when(walletRepository.findWithLockingById(wallet.getId())).thenReturn(Optional.of(wallet));
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        TransactionEntity result = transactionService.withdrawById(requestId, wallet.getId(), BigDecimal.TEN, Currency.USD);
+
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        assertThat(result.getFailureReason()).isEqualTo("Insufficient funds");
+        verify(policyService).verifyBlacklist(wallet);
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void withdrawById_shouldThrow_whenWalletNotFound() {
+        UUID walletId = uuid();
+        when(walletRepository.debit(walletId, BigDecimal.TEN, Currency.USD)).thenReturn(Optional.empty());
+        when(walletRepository.findWithLockingById(walletId)).thenReturn(Optional.empty());
+
+        assertThrows(WalletNotFoundException.class, () ->
+                transactionService.withdrawById(requestId, walletId, BigDecimal.TEN, Currency.USD));
+
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
@@ -112,6 +266,7 @@ class TransactionServiceTest extends BaseUnitTest {
 
         verify(walletRepository, never()).save(wallet);
         verifyNoInteractions(ledgerService);
+        verify(outboxService).transactionFailed(result, wallet);
     }
 
     @Test
@@ -129,5 +284,92 @@ class TransactionServiceTest extends BaseUnitTest {
 
         verify(ledgerService).createLedgerEntry(eq(result), eq(MoneyFlowDirection.DEBIT), eq(sender), eq(BigDecimal.TEN), eq(BigDecimal.valueOf(90)));
         verify(ledgerService).createLedgerEntry(eq(result), eq(MoneyFlowDirection.CREDIT), eq(receiver), eq(BigDecimal.TEN), eq(BigDecimal.TEN));
+        verify(rateLimiter).record(sender.getId());
+        verify(outboxService).transactionCompleted(eq(result), eq(sender), eq(MoneyFlowDirection.DEBIT), eq(BigDecimal.valueOf(90)));
+        verify(outboxService).transactionCompleted(eq(result), eq(receiver), eq(MoneyFlowDirection.CREDIT), eq(BigDecimal.TEN));
+        verify(balanceEventDispatcher, times(2)).publishAfterCommit(any(BalanceChange.class));
+    }
+
+    @Test
+    void transferByProcedure_shouldTakeBalancesFromFunction() {
+        when(transactionRepository.transferFunds(any(), eq(requestId), eq(sender.getId()), eq(receiver.getId()), eq(BigDecimal.TEN), eq(Currency.USD), any()))
+                .thenReturn(new TransferFundsResult(TransferFundsResult.Outcome.COMPLETED, null, null, BigDecimal.valueOf(90), BigDecimal.TEN));
+
+        TransactionEntity result = transactionService.transferByProcedure(requestId, sender.getId(), receiver.getId(), BigDecimal.TEN, Currency.USD).orElseThrow();
+
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(result.getFromWallet().getId()).isEqualTo(sender.getId());
+        assertThat(result.getToWallet().getId()).isEqualTo(receiver.getId());
+        verify(rateLimiter).record(sender.getId());
+        verify(outboxService).transactionCompleted(eq(result), any(), eq(MoneyFlowDirection.DEBIT), eq(BigDecimal.valueOf(90)));
+        verify(outboxService).transactionCompleted(eq(result), any(), eq(MoneyFlowDirection.CREDIT), eq(BigDecimal.TEN));
+        verify(balanceEventDispatcher, times(2)).publishAfterCommit(any(BalanceChange.class));
+        verifyNoInteractions(walletRepository, ledgerService);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void transferByProcedure_shouldFail_whenInsufficientFunds() {
+        when(transactionRepository.transferFunds(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new TransferFundsResult(TransferFundsResult.Outcome.INSUFFICIENT_FUNDS, null, null, null, null));
+
+        TransactionEntity result = transactionService.transferByProcedure(requestId, sender.getId(), receiver.getId(), BigDecimal.TEN, Currency.USD).orElseThrow();
+
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        assertThat(result.getFailureReason()).isEqualTo("Insufficient funds");
+        verify(rateLimiter).record(sender.getId());
+        verify(outboxService).transactionFailed(eq(result), any());
+        verifyNoInteractions(balanceEventDispatcher);
+    }
+
+    @Test
+    void transferByProcedure_shouldThrow_whenWalletLocked() {
+        when(transactionRepository.transferFunds(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new TransferFundsResult(TransferFundsResult.Outcome.WALLET_LOCKED, receiver.getId(), WalletStatus.INACTIVE, null, null));
+
+        assertThrows(WalletLockedException.class, () ->
+                transactionService.transferByProcedure(requestId, sender.getId(), receiver.getId(), BigDecimal.TEN, Currency.USD));
+
+        verifyNoInteractions(rateLimiter, outboxService);
+    }
+
+    @Test
+    void transferByProcedure_shouldReturnEmpty_whenWalletIsSharded() {
+        when(transactionRepository.transferFunds(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new TransferFundsResult(TransferFundsResult.Outcome.SHARDED, null, null, null, null));
+
+        assertThat(transactionService.transferByProcedure(requestId, sender.getId(), receiver.getId(), BigDecimal.TEN, Currency.USD)).isEmpty();
+
+        verifyNoInteractions(rateLimiter, outboxService);
+    }
+
+    @Test
+    void getTransactions_shouldReadListWindowOnly() {
+        partitionProperties.setListWindow(Duration.ofDays(30));
+        Instant earliest = Instant.now().minus(Duration.ofDays(30));
+
+        transactionService.getTransactions(wallet.getId(), null);
+
+        verify(transactionRepository).findAllByWalletId(eq(wallet.getId()), argThat(since -> !since.isBefore(earliest)
+                && since.isBefore(Instant.now().minus(Duration.ofDays(29)))));
+    }
+
+    @Test
+    void getTransactions_shouldReadFullHistory_whenNoListWindow() {
+        transactionService.getTransactions(wallet.getId(), null);
+
+        verify(transactionRepository).findAllByWalletId(wallet.getId(), Instant.EPOCH);
+        verify(archiveStore).readTransactions(wallet.getId(), Instant.EPOCH);
+    }
+
+    @Test
+    void getTransactions_shouldAppendArchivedTransactions() {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        TransactionEntity recent = new TransactionEntity();
+        TransactionEntity archived = new TransactionEntity();
+        when(transactionRepository.findAllByWalletId(wallet.getId(), from)).thenReturn(List.of(recent));
+        when(archiveStore.readTransactions(wallet.getId(), from)).thenReturn(List.of(archived));
+
+        assertThat(transactionService.getTransactions(wallet.getId(), from)).containsExactly(recent, archived);
     }
 }
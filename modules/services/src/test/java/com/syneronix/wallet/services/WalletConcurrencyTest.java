@@ -0,0 +1,97 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.ExecutionProperties;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WalletConcurrencyTest extends BaseUnitTest {
+
+    private ExecutionProperties properties;
+    private UUID walletId;
+    private List<LockModeType> attempts;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExecutionProperties();
+        properties.getConcurrency().setStrategy(ExecutionProperties.Concurrency.Strategy.OPTIMISTIC);
+        properties.getConcurrency().setRetryBackoff(Duration.ZERO);
+        walletId = uuid();
+        attempts = new ArrayList<>();
+    }
+
+    @Test
+    void execute_shouldLock_whenStrategyIsPessimistic() {
+        properties.getConcurrency().setStrategy(ExecutionProperties.Concurrency.Strategy.PESSIMISTIC);
+
+        concurrency().execute(List.of(walletId), attempts::add);
+
+        assertThat(attempts).containsExactly(LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Test
+    void execute_shouldRetryOptimistically_whenVersionConflicts() {
+        concurrency().execute(List.of(walletId), conflicting(1));
+
+        assertThat(attempts).containsExactly(LockModeType.OPTIMISTIC, LockModeType.OPTIMISTIC);
+    }
+
+    @Test
+    void execute_shouldFallBackToLocks_whenAllAttemptsConflict() {
+        concurrency().execute(List.of(walletId), conflicting(3));
+
+        assertThat(attempts).containsExactly(LockModeType.OPTIMISTIC, LockModeType.OPTIMISTIC, LockModeType.OPTIMISTIC,
+                LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Test
+    void execute_shouldLockContendedWalletRightAway() {
+        properties.getConcurrency().setMaxAttempts(1);
+        properties.getConcurrency().setMinAttempts(1);
+        WalletConcurrency concurrency = concurrency();
+        concurrency.execute(List.of(walletId), conflicting(1));
+        attempts.clear();
+
+        concurrency.execute(List.of(walletId, uuid()), attempts::add);
+        concurrency.execute(List.of(uuid()), attempts::add);
+
+        assertThat(attempts).containsExactly(LockModeType.PESSIMISTIC_WRITE, LockModeType.OPTIMISTIC);
+    }
+
+    @Test
+    void execute_shouldNotRetry_whenMovementFailsOtherwise() {
+        WalletConcurrency concurrency = concurrency();
+
+        assertThrows(IllegalStateException.class, () -> concurrency.execute(List.of(walletId), lockMode -> {
+            attempts.add(lockMode);
+            throw new IllegalStateException("failed");
+        }));
+
+        assertThat(attempts).containsExactly(LockModeType.OPTIMISTIC);
+    }
+
+    private Function<LockModeType, Object> conflicting(int conflicts) {
+        return lockMode -> {
+            attempts.add(lockMode);
+            if (attempts.size() <= conflicts) {
+                throw new OptimisticLockingFailureException("version changed");
+            }
+            return lockMode;
+        };
+    }
+
+    private WalletConcurrency concurrency() {
+        return new WalletConcurrency(properties, new WalletMetrics(new SimpleMeterRegistry()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.common.RequestType;
+import com.syneronix.wallet.common.TransactionStatus;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class WalletMetricsTest extends BaseUnitTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WalletMetrics walletMetrics = new WalletMetrics(registry);
+
+    @Test
+    void recordRequest_shouldTagTypeOutcomeAndStatus() {
+        walletMetrics.recordRequest(RequestType.TRANSFER, 200, TimeUnit.MILLISECONDS.toNanos(5));
+        walletMetrics.recordRequest(RequestType.TRANSFER, 200, TimeUnit.MILLISECONDS.toNanos(7));
+        walletMetrics.recordRequest(RequestType.TRANSFER, 422, TimeUnit.MILLISECONDS.toNanos(3));
+
+        Timer success = registry.get(WalletMetrics.REQUESTS)
+                .tags("type", "TRANSFER", "outcome", "success", "status", "200")
+                .timer();
+        Timer rejected = registry.get(WalletMetrics.REQUESTS)
+                .tags("type", "TRANSFER", "outcome", "rejected", "status", "422")
+                .timer();
+
+        assertThat(success.count()).isEqualTo(2);
+        assertThat(success.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(12);
+        assertThat(rejected.count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordLockWait_shouldRecordPerScope() {
+        walletMetrics.recordLockWait(WalletMetrics.LOCK_SINGLE, 1_000);
+        walletMetrics.recordLockWait(WalletMetrics.LOCK_ORDERED, 2_000);
+
+        assertThat(registry.get(WalletMetrics.LOCK_WAIT).tag("scope", WalletMetrics.LOCK_SINGLE).timer().count()).isEqualTo(1);
+        assertThat(registry.get(WalletMetrics.LOCK_WAIT).tag("scope", WalletMetrics.LOCK_ORDERED).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordIdempotencyReplay_shouldCountBySourceAndStatus() {
+        walletMetrics.recordIdempotencyReplay(WalletMetrics.SOURCE_CACHE, TransactionStatus.COMPLETED);
+        walletMetrics.recordIdempotencyReplay(WalletMetrics.SOURCE_CACHE, TransactionStatus.COMPLETED);
+        walletMetrics.recordIdempotencyReplay(WalletMetrics.SOURCE_DATABASE, TransactionStatus.REJECTED);
+
+        assertThat(registry.get(WalletMetrics.IDEMPOTENCY_REPLAYS).tags("source", "cache", "status", "COMPLETED").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get(WalletMetrics.IDEMPOTENCY_REPLAYS).tags("source", "database", "status", "REJECTED").counter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,98 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.config.WalletCacheProperties;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+class WalletReadCacheTest extends BaseUnitTest {
+
+    @Mock
+    private WalletService walletService;
+
+    private WalletCacheProperties properties;
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WalletCacheProperties();
+        properties.setEnabled(true);
+        walletId = uuid();
+    }
+
+    @Test
+    void get_shouldReturnEntry_whenVersionIsCurrent() {
+        WalletReadCache cache = cache();
+        Object response = new Object();
+        cache.put(walletId, 3, response, System.nanoTime());
+        when(walletService.findVersionById(walletId)).thenReturn(Optional.of(3L));
+
+        assertThat(cache.get(walletId)).containsSame(response);
+    }
+
+    @Test
+    void get_shouldMiss_whenWalletChangedElsewhere() {
+        WalletReadCache cache = cache();
+        cache.put(walletId, 3, new Object(), System.nanoTime());
+        when(walletService.findVersionById(walletId)).thenReturn(Optional.of(4L));
+
+        assertThat(cache.get(walletId)).isEmpty();
+    }
+
+    @Test
+    void get_shouldSkipVersionCheck_whenStaleReadsAllowed() {
+        properties.setAllowStale(true);
+        WalletReadCache cache = cache();
+        cache.put(walletId, 3, new Object(), System.nanoTime());
+
+        assertThat(cache.get(walletId)).isPresent();
+        verifyNoInteractions(walletService);
+    }
+
+    @Test
+    void put_shouldBeIgnored_whenLoadStartedBeforeInvalidation() {
+        properties.setAllowStale(true);
+        WalletReadCache cache = cache();
+        long loadStartedAt = System.nanoTime();
+        cache.invalidateAfterCommit(walletId);
+
+        cache.put(walletId, 3, new Object(), loadStartedAt);
+        assertThat(cache.get(walletId)).isEmpty();
+
+        cache.put(walletId, 4, new Object(), System.nanoTime());
+        assertThat(cache.get(walletId)).isPresent();
+    }
+
+    @Test
+    void put_shouldKeepNewerVersion() {
+        properties.setAllowStale(true);
+        WalletReadCache cache = cache();
+        Object newer = new Object();
+        cache.put(walletId, 5, newer, System.nanoTime());
+
+        cache.put(walletId, 4, new Object(), System.nanoTime());
+
+        assertThat(cache.get(walletId)).containsSame(newer);
+    }
+
+    @Test
+    void get_shouldMiss_whenDisabled() {
+        properties.setEnabled(false);
+        WalletReadCache cache = cache();
+        cache.put(walletId, 3, new Object(), System.nanoTime());
+
+        assertThat(cache.get(walletId)).isEmpty();
+        verifyNoInteractions(walletService);
+    }
+
+    private WalletReadCache cache() {
+        return new WalletReadCache(properties, walletService, new WalletMetrics(new SimpleMeterRegistry()));
+    }
+}
@@ -1,20 +1,31 @@
 package com.syneronix.wallet.services;
 
+import com.syneronix.wallet.api.errors.BadRequestException;
 import com.syneronix.wallet.common.Currency;
+import com.syneronix.wallet.config.ShardingProperties;
 import com.syneronix.wallet.domain.WalletEntity;
 import com.syneronix.wallet.domain.WalletRepository;
 import com.syneronix.wallet.testing.BaseUnitTest;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class WalletServiceTest extends BaseUnitTest {
@@ -22,6 +33,15 @@ class WalletServiceTest extends BaseUnitTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private WalletMetrics walletMetrics;
+
+    @Mock
+    private WalletSlotService walletSlotService;
+
+    @Spy
+    private ShardingProperties shardingProperties = new ShardingProperties();
+
     @InjectMocks
     private WalletService walletService;
 
@@ -45,6 +65,110 @@ class WalletServiceTest extends BaseUnitTest {
         verify(walletRepository).save(any());
     }
 
+    @Test
+    void createWallet_shouldCreateBalanceSlots_whenSharded() {
+        shardingProperties.setEnabled(true);
+        when(walletRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        WalletEntity result = walletService.createWallet(userId, Currency.USD, 8);
+
+        assertThat(result.getBalanceSlots()).isEqualTo(8);
+        verify(walletSlotService).createSlots(result);
+    }
+
+    @Test
+    void createWallet_shouldReject_whenShardingDisabled() {
+        assertThrows(BadRequestException.class, () -> walletService.createWallet(userId, Currency.USD, 8));
+
+        verify(walletRepository, never()).save(any());
+        verifyNoInteractions(walletSlotService);
+    }
+
+    @Test
+    void createWallet_shouldReject_whenTooManySlots() {
+        shardingProperties.setEnabled(true);
+
+        assertThrows(BadRequestException.class, () -> walletService.createWallet(userId, Currency.USD, shardingProperties.getMaxSlots() + 1));
+
+        verify(walletRepository, never()).save(any());
+    }
+
+    @Test
+    void findForCreditById_shouldTakeSharedLock_whenWalletIsSharded() {
+        shardingProperties.setEnabled(true);
+        when(walletRepository.findBalanceSlotsById(walletId)).thenReturn(Optional.of(4));
+        when(walletRepository.findWithSharedLockById(walletId)).thenReturn(Optional.of(new WalletEntity()));
+
+        walletService.findForCreditById(walletId);
+
+        verify(walletRepository, never()).findWithLockingById(walletId);
+        verify(walletMetrics).recordLockWait(eq(WalletMetrics.LOCK_SHARED), anyLong());
+    }
+
+    @Test
+    void findForCreditById_shouldTakeExclusiveLock_whenShardingDisabled() {
+        when(walletRepository.findWithLockingById(walletId)).thenReturn(Optional.of(new WalletEntity()));
+
+        walletService.findForCreditById(walletId);
+
+        verify(walletRepository, never()).findBalanceSlotsById(walletId);
+        verify(walletRepository).findWithLockingById(walletId);
+    }
+
+    @Test
+    void findForDebitById_shouldNotLockPlainWallet_whenOptimistic() {
+        when(walletRepository.findPlainById(walletId)).thenReturn(Optional.of(new WalletEntity()));
+
+        assertThat(walletService.findForDebitById(walletId, LockModeType.OPTIMISTIC)).isPresent();
+
+        verify(walletRepository, never()).findWithLockingById(walletId);
+        verifyNoInteractions(walletMetrics);
+    }
+
+    @Test
+    void findForDebitById_shouldLockShardedWallet_whenOptimistic() {
+        when(walletRepository.findPlainById(walletId)).thenReturn(Optional.empty());
+        when(walletRepository.findWithLockingById(walletId)).thenReturn(Optional.of(new WalletEntity()));
+
+        assertThat(walletService.findForDebitById(walletId, LockModeType.OPTIMISTIC)).isPresent();
+
+        verify(walletRepository).findWithLockingById(walletId);
+    }
+
+    @Test
+    void findAllForTransferOrdered_shouldLockAll_whenOneWalletIsSharded() {
+        List<UUID> ids = List.of(uuid(), uuid());
+        when(walletRepository.findAllPlainByIdsAndCurrencyOrdered(ids, Currency.USD)).thenReturn(List.of(new WalletEntity()));
+
+        walletService.findAllForTransferOrdered(ids, Currency.USD, LockModeType.OPTIMISTIC);
+
+        verify(walletRepository).lockAllByIdsAndCurrencyOrdered(ids, Currency.USD);
+    }
+
+    @Test
+    void findAllForTransferOrdered_shouldReuseWalletsLockedByTransaction() {
+        WalletEntity usd = wallet(Currency.USD);
+        WalletEntity eur = wallet(Currency.EUR);
+        when(walletRepository.lockAllByIdsOrdered(any())).thenReturn(List.of(usd, eur));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            walletService.lockAllByIdsOrdered(List.of(usd.getId(), eur.getId()));
+
+            assertThat(walletService.findAllForTransferOrdered(List.of(eur.getId(), usd.getId()), Currency.USD, LockModeType.PESSIMISTIC_WRITE))
+                    .containsExactly(usd);
+            verify(walletRepository, never()).lockAllByIdsAndCurrencyOrdered(any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        walletService.findAllForTransferOrdered(List.of(usd.getId()), Currency.USD, LockModeType.PESSIMISTIC_WRITE);
+        verify(walletRepository).lockAllByIdsAndCurrencyOrdered(List.of(usd.getId()), Currency.USD);
+    }
+
     @Test
     void findWithLockingById_shouldCallRepo() {
         when(walletRepository.findWithLockingById(walletId)).thenReturn(Optional.of(new WalletEntity()));
@@ -60,4 +184,11 @@ class WalletServiceTest extends BaseUnitTest {
         walletService.lockAllByIdsAndCurrencyOrdered(ids, Currency.USD);
         verify(walletRepository).lockAllByIdsAndCurrencyOrdered(ids, Currency.USD);
     }
+
+    private WalletEntity wallet(Currency currency) {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(uuid());
+        wallet.setCurrency(currency);
+        return wallet;
+    }
 }
@@ -0,0 +1,138 @@
+package com.syneronix.wallet.services;
+
+import com.syneronix.wallet.domain.LedgerEntryRepository;
+import com.syneronix.wallet.domain.WalletBalanceSlotEntity;
+import com.syneronix.wallet.domain.WalletBalanceSlotRepository;
+import com.syneronix.wallet.domain.WalletEntity;
+import com.syneronix.wallet.domain.WalletRepository;
+import com.syneronix.wallet.testing.BaseUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WalletSlotServiceTest extends BaseUnitTest {
+
+    @Mock
+    private WalletBalanceSlotRepository walletBalanceSlotRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @InjectMocks
+    private WalletSlotService walletSlotService;
+
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() {
+        wallet = new WalletEntity();
+        wallet.setId(uuid());
+        wallet.setBalanceSlots(3);
+        wallet.setBalance(BigDecimal.valueOf(5));
+    }
+
+    @Test
+    void credit_shouldAddToFreeSlot_withoutReadingWalletBalance() {
+        WalletBalanceSlotEntity slot = slot(1, 20);
+        when(walletBalanceSlotRepository.lockAnyFreeSlot(wallet.getId())).thenReturn(Optional.of(slot));
+
+        walletSlotService.credit(wallet, BigDecimal.TEN);
+
+        assertThat(slot.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(30));
+        verify(walletBalanceSlotRepository).save(slot);
+        verify(walletBalanceSlotRepository, never()).findWithLockingByWalletIdAndSlot(any(), anyInt());
+        verifyNoInteractions(walletRepository, ledgerEntryRepository);
+    }
+
+    @Test
+    void credit_shouldWaitForSlot_whenAllSlotsAreBusy() {
+        WalletBalanceSlotEntity slot = slot(2, 0);
+        when(walletBalanceSlotRepository.lockAnyFreeSlot(wallet.getId())).thenReturn(Optional.empty());
+        when(walletBalanceSlotRepository.findWithLockingByWalletIdAndSlot(eq(wallet.getId()), anyInt())).thenReturn(Optional.of(slot));
+
+        walletSlotService.credit(wallet, BigDecimal.TEN);
+
+        assertThat(slot.getBalance()).isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    void settle_shouldHoldAllSlotsWhileSettling() {
+        UUID walletId = wallet.getId();
+        when(ledgerEntryRepository.settleBalances(walletId, 100)).thenReturn(7);
+
+        int settled = walletSlotService.settle(walletId, 100);
+
+        assertThat(settled).isEqualTo(7);
+        InOrder inOrder = inOrder(walletBalanceSlotRepository, ledgerEntryRepository);
+        inOrder.verify(walletBalanceSlotRepository).lockAllByWalletIdOrdered(walletId);
+        inOrder.verify(ledgerEntryRepository).settleBalances(walletId, 100);
+    }
+
+    @Test
+    void consolidate_shouldDrainSlotsUntilAmountIsCovered() {
+        WalletBalanceSlotEntity first = slot(0, 10);
+        WalletBalanceSlotEntity empty = slot(1, 0);
+        WalletBalanceSlotEntity last = slot(2, 40);
+        when(walletBalanceSlotRepository.lockAllByWalletIdOrdered(wallet.getId())).thenReturn(List.of(first, empty, last));
+
+        walletSlotService.consolidate(wallet, BigDecimal.valueOf(30));
+
+        assertThat(wallet.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(55));
+        assertThat(first.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(last.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        verify(walletBalanceSlotRepository).saveAll(List.of(first, last));
+    }
+
+    @Test
+    void consolidate_shouldStopAtFirstCoveringSlot() {
+        WalletBalanceSlotEntity first = slot(0, 50);
+        WalletBalanceSlotEntity second = slot(1, 40);
+        when(walletBalanceSlotRepository.lockAllByWalletIdOrdered(wallet.getId())).thenReturn(List.of(first, second));
+
+        walletSlotService.consolidate(wallet, BigDecimal.valueOf(30));
+
+        assertThat(wallet.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(55));
+        assertThat(second.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(40));
+    }
+
+    @Test
+    void consolidate_shouldLeaveSlots_whenTheyCannotCoverAmount() {
+        WalletBalanceSlotEntity slot = slot(0, 10);
+        when(walletBalanceSlotRepository.lockAllByWalletIdOrdered(wallet.getId())).thenReturn(List.of(slot));
+
+        walletSlotService.consolidate(wallet, BigDecimal.valueOf(100));
+
+        assertThat(wallet.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(5));
+        assertThat(slot.getBalance()).isEqualByComparingTo(BigDecimal.TEN);
+        verify(walletBalanceSlotRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void consolidate_shouldNotLockSlots_whenWalletRowCoversAmount() {
+        walletSlotService.consolidate(wallet, BigDecimal.ONE);
+
+        verifyNoInteractions(walletBalanceSlotRepository);
+    }
+
+    private WalletBalanceSlotEntity slot(int index, long balance) {
+        WalletBalanceSlotEntity slot = new WalletBalanceSlotEntity();
+        slot.setWalletId(wallet.getId());
+        slot.setSlot(index);
+        slot.setBalance(BigDecimal.valueOf(balance));
+        return slot;
+    }
+}
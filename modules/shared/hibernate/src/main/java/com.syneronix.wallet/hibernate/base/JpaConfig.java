@@ -1,14 +1,20 @@
 package com.syneronix.wallet.hibernate.base;
 
+import com.zaxxer.hikari.HikariDataSource;
 import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 @Configuration
 @EnableJpaAuditing(dateTimeProviderRef = "dateTimeAware")
@@ -20,15 +26,46 @@ public class JpaConfig {
         return new DateTimeAware();
     }
 
+    /**
+     * Primary pool. {@code spring.datasource.hikari.*} is bound onto it after construction, the way Spring Boot's own
+     * pool configuration does it.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("wallet-write");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "syneronix.datasource.read-replica", name = "enabled", havingValue = "true")
+    @ConfigurationProperties(prefix = "syneronix.datasource.read-replica.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties dataSourceProperties, ReadReplicaProperties readReplicaProperties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(readReplicaProperties.getUrl())
+                .username(readReplicaProperties.getUsername() != null
+                        ? readReplicaProperties.getUsername() : dataSourceProperties.determineUsername())
+                .password(readReplicaProperties.getPassword() != null
+                        ? readReplicaProperties.getPassword() : dataSourceProperties.determinePassword())
+                .build();
+        dataSource.setPoolName("wallet-read");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
     @Bean
     @Primary
-    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
-        DataSourceBuilder dataSourceBuilder = DataSourceBuilder.create();
-        dataSourceBuilder.driverClassName(dataSourceProperties.getDriverClassName());
-        dataSourceBuilder.url(dataSourceProperties.getUrl());
-        dataSourceBuilder.username(dataSourceProperties.getUsername());
-        dataSourceBuilder.password(dataSourceProperties.getPassword());
-        dataSourceBuilder.type(dataSourceProperties.getType());
-        return dataSourceBuilder.build();
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") ObjectProvider<HikariDataSource> readDataSource) {
+        HikariDataSource read = readDataSource.getIfAvailable();
+        if (read == null) {
+            return writeDataSource;
+        }
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(writeDataSource, read));
     }
 }
@@ -0,0 +1,37 @@
+package com.syneronix.wallet.hibernate.base;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.PartitionKey;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.Instant;
+
+/**
+ * The columns of {@link BaseEntity} for a table range partitioned by {@code created_at}. Updates and deletes of the
+ * entity also match on {@code created_at}, so they touch only the row's partition instead of probing all of them by id.
+ */
+@Getter
+@Setter
+@MappedSuperclass
+@EntityListeners(AuditingEntityListener.class)
+public abstract class PartitionedEntity {
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @CreatedDate
+    @PartitionKey
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @LastModifiedDate
+    private Instant updatedAt;
+}
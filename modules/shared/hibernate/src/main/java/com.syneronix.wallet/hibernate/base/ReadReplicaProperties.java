@@ -0,0 +1,28 @@
+package com.syneronix.wallet.hibernate.base;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Optional read replica. Its pool is configured under {@code syneronix.datasource.read-replica.hikari} the same way
+ * as the primary one under {@code spring.datasource.hikari}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "syneronix.datasource.read-replica")
+public class ReadReplicaProperties {
+    /**
+     * Route {@code @Transactional(readOnly = true)} work to the replica pool.
+     */
+    private boolean enabled = false;
+    private String url;
+    /**
+     * Defaults to {@code spring.datasource.username}.
+     */
+    private String username;
+    /**
+     * Defaults to {@code spring.datasource.password}.
+     */
+    private String password;
+}
@@ -0,0 +1,41 @@
+package com.syneronix.wallet.hibernate.base;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource writeDataSource = mock(DataSource.class);
+    private final DataSource readDataSource = mock(DataSource.class);
+    private final ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(writeDataSource, readDataSource);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_shouldUseWritePool_outsideReadOnlyTransaction() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(writeDataSource.getConnection()).thenReturn(connection);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+    }
+
+    @Test
+    void getConnection_shouldUseReadPool_inReadOnlyTransaction() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(readDataSource.getConnection()).thenReturn(connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+    }
+}
@@ -0,0 +1,97 @@
+package com.syneronix.wallet.mappers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary form of stored payloads: Smile (binary JSON) written with the application's {@link ObjectMapper}
+ * settings, optionally deflated. The first byte tells the two apart, so payloads written with and without
+ * compression can be read back alike.
+ */
+@Component
+public class PayloadCodec {
+
+    private static final byte SMILE = 0;
+    private static final byte SMILE_DEFLATED = 1;
+
+    /**
+     * Smaller payloads are not worth the deflate header and the inflater on every read.
+     */
+    private static final int MIN_COMPRESSED_SIZE = 256;
+
+    private final ObjectMapper smileMapper;
+
+    public PayloadCodec(ObjectMapper objectMapper) {
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    /**
+     * @param compress deflate the payload, kept only when it comes out smaller
+     */
+    public byte[] encode(Object obj, boolean compress) {
+        if (obj == null) {
+            return null;
+        }
+        byte[] smile;
+        try {
+            smile = smileMapper.writeValueAsBytes(obj);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode object. type=" + obj.getClass().getName(), e);
+        }
+
+        if (compress && smile.length >= MIN_COMPRESSED_SIZE) {
+            byte[] deflated = deflate(smile);
+            if (deflated.length < smile.length + 1) {
+                return deflated;
+            }
+        }
+        byte[] payload = new byte[smile.length + 1];
+        payload[0] = SMILE;
+        System.arraycopy(smile, 0, payload, 1, smile.length);
+        return payload;
+    }
+
+    public <T> T decode(byte[] payload, Class<T> type) {
+        if (payload == null || payload.length < 2) {
+            return null;
+        }
+        try {
+            return switch (payload[0]) {
+                case SMILE -> smileMapper.readValue(payload, 1, payload.length - 1, type);
+                case SMILE_DEFLATED -> {
+                    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1))) {
+                        yield smileMapper.readValue(in, type);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown payload encoding " + payload[0]);
+            };
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode payload to type. type=" + type.getName(), e);
+        }
+    }
+
+    private byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            out.write(SMILE_DEFLATED);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.syneronix.wallet.mappers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * SHA-256 fingerprints of request bodies for idempotency checks. Objects are serialized by Jackson straight into the
+ * digest, so no JSON string or byte array of the body is built; the digest of an object equals the digest of the
+ * UTF-8 bytes of {@link JsonMapper#toJson} for it, as both use the same {@link ObjectMapper}.
+ * <p>
+ * Digests are pooled rather than kept per thread, requests may run on virtual threads.
+ */
+@Component
+public class RequestFingerprinter {
+
+    public static final int DIGEST_LENGTH = 32;
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final int POOL_SIZE = 64;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ObjectWriter objectWriter;
+    private final MessageDigest prototype;
+    private final BlockingQueue<MessageDigest> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public RequestFingerprinter(ObjectMapper objectMapper) {
+        this.objectWriter = objectMapper.writer();
+        try {
+            this.prototype = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not found", e);
+        }
+    }
+
+    public byte[] sha256(Object obj) {
+        if (obj == null) {
+            return null;
+        }
+        MessageDigest digest = acquire();
+        try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            objectWriter.writeValue(out, obj);
+            return digest.digest();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to fingerprint object. type=" + obj.getClass().getName(), e);
+        } finally {
+            release(digest);
+        }
+    }
+
+    /**
+     * Fingerprint of an already serialized body, for callers that need the JSON anyway.
+     */
+    public byte[] sha256(String json) {
+        if (json == null) {
+            return null;
+        }
+        MessageDigest digest = acquire();
+        try {
+            return digest.digest(json.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            release(digest);
+        }
+    }
+
+    /**
+     * Constant-time comparison, a mismatch does not reveal how many leading bytes matched.
+     */
+    public static boolean matches(byte[] stored, byte[] current) {
+        return stored != null && current != null && MessageDigest.isEqual(stored, current);
+    }
+
+    /**
+     * The stored digest of a key, falling back to its legacy hex column for rows written before the digest column.
+     */
+    public static byte[] storedDigest(byte[] digest, String legacyHex) {
+        if (digest != null) {
+            return digest;
+        }
+        if (legacyHex == null || legacyHex.length() != 2 * DIGEST_LENGTH) {
+            return null;
+        }
+        try {
+            return HEX.parseHex(legacyHex);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static String toHex(byte[] digest) {
+        return digest == null ? null : HEX.formatHex(digest);
+    }
+
+    private MessageDigest acquire() {
+        MessageDigest digest = pool.poll();
+        if (digest != null) {
+            return digest;
+        }
+        try {
+            return (MessageDigest) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                return MessageDigest.getInstance(ALGORITHM);
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 algorithm not found", ex);
+            }
+        }
+    }
+
+    private void release(MessageDigest digest) {
+        digest.reset();
+        pool.offer(digest);
+    }
+}
@@ -0,0 +1,73 @@
+package com.syneronix.wallet.mappers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syneronix.wallet.spring.JacksonMapperConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadCodecTest {
+
+    private final ObjectMapper objectMapper = JacksonMapperConfig.newObjectMapper(new Jackson2ObjectMapperBuilder());
+    private final JsonMapper jsonMapper = new JsonMapper(objectMapper);
+    private final PayloadCodec payloadCodec = new PayloadCodec(objectMapper);
+
+    @Test
+    void encode_shouldBeSmallerThanJson_forSingleResponse() {
+        Map<String, Object> response = transaction();
+
+        byte[] smile = payloadCodec.encode(response, true);
+
+        assertThat(smile.length).isLessThan(jsonBytes(response));
+        assertThat(payloadCodec.decode(smile, Map.class)).containsEntry("id", response.get("id")).hasSize(response.size());
+    }
+
+    @Test
+    void encode_shouldShrinkLargePayloadSeveralTimes_whenDeflated() {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(transaction());
+        }
+
+        byte[] smile = payloadCodec.encode(results, false);
+        byte[] deflated = payloadCodec.encode(results, true);
+
+        assertThat(deflated.length).isLessThan(smile.length);
+        assertThat(deflated.length * 2).isLessThan(jsonBytes(results));
+        assertThat(payloadCodec.decode(deflated, List.class)).hasSize(50);
+    }
+
+    @Test
+    void encode_shouldKeepSmallPayloadUncompressed() {
+        Map<String, Object> response = transaction();
+
+        assertThat(payloadCodec.encode(response, true)).isEqualTo(payloadCodec.encode(response, false));
+    }
+
+    private int jsonBytes(Object payload) {
+        return jsonMapper.toJson(payload).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static Map<String, Object> transaction() {
+        Map<String, Object> transaction = new LinkedHashMap<>();
+        transaction.put("id", UUID.randomUUID().toString());
+        transaction.put("request_id", UUID.randomUUID().toString());
+        transaction.put("type", "TRANSFER");
+        transaction.put("status", "COMPLETED");
+        transaction.put("amount", new BigDecimal("125.50"));
+        transaction.put("currency", "USD");
+        transaction.put("from_wallet_id", UUID.randomUUID().toString());
+        transaction.put("to_wallet_id", UUID.randomUUID().toString());
+        transaction.put("created_at", "2026-10-18T12:00:00Z");
+        return transaction;
+    }
+}